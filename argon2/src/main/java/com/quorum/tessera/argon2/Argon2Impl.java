@@ -3,6 +3,8 @@ package com.quorum.tessera.argon2;
 import de.mkammerer.argon2.Argon2Advanced;
 import de.mkammerer.argon2.Argon2Factory;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +14,10 @@ public class Argon2Impl implements Argon2 {
 
   private static final ArgonOptions DEFAULT_OPTIONS = new ArgonOptions("i", 10, 1048576, 4);
 
+  // the instances hold no state of their own, so one per type is shared by every hash
+  private static final ConcurrentMap<Argon2Factory.Argon2Types, Argon2Advanced> INSTANCES =
+      new ConcurrentHashMap<>();
+
   @Override
   public ArgonResult hash(final ArgonOptions options, final char[] password, final byte[] salt) {
     final Argon2Advanced argon2 = this.getArgon2Instance(options.getAlgorithm());
@@ -32,7 +38,8 @@ public class Argon2Impl implements Argon2 {
 
   /**
    * The string form of the algorithm to use. If an invalid algorithm is chosen, a default of
-   * Argon2i is chosen.
+   * Argon2i is chosen. The instance is created the first time the algorithm is used and reused
+   * afterwards.
    *
    * @param algorithm the algorithm to use
    * @return an instance of the chosen algorithm
@@ -40,15 +47,21 @@ public class Argon2Impl implements Argon2 {
   private Argon2Advanced getArgon2Instance(final String algorithm) {
     LOGGER.debug("Searching for the Argon2 algorithm {}", algorithm);
 
+    final Argon2Factory.Argon2Types type;
     switch (algorithm) {
       case "d":
-        return Argon2Factory.createAdvanced(Argon2Factory.Argon2Types.ARGON2d);
+        type = Argon2Factory.Argon2Types.ARGON2d;
+        break;
       case "id":
-        return Argon2Factory.createAdvanced(Argon2Factory.Argon2Types.ARGON2id);
+        type = Argon2Factory.Argon2Types.ARGON2id;
+        break;
       case "i":
-        return Argon2Factory.createAdvanced(Argon2Factory.Argon2Types.ARGON2i);
+        type = Argon2Factory.Argon2Types.ARGON2i;
+        break;
       default:
         throw new IllegalArgumentException("Invalid Argon2 algorithm " + algorithm);
     }
+
+    return INSTANCES.computeIfAbsent(type, Argon2Factory::createAdvanced);
   }
 }
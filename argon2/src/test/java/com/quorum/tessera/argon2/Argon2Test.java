@@ -2,8 +2,10 @@ package com.quorum.tessera.argon2;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mockStatic;
 
 import de.mkammerer.argon2.Argon2Constants;
+import de.mkammerer.argon2.Argon2Factory;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import org.junit.Test;
@@ -105,4 +107,19 @@ public class Argon2Test {
 
     assertThat(hashOne.getOptions().getAlgorithm()).isEqualTo(options.getAlgorithm());
   }
+
+  @Test
+  public void argon2InstanceIsReusedForSameAlgorithm() {
+    final byte[] salt = new byte[Argon2Constants.DEFAULT_SALT_LENGTH];
+    secureRandom.nextBytes(salt);
+
+    final ArgonResult first = argon2.hash(TEST_OPTIONS, "password".toCharArray(), salt);
+
+    try (var argon2Factory = mockStatic(Argon2Factory.class)) {
+      final ArgonResult second = argon2.hash(TEST_OPTIONS, "password".toCharArray(), salt);
+
+      assertThat(second.getHash()).isEqualTo(first.getHash());
+      argon2Factory.verifyNoInteractions();
+    }
+  }
 }
@@ -4,6 +4,7 @@ import com.quorum.tessera.config.*;
 import com.quorum.tessera.config.keypairs.ConfigKeyPair;
 import com.quorum.tessera.config.keys.KeyEncryptor;
 import com.quorum.tessera.config.keys.KeyEncryptorFactory;
+import com.quorum.tessera.config.keys.KeyUnlocker;
 import com.quorum.tessera.config.util.KeyDataUtil;
 import com.quorum.tessera.passwords.PasswordReader;
 import com.quorum.tessera.passwords.PasswordReaderFactory;
@@ -16,6 +17,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class CliKeyPasswordResolver implements KeyPasswordResolver {
 
@@ -81,11 +83,21 @@ public class CliKeyPasswordResolver implements KeyPasswordResolver {
 
     final KeyEncryptor keyEncryptor = KeyEncryptorFactory.newFactory().create(encryptorConfig);
 
-    IntStream.range(0, keyConfiguration.getKeyData().size())
+    // unlock all the locked keys with passwords at once, then check them one by one against the
+    // same key pairs, asking for the passwords that are missing or wrong
+    final ConfigKeyPair[] lockedKeyPairs = new ConfigKeyPair[keyPairs.size()];
+    IntStream.range(0, keyPairs.size())
+        .filter(i -> isLocked(keyPairs.get(i)))
+        .forEach(i -> lockedKeyPairs[i] = KeyDataUtil.unmarshal(keyPairs.get(i), keyEncryptor));
+
+    KeyUnlocker.create(encryptorConfig)
+        .unlock(Stream.of(lockedKeyPairs).filter(Objects::nonNull).collect(Collectors.toList()));
+
+    IntStream.range(0, keyPairs.size())
+        .filter(keyNumber -> lockedKeyPairs[keyNumber] != null)
         .forEachOrdered(
             keyNumber ->
-                getSingleKeyPassword(
-                    keyNumber, keyConfiguration.getKeyData().get(keyNumber), keyEncryptor));
+                readMissingPassword(keyNumber, keyPairs.get(keyNumber), lockedKeyPairs[keyNumber]));
   }
 
   // TODO: make private
@@ -93,46 +105,51 @@ public class CliKeyPasswordResolver implements KeyPasswordResolver {
   public void getSingleKeyPassword(
       final int keyNumber, final KeyData keyPair, final KeyEncryptor keyEncryptor) {
 
+    if (isLocked(keyPair)) {
+      readMissingPassword(keyNumber, keyPair, KeyDataUtil.unmarshal(keyPair, keyEncryptor));
+    }
+  }
+
+  private static boolean isLocked(final KeyData keyPair) {
     final boolean isInline = KeyDataUtil.isInline(keyPair);
     final boolean isFilesystem = KeyDataUtil.isFileSystem(keyPair);
 
     if (!isInline && !isFilesystem) {
       // some other key type that doesn't use passwords, skip
-      return;
+      return false;
     }
 
-    final boolean isLocked = KeyDataUtil.isLocked(keyPair);
-
-    if (isLocked) {
-
-      ConfigKeyPair configKeyPair = KeyDataUtil.unmarshal(keyPair, keyEncryptor);
-
-      int currentAttemptNumber = MAX_PASSWORD_ATTEMPTS;
-      while (currentAttemptNumber > 0) {
-
-        if (Objects.isNull(configKeyPair.getPassword())
-            || configKeyPair.getPassword().length == 0
-            || Optional.ofNullable(configKeyPair.getPrivateKey())
-                .filter(s -> s.contains("NACL_FAILURE"))
-                .isPresent()) {
-
-          final String attemptOutput =
-              "Attempt "
-                  + (MAX_PASSWORD_ATTEMPTS - currentAttemptNumber + 1)
-                  + " of "
-                  + MAX_PASSWORD_ATTEMPTS
-                  + ".";
-          System.out.printf("Password for key[%s] missing or invalid.", keyNumber);
-          System.out.println();
-          System.out.printf("%s Enter a password for the key", attemptOutput);
-          System.out.println();
-
-          final char[] pass = passwordReader.readPasswordFromConsole();
-          configKeyPair.withPassword(pass);
-          keyPair.setPassword(pass);
-        }
-        currentAttemptNumber--;
+    return KeyDataUtil.isLocked(keyPair);
+  }
+
+  private void readMissingPassword(
+      final int keyNumber, final KeyData keyPair, final ConfigKeyPair configKeyPair) {
+
+    int currentAttemptNumber = MAX_PASSWORD_ATTEMPTS;
+    while (currentAttemptNumber > 0) {
+
+      if (Objects.isNull(configKeyPair.getPassword())
+          || configKeyPair.getPassword().length == 0
+          || Optional.ofNullable(configKeyPair.getPrivateKey())
+              .filter(s -> s.contains("NACL_FAILURE"))
+              .isPresent()) {
+
+        final String attemptOutput =
+            "Attempt "
+                + (MAX_PASSWORD_ATTEMPTS - currentAttemptNumber + 1)
+                + " of "
+                + MAX_PASSWORD_ATTEMPTS
+                + ".";
+        System.out.printf("Password for key[%s] missing or invalid.", keyNumber);
+        System.out.println();
+        System.out.printf("%s Enter a password for the key", attemptOutput);
+        System.out.println();
+
+        final char[] pass = passwordReader.readPasswordFromConsole();
+        configKeyPair.withPassword(pass);
+        keyPair.setPassword(pass);
       }
+      currentAttemptNumber--;
     }
   }
 }
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.config.*;
 import com.quorum.tessera.config.keys.KeyEncryptor;
+import com.quorum.tessera.config.keys.KeyEncryptorFactory;
 import com.quorum.tessera.encryption.EncryptorException;
 import com.quorum.tessera.encryption.PrivateKey;
 import com.quorum.tessera.passwords.PasswordReader;
@@ -18,6 +19,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -282,6 +284,48 @@ public class CliKeyPasswordResolverTest {
     verifyZeroInteractions(passwordReader);
   }
 
+  @Test
+  public void lockedKeysAreUnlockedOnceBeforeBeingChecked() {
+    final List<KeyData> keyPairs = List.of(lockedKeyData("one"), lockedKeyData("two"));
+    final KeyConfiguration keyConfig =
+        new KeyConfiguration(null, List.of("one", "two"), keyPairs, null, null);
+    final Config config = new Config();
+    config.setKeys(keyConfig);
+
+    when(keyEncryptor.decryptPrivateKey(any(), any())).thenReturn(mock(PrivateKey.class));
+
+    final KeyEncryptorFactory keyEncryptorFactory = mock(KeyEncryptorFactory.class);
+    when(keyEncryptorFactory.create(any())).thenReturn(keyEncryptor);
+
+    try (var staticKeyEncryptorFactory = mockStatic(KeyEncryptorFactory.class)) {
+      staticKeyEncryptorFactory
+          .when(KeyEncryptorFactory::newFactory)
+          .thenReturn(keyEncryptorFactory);
+
+      this.cliKeyPasswordResolver.resolveKeyPasswords(config);
+    }
+
+    verify(keyEncryptor).decryptPrivateKey(any(), eq(keyPairs.get(0).getPassword()));
+    verify(keyEncryptor).decryptPrivateKey(any(), eq(keyPairs.get(1).getPassword()));
+    verifyNoMoreInteractions(keyEncryptor);
+    verifyZeroInteractions(passwordReader);
+  }
+
+  private static KeyData lockedKeyData(final String publicKey) {
+    final KeyData keyData = new KeyData();
+    keyData.setPublicKey(publicKey);
+    keyData.setConfig(
+        new KeyDataConfig(
+            new PrivateKeyData(
+                null,
+                "yb7M8aRJzgxoJM2NecAPcmSVWDW1tRjv",
+                "MIqkFlgR2BWEpx2U0rObGg==",
+                "Gtvp1t6XZEiFVyaE/LHiP1+yvOIBBoiOL+bKeqcKgpiNt4j1oDDoqCC47UJpmQRC",
+                new ArgonOptions("i", 10, 1048576, 4)),
+            PrivateKeyType.LOCKED));
+    return keyData;
+  }
+
   //    @Test
   //    public void invalidRequestedPasswordRerequests() {
   //
@@ -12,6 +12,7 @@ import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -100,6 +101,8 @@ public class KeyEncryptorImpl implements KeyEncryptor {
     LOGGER.info("Decrypting private key");
     LOGGER.debug("Decrypting private key {} using password {}", privateKey.getValue(), password);
 
+    final long start = System.nanoTime();
+
     final byte[] salt = this.decoder.decode(privateKey.getAsalt());
 
     final ArgonResult argonResult =
@@ -120,7 +123,12 @@ public class KeyEncryptorImpl implements KeyEncryptor {
 
     PrivateKey outcome = PrivateKey.from(originalKey);
 
-    LOGGER.info("Decrypted private key");
+    LOGGER.info(
+        "Decrypted private key in {}ms (argon2{}, {} iterations, {} KiB)",
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        privateKey.getArgonOptions().getAlgorithm(),
+        privateKey.getArgonOptions().getIterations(),
+        privateKey.getArgonOptions().getMemory());
     LOGGER.debug("Decrypted private key {}", outcome.encodeToBase64());
 
     return outcome;
@@ -0,0 +1,206 @@
+package com.quorum.tessera.config.keys;
+
+import com.quorum.tessera.config.ArgonOptions;
+import com.quorum.tessera.config.EncryptorConfig;
+import com.quorum.tessera.config.KeyDataConfig;
+import com.quorum.tessera.config.PrivateKeyType;
+import com.quorum.tessera.config.keypairs.ConfigKeyPair;
+import com.quorum.tessera.config.keypairs.FilesystemKeyPair;
+import com.quorum.tessera.config.keypairs.InlineKeypair;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unlocks the private keys of several key pairs at the same time, rather than one after another as
+ * each is first used. Every locked key is hashed with Argon2 using the memory given in its own
+ * options, so the keys unlocked at once are limited both by a number of threads and by a total
+ * amount of memory (in KiB) that they may use between them. A key that needs more memory than the
+ * whole budget is unlocked on its own.
+ *
+ * <p>The unlocked key is kept by the key pair, so later calls to {@link
+ * ConfigKeyPair#getPrivateKey()} return it without hashing again. Key pairs that are not locked, or
+ * have no password yet, are left alone, as are keys that fail to unlock; those fail again, and are
+ * reported, where the key is next used.
+ */
+public class KeyUnlocker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KeyUnlocker.class);
+
+  public static final String MEMORY_BUDGET_PROPERTY = "keyUnlockMemoryBudget";
+
+  public static final String THREADS_PROPERTY = "keyUnlockThreads";
+
+  /** The smallest default budget, enough for one key locked with the default Argon2 options */
+  public static final int MIN_DEFAULT_MEMORY_BUDGET = 1048576;
+
+  private final int memoryBudget;
+
+  private final int threads;
+
+  public KeyUnlocker(final int memoryBudget, final int threads) {
+    if (memoryBudget <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("memoryBudget and threads must be positive");
+    }
+    this.memoryBudget = memoryBudget;
+    this.threads = threads;
+  }
+
+  /**
+   * Creates an unlocker using the {@value #MEMORY_BUDGET_PROPERTY} and {@value #THREADS_PROPERTY}
+   * properties of the encryptor, which default to half of the free physical memory, but no less
+   * than {@value #MIN_DEFAULT_MEMORY_BUDGET} KiB, and the number of available processors
+   *
+   * @param encryptorConfig the encryptor configuration, which may be null
+   * @return the unlocker to use for the keys of this node
+   */
+  public static KeyUnlocker create(final EncryptorConfig encryptorConfig) {
+    final Map<String, String> properties =
+        Optional.ofNullable(encryptorConfig).map(EncryptorConfig::getProperties).orElse(Map.of());
+    final int defaultMemoryBudget = defaultMemoryBudget();
+    final int defaultThreads = Runtime.getRuntime().availableProcessors();
+
+    try {
+      final int memoryBudget =
+          Integer.parseInt(
+              properties.getOrDefault(MEMORY_BUDGET_PROPERTY, String.valueOf(defaultMemoryBudget)));
+      final int threads =
+          Integer.parseInt(
+              properties.getOrDefault(THREADS_PROPERTY, String.valueOf(defaultThreads)));
+      if (memoryBudget > 0 && threads > 0) {
+        return new KeyUnlocker(memoryBudget, threads);
+      }
+      LOGGER.warn("Key unlocking properties must be positive. Will use default values instead");
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse key unlocking properties. Will use default values instead");
+    }
+    return new KeyUnlocker(defaultMemoryBudget, defaultThreads);
+  }
+
+  /**
+   * Argon2 hashes in native memory rather than on the heap, so the default budget is taken from
+   * the physical memory that is free, leaving half of it for everything else
+   *
+   * @return the memory budget in KiB to use when none is configured
+   */
+  static int defaultMemoryBudget() {
+    final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (!(os instanceof com.sun.management.OperatingSystemMXBean)) {
+      return MIN_DEFAULT_MEMORY_BUDGET;
+    }
+    final long freeKib =
+        ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / 1024;
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_DEFAULT_MEMORY_BUDGET, freeKib / 2));
+  }
+
+  /**
+   * Unlocks the locked keys among the given key pairs, returning once all of them have been tried
+   *
+   * @param keyPairs the key pairs whose keys to unlock
+   */
+  public void unlock(final List<? extends ConfigKeyPair> keyPairs) {
+    final List<InlineKeypair> lockedKeyPairs =
+        keyPairs.stream()
+            .map(KeyUnlocker::toInline)
+            .filter(Objects::nonNull)
+            .filter(KeyUnlocker::isUnlockable)
+            .collect(Collectors.toList());
+
+    if (lockedKeyPairs.isEmpty()) {
+      return;
+    }
+
+    LOGGER.info(
+        "Unlocking {} keys on up to {} threads within {} KiB",
+        lockedKeyPairs.size(),
+        threads,
+        memoryBudget);
+
+    final long start = System.nanoTime();
+    final Semaphore memory = new Semaphore(memoryBudget, true);
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(threads, lockedKeyPairs.size()));
+    try {
+      final List<Future<?>> unlocked =
+          lockedKeyPairs.stream()
+              .map(keyPair -> executor.submit(() -> unlock(keyPair, memory)))
+              .collect(Collectors.toList());
+
+      for (final Future<?> future : unlocked) {
+        try {
+          future.get();
+        } catch (final ExecutionException ex) {
+          LOGGER.debug("Unable to unlock key ahead of use", ex.getCause());
+        }
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    LOGGER.info(
+        "Unlocked {} keys in {}ms",
+        lockedKeyPairs.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private Void unlock(final InlineKeypair keyPair, final Semaphore memory)
+      throws InterruptedException {
+    final int permits =
+        Math.min(keyPair.getPrivateKeyConfig().getArgonOptions().getMemory(), memoryBudget);
+
+    final long waitStart = System.nanoTime();
+    memory.acquire(permits);
+    try {
+      final long start = System.nanoTime();
+      keyPair.getPrivateKey();
+      LOGGER.info(
+          "Unlocked key {} in {}ms after waiting {}ms for memory",
+          keyPair.getPublicKey(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          TimeUnit.NANOSECONDS.toMillis(start - waitStart));
+    } finally {
+      memory.release(permits);
+    }
+    return null;
+  }
+
+  private static InlineKeypair toInline(final ConfigKeyPair keyPair) {
+    if (keyPair instanceof InlineKeypair) {
+      return (InlineKeypair) keyPair;
+    }
+    if (keyPair instanceof FilesystemKeyPair) {
+      return ((FilesystemKeyPair) keyPair).getInlineKeypair();
+    }
+    return null;
+  }
+
+  private static boolean isUnlockable(final InlineKeypair keyPair) {
+    final KeyDataConfig config = keyPair.getPrivateKeyConfig();
+    return config != null
+        && config.getType() == PrivateKeyType.LOCKED
+        && keyPair.getPassword() != null
+        && Optional.ofNullable(config.getArgonOptions()).map(ArgonOptions::getMemory).isPresent();
+  }
+
+  int getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  int getThreads() {
+    return threads;
+  }
+}
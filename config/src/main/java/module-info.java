@@ -1,10 +1,12 @@
 import com.quorum.tessera.config.internal.ConfigFactoryProvider;
 
 open module tessera.config {
+  requires java.management;
   requires java.validation;
   requires java.xml;
   requires java.xml.bind;
   requires jasypt;
+  requires jdk.management;
   requires org.apache.commons.lang3;
   requires org.slf4j;
   requires tessera.argontwo;
@@ -0,0 +1,204 @@
+package com.quorum.tessera.config.keys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.config.ArgonOptions;
+import com.quorum.tessera.config.EncryptorConfig;
+import com.quorum.tessera.config.KeyDataConfig;
+import com.quorum.tessera.config.PrivateKeyData;
+import com.quorum.tessera.config.PrivateKeyType;
+import com.quorum.tessera.config.keypairs.InlineKeypair;
+import com.quorum.tessera.encryption.PrivateKey;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeyUnlockerTest {
+
+  private KeyEncryptor keyEncryptor;
+
+  @Before
+  public void onSetUp() {
+    keyEncryptor = mock(KeyEncryptor.class);
+  }
+
+  @After
+  public void onTearDown() {
+    verifyNoMoreInteractions(keyEncryptor);
+  }
+
+  @Test
+  public void lockedKeysAreUnlockedOnce() {
+    when(keyEncryptor.decryptPrivateKey(any(), any()))
+        .thenReturn(PrivateKey.from("PRIVATE_KEY".getBytes()));
+
+    final List<InlineKeypair> keyPairs = lockedKeyPairs(3, 1024);
+
+    new KeyUnlocker(4096, 2).unlock(keyPairs);
+
+    verify(keyEncryptor, times(3)).decryptPrivateKey(any(), any());
+
+    keyPairs.forEach(
+        keyPair ->
+            assertThat(keyPair.getPrivateKey())
+                .isEqualTo(PrivateKey.from("PRIVATE_KEY".getBytes()).encodeToBase64()));
+  }
+
+  @Test
+  public void keysThatAreNotLockedOrHaveNoPasswordAreSkipped() {
+    final InlineKeypair unlocked =
+        new InlineKeypair(
+            "PUBLIC_KEY",
+            new KeyDataConfig(
+                new PrivateKeyData("PRIVATE_KEY", null, null, null, null), PrivateKeyType.UNLOCKED),
+            keyEncryptor);
+    final InlineKeypair noPassword = lockedKeyPair(1024);
+
+    new KeyUnlocker(4096, 2).unlock(List.of(unlocked, noPassword));
+
+    verifyNoInteractions(keyEncryptor);
+  }
+
+  @Test
+  public void keysAreUnlockedConcurrently() {
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    when(keyEncryptor.decryptPrivateKey(any(), any()))
+        .then(
+            invocation -> {
+              bothStarted.countDown();
+              bothStarted.await(5, TimeUnit.SECONDS);
+              return PrivateKey.from("PRIVATE_KEY".getBytes());
+            });
+
+    new KeyUnlocker(4096, 2).unlock(lockedKeyPairs(2, 1024));
+
+    assertThat(bothStarted.getCount()).isZero();
+    verify(keyEncryptor, times(2)).decryptPrivateKey(any(), any());
+  }
+
+  @Test
+  public void threadLimitIsRespected() {
+    final AtomicInteger maxConcurrent = trackConcurrency();
+
+    new KeyUnlocker(1048576, 2).unlock(lockedKeyPairs(6, 1024));
+
+    assertThat(maxConcurrent).hasValueLessThanOrEqualTo(2);
+    verify(keyEncryptor, times(6)).decryptPrivateKey(any(), any());
+  }
+
+  @Test
+  public void memoryBudgetIsRespected() {
+    final AtomicInteger maxConcurrent = trackConcurrency();
+
+    new KeyUnlocker(2048, 4).unlock(lockedKeyPairs(6, 1024));
+
+    assertThat(maxConcurrent).hasValueLessThanOrEqualTo(2);
+    verify(keyEncryptor, times(6)).decryptPrivateKey(any(), any());
+  }
+
+  @Test
+  public void keyNeedingMoreThanTheBudgetIsUnlockedOnItsOwn() {
+    when(keyEncryptor.decryptPrivateKey(any(), any()))
+        .thenReturn(PrivateKey.from("PRIVATE_KEY".getBytes()));
+
+    final List<InlineKeypair> keyPairs = lockedKeyPairs(1, 1048576);
+
+    new KeyUnlocker(1024, 2).unlock(keyPairs);
+
+    verify(keyEncryptor).decryptPrivateKey(any(), any());
+  }
+
+  @Test
+  public void failureToUnlockIsLeftForTheKeyToReport() {
+    when(keyEncryptor.decryptPrivateKey(any(), any())).thenThrow(new IllegalStateException());
+
+    final List<InlineKeypair> keyPairs = lockedKeyPairs(2, 1024);
+
+    new KeyUnlocker(4096, 2).unlock(keyPairs);
+
+    verify(keyEncryptor, times(2)).decryptPrivateKey(any(), any());
+  }
+
+  @Test
+  public void createUsesEncryptorProperties() {
+    final EncryptorConfig encryptorConfig = new EncryptorConfig();
+    encryptorConfig.setProperties(
+        Map.of(KeyUnlocker.MEMORY_BUDGET_PROPERTY, "2048", KeyUnlocker.THREADS_PROPERTY, "3"));
+
+    final KeyUnlocker keyUnlocker = KeyUnlocker.create(encryptorConfig);
+
+    assertThat(keyUnlocker.getMemoryBudget()).isEqualTo(2048);
+    assertThat(keyUnlocker.getThreads()).isEqualTo(3);
+  }
+
+  @Test
+  public void createUsesDefaultsWhenPropertiesAreMissingOrInvalid() {
+    final EncryptorConfig invalid = new EncryptorConfig();
+    invalid.setProperties(Map.of(KeyUnlocker.MEMORY_BUDGET_PROPERTY, "lots"));
+    final EncryptorConfig negative = new EncryptorConfig();
+    negative.setProperties(Map.of(KeyUnlocker.THREADS_PROPERTY, "-1"));
+
+    for (final EncryptorConfig encryptorConfig :
+        new EncryptorConfig[] {null, new EncryptorConfig(), invalid, negative}) {
+      final KeyUnlocker keyUnlocker = KeyUnlocker.create(encryptorConfig);
+
+      assertThat(keyUnlocker.getMemoryBudget())
+          .isGreaterThanOrEqualTo(KeyUnlocker.MIN_DEFAULT_MEMORY_BUDGET);
+      assertThat(keyUnlocker.getThreads()).isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  @Test
+  public void defaultMemoryBudgetFitsAtLeastOneDefaultKey() {
+    assertThat(KeyUnlocker.defaultMemoryBudget())
+        .isGreaterThanOrEqualTo(KeyUnlocker.MIN_DEFAULT_MEMORY_BUDGET);
+  }
+
+  @Test
+  public void budgetAndThreadsMustBePositive() {
+    assertThat(catchThrowable(() -> new KeyUnlocker(0, 1)))
+        .isExactlyInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> new KeyUnlocker(1, 0)))
+        .isExactlyInstanceOf(IllegalArgumentException.class);
+  }
+
+  private AtomicInteger trackConcurrency() {
+    final AtomicInteger current = new AtomicInteger();
+    final AtomicInteger max = new AtomicInteger();
+    when(keyEncryptor.decryptPrivateKey(any(), any()))
+        .then(
+            invocation -> {
+              max.accumulateAndGet(current.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              current.decrementAndGet();
+              return PrivateKey.from("PRIVATE_KEY".getBytes());
+            });
+    return max;
+  }
+
+  private List<InlineKeypair> lockedKeyPairs(final int count, final int memory) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> lockedKeyPair(memory))
+        .peek(keyPair -> keyPair.withPassword("password".toCharArray()))
+        .collect(Collectors.toList());
+  }
+
+  private InlineKeypair lockedKeyPair(final int memory) {
+    return new InlineKeypair(
+        "PUBLIC_KEY",
+        new KeyDataConfig(
+            new PrivateKeyData(null, "NONCE", "SALT", "BOX", new ArgonOptions("i", 10, memory, 4)),
+            PrivateKeyType.LOCKED),
+        keyEncryptor);
+  }
+}
@@ -16,6 +16,7 @@ public class IntervalPropertyHelperTest {
     assertThat(util.partyInfoInterval()).isEqualTo(5000);
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(2000);
     assertThat(util.syncInterval()).isEqualTo(60000);
+    assertThat(util.outboxDispatchInterval()).isEqualTo(1000);
     assertThat(util.resendWaitTime()).isEqualTo("7200000");
   }
 
@@ -25,6 +26,7 @@ public class IntervalPropertyHelperTest {
     props.put("partyInfoInterval", "2000");
     props.put("enclaveKeySyncInterval", "3000");
     props.put("syncInterval", "4000");
+    props.put("outboxDispatchInterval", "500");
     props.put("resendWaitTime", "4000");
 
     final IntervalPropertyHelper util = new IntervalPropertyHelper(props);
@@ -32,6 +34,7 @@ public class IntervalPropertyHelperTest {
     assertThat(util.partyInfoInterval()).isEqualTo(2000);
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(3000);
     assertThat(util.syncInterval()).isEqualTo(4000);
+    assertThat(util.outboxDispatchInterval()).isEqualTo(500);
     assertThat(util.resendWaitTime()).isEqualTo("4000");
   }
 
@@ -41,6 +44,7 @@ public class IntervalPropertyHelperTest {
     props.put("partyInfoInterval", null);
     props.put("enclaveKeySyncInterval", "abc");
     props.put("syncInterval", "4000L");
+    props.put("outboxDispatchInterval", "x");
     props.put("resendWaitTime", "4000L");
 
     final IntervalPropertyHelper util = new IntervalPropertyHelper(props);
@@ -48,6 +52,7 @@ public class IntervalPropertyHelperTest {
     assertThat(util.partyInfoInterval()).isEqualTo(5000);
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(2000);
     assertThat(util.syncInterval()).isEqualTo(60000);
+    assertThat(util.outboxDispatchInterval()).isEqualTo(1000);
     assertThat(util.resendWaitTime()).isEqualTo("7200000");
   }
 }
@@ -0,0 +1 @@
+CREATE INDEX ENCRYPTED_TRANSACTION_TIMESTAMP ON ENCRYPTED_TRANSACTION (TIMESTAMP, HASH);
\ No newline at end of file
@@ -0,0 +1,2 @@
+CREATE TABLE PUSH_OUTBOX (HASH LONGVARBINARY NOT NULL, RECIPIENT LONGVARBINARY NOT NULL, ATTEMPTS INTEGER NOT NULL, NEXT_ATTEMPT BIGINT NOT NULL, TIMESTAMP BIGINT, PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
\ No newline at end of file
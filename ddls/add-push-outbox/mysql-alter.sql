@@ -0,0 +1,2 @@
+CREATE TABLE PUSH_OUTBOX (HASH VARBINARY(100) NOT NULL, RECIPIENT VARBINARY(100) NOT NULL, ATTEMPTS INTEGER NOT NULL, NEXT_ATTEMPT BIGINT NOT NULL, TIMESTAMP BIGINT, PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
\ No newline at end of file
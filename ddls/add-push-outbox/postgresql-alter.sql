@@ -0,0 +1,2 @@
+CREATE TABLE PUSH_OUTBOX (HASH BYTEA NOT NULL, RECIPIENT BYTEA NOT NULL, ATTEMPTS INTEGER NOT NULL, NEXT_ATTEMPT DECIMAL(19) NOT NULL, TIMESTAMP DECIMAL(19), PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
\ No newline at end of file
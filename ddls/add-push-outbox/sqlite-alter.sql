@@ -0,0 +1,2 @@
+CREATE TABLE PUSH_OUTBOX (HASH BLOB NOT NULL, RECIPIENT BLOB NOT NULL, ATTEMPTS INTEGER NOT NULL, NEXT_ATTEMPT NUMBER(19) NOT NULL, TIMESTAMP NUMBER(19), PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE TABLE RECIPIENT_KEY_HINT (HASH LONGVARBINARY NOT NULL, RECIPIENT_KEY LONGVARBINARY NOT NULL, PRIMARY KEY (HASH));
\ No newline at end of file
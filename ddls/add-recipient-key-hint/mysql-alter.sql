@@ -0,0 +1 @@
+CREATE TABLE RECIPIENT_KEY_HINT (HASH VARBINARY(100) NOT NULL, RECIPIENT_KEY VARBINARY(100) NOT NULL, PRIMARY KEY (HASH));
\ No newline at end of file
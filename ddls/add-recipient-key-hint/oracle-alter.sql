@@ -0,0 +1 @@
+CREATE TABLE RECIPIENT_KEY_HINT (HASH RAW(100) NOT NULL, RECIPIENT_KEY RAW(100) NOT NULL, PRIMARY KEY (HASH));
\ No newline at end of file
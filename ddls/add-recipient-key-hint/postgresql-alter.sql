@@ -0,0 +1 @@
+CREATE TABLE RECIPIENT_KEY_HINT (HASH BYTEA NOT NULL, RECIPIENT_KEY BYTEA NOT NULL, PRIMARY KEY (HASH));
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE TABLE RECIPIENT_KEY_HINT (HASH BLOB NOT NULL, RECIPIENT_KEY BLOB NOT NULL, PRIMARY KEY (HASH));
\ No newline at end of file
@@ -1,3 +1,7 @@
 CREATE TABLE ENCRYPTED_TRANSACTION (ENCODED_PAYLOAD BLOB NOT NULL, HASH RAW(100) NOT NULL, TIMESTAMP NUMBER(19), PRIMARY KEY (HASH));
 CREATE TABLE ENCRYPTED_RAW_TRANSACTION (ENCRYPTED_KEY BLOB NOT NULL, ENCRYPTED_PAYLOAD BLOB NOT NULL, NONCE BLOB NOT NULL, SENDER BLOB NOT NULL, TIMESTAMP NUMBER(19), HASH RAW(100) NOT NULL, PRIMARY KEY (HASH));
 CREATE TABLE PRIVACY_GROUP(ID RAW(100) NOT NULL, LOOKUP_ID BLOB NOT NULL, DATA BLOB NOT NULL, TIMESTAMP NUMBER(19), PRIMARY KEY (ID));
+CREATE TABLE PUSH_OUTBOX (HASH RAW(100) NOT NULL, RECIPIENT RAW(100) NOT NULL, ATTEMPTS NUMBER(10) NOT NULL, NEXT_ATTEMPT NUMBER(19) NOT NULL, TIMESTAMP NUMBER(19), PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
+CREATE TABLE RECIPIENT_KEY_HINT (HASH RAW(100) NOT NULL, RECIPIENT_KEY RAW(100) NOT NULL, PRIMARY KEY (HASH));
+CREATE INDEX ENCRYPTED_TRANSACTION_TIMESTAMP ON ENCRYPTED_TRANSACTION (TIMESTAMP, HASH);
@@ -1,3 +1,7 @@
 CREATE TABLE ENCRYPTED_TRANSACTION (ENCODED_PAYLOAD BYTEA NOT NULL, HASH BYTEA NOT NULL, TIMESTAMP DECIMAL(19), PRIMARY KEY (HASH));
 CREATE TABLE ENCRYPTED_RAW_TRANSACTION (ENCRYPTED_KEY BYTEA NOT NULL, ENCRYPTED_PAYLOAD BYTEA NOT NULL, NONCE BYTEA NOT NULL, SENDER BYTEA NOT NULL, TIMESTAMP DECIMAL(19), HASH BYTEA NOT NULL, PRIMARY KEY (HASH));
 CREATE TABLE PRIVACY_GROUP(ID BYTEA NOT NULL, LOOKUP_ID BYTEA NOT NULL, DATA BYTEA NOT NULL, TIMESTAMP DECIMAL(19), PRIMARY KEY (ID));
+CREATE TABLE PUSH_OUTBOX (HASH BYTEA NOT NULL, RECIPIENT BYTEA NOT NULL, ATTEMPTS INTEGER NOT NULL, NEXT_ATTEMPT DECIMAL(19) NOT NULL, TIMESTAMP DECIMAL(19), PRIMARY KEY (HASH, RECIPIENT));
+CREATE INDEX PUSH_OUTBOX_NEXT_ATTEMPT ON PUSH_OUTBOX (NEXT_ATTEMPT);
+CREATE TABLE RECIPIENT_KEY_HINT (HASH BYTEA NOT NULL, RECIPIENT_KEY BYTEA NOT NULL, PRIMARY KEY (HASH));
+CREATE INDEX ENCRYPTED_TRANSACTION_TIMESTAMP ON ENCRYPTED_TRANSACTION (TIMESTAMP, HASH);
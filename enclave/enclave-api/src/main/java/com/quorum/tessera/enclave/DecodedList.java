@@ -0,0 +1,39 @@
+package com.quorum.tessera.enclave;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * An unmodifiable list over the elements of an encoded array, where each element is only decoded
+ * the first time it is read. The positions of the elements are found when the payload is decoded,
+ * so the list knows its size without decoding anything.
+ */
+final class DecodedList<T> extends AbstractList<T> implements RandomAccess {
+
+  private final AtomicReferenceArray<T> elements;
+
+  private final IntFunction<T> decoder;
+
+  DecodedList(final int size, final IntFunction<T> decoder) {
+    this.elements = new AtomicReferenceArray<>(size);
+    this.decoder = Objects.requireNonNull(decoder);
+  }
+
+  @Override
+  public T get(final int index) {
+    final T element = elements.get(index);
+    if (element != null) {
+      return element;
+    }
+    final T decoded = decoder.apply(index);
+    return elements.compareAndSet(index, null, decoded) ? decoded : elements.get(index);
+  }
+
+  @Override
+  public int size() {
+    return elements.length();
+  }
+}
@@ -1,8 +1,11 @@
 package com.quorum.tessera.enclave;
 
+import com.quorum.tessera.encryption.EncryptorException;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.service.Service;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
 
@@ -117,6 +120,51 @@ public interface Enclave extends Service {
    */
   byte[] createNewRecipientBox(EncodedPayload payload, PublicKey recipientKey);
 
+  /**
+   * Attempts to decrypt a transaction with each of the given keys. Each key is tried on its own, so
+   * a key that cannot decrypt the payload does not stop the others from being tried.
+   *
+   * <p>Enclaves that are called remotely should override this so that all the keys are tried in a
+   * single request.
+   *
+   * @param payload the encrypted payload
+   * @param providedKeys the keys to try to decrypt the payload with
+   * @return the decrypted message for each key, in the same order as the given keys, or an empty
+   *     result for any key that could not be used to decrypt the payload
+   */
+  default List<Optional<byte[]>> unencryptTransactions(
+      EncodedPayload payload, List<PublicKey> providedKeys) {
+    final List<Optional<byte[]>> results = new ArrayList<>(providedKeys.size());
+    for (final PublicKey providedKey : providedKeys) {
+      try {
+        results.add(Optional.of(unencryptTransaction(payload, providedKey)));
+      } catch (EnclaveException | IndexOutOfBoundsException | EncryptorException ex) {
+        results.add(Optional.empty());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Creates a new recipient box for each of the given recipients, see {@link
+   * #createNewRecipientBox(EncodedPayload, PublicKey)}.
+   *
+   * <p>Enclaves that are called remotely should override this so that all the boxes are created in
+   * a single request.
+   *
+   * @param payload the payload to add the recipients to
+   * @param recipientKeys the new recipient keys to add
+   * @return the new recipient boxes, in the same order as the given keys
+   */
+  default List<byte[]> createNewRecipientBoxes(
+      EncodedPayload payload, List<PublicKey> recipientKeys) {
+    final List<byte[]> boxes = new ArrayList<>(recipientKeys.size());
+    for (final PublicKey recipientKey : recipientKeys) {
+      boxes.add(createNewRecipientBox(payload, recipientKey));
+    }
+    return boxes;
+  }
+
   @Override
   default void start() {}
 
@@ -4,12 +4,16 @@ import com.quorum.tessera.config.AppType;
 import com.quorum.tessera.config.Config;
 import com.quorum.tessera.config.EncryptorConfig;
 import com.quorum.tessera.config.ServerConfig;
+import com.quorum.tessera.config.keypairs.ConfigKeyPair;
 import com.quorum.tessera.config.keys.KeyEncryptor;
 import com.quorum.tessera.config.keys.KeyEncryptorFactory;
+import com.quorum.tessera.config.keys.KeyUnlocker;
 import com.quorum.tessera.config.util.EnvironmentVariableProvider;
 import com.quorum.tessera.config.util.KeyDataUtil;
 import com.quorum.tessera.encryption.*;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -60,20 +64,75 @@ public class EnclaveFactoryImpl {
 
     final KeyPairConverter keyPairConverter =
         new KeyPairConverter(config, new EnvironmentVariableProvider());
-    final Collection<KeyPair> keys =
-        keyPairConverter.convert(
-            config.getKeys().getKeyData().stream()
-                .map(kd -> KeyDataUtil.unmarshal(kd, keyEncryptor))
-                .collect(Collectors.toList()));
+    final List<ConfigKeyPair> configKeyPairs =
+        config.getKeys().getKeyData().stream()
+            .map(kd -> KeyDataUtil.unmarshal(kd, keyEncryptor))
+            .collect(Collectors.toList());
+    KeyUnlocker.create(encryptorConfig).unlock(configKeyPairs);
+
+    final Collection<KeyPair> keys = keyPairConverter.convert(configKeyPairs);
 
     final Collection<PublicKey> forwardKeys = keyPairConverter.convert(config.getAlwaysSendTo());
 
     LOGGER.debug("Creating enclave");
 
-    Enclave enclave = new EnclaveImpl(encryptor, new KeyManagerImpl(keys, forwardKeys));
+    final Map<String, String> encryptorProperties =
+        Optional.ofNullable(encryptorConfig.getProperties()).orElse(Map.of());
+
+    Enclave enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(keys, forwardKeys),
+            createSharedKeyCache(encryptorProperties),
+            createRecipientBoxSealer(encryptorProperties));
 
     LOGGER.debug("Created enclave {}", enclave);
 
     return enclave;
   }
+
+  static SharedKeyCache createSharedKeyCache(Map<String, String> properties) {
+    int maxSize = 1024;
+    long timeToLive = 3600000L; // 1 hour
+    try {
+      maxSize = Integer.parseInt(properties.getOrDefault("sharedKeyCacheSize", "1024"));
+      timeToLive = Long.parseLong(properties.getOrDefault("sharedKeyCacheTtl", "3600000"));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse shared key cache properties. Will use default values instead");
+      maxSize = 1024;
+      timeToLive = 3600000L;
+    }
+
+    if (maxSize <= 0 || timeToLive <= 0) {
+      LOGGER.info("Shared key cache is disabled");
+      return SharedKeyCache.disabled();
+    }
+
+    LOGGER.debug("Caching up to {} shared keys for {}ms", maxSize, timeToLive);
+    return new SharedKeyCache(maxSize, timeToLive);
+  }
+
+  static RecipientBoxSealer createRecipientBoxSealer(Map<String, String> properties) {
+    final int defaultParallelism = Runtime.getRuntime().availableProcessors();
+    final int threshold;
+    final int parallelism;
+    try {
+      threshold = Integer.parseInt(properties.getOrDefault("parallelSealingThreshold", "0"));
+      parallelism =
+          Integer.parseInt(
+              properties.getOrDefault(
+                  "parallelSealingThreads", String.valueOf(defaultParallelism)));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse parallel sealing properties. Will seal sequentially instead");
+      return RecipientBoxSealer.sequential();
+    }
+
+    if (threshold < 2 || parallelism < 2) {
+      return RecipientBoxSealer.sequential();
+    }
+
+    LOGGER.info(
+        "Sealing recipient boxes on {} threads for {} or more recipients", parallelism, threshold);
+    return RecipientBoxSealer.parallel(parallelism, threshold);
+  }
 }
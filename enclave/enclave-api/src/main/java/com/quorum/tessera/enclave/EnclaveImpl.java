@@ -1,6 +1,8 @@
 package com.quorum.tessera.enclave;
 
 import com.quorum.tessera.encryption.*;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.metrics.Timer;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,13 +14,54 @@ public class EnclaveImpl implements Enclave {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EnclaveImpl.class);
 
+  private static final Timer ENCRYPT_PAYLOAD = timer("encryptPayload");
+
+  private static final Timer ENCRYPT_RAW_TRANSACTION = timer("encryptRawTransaction");
+
+  private static final Timer CREATE_RECIPIENT_BOXES = timer("createNewRecipientBoxes");
+
+  private static final Timer FIND_INVALID_SECURITY_HASHES = timer("findInvalidSecurityHashes");
+
+  private static final Timer ENCRYPT_RAW_PAYLOAD = timer("encryptRawPayload");
+
+  private static final Timer UNENCRYPT_TRANSACTION = timer("unencryptTransaction");
+
+  private static final Timer UNENCRYPT_RAW_PAYLOAD = timer("unencryptRawPayload");
+
   private final Encryptor encryptor;
 
   private final KeyManager keyManager;
 
+  private final SharedKeyCache sharedKeyCache;
+
+  private final RecipientBoxSealer recipientBoxSealer;
+
   public EnclaveImpl(Encryptor encryptor, KeyManager keyManager) {
+    this(encryptor, keyManager, SharedKeyCache.disabled());
+  }
+
+  public EnclaveImpl(Encryptor encryptor, KeyManager keyManager, SharedKeyCache sharedKeyCache) {
+    this(encryptor, keyManager, sharedKeyCache, RecipientBoxSealer.sequential());
+  }
+
+  public EnclaveImpl(
+      Encryptor encryptor,
+      KeyManager keyManager,
+      SharedKeyCache sharedKeyCache,
+      RecipientBoxSealer recipientBoxSealer) {
     this.encryptor = Objects.requireNonNull(encryptor);
     this.keyManager = Objects.requireNonNull(keyManager);
+    this.sharedKeyCache = Objects.requireNonNull(sharedKeyCache);
+    this.recipientBoxSealer = Objects.requireNonNull(recipientBoxSealer);
+  }
+
+  private static Timer timer(final String operation) {
+    return MetricsRegistry.node()
+        .timer(
+            "tessera_enclave_seconds",
+            "Time taken by the enclave to carry out an operation",
+            "operation",
+            operation);
   }
 
   @Override
@@ -27,6 +70,15 @@ public class EnclaveImpl implements Enclave {
       final PublicKey senderPublicKey,
       final List<PublicKey> recipientPublicKeys,
       final PrivacyMetadata privacyMetadata) {
+    return ENCRYPT_PAYLOAD.time(
+        () -> doEncryptPayload(message, senderPublicKey, recipientPublicKeys, privacyMetadata));
+  }
+
+  private EncodedPayload doEncryptPayload(
+      final byte[] message,
+      final PublicKey senderPublicKey,
+      final List<PublicKey> recipientPublicKeys,
+      final PrivacyMetadata privacyMetadata) {
 
     final MasterKey masterKey = encryptor.createMasterKey();
     final Nonce nonce = encryptor.randomNonce();
@@ -93,6 +145,18 @@ public class EnclaveImpl implements Enclave {
 
   @Override
   public byte[] createNewRecipientBox(final EncodedPayload payload, final PublicKey publicKey) {
+    return this.createNewRecipientBoxes(payload, List.of(publicKey)).get(0);
+  }
+
+  /** The master key is only opened once, however many recipients the boxes are created for. */
+  @Override
+  public List<byte[]> createNewRecipientBoxes(
+      final EncodedPayload payload, final List<PublicKey> recipientKeys) {
+    return CREATE_RECIPIENT_BOXES.time(() -> doCreateNewRecipientBoxes(payload, recipientKeys));
+  }
+
+  private List<byte[]> doCreateNewRecipientBoxes(
+      final EncodedPayload payload, final List<PublicKey> recipientKeys) {
 
     if (payload.getRecipientKeys().isEmpty() || payload.getRecipientBoxes().isEmpty()) {
       throw new RuntimeException("No key or recipient-box to use");
@@ -103,11 +167,8 @@ public class EnclaveImpl implements Enclave {
             payload.getRecipientKeys().get(0), payload.getSenderKey(),
             payload.getRecipientNonce(), payload.getRecipientBoxes().get(0).getData());
 
-    final List<byte[]> sealedMasterKeyList =
-        this.buildRecipientMasterKeys(
-            payload.getSenderKey(), List.of(publicKey), payload.getRecipientNonce(), master);
-
-    return sealedMasterKeyList.get(0);
+    return this.buildRecipientMasterKeys(
+        payload.getSenderKey(), recipientKeys, payload.getRecipientNonce(), master);
   }
 
   @Override
@@ -115,6 +176,14 @@ public class EnclaveImpl implements Enclave {
       final RawTransaction rawTransaction,
       final List<PublicKey> recipientPublicKeys,
       final PrivacyMetadata privacyMetadata) {
+    return ENCRYPT_RAW_TRANSACTION.time(
+        () -> doEncryptPayload(rawTransaction, recipientPublicKeys, privacyMetadata));
+  }
+
+  private EncodedPayload doEncryptPayload(
+      final RawTransaction rawTransaction,
+      final List<PublicKey> recipientPublicKeys,
+      final PrivacyMetadata privacyMetadata) {
 
     final MasterKey masterKey =
         this.getMasterKey(
@@ -155,6 +224,12 @@ public class EnclaveImpl implements Enclave {
   @Override
   public Set<TxHash> findInvalidSecurityHashes(
       EncodedPayload encodedPayload, List<AffectedTransaction> affectedContractTransactions) {
+    return FIND_INVALID_SECURITY_HASHES.time(
+        () -> doFindInvalidSecurityHashes(encodedPayload, affectedContractTransactions));
+  }
+
+  private Set<TxHash> doFindInvalidSecurityHashes(
+      EncodedPayload encodedPayload, List<AffectedTransaction> affectedContractTransactions) {
     return encodedPayload.getAffectedContractTransactions().entrySet().stream()
         .filter(
             entry -> {
@@ -185,17 +260,19 @@ public class EnclaveImpl implements Enclave {
       final MasterKey masterKey) {
     final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(senderPublicKey);
 
-    return recipientPublicKeys.stream()
-        .map(publicKey -> encryptor.computeSharedKey(publicKey, privateKey))
-        .map(
-            sharedKey ->
-                encryptor.sealAfterPrecomputation(
-                    masterKey.getKeyBytes(), recipientNonce, sharedKey))
-        .collect(Collectors.toList());
+    return recipientBoxSealer.seal(
+        recipientPublicKeys,
+        publicKey ->
+            encryptor.sealAfterPrecomputation(
+                masterKey.getKeyBytes(), recipientNonce, computeSharedKey(publicKey, privateKey)));
   }
 
   @Override
   public RawTransaction encryptRawPayload(byte[] message, PublicKey sender) {
+    return ENCRYPT_RAW_PAYLOAD.time(() -> doEncryptRawPayload(message, sender));
+  }
+
+  private RawTransaction doEncryptRawPayload(byte[] message, PublicKey sender) {
     final MasterKey masterKey = encryptor.createMasterKey();
     final Nonce nonce = encryptor.randomNonce();
 
@@ -205,7 +282,7 @@ public class EnclaveImpl implements Enclave {
 
     // TODO NL - check if it makes sense to compute a shared key from the public and private parts
     // of the same key
-    SharedKey sharedKey = encryptor.computeSharedKey(sender, privateKey);
+    SharedKey sharedKey = computeSharedKey(sender, privateKey);
     final byte[] encryptedMasterKey =
         encryptor.sealAfterPrecomputation(masterKey.getKeyBytes(), nonce, sharedKey);
 
@@ -215,8 +292,15 @@ public class EnclaveImpl implements Enclave {
   @Override
   public byte[] unencryptTransaction(
       final EncodedPayload payload, final PublicKey publicToFindPrivateFor) {
+    return UNENCRYPT_TRANSACTION.time(
+        () -> doUnencryptTransaction(payload, publicToFindPrivateFor));
+  }
+
+  private byte[] doUnencryptTransaction(
+      final EncodedPayload payload, final PublicKey publicToFindPrivateFor) {
     PublicKey senderPublicKey = payload.getSenderKey();
     final RecipientBox recipientBox;
+    boolean trial = false;
 
     // Case 1: PSV transaction, only one box but all recipients known, but our keys come first
     // Case 2: we are a recipient, and only one single box is present, but no recipient key
@@ -238,6 +322,8 @@ public class EnclaveImpl implements Enclave {
       // we are just a standard recipient, so try the only box we have
       // we don't know if it will work, but no other choice
       recipientBox = payload.getRecipientBoxes().get(0);
+      // callers searching for the recipient try each of their keys, most of which won't fit
+      trial = true;
     } else if (payload.getRecipientKeys().contains(payload.getSenderKey())) {
       // Case 3
       // we are the sender, so any key (incl. the sender) privy should be in the recipient list
@@ -283,7 +369,11 @@ public class EnclaveImpl implements Enclave {
     }
 
     final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(publicToFindPrivateFor);
-    final SharedKey sharedKey = encryptor.computeSharedKey(senderPublicKey, privateKey);
+    final SharedKey sharedKey =
+        trial
+            ? sharedKeyCache.getWithoutStoring(
+                senderPublicKey, privateKey, encryptor::computeSharedKey)
+            : computeSharedKey(senderPublicKey, privateKey);
 
     final Nonce recipientNonce = payload.getRecipientNonce();
 
@@ -300,10 +390,14 @@ public class EnclaveImpl implements Enclave {
 
   @Override
   public byte[] unencryptRawPayload(RawTransaction payload) {
+    return UNENCRYPT_RAW_PAYLOAD.time(() -> doUnencryptRawPayload(payload));
+  }
+
+  private byte[] doUnencryptRawPayload(RawTransaction payload) {
 
     final PrivateKey senderPrivateKey = keyManager.getPrivateKeyForPublicKey(payload.getFrom());
 
-    final SharedKey sharedKey = encryptor.computeSharedKey(payload.getFrom(), senderPrivateKey);
+    final SharedKey sharedKey = computeSharedKey(payload.getFrom(), senderPrivateKey);
 
     final byte[] recipientBox = payload.getEncryptedKey();
 
@@ -324,7 +418,7 @@ public class EnclaveImpl implements Enclave {
       PublicKey recipient, PublicKey sender, Nonce nonce, byte[] encryptedKey) {
 
     final SharedKey sharedKey =
-        encryptor.computeSharedKey(recipient, keyManager.getPrivateKeyForPublicKey(sender));
+        computeSharedKey(recipient, keyManager.getPrivateKeyForPublicKey(sender));
 
     final byte[] masterKeyBytes = encryptor.openAfterPrecomputation(encryptedKey, nonce, sharedKey);
 
@@ -351,13 +445,24 @@ public class EnclaveImpl implements Enclave {
     if (!this.getPublicKeys().contains(encodedPayload.getSenderKey())) {
       // This is a payload originally sent to us by another node
       recipientPubKey = encodedPayload.getSenderKey();
-      for (final PublicKey potentialMatchingKey : getPublicKeys()) {
+      final List<PublicKey> potentialMatchingKeys = new ArrayList<>(getPublicKeys());
+      // the key listed for the first box is the one that opens it, so try it before the others
+      final List<PublicKey> listedKeys = encodedPayload.getRecipientKeys();
+      if (!listedKeys.isEmpty() && potentialMatchingKeys.remove(listedKeys.get(0))) {
+        potentialMatchingKeys.add(0, listedKeys.get(0));
+      }
+      // the shared keys are only tried out, so that only the one that opens the box is held
+      for (final PublicKey potentialMatchingKey : potentialMatchingKeys) {
         try {
-          return getMasterKey(
-              recipientPubKey,
-              potentialMatchingKey,
-              encodedPayload.getRecipientNonce(),
-              recipientBox);
+          final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(potentialMatchingKey);
+          final SharedKey sharedKey =
+              sharedKeyCache.getWithoutStoring(
+                  recipientPubKey, privateKey, encryptor::computeSharedKey);
+          final byte[] masterKeyBytes =
+              encryptor.openAfterPrecomputation(
+                  recipientBox.getData(), encodedPayload.getRecipientNonce(), sharedKey);
+          sharedKeyCache.put(recipientPubKey, privateKey, sharedKey);
+          return MasterKey.from(masterKeyBytes);
         } catch (EncryptorException ex) {
           LOGGER.debug("Attempted payload decryption using wrong key, discarding.", ex);
         }
@@ -372,6 +477,10 @@ public class EnclaveImpl implements Enclave {
         recipientPubKey, senderPubKey, encodedPayload.getRecipientNonce(), recipientBox);
   }
 
+  private SharedKey computeSharedKey(PublicKey publicKey, PrivateKey privateKey) {
+    return sharedKeyCache.get(publicKey, privateKey, encryptor::computeSharedKey);
+  }
+
   @Override
   public PublicKey defaultPublicKey() {
     return keyManager.defaultPublicKey();
@@ -4,6 +4,7 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.service.Service;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 class EnclaveServerImpl implements EnclaveServer {
@@ -72,6 +73,18 @@ class EnclaveServerImpl implements EnclaveServer {
     return enclave.createNewRecipientBox(payload, recipientKey);
   }
 
+  @Override
+  public List<Optional<byte[]>> unencryptTransactions(
+      EncodedPayload payload, List<PublicKey> providedKeys) {
+    return enclave.unencryptTransactions(payload, providedKeys);
+  }
+
+  @Override
+  public List<byte[]> createNewRecipientBoxes(
+      EncodedPayload payload, List<PublicKey> recipientKeys) {
+    return enclave.createNewRecipientBoxes(payload, recipientKeys);
+  }
+
   @Override
   public void start() {
     enclave.start();
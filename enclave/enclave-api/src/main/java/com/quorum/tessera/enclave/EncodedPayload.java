@@ -5,12 +5,17 @@ import com.quorum.tessera.encryption.PublicKey;
 import java.util.*;
 import java.util.stream.Collectors;
 
-/** This class contains the data that is sent to other nodes */
+/**
+ * This class contains the data that is sent to other nodes
+ *
+ * <p>A payload given by {@link PayloadEncoder#decode(byte[])} reads from the encoded bytes, copying
+ * the cipher text, recipient boxes and recipient keys out of them only when they are asked for.
+ */
 public class EncodedPayload {
 
   private final PublicKey senderKey;
 
-  private final byte[] cipherText;
+  private final PayloadBytes cipherText;
 
   private final Nonce cipherTextNonce;
 
@@ -28,9 +33,9 @@ public class EncodedPayload {
 
   private final PrivacyGroup.Id privacyGroupId;
 
-  private EncodedPayload(
+  EncodedPayload(
       final PublicKey senderKey,
-      final byte[] cipherText,
+      final PayloadBytes cipherText,
       final Nonce cipherTextNonce,
       final List<RecipientBox> recipientBoxes,
       final Nonce recipientNonce,
@@ -39,6 +44,9 @@ public class EncodedPayload {
       final Map<TxHash, SecurityHash> affectedContractTransactions,
       final byte[] execHash,
       final PrivacyGroup.Id privacyGroupId) {
+    if ((privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) == (execHash.length == 0)) {
+      throw new RuntimeException("ExecutionHash data is invalid");
+    }
     this.senderKey = senderKey;
     this.cipherText = cipherText;
     this.cipherTextNonce = cipherTextNonce;
@@ -56,6 +64,10 @@ public class EncodedPayload {
   }
 
   public byte[] getCipherText() {
+    return Objects.isNull(cipherText) ? null : cipherText.toArray();
+  }
+
+  PayloadBytes getCipherTextBytes() {
     return cipherText;
   }
 
@@ -238,13 +250,9 @@ public class EncodedPayload {
       List<RecipientBox> recipientBoxes =
           this.recipientBoxes.stream().map(RecipientBox::from).collect(Collectors.toList());
 
-      if ((privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) == (execHash.length == 0)) {
-        throw new RuntimeException("ExecutionHash data is invalid");
-      }
-
       return new EncodedPayload(
           senderKey,
-          cipherText,
+          PayloadBytes.of(cipherText),
           cipherTextNonce,
           recipientBoxes,
           recipientNonce,
@@ -262,7 +270,7 @@ public class EncodedPayload {
     if (o == null || getClass() != o.getClass()) return false;
     EncodedPayload that = (EncodedPayload) o;
     return Objects.equals(senderKey, that.senderKey)
-        && Arrays.equals(cipherText, that.cipherText)
+        && Objects.equals(cipherText, that.cipherText)
         && Objects.equals(cipherTextNonce, that.cipherTextNonce)
         && Objects.equals(recipientBoxes, that.recipientBoxes)
         && Objects.equals(recipientNonce, that.recipientNonce)
@@ -283,7 +291,7 @@ public class EncodedPayload {
             recipientKeys,
             privacyMode,
             privacyGroupId);
-    result = 31 * result + Arrays.hashCode(cipherText);
+    result = 31 * result + Objects.hashCode(cipherText);
     result = 31 * result + Arrays.hashCode(execHash);
     return result;
   }
@@ -0,0 +1,82 @@
+package com.quorum.tessera.enclave;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A range of bytes within a larger array, such as a field of an encoded payload. The range is only
+ * copied out of the array the first time it is asked for, and a range that covers the whole array
+ * is given back without being copied at all.
+ *
+ * <p>Two instances are equal when the bytes in their ranges are equal, regardless of the arrays
+ * they are held in.
+ */
+final class PayloadBytes {
+
+  private final byte[] source;
+
+  private final int offset;
+
+  private final int length;
+
+  private volatile byte[] bytes;
+
+  private PayloadBytes(final byte[] source, final int offset, final int length) {
+    this.source = Objects.requireNonNull(source);
+    Objects.checkFromIndexSize(offset, length, source.length);
+    this.offset = offset;
+    this.length = length;
+  }
+
+  static PayloadBytes of(final byte[] data) {
+    if (Objects.isNull(data)) {
+      return null;
+    }
+    return new PayloadBytes(data, 0, data.length);
+  }
+
+  static PayloadBytes of(final byte[] source, final int offset, final int length) {
+    return new PayloadBytes(source, offset, length);
+  }
+
+  int length() {
+    return length;
+  }
+
+  byte[] toArray() {
+    if (offset == 0 && length == source.length) {
+      return source;
+    }
+    byte[] copy = bytes;
+    if (copy == null) {
+      copy = Arrays.copyOfRange(source, offset, offset + length);
+      bytes = copy;
+    }
+    return copy;
+  }
+
+  /** Writes the bytes to the buffer without copying them out of their array first */
+  void writeTo(final ByteBuffer buffer) {
+    buffer.put(source, offset, length);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final PayloadBytes that = (PayloadBytes) o;
+    return Arrays.equals(
+        source, offset, offset + length, that.source, that.offset, that.offset + that.length);
+  }
+
+  /** The same value as {@link Arrays#hashCode(byte[])} gives for a copy of the range */
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = offset; i < offset + length; i++) {
+      result = 31 * result + source[i];
+    }
+    return result;
+  }
+}
@@ -1,6 +1,8 @@
 package com.quorum.tessera.enclave;
 
 import com.quorum.tessera.encryption.PublicKey;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.ServiceLoader;
 
 /** Encodes and decodes a {@link EncodedPayload} to and from its binary representation */
@@ -14,6 +16,28 @@ public interface PayloadEncoder {
    */
   byte[] encode(EncodedPayload payload);
 
+  /**
+   * Gives the number of bytes the payload takes up when encoded
+   *
+   * @param payload the payload to measure
+   * @return the length of the array {@link #encode(EncodedPayload)} would give for the payload
+   */
+  default int encodedSize(EncodedPayload payload) {
+    return encode(payload).length;
+  }
+
+  /**
+   * Encodes the payload into the given buffer, starting at its current position. The buffer must
+   * have at least {@link #encodedSize(EncodedPayload)} bytes remaining, and its position is moved
+   * past the encoded payload.
+   *
+   * @param payload the payload to encode
+   * @param buffer the buffer to write the encoded payload to
+   */
+  default void encode(EncodedPayload payload, ByteBuffer buffer) {
+    buffer.put(encode(payload));
+  }
+
   /**
    * Decodes a byte array back into an encrypted payload
    *
@@ -22,6 +46,46 @@ public interface PayloadEncoder {
    */
   EncodedPayload decode(byte[] input);
 
+  /**
+   * Decodes the remaining bytes of a buffer back into an encrypted payload. The position of the
+   * buffer is left as it was. The payload may keep reading from the buffer after it is returned,
+   * so its contents must not be changed afterwards.
+   *
+   * @param input the buffer to decode into an EncodedPayload
+   * @return the decoded payload
+   */
+  default EncodedPayload decodeBuffer(ByteBuffer input) {
+    final byte[] bytes = new byte[input.remaining()];
+    input.duplicate().get(bytes);
+    return decode(bytes);
+  }
+
+  /**
+   * Encodes several payloads into a single byte array, such that they can be sent to another node
+   * in one request
+   *
+   * @param payloads the payloads to encode
+   * @return the byte array representing all the encoded payloads
+   */
+  byte[] encodeList(List<EncodedPayload> payloads);
+
+  /**
+   * Decodes a byte array created by {@link #encodeList(List)} back into the encrypted payloads
+   *
+   * @param input The byte array to decode into a list of EncodedPayloads
+   * @return the decoded payloads, in the order they were encoded
+   */
+  List<EncodedPayload> decodeList(byte[] input);
+
+  /**
+   * Reads how many payloads a byte array created by {@link #encodeList(List)} holds, without
+   * decoding any of them
+   *
+   * @param input The byte array holding the encoded payloads
+   * @return the number of payloads the byte array claims to hold
+   */
+  long countList(byte[] input);
+
   /**
    * Strips a payload of any data that isn't relevant to the given recipient Used to format a
    * payload before it is sent to the target node
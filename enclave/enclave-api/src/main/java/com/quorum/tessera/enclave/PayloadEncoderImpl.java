@@ -1,220 +1,228 @@
 package com.quorum.tessera.enclave;
 
 import static java.util.Collections.*;
-import static java.util.stream.Collectors.toList;
 
+import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
 
   @Override
   public byte[] encode(final EncodedPayload payload) {
+    final ByteBuffer buffer = ByteBuffer.allocate(encodedSize(payload));
+    encode(payload, buffer);
+    return buffer.array();
+  }
 
-    final byte[] senderKey = encodeField(payload.getSenderKey().getKeyBytes());
-    final byte[] cipherText = encodeField(payload.getCipherText());
-    final byte[] nonce = encodeField(payload.getCipherTextNonce().getNonceBytes());
-    final byte[] recipientNonce = encodeField(payload.getRecipientNonce().getNonceBytes());
-    final byte[] recipients =
-        encodeArray(
-            payload.getRecipientBoxes().stream()
-                .map(RecipientBox::getData)
-                .collect(Collectors.toUnmodifiableList()));
-    final byte[] recipientBytes =
-        encodeArray(
-            payload.getRecipientKeys().stream().map(PublicKey::getKeyBytes).collect(toList()));
-    final PrivacyMode privacyMode =
-        Optional.ofNullable(payload.getPrivacyMode()).orElse(PrivacyMode.STANDARD_PRIVATE);
-    final byte[] privacyModeByte = encodeField(new byte[] {(byte) privacyMode.getPrivacyFlag()});
-
-    final int affectedContractsPayloadLength =
-        payload.getAffectedContractTransactions().entrySet().stream()
-                .mapToInt(
-                    entry -> entry.getKey().getBytes().length + entry.getValue().getData().length)
-                .sum() // total size of all keys and values
-            + Long.BYTES
-            + // the number of entries in the map
-            payload.getAffectedContractTransactions().size()
-                * 2
-                * Long.BYTES; // sizes of key and value lengths (for each entry)
-    final ByteBuffer affectedContractTxs = ByteBuffer.allocate(affectedContractsPayloadLength);
-    affectedContractTxs.putLong(payload.getAffectedContractTransactions().size());
-    for (Map.Entry<TxHash, SecurityHash> entry :
+  @Override
+  public int encodedSize(final EncodedPayload payload) {
+    int size = fieldSize(payload.getSenderKey().getKeyBytes());
+    size += Long.BYTES + payload.getCipherTextBytes().length();
+    size += fieldSize(payload.getCipherTextNonce().getNonceBytes());
+    size += Long.BYTES;
+    for (final RecipientBox box : payload.getRecipientBoxes()) {
+      size += fieldSize(box.getData());
+    }
+    size += fieldSize(payload.getRecipientNonce().getNonceBytes());
+    size += Long.BYTES;
+    for (final PublicKey recipient : payload.getRecipientKeys()) {
+      size += fieldSize(recipient.getKeyBytes());
+    }
+    size += Long.BYTES + 1; // the privacy flag
+    size += Long.BYTES;
+    for (final Map.Entry<TxHash, SecurityHash> entry :
         payload.getAffectedContractTransactions().entrySet()) {
-      affectedContractTxs.putLong(entry.getKey().getBytes().length);
-      affectedContractTxs.put(entry.getKey().getBytes());
-      affectedContractTxs.putLong(entry.getValue().getData().length);
-      affectedContractTxs.put(entry.getValue().getData());
+      size += fieldSize(entry.getKey().getBytes()) + fieldSize(entry.getValue().getData());
     }
-    byte[] executionHash = new byte[0];
     if (Objects.nonNull(payload.getExecHash()) && payload.getExecHash().length > 0) {
-      executionHash = encodeField(payload.getExecHash());
+      size += fieldSize(payload.getExecHash());
     }
-
-    byte[] privacyGroupId =
+    size +=
         payload
             .getPrivacyGroupId()
             .map(PrivacyGroup.Id::getBytes)
-            .map(this::encodeField)
-            .orElse(new byte[0]);
-
-    return ByteBuffer.allocate(
-            senderKey.length
-                + cipherText.length
-                + nonce.length
-                + recipients.length
-                + recipientNonce.length
-                + recipientBytes.length
-                + privacyModeByte.length
-                + affectedContractsPayloadLength
-                + executionHash.length
-                + privacyGroupId.length)
-        .put(senderKey)
-        .put(cipherText)
-        .put(nonce)
-        .put(recipients)
-        .put(recipientNonce)
-        .put(recipientBytes)
-        .put(privacyModeByte)
-        .put(affectedContractTxs.array())
-        .put(executionHash)
-        .put(privacyGroupId)
-        .array();
+            .map(PayloadEncoderImpl::fieldSize)
+            .orElse(0);
+    return size;
+  }
+
+  @Override
+  public void encode(final EncodedPayload payload, final ByteBuffer buffer) {
+    putField(buffer, payload.getSenderKey().getKeyBytes());
+
+    final PayloadBytes cipherText = payload.getCipherTextBytes();
+    buffer.putLong(cipherText.length());
+    cipherText.writeTo(buffer);
+
+    putField(buffer, payload.getCipherTextNonce().getNonceBytes());
+
+    final List<RecipientBox> recipientBoxes = payload.getRecipientBoxes();
+    buffer.putLong(recipientBoxes.size());
+    for (final RecipientBox box : recipientBoxes) {
+      putField(buffer, box.getData());
+    }
+
+    putField(buffer, payload.getRecipientNonce().getNonceBytes());
+
+    final List<PublicKey> recipientKeys = payload.getRecipientKeys();
+    buffer.putLong(recipientKeys.size());
+    for (final PublicKey recipient : recipientKeys) {
+      putField(buffer, recipient.getKeyBytes());
+    }
+
+    final PrivacyMode privacyMode =
+        Optional.ofNullable(payload.getPrivacyMode()).orElse(PrivacyMode.STANDARD_PRIVATE);
+    putField(buffer, new byte[] {(byte) privacyMode.getPrivacyFlag()});
+
+    final Map<TxHash, SecurityHash> affectedContractTransactions =
+        payload.getAffectedContractTransactions();
+    buffer.putLong(affectedContractTransactions.size());
+    for (final Map.Entry<TxHash, SecurityHash> entry : affectedContractTransactions.entrySet()) {
+      putField(buffer, entry.getKey().getBytes());
+      putField(buffer, entry.getValue().getData());
+    }
+
+    if (Objects.nonNull(payload.getExecHash()) && payload.getExecHash().length > 0) {
+      putField(buffer, payload.getExecHash());
+    }
+
+    payload
+        .getPrivacyGroupId()
+        .map(PrivacyGroup.Id::getBytes)
+        .ifPresent(privacyGroupId -> putField(buffer, privacyGroupId));
   }
 
   @Override
   public EncodedPayload decode(final byte[] input) {
-    final ByteBuffer buffer = ByteBuffer.wrap(input);
+    return decode(input, 0, input.length);
+  }
 
-    final long senderSize = buffer.getLong();
-    final byte[] senderKey = new byte[Math.toIntExact(senderSize)];
-    buffer.get(senderKey);
-
-    final long cipherTextSize = buffer.getLong();
-    final byte[] cipherText = new byte[Math.toIntExact(cipherTextSize)];
-    buffer.get(cipherText);
-
-    final long nonceSize = buffer.getLong();
-    final byte[] nonce = new byte[Math.toIntExact(nonceSize)];
-    buffer.get(nonce);
-
-    final long numberOfRecipients = buffer.getLong();
-    final List<byte[]> recipientBoxes = new ArrayList<>();
-    for (long i = 0; i < numberOfRecipients; i++) {
-      final long boxSize = buffer.getLong();
-      final byte[] box = new byte[Math.toIntExact(boxSize)];
-      buffer.get(box);
-      recipientBoxes.add(box);
+  @Override
+  public EncodedPayload decodeBuffer(final ByteBuffer input) {
+    if (!input.hasArray()) {
+      return PayloadEncoder.super.decodeBuffer(input);
     }
+    return decode(input.array(), input.arrayOffset() + input.position(), input.remaining());
+  }
 
-    final long recipientNonceSize = buffer.getLong();
-    final byte[] recipientNonce = new byte[Math.toIntExact(recipientNonceSize)];
-    buffer.get(recipientNonce);
+  /*
+   * Walks the length prefixes of the payload once to find where each field is. The small fields
+   * are read straight away, while the cipher text, recipient boxes and recipient keys are left in
+   * the input and only copied out of it when the payload is asked for them.
+   */
+  private EncodedPayload decode(final byte[] input, final int offset, final int length) {
+    final ByteBuffer buffer = ByteBuffer.wrap(input, offset, length);
+
+    final PublicKey senderKey = PublicKey.from(readField(buffer));
+    final PayloadBytes cipherText = skipField(buffer);
+    final Nonce cipherTextNonce = new Nonce(readField(buffer));
+    final List<RecipientBox> recipientBoxes = skipArray(buffer, RecipientBox::from);
+    final Nonce recipientNonce = new Nonce(readField(buffer));
 
     // this means there are no recipients in the payload (which we receive when we are a
     // participant)
     // TODO - not sure this is right
     if (!buffer.hasRemaining()) {
-
-      return EncodedPayload.Builder.create()
-          .withSenderKey(PublicKey.from(senderKey))
-          .withCipherText(cipherText)
-          .withCipherTextNonce(nonce)
-          .withRecipientBoxes(recipientBoxes)
-          .withRecipientNonce(recipientNonce)
-          .withRecipientKeys(emptyList())
-          .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
-          .withAffectedContractTransactions(emptyMap())
-          .withExecHash(new byte[0])
-          .build();
+      return new EncodedPayload(
+          senderKey,
+          cipherText,
+          cipherTextNonce,
+          recipientBoxes,
+          recipientNonce,
+          emptyList(),
+          PrivacyMode.STANDARD_PRIVATE,
+          emptyMap(),
+          new byte[0],
+          null);
     }
 
-    final long recipientLength = buffer.getLong();
-
-    final List<byte[]> recipientKeys = new ArrayList<>();
-    for (long i = 0; i < recipientLength; i++) {
-      final long boxSize = buffer.getLong();
-      final byte[] box = new byte[Math.toIntExact(boxSize)];
-      buffer.get(box);
-      recipientKeys.add(box);
-    }
+    final List<PublicKey> recipientKeys = skipArray(buffer, PublicKey::from);
 
     if (!buffer.hasRemaining()) {
-
-      return EncodedPayload.Builder.create()
-          .withSenderKey(PublicKey.from(senderKey))
-          .withCipherText(cipherText)
-          .withCipherTextNonce(nonce)
-          .withRecipientBoxes(recipientBoxes)
-          .withRecipientNonce(recipientNonce)
-          .withRecipientKeys(recipientKeys.stream().map(PublicKey::from).collect(toList()))
-          .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
-          .withAffectedContractTransactions(emptyMap())
-          .withExecHash(new byte[0])
-          .build();
+      return new EncodedPayload(
+          senderKey,
+          cipherText,
+          cipherTextNonce,
+          recipientBoxes,
+          recipientNonce,
+          recipientKeys,
+          PrivacyMode.STANDARD_PRIVATE,
+          emptyMap(),
+          new byte[0],
+          null);
     }
 
-    final long privacyFlagLength = buffer.getLong();
-    final byte[] privacyFlag = new byte[Math.toIntExact(privacyFlagLength)];
-    buffer.get(privacyFlag);
+    final PrivacyMode privacyMode = PrivacyMode.fromFlag(readField(buffer)[0]);
 
     final long affectedContractTransactionsLength = buffer.getLong();
-    final Map<TxHash, byte[]> affectedContractTransactions = new HashMap<>();
+    final Map<TxHash, SecurityHash> affectedContractTransactions = new HashMap<>();
     for (long i = 0; i < affectedContractTransactionsLength; i++) {
-      final long txHashSize = buffer.getLong();
-      final byte[] txHash = new byte[Math.toIntExact(txHashSize)];
-      buffer.get(txHash);
+      final TxHash txHash = new TxHash(readField(buffer));
+      final SecurityHash securityHash = SecurityHash.from(readField(buffer));
+      affectedContractTransactions.put(txHash, securityHash);
+    }
 
-      final long txSecHashSize = buffer.getLong();
-      final byte[] txSecHash = new byte[Math.toIntExact(txSecHashSize)];
-      buffer.get(txSecHash);
+    byte[] executionHash = new byte[0];
+    if (buffer.hasRemaining() && privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) {
+      executionHash = readField(buffer);
+    }
 
-      affectedContractTransactions.put(new TxHash(txHash), txSecHash);
+    PrivacyGroup.Id privacyGroupId = null;
+    if (buffer.hasRemaining()) {
+      privacyGroupId = PrivacyGroup.Id.fromBytes(readField(buffer));
     }
 
-    final PrivacyMode privacyMode = PrivacyMode.fromFlag(privacyFlag[0]);
+    return new EncodedPayload(
+        senderKey,
+        cipherText,
+        cipherTextNonce,
+        recipientBoxes,
+        recipientNonce,
+        recipientKeys,
+        privacyMode,
+        unmodifiableMap(affectedContractTransactions),
+        executionHash,
+        privacyGroupId);
+  }
 
-    byte[] executionHash = new byte[0];
-    if (buffer.hasRemaining()) {
-      if (privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) {
-        final long executionHashSize = buffer.getLong();
-        executionHash = new byte[Math.toIntExact(executionHashSize)];
-        buffer.get(executionHash);
-      }
+  @Override
+  public byte[] encodeList(final List<EncodedPayload> payloads) {
+    final int[] sizes = payloads.stream().mapToInt(this::encodedSize).toArray();
+
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(Long.BYTES + Arrays.stream(sizes).map(size -> Long.BYTES + size).sum());
+    buffer.putLong(payloads.size());
+    for (int i = 0; i < sizes.length; i++) {
+      buffer.putLong(sizes[i]);
+      encode(payloads.get(i), buffer);
     }
 
-    if (!buffer.hasRemaining()) {
-      return EncodedPayload.Builder.create()
-          .withSenderKey(PublicKey.from(senderKey))
-          .withCipherText(cipherText)
-          .withCipherTextNonce(nonce)
-          .withRecipientBoxes(recipientBoxes)
-          .withRecipientNonce(recipientNonce)
-          .withRecipientKeys(recipientKeys.stream().map(PublicKey::from).collect(toList()))
-          .withPrivacyMode(privacyMode)
-          .withAffectedContractTransactions(affectedContractTransactions)
-          .withExecHash(executionHash)
-          .build();
+    return buffer.array();
+  }
+
+  @Override
+  public List<EncodedPayload> decodeList(final byte[] input) {
+    final ByteBuffer buffer = ByteBuffer.wrap(input);
+
+    final long numberOfPayloads = buffer.getLong();
+    final List<EncodedPayload> payloads = new ArrayList<>();
+    for (long i = 0; i < numberOfPayloads; i++) {
+      final int payloadSize = fieldLength(buffer);
+      payloads.add(decode(input, buffer.position(), payloadSize));
+      buffer.position(buffer.position() + payloadSize);
     }
 
-    final long privacyGroupIdSize = buffer.getLong();
-    final byte[] privacyGroupId = new byte[Math.toIntExact(privacyGroupIdSize)];
-    buffer.get(privacyGroupId);
-
-    return EncodedPayload.Builder.create()
-        .withSenderKey(PublicKey.from(senderKey))
-        .withCipherText(cipherText)
-        .withCipherTextNonce(nonce)
-        .withRecipientBoxes(recipientBoxes)
-        .withRecipientNonce(recipientNonce)
-        .withRecipientKeys(recipientKeys.stream().map(PublicKey::from).collect(toList()))
-        .withPrivacyMode(privacyMode)
-        .withAffectedContractTransactions(affectedContractTransactions)
-        .withExecHash(executionHash)
-        .withPrivacyGroupId(PrivacyGroup.Id.fromBytes(privacyGroupId))
-        .build();
+    return payloads;
+  }
+
+  @Override
+  public long countList(final byte[] input) {
+    return ByteBuffer.wrap(input).getLong();
   }
 
   @Override
@@ -266,4 +274,59 @@ public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
     }
     return EncodedPayload.Builder.from(payload).withRecipientKey(recipient).build();
   }
+
+  private static int fieldSize(final byte[] data) {
+    return Long.BYTES + data.length;
+  }
+
+  private static void putField(final ByteBuffer buffer, final byte[] data) {
+    buffer.putLong(data.length).put(data);
+  }
+
+  private static int fieldLength(final ByteBuffer buffer) {
+    final int length = Math.toIntExact(buffer.getLong());
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return length;
+  }
+
+  private static byte[] readField(final ByteBuffer buffer) {
+    final byte[] data = new byte[fieldLength(buffer)];
+    buffer.get(data);
+    return data;
+  }
+
+  private static PayloadBytes skipField(final ByteBuffer buffer) {
+    final int length = fieldLength(buffer);
+    final PayloadBytes field = PayloadBytes.of(buffer.array(), buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    return field;
+  }
+
+  /*
+   * Records where each element of an encoded array is, so that an element is only copied out of
+   * the input the first time it is read from the returned list.
+   */
+  private static <T> List<T> skipArray(
+      final ByteBuffer buffer, final Function<byte[], T> elementDecoder) {
+    final long numberOfElements = buffer.getLong();
+    // every element takes up at least the bytes of its length
+    if (numberOfElements > buffer.remaining() / Long.BYTES) {
+      throw new BufferUnderflowException();
+    }
+
+    final int[] offsets = new int[Math.toIntExact(numberOfElements)];
+    final int[] lengths = new int[offsets.length];
+    for (int i = 0; i < offsets.length; i++) {
+      lengths[i] = fieldLength(buffer);
+      offsets[i] = buffer.position();
+      buffer.position(offsets[i] + lengths[i]);
+    }
+
+    final byte[] input = buffer.array();
+    return new DecodedList<>(
+        offsets.length,
+        i -> elementDecoder.apply(Arrays.copyOfRange(input, offsets[i], offsets[i] + lengths[i])));
+  }
 }
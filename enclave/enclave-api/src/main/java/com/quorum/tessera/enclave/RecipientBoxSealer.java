@@ -0,0 +1,118 @@
+package com.quorum.tessera.enclave;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Seals the master key of a transaction for each of its recipients.
+ *
+ * <p>By default the boxes are sealed one after another on the calling thread. A parallel sealer
+ * splits the recipients of transactions with at least {@code threshold} recipients into one batch
+ * per unit of parallelism. The calling thread seals the first batch and the node's {@value
+ * #EXECUTOR_NAME} pool seals the rest. If every thread of the pool is busy and a batch is already
+ * waiting for one, the caller seals the batch itself, so a burst of large transactions never queues
+ * behind one another. In either case the boxes are returned in the same order as the recipients.
+ */
+public class RecipientBoxSealer {
+
+  static final String EXECUTOR_NAME = "recipient-box-sealer";
+
+  private final ExecutorService executor;
+
+  private final int parallelism;
+
+  private final int threshold;
+
+  private RecipientBoxSealer(ExecutorService executor, int parallelism, int threshold) {
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Creates a sealer that seals every box on the calling thread.
+   *
+   * @return a sealer that never seals in parallel
+   */
+  public static RecipientBoxSealer sequential() {
+    return new RecipientBoxSealer(null, 1, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a sealer that seals the boxes of large transactions on the calling thread together with
+   * a pool of {@code parallelism - 1} daemon threads.
+   *
+   * @param parallelism the number of threads, including the caller, that seal a transaction's boxes
+   * @param threshold the smallest number of recipients for which the boxes are sealed in parallel
+   * @return a sealer that seals in parallel above the threshold
+   */
+  public static RecipientBoxSealer parallel(int parallelism, int threshold) {
+    if (parallelism < 2) {
+      throw new IllegalArgumentException("parallelism must be at least 2");
+    }
+    if (threshold < 2) {
+      throw new IllegalArgumentException("threshold must be at least 2");
+    }
+
+    final ExecutorService executor =
+        new ExecutorFactory()
+            .create(
+                EXECUTOR_NAME, parallelism - 1, 1, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+
+    return new RecipientBoxSealer(executor, parallelism, threshold);
+  }
+
+  /**
+   * Seals a box for each of the given recipients.
+   *
+   * @param recipients the keys of the recipients, in the order the boxes should be returned
+   * @param sealer seals the box for a single recipient
+   * @return the sealed boxes, in the same order as the recipients
+   */
+  public List<byte[]> seal(List<PublicKey> recipients, Function<PublicKey, byte[]> sealer) {
+    Objects.requireNonNull(sealer, "sealer is required");
+
+    if (executor == null || recipients.size() < threshold) {
+      return recipients.stream().map(sealer).collect(Collectors.toList());
+    }
+
+    final int batchSize = (recipients.size() + parallelism - 1) / parallelism;
+
+    // the first batch is sealed on the calling thread while the pool seals the others
+    final List<Future<List<byte[]>>> batches = new ArrayList<>(parallelism - 1);
+    for (int start = batchSize; start < recipients.size(); start += batchSize) {
+      final List<PublicKey> batch =
+          recipients.subList(start, Math.min(start + batchSize, recipients.size()));
+      batches.add(executor.submit(() -> batch.stream().map(sealer).collect(Collectors.toList())));
+    }
+
+    final List<byte[]> boxes = new ArrayList<>(recipients.size());
+    recipients.subList(0, batchSize).stream().map(sealer).forEach(boxes::add);
+    for (Future<List<byte[]>> batch : batches) {
+      boxes.addAll(await(batch));
+    }
+    return boxes;
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new EnclaveException("Interrupted while sealing recipient boxes");
+    } catch (ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new EnclaveException(String.valueOf(cause));
+    }
+  }
+}
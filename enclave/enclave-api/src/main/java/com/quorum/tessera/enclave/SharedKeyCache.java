@@ -0,0 +1,232 @@
+package com.quorum.tessera.enclave;
+
+import com.quorum.tessera.encryption.PrivateKey;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.encryption.SharedKey;
+import com.quorum.tessera.metrics.Counter;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the shared keys computed between the node's private keys and the public keys of other
+ * parties, so that the same pair does not need the key agreement to be computed again each time
+ * a transaction is sent or received.
+ *
+ * <p>Entries are keyed on the private key as well as the public key, so replacing a private key
+ * never returns a shared key computed from the old one. At most {@code maxSize} entries are held,
+ * the least recently used being evicted first, and each entry expires {@code timeToLive}
+ * milliseconds after it was computed. A cache with a maximum size of zero holds nothing and
+ * computes every shared key.
+ */
+public class SharedKeyCache {
+
+  static final Counter HITS = lookups("hit");
+
+  static final Counter MISSES = lookups("miss");
+
+  static final Counter EVICTIONS =
+      MetricsRegistry.node()
+          .counter(
+              "tessera_enclave_shared_key_cache_evictions_total",
+              "Shared keys discarded from the cache because it was full or they had expired");
+
+  private final int maxSize;
+
+  private final long timeToLiveNanos;
+
+  private final LongSupplier clock;
+
+  private final Map<Pair, Entry> entries;
+
+  public SharedKeyCache(int maxSize, long timeToLive) {
+    this(maxSize, timeToLive, System::nanoTime);
+  }
+
+  SharedKeyCache(int maxSize, long timeToLive, LongSupplier clock) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative");
+    }
+    if (timeToLive <= 0) {
+      throw new IllegalArgumentException("timeToLive must be positive");
+    }
+    this.maxSize = maxSize;
+    this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    this.clock = Objects.requireNonNull(clock, "clock is required");
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Pair, Entry> eldest) {
+            final boolean evict = size() > SharedKeyCache.this.maxSize;
+            if (evict) {
+              EVICTIONS.increment();
+            }
+            return evict;
+          }
+        };
+  }
+
+  private static Counter lookups(final String outcome) {
+    return MetricsRegistry.node()
+        .counter(
+            "tessera_enclave_shared_key_cache_lookups_total",
+            "Lookups of shared keys that were answered from the cache or had to be computed",
+            "outcome",
+            outcome);
+  }
+
+  /**
+   * Creates a cache that holds nothing, so that every shared key is computed when it is needed.
+   *
+   * @return a cache that never holds any shared keys
+   */
+  public static SharedKeyCache disabled() {
+    return new SharedKeyCache(0, 1);
+  }
+
+  /**
+   * Returns the shared key for the given pair of keys, computing it if it is not already held.
+   *
+   * @param publicKey the public key of the other party
+   * @param privateKey the node's private key
+   * @param computation the key agreement to use if the shared key is not held
+   * @return the shared key for the pair of keys
+   */
+  public SharedKey get(
+      PublicKey publicKey,
+      PrivateKey privateKey,
+      BiFunction<PublicKey, PrivateKey, SharedKey> computation) {
+    return get(publicKey, privateKey, computation, true);
+  }
+
+  /**
+   * Returns the shared key for the given pair of keys if it is already held, otherwise computes it
+   * without holding on to it. For pairs that are only being tried out, such as when looking for
+   * the key that opens a box, so that they do not push out the entries that are in use.
+   *
+   * @param publicKey the public key of the other party
+   * @param privateKey the node's private key
+   * @param computation the key agreement to use if the shared key is not held
+   * @return the shared key for the pair of keys
+   */
+  public SharedKey getWithoutStoring(
+      PublicKey publicKey,
+      PrivateKey privateKey,
+      BiFunction<PublicKey, PrivateKey, SharedKey> computation) {
+    return get(publicKey, privateKey, computation, false);
+  }
+
+  private SharedKey get(
+      PublicKey publicKey,
+      PrivateKey privateKey,
+      BiFunction<PublicKey, PrivateKey, SharedKey> computation,
+      boolean store) {
+    if (maxSize == 0) {
+      MISSES.increment();
+      return computation.apply(publicKey, privateKey);
+    }
+
+    final Pair pair = new Pair(publicKey, privateKey);
+    final long now = clock.getAsLong();
+
+    synchronized (entries) {
+      final Entry entry = entries.get(pair);
+      if (entry != null && now - entry.computedAt < timeToLiveNanos) {
+        HITS.increment();
+        return entry.sharedKey;
+      }
+      if (entry != null) {
+        entries.remove(pair);
+        EVICTIONS.increment();
+      }
+    }
+
+    MISSES.increment();
+    // computed outside the lock, so two threads may both compute the same key rather than wait
+    final SharedKey sharedKey = computation.apply(publicKey, privateKey);
+
+    if (store) {
+      synchronized (entries) {
+        entries.put(pair, new Entry(sharedKey, now));
+      }
+    }
+    return sharedKey;
+  }
+
+  /**
+   * Holds on to a shared key that was computed without being stored, once it is known to be the
+   * one that is needed.
+   *
+   * @param publicKey the public key of the other party
+   * @param privateKey the node's private key
+   * @param sharedKey the shared key computed for the pair of keys
+   */
+  public void put(PublicKey publicKey, PrivateKey privateKey, SharedKey sharedKey) {
+    if (maxSize == 0) {
+      return;
+    }
+    final Pair pair = new Pair(publicKey, privateKey);
+    final long now = clock.getAsLong();
+    synchronized (entries) {
+      entries.put(pair, new Entry(Objects.requireNonNull(sharedKey), now));
+    }
+  }
+
+  /** Discards all the held shared keys, e.g. because the node's keys have changed. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static final class Pair {
+
+    private final PublicKey publicKey;
+
+    private final PrivateKey privateKey;
+
+    private Pair(PublicKey publicKey, PrivateKey privateKey) {
+      this.publicKey = Objects.requireNonNull(publicKey, "publicKey is required");
+      this.privateKey = Objects.requireNonNull(privateKey, "privateKey is required");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Pair)) {
+        return false;
+      }
+      final Pair other = (Pair) o;
+      return publicKey.equals(other.publicKey) && privateKey.equals(other.privateKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(publicKey, privateKey);
+    }
+  }
+
+  private static final class Entry {
+
+    private final SharedKey sharedKey;
+
+    private final long computedAt;
+
+    private Entry(SharedKey sharedKey, long computedAt) {
+      this.sharedKey = sharedKey;
+      this.computedAt = computedAt;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class DecodedListTest {
+
+  @Test
+  public void elementsAreDecodedOnceWhenFirstRead() {
+    final List<Integer> decoded = new ArrayList<>();
+
+    final List<String> list =
+        new DecodedList<>(
+            3,
+            i -> {
+              decoded.add(i);
+              return "element" + i;
+            });
+
+    assertThat(list).hasSize(3);
+    assertThat(decoded).isEmpty();
+
+    assertThat(list.get(1)).isEqualTo("element1");
+    assertThat(list.get(1)).isEqualTo("element1");
+    assertThat(decoded).containsExactly(1);
+
+    assertThat(list).containsExactly("element0", "element1", "element2");
+    assertThat(decoded).containsExactly(1, 0, 2);
+    assertThat(list).isEqualTo(List.of("element0", "element1", "element2"));
+  }
+
+  @Test
+  public void listCannotBeChanged() {
+    final List<String> list = new DecodedList<>(1, i -> "element");
+
+    final Throwable throwable = catchThrowable(() -> list.add("other"));
+
+    assertThat(throwable).isInstanceOf(UnsupportedOperationException.class);
+  }
+}
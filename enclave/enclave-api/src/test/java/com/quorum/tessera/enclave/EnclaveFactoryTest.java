@@ -6,7 +6,11 @@ import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.config.*;
+import com.quorum.tessera.encryption.PrivateKey;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.encryption.SharedKey;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.stream.Stream;
 import org.junit.Test;
 
@@ -159,4 +163,52 @@ public class EnclaveFactoryTest {
       assertThat(ex).hasMessage("OUCH");
     }
   }
+
+  @Test
+  public void sharedKeyCacheIsEnabledByDefault() {
+    final SharedKeyCache sharedKeyCache = EnclaveFactoryImpl.createSharedKeyCache(Map.of());
+
+    final long hits = SharedKeyCache.HITS.get();
+
+    computeTwice(sharedKeyCache);
+
+    assertThat(SharedKeyCache.HITS.get() - hits).isEqualTo(1);
+    assertThat(sharedKeyCache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void sharedKeyCacheIsDisabledWithZeroSize() {
+    final SharedKeyCache sharedKeyCache =
+        EnclaveFactoryImpl.createSharedKeyCache(Map.of("sharedKeyCacheSize", "0"));
+
+    final long hits = SharedKeyCache.HITS.get();
+    final long misses = SharedKeyCache.MISSES.get();
+
+    computeTwice(sharedKeyCache);
+
+    assertThat(SharedKeyCache.HITS.get() - hits).isZero();
+    assertThat(SharedKeyCache.MISSES.get() - misses).isEqualTo(2);
+  }
+
+  @Test
+  public void sharedKeyCacheUsesDefaultsForInvalidProperties() {
+    final SharedKeyCache sharedKeyCache =
+        EnclaveFactoryImpl.createSharedKeyCache(
+            Map.of("sharedKeyCacheSize", "lots", "sharedKeyCacheTtl", "forever"));
+
+    final long hits = SharedKeyCache.HITS.get();
+
+    computeTwice(sharedKeyCache);
+
+    assertThat(SharedKeyCache.HITS.get() - hits).isEqualTo(1);
+  }
+
+  private static void computeTwice(SharedKeyCache sharedKeyCache) {
+    final PublicKey publicKey = PublicKey.from("public".getBytes());
+    final PrivateKey privateKey = PrivateKey.from("private".getBytes());
+    final SharedKey sharedKey = SharedKey.from("shared".getBytes());
+
+    sharedKeyCache.get(publicKey, privateKey, (pub, priv) -> sharedKey);
+    sharedKeyCache.get(publicKey, privateKey, (pub, priv) -> sharedKey);
+  }
 }
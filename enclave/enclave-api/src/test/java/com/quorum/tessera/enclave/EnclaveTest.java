@@ -134,6 +134,31 @@ public class EnclaveTest {
         .hasMessage("recipient not found in listed keys");
   }
 
+  @Test
+  public void unencryptTransactionsGivesEmptyResultForUnknownKey() {
+    final PublicKey nonRecipientKey = PublicKey.from("unknown".getBytes());
+
+    final PublicKey senderKey = PublicKey.from("senderKey".getBytes());
+    final PublicKey recipientKey = PublicKey.from("recipientKey".getBytes());
+
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(senderKey)
+            .withCipherText("cipherText".getBytes())
+            .withCipherTextNonce(mock(Nonce.class))
+            .withRecipientBox("RecipientBox".getBytes())
+            .withRecipientNonce(mock(Nonce.class))
+            .withRecipientKeys(List.of(recipientKey, senderKey))
+            .withPrivacyMode(PrivacyMode.PRIVATE_STATE_VALIDATION)
+            .withExecHash("EXEC_HASH".getBytes())
+            .build();
+
+    final List<Optional<byte[]>> results =
+        enclave.unencryptTransactions(payload, List.of(nonRecipientKey, nonRecipientKey));
+
+    assertThat(results).containsExactly(Optional.empty(), Optional.empty());
+  }
+
   // Case 2
   @Test
   public void unencryptNoRecipientsSingleBoxTransaction() {
@@ -178,6 +203,51 @@ public class EnclaveTest {
     verify(keyManager).getPrivateKeyForPublicKey(recipientKey);
   }
 
+  // Case 2, where the key is one of several being tried
+  @Test
+  public void unencryptNoRecipientsSingleBoxTransactionDoesNotHoldSharedKey() {
+    final SharedKeyCache sharedKeyCache = new SharedKeyCache(10, 60000L);
+    final Enclave cachingEnclave = new EnclaveImpl(nacl, keyManager, sharedKeyCache);
+
+    final PublicKey senderKey = PublicKey.from("senderKey".getBytes());
+    final PublicKey recipientKey = PublicKey.from("recipientKey".getBytes());
+    final Nonce cipherTextNonce = mock(Nonce.class);
+    final RecipientBox recipientBox = RecipientBox.from("RecipientBox".getBytes());
+    final Nonce recipientNonce = mock(Nonce.class);
+
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(senderKey)
+            .withCipherText("cipherText".getBytes())
+            .withCipherTextNonce(cipherTextNonce)
+            .withRecipientBox(recipientBox.getData())
+            .withRecipientNonce(recipientNonce)
+            .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+            .build();
+
+    final PrivateKey recipientPrivateKey = PrivateKey.from("private-key".getBytes());
+    when(keyManager.getPrivateKeyForPublicKey(recipientKey)).thenReturn(recipientPrivateKey);
+
+    final SharedKey sharedKey = SharedKey.from("shared-key".getBytes());
+    when(nacl.computeSharedKey(senderKey, recipientPrivateKey)).thenReturn(sharedKey);
+    when(nacl.openAfterPrecomputation(recipientBox.getData(), recipientNonce, sharedKey))
+        .thenReturn("sharedOrMasterKeyBytes".getBytes());
+    when(nacl.openAfterPrecomputation(any(byte[].class), eq(cipherTextNonce), any(MasterKey.class)))
+        .thenReturn("SUCCESS".getBytes());
+
+    cachingEnclave.unencryptTransaction(payload, recipientKey);
+    cachingEnclave.unencryptTransaction(payload, recipientKey);
+
+    assertThat(sharedKeyCache.size()).isZero();
+
+    verify(nacl, times(2)).computeSharedKey(senderKey, recipientPrivateKey);
+    verify(nacl, times(2))
+        .openAfterPrecomputation(recipientBox.getData(), recipientNonce, sharedKey);
+    verify(nacl, times(2))
+        .openAfterPrecomputation(any(byte[].class), eq(cipherTextNonce), any(MasterKey.class));
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(recipientKey);
+  }
+
   // Case 3 - decrypt using the recipient key
   @Test
   public void unencryptTransactionWeSentUsingRecipientKey() {
@@ -553,6 +623,36 @@ public class EnclaveTest {
     verify(nacl).computeSharedKey(senderKey, senderPrivateKey);
   }
 
+  @Test
+  public void unencryptRawPayloadReusesCachedSharedKey() {
+    final Enclave cachingEnclave =
+        new EnclaveImpl(nacl, keyManager, new SharedKeyCache(10, 60000L));
+
+    final PublicKey senderKey = PublicKey.from("sender".getBytes());
+    final PrivateKey senderPrivateKey = PrivateKey.from("sender-priv".getBytes());
+    final SharedKey sharedKey = SharedKey.from("shared".getBytes());
+    final Nonce nonce = new Nonce("nonce".getBytes());
+
+    final RawTransaction rawTransaction =
+        new RawTransaction("cipherText".getBytes(), "RecipientBox".getBytes(), nonce, senderKey);
+
+    when(keyManager.getPrivateKeyForPublicKey(senderKey)).thenReturn(senderPrivateKey);
+    when(nacl.computeSharedKey(senderKey, senderPrivateKey)).thenReturn(sharedKey);
+    when(nacl.openAfterPrecomputation("RecipientBox".getBytes(), nonce, sharedKey))
+        .thenReturn("masterKey".getBytes());
+    when(nacl.openAfterPrecomputation(any(byte[].class), any(Nonce.class), any(MasterKey.class)))
+        .thenReturn("SUCCESS".getBytes());
+
+    assertThat(cachingEnclave.unencryptRawPayload(rawTransaction)).isEqualTo("SUCCESS".getBytes());
+    assertThat(cachingEnclave.unencryptRawPayload(rawTransaction)).isEqualTo("SUCCESS".getBytes());
+
+    verify(nacl).computeSharedKey(senderKey, senderPrivateKey);
+    verify(nacl, times(2)).openAfterPrecomputation("RecipientBox".getBytes(), nonce, sharedKey);
+    verify(nacl, times(2))
+        .openAfterPrecomputation(any(byte[].class), any(Nonce.class), any(MasterKey.class));
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(senderKey);
+  }
+
   @Test
   public void encryptPayload() {
 
@@ -606,6 +706,72 @@ public class EnclaveTest {
     verify(keyManager).getPrivateKeyForPublicKey(senderPublicKey);
   }
 
+  @Test
+  public void affectedTransactionFromOtherNodeOnlyHoldsSharedKeyThatOpensItsBox() {
+    final SharedKeyCache sharedKeyCache = new SharedKeyCache(10, 60000L);
+    final Enclave cachingEnclave = new EnclaveImpl(nacl, keyManager, sharedKeyCache);
+
+    final PublicKey senderKey = PublicKey.from("sender".getBytes());
+    final PublicKey wrongKey = PublicKey.from("wrong".getBytes());
+    final PublicKey rightKey = PublicKey.from("right".getBytes());
+    final PrivateKey wrongPrivateKey = PrivateKey.from("wrongPrivate".getBytes());
+    final PrivateKey rightPrivateKey = PrivateKey.from("rightPrivate".getBytes());
+    final SharedKey wrongSharedKey = SharedKey.from("wrongShared".getBytes());
+    final SharedKey rightSharedKey = SharedKey.from("rightShared".getBytes());
+    final RecipientBox closedbox = RecipientBox.from("closed".getBytes());
+    final Nonce recipientNonce = new Nonce("nonce".getBytes());
+
+    // the wrong key is tried first
+    when(keyManager.getPublicKeys()).thenReturn(new LinkedHashSet<>(List.of(wrongKey, rightKey)));
+    when(keyManager.getPrivateKeyForPublicKey(wrongKey)).thenReturn(wrongPrivateKey);
+    when(keyManager.getPrivateKeyForPublicKey(rightKey)).thenReturn(rightPrivateKey);
+    when(nacl.computeSharedKey(senderKey, wrongPrivateKey)).thenReturn(wrongSharedKey);
+    when(nacl.computeSharedKey(senderKey, rightPrivateKey)).thenReturn(rightSharedKey);
+    when(nacl.openAfterPrecomputation(closedbox.getData(), recipientNonce, wrongSharedKey))
+        .thenThrow(new EncryptorException("wrong key"));
+    when(nacl.openAfterPrecomputation(closedbox.getData(), recipientNonce, rightSharedKey))
+        .thenReturn("masterKeyBytes".getBytes());
+    when(nacl.createMasterKey()).thenReturn(MasterKey.from("masterKey".getBytes()));
+    when(nacl.sealAfterPrecomputation(any(byte[].class), any(), any(MasterKey.class)))
+        .thenReturn("cipherText".getBytes());
+
+    final EncodedPayload affectedTxPayload = mock(EncodedPayload.class);
+    when(affectedTxPayload.getSenderKey()).thenReturn(senderKey);
+    when(affectedTxPayload.getCipherText()).thenReturn("affectedCipherText".getBytes());
+    when(affectedTxPayload.getRecipientBoxes()).thenReturn(singletonList(closedbox));
+    when(affectedTxPayload.getRecipientNonce()).thenReturn(recipientNonce);
+    when(affectedTxPayload.getRecipientKeys()).thenReturn(emptyList());
+
+    final AffectedTransaction affectedTransaction = mock(AffectedTransaction.class);
+    when(affectedTransaction.getHash()).thenReturn(TxHash.from("txHash".getBytes()));
+    when(affectedTransaction.getPayload()).thenReturn(affectedTxPayload);
+
+    final PrivacyMetadata metaData =
+        PrivacyMetadata.Builder.create()
+            .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+            .withAffectedTransactions(List.of(affectedTransaction))
+            .build();
+
+    cachingEnclave.encryptPayload("MESSAGE".getBytes(), rightKey, emptyList(), metaData);
+    cachingEnclave.encryptPayload("MESSAGE".getBytes(), rightKey, emptyList(), metaData);
+
+    // the second time round the key that opened the box is held, the wrong one is computed again
+    assertThat(sharedKeyCache.size()).isEqualTo(1);
+
+    verify(nacl, times(2)).computeSharedKey(senderKey, wrongPrivateKey);
+    verify(nacl).computeSharedKey(senderKey, rightPrivateKey);
+    verify(nacl, times(2))
+        .openAfterPrecomputation(closedbox.getData(), recipientNonce, wrongSharedKey);
+    verify(nacl, times(2))
+        .openAfterPrecomputation(closedbox.getData(), recipientNonce, rightSharedKey);
+    verify(nacl, times(2)).createMasterKey();
+    verify(nacl, times(4)).randomNonce();
+    verify(nacl, times(2)).sealAfterPrecomputation(any(byte[].class), any(), any(MasterKey.class));
+    verify(keyManager, times(4)).getPublicKeys();
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(wrongKey);
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(rightKey);
+  }
+
   @Test
   public void encryptPayloadWithAffectedTransactions() {
 
@@ -992,6 +1158,45 @@ public class EnclaveTest {
     verify(keyManager, times(2)).getPrivateKeyForPublicKey(senderKey);
   }
 
+  @Test
+  public void createNewRecipientBoxesGivesBoxForEachKey() {
+
+    final PublicKey publicKey = PublicKey.from("recipient".getBytes());
+    final PublicKey senderKey = PublicKey.from("sender".getBytes());
+    final PrivateKey privateKey = PrivateKey.from("sender-priv".getBytes());
+    final SharedKey recipientSenderShared = SharedKey.from("shared-one".getBytes());
+    final SharedKey senderShared = SharedKey.from("shared-two".getBytes());
+    final RecipientBox closedbox = RecipientBox.from("closed".getBytes());
+    final byte[] openbox = "open".getBytes();
+    final Nonce nonce = new Nonce("nonce".getBytes());
+
+    EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getSenderKey()).thenReturn(senderKey);
+    when(payload.getRecipientBoxes()).thenReturn(singletonList(closedbox));
+    when(payload.getRecipientNonce()).thenReturn(nonce);
+    when(payload.getRecipientKeys()).thenReturn(singletonList(publicKey));
+
+    when(nacl.computeSharedKey(publicKey, privateKey)).thenReturn(recipientSenderShared);
+    when(nacl.computeSharedKey(senderKey, privateKey)).thenReturn(senderShared);
+    when(nacl.openAfterPrecomputation(closedbox.getData(), nonce, recipientSenderShared))
+        .thenReturn(openbox);
+    when(nacl.sealAfterPrecomputation(openbox, nonce, senderShared))
+        .thenReturn("newbox".getBytes());
+    when(keyManager.getPrivateKeyForPublicKey(senderKey)).thenReturn(privateKey);
+
+    final List<byte[]> newRecipientBoxes =
+        enclave.createNewRecipientBoxes(payload, List.of(senderKey, senderKey));
+
+    assertThat(newRecipientBoxes).containsExactly("newbox".getBytes(), "newbox".getBytes());
+
+    // the master key is only opened once for all the new boxes
+    verify(nacl).computeSharedKey(publicKey, privateKey);
+    verify(nacl, times(2)).computeSharedKey(senderKey, privateKey);
+    verify(nacl).openAfterPrecomputation(closedbox.getData(), nonce, recipientSenderShared);
+    verify(nacl, times(2)).sealAfterPrecomputation(openbox, nonce, senderShared);
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(senderKey);
+  }
+
   @Test
   public void findInvalidSecurityHashesTransactionSentToCurrentNode() {
 
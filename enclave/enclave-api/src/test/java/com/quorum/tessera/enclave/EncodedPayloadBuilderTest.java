@@ -101,6 +101,8 @@ public class EncodedPayloadBuilderTest {
 
     EqualsVerifier.forClass(EncodedPayload.class)
         .withIgnoredFields("affectedContractTransactions")
+        .withPrefabValues(
+            PayloadBytes.class, PayloadBytes.of(new byte[] {1}), PayloadBytes.of(new byte[] {2}))
         .usingGetClass()
         .verify();
   }
@@ -126,6 +128,8 @@ public class EncodedPayloadBuilderTest {
 
     EqualsVerifier.forClass(EncodedPayload.class)
         .withIgnoredFields("affectedContractTransactions")
+        .withPrefabValues(
+            PayloadBytes.class, PayloadBytes.of(new byte[] {1}), PayloadBytes.of(new byte[] {2}))
         .usingGetClass()
         .verify();
 
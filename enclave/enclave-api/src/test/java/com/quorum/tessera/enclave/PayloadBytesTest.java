@@ -0,0 +1,60 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class PayloadBytesTest {
+
+  @Test
+  public void wholeArrayIsNotCopied() {
+    final byte[] data = "DATA".getBytes();
+
+    final PayloadBytes payloadBytes = PayloadBytes.of(data);
+
+    assertThat(payloadBytes.length()).isEqualTo(4);
+    assertThat(payloadBytes.toArray()).isSameAs(data);
+  }
+
+  @Test
+  public void rangeIsCopiedOnce() {
+    final byte[] data = "SOMEDATAHERE".getBytes();
+
+    final PayloadBytes payloadBytes = PayloadBytes.of(data, 4, 4);
+
+    final byte[] first = payloadBytes.toArray();
+    assertThat(first).isEqualTo("DATA".getBytes());
+    assertThat(payloadBytes.toArray()).isSameAs(first);
+  }
+
+  @Test
+  public void nullArrayGivesNull() {
+    assertThat(PayloadBytes.of(null)).isNull();
+  }
+
+  @Test
+  public void rangesWithTheSameBytesAreEqual() {
+    final PayloadBytes range = PayloadBytes.of("SOMEDATAHERE".getBytes(), 4, 4);
+    final PayloadBytes whole = PayloadBytes.of("DATA".getBytes());
+
+    assertThat(range)
+        .isEqualTo(whole)
+        .hasSameHashCodeAs(whole)
+        .isNotEqualTo(PayloadBytes.of("SOMEDATAHERE".getBytes(), 0, 4))
+        .isNotEqualTo(null)
+        .isNotEqualTo("DATA");
+    assertThat(range.hashCode()).isEqualTo(Arrays.hashCode("DATA".getBytes()));
+  }
+
+  @Test
+  public void writeToBuffer() {
+    final PayloadBytes payloadBytes = PayloadBytes.of("SOMEDATAHERE".getBytes(), 4, 4);
+    final ByteBuffer buffer = ByteBuffer.allocate(4);
+
+    payloadBytes.writeTo(buffer);
+
+    assertThat(buffer.array()).isEqualTo("DATA".getBytes());
+  }
+}
@@ -2,12 +2,15 @@ package com.quorum.tessera.enclave;
 
 import static java.util.Collections.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.mock;
 
 import com.quorum.tessera.enclave.encoder.LegacyEncodedPayload;
 import com.quorum.tessera.enclave.encoder.LegacyPayloadEncoder;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import org.bouncycastle.util.encoders.Hex;
 import org.junit.Test;
@@ -1759,6 +1762,44 @@ public class PayloadEncoderTest {
     payloadEncoder.forRecipient(originalPayload, recipientKey);
   }
 
+  @Test
+  public void encodeAndDecodeListOfPayloads() {
+    final String data =
+        "00000000000000200542de47c272516862bae08c53f1cb034439a739184fe707208dd92817b2dc1a00000000000001796fe5bb76ae4d530a574acbe20cbb5094222eeaba32132fbda79c99e3d3df4e68466fe059f58c32c7ac55a5565e395c9394f608c741715e6bc60ca67d4e9fbcb842fef5e51dba7e537458fb5e201e67716751840662091feb0c029d95562e9929a13fff76f5bd27719a4d832100a04a4486c4f5c00ba9140b36a4900e2f29b1d29c9e8ff7baa9214f4cebc046f0840e1530b9fd774f0bd6da74635687b80251f4a97c4a9af799da572aeedcc2284f89574fa5a081aa328d7a9f33869b89141b2a005c2b4e58a07ecfa61700a08706edc7f30448353cbac7b836455fdf2742fcacf491d57731f938afb2a2de722b8e172a9e65a5979ec23239fc1a5adedfcd3f10d263239ab0fd75785945d798dc2ef8153c4d8dabc9d204fd98919d4e1183cbb0052bca3cd1a68f44d36472191eff7a86b3769f36189ee55a4aa4c212f369b297c82a7961199b00e6fbe7b9cec6ed53384ce025a0626921606bc3e28b7af44ccac85a18c534b56090fb4545693d1824c8929b42200a04a701420000000000000018499a2bedbac3eeaee6f400813382a5b5b7726ff5794974a2000000000000000100000000000000302badf5e765129f28e3d17ee318fba57d952d058cb93c8b407b95cc395bf86ab453c35ea3d8a88e38c459f5f002262795000000000000001887b36b4c47bdd2fddb2d1d8c94adfa7a4797d197cfdfeeac0000000000000001000000000000002044e019056b5269cc5742b39edc5180a890f226315e3d1e5c7b84d2233989d017";
+
+    final EncodedPayload payload = payloadEncoder.decode(Hex.decode(data));
+
+    final EncodedPayload otherPayload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(singletonList("BOX".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .withRecipientKeys(singletonList(PublicKey.from("RECIPIENT".getBytes())))
+            .withPrivacyMode(PrivacyMode.PRIVATE_STATE_VALIDATION)
+            .withAffectedContractTransactions(
+                singletonMap(new TxHash("test".getBytes()), "test".getBytes()))
+            .withExecHash("execHash".getBytes())
+            .build();
+
+    final byte[] encoded = payloadEncoder.encodeList(List.of(payload, otherPayload));
+
+    final List<EncodedPayload> result = payloadEncoder.decodeList(encoded);
+
+    assertThat(result).containsExactly(payload, otherPayload);
+    assertThat(payloadEncoder.countList(encoded)).isEqualTo(2);
+  }
+
+  @Test
+  public void encodeAndDecodeEmptyListOfPayloads() {
+    final byte[] encoded = payloadEncoder.encodeList(emptyList());
+
+    assertThat(encoded).hasSize(Long.BYTES);
+    assertThat(payloadEncoder.decodeList(encoded)).isEmpty();
+    assertThat(payloadEncoder.countList(encoded)).isZero();
+  }
+
   @Test
   public void decodePayloadFromLegacyEncoderNoRecipient() {
 
@@ -2231,4 +2272,142 @@ public class PayloadEncoderTest {
 
     assertThat(payload.getRecipientKeys()).containsExactly(PublicKey.from("someKey".getBytes()));
   }
+
+  @Test
+  public void decodedPayloadOnlyCopiesFieldsWhenAskedForThem() {
+    final EncodedPayload originalPayload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(List.of("BOX1".getBytes(), "BOX2".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .withRecipientKeys(
+                List.of(PublicKey.from("RECIPIENT1".getBytes()), PublicKey.from("KEY2".getBytes())))
+            .withPrivacyMode(PrivacyMode.PRIVATE_STATE_VALIDATION)
+            .withAffectedContractTransactions(
+                singletonMap(new TxHash("test".getBytes()), "test".getBytes()))
+            .withExecHash("execHash".getBytes())
+            .withPrivacyGroupId(PrivacyGroup.Id.fromBytes("GROUP".getBytes()))
+            .build();
+
+    final byte[] encoded = payloadEncoder.encode(originalPayload);
+    final EncodedPayload payload = payloadEncoder.decode(encoded);
+
+    assertThat(payload.getRecipientBoxes()).hasSize(2);
+    assertThat(payload.getRecipientKeys()).hasSize(2);
+
+    // the decoded payload reads from the input, so changing the input shows up in fields that
+    // haven't been asked for yet but not in those that have
+    final PublicKey firstRecipient = PublicKey.from("RECIPIENT1".getBytes());
+    assertThat(payload.getRecipientKeys().get(0)).isEqualTo(firstRecipient);
+    Arrays.fill(encoded, (byte) 0);
+
+    assertThat(payload.getRecipientKeys().get(0)).isEqualTo(firstRecipient);
+    assertThat(payload.getRecipientKeys().get(1)).isNotEqualTo(PublicKey.from("KEY2".getBytes()));
+    assertThat(payload.getCipherText()).isNotEqualTo("CIPHERTEXT".getBytes());
+    assertThat(payload.getPrivacyGroupId()).contains(PrivacyGroup.Id.fromBytes("GROUP".getBytes()));
+  }
+
+  @Test
+  public void decodedPayloadEqualsThePayloadThatWasEncoded() {
+    final EncodedPayload originalPayload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(List.of("BOX1".getBytes(), "BOX2".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .withRecipientKeys(
+                List.of(PublicKey.from("RECIPIENT1".getBytes()), PublicKey.from("KEY2".getBytes())))
+            .withPrivacyMode(PrivacyMode.PARTY_PROTECTION)
+            .withAffectedContractTransactions(
+                singletonMap(new TxHash("test".getBytes()), "test".getBytes()))
+            .build();
+
+    final byte[] encoded = payloadEncoder.encode(originalPayload);
+    final EncodedPayload payload = payloadEncoder.decode(encoded);
+
+    assertThat(payload).isEqualTo(originalPayload).hasSameHashCodeAs(originalPayload);
+    assertThat(originalPayload).isEqualTo(payload);
+    assertThat(payload.getAffectedContractTransactions())
+        .isEqualTo(originalPayload.getAffectedContractTransactions());
+    assertThat(payloadEncoder.encode(payload)).isEqualTo(encoded);
+    assertThat(payloadEncoder.encode(EncodedPayload.Builder.from(payload).build()))
+        .isEqualTo(encoded);
+  }
+
+  @Test
+  public void encodeIntoPresizedBuffer() {
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(singletonList("BOX".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .withRecipientKeys(singletonList(PublicKey.from("RECIPIENT".getBytes())))
+            .withPrivacyMode(PrivacyMode.PRIVATE_STATE_VALIDATION)
+            .withAffectedContractTransactions(
+                singletonMap(new TxHash("test".getBytes()), "test".getBytes()))
+            .withExecHash("execHash".getBytes())
+            .build();
+
+    final byte[] encoded = payloadEncoder.encode(payload);
+    assertThat(payloadEncoder.encodedSize(payload)).isEqualTo(encoded.length);
+
+    final ByteBuffer buffer = ByteBuffer.allocate(3 + encoded.length);
+    buffer.position(3);
+    payloadEncoder.encode(payload, buffer);
+
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(Arrays.copyOfRange(buffer.array(), 3, buffer.capacity())).isEqualTo(encoded);
+  }
+
+  @Test
+  public void decodeFromBuffer() {
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(singletonList("BOX".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .withRecipientKeys(singletonList(PublicKey.from("RECIPIENT".getBytes())))
+            .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+            .build();
+    final byte[] encoded = payloadEncoder.encode(payload);
+
+    final ByteBuffer heapBuffer = ByteBuffer.allocate(encoded.length + 5);
+    heapBuffer.position(2);
+    heapBuffer.slice().put(encoded);
+    heapBuffer.limit(2 + encoded.length);
+
+    assertThat(payloadEncoder.decodeBuffer(heapBuffer)).isEqualTo(payload);
+    assertThat(heapBuffer.position()).isEqualTo(2);
+
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(encoded.length);
+    directBuffer.put(encoded).flip();
+
+    assertThat(payloadEncoder.decodeBuffer(directBuffer)).isEqualTo(payload);
+    assertThat(directBuffer.position()).isZero();
+  }
+
+  @Test
+  public void decodeTruncatedPayloadFails() {
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from("SENDER".getBytes()))
+            .withCipherText("CIPHERTEXT".getBytes())
+            .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+            .withRecipientBoxes(singletonList("BOX".getBytes()))
+            .withRecipientNonce(new Nonce("RECIPIENTNONCE".getBytes()))
+            .build();
+    final byte[] encoded = payloadEncoder.encode(payload);
+
+    final Throwable throwable =
+        catchThrowable(() -> payloadEncoder.decode(Arrays.copyOf(encoded, 30)));
+
+    assertThat(throwable).isInstanceOf(BufferUnderflowException.class);
+  }
 }
@@ -0,0 +1,107 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class RecipientBoxSealerTest {
+
+  private final Set<String> sealingThreads = ConcurrentHashMap.newKeySet();
+
+  private final Function<PublicKey, byte[]> sealer =
+      publicKey -> {
+        sealingThreads.add(Thread.currentThread().getName());
+        return ("box-" + new String(publicKey.getKeyBytes())).getBytes();
+      };
+
+  @Test
+  public void sequentialSealerSealsOnCallingThreadInOrder() {
+    final List<PublicKey> recipients = recipients(50);
+
+    final List<byte[]> boxes = RecipientBoxSealer.sequential().seal(recipients, sealer);
+
+    assertThat(boxes).containsExactlyElementsOf(expectedBoxes(recipients));
+    assertThat(sealingThreads).containsExactly(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void parallelSealerKeepsRecipientOrder() {
+    final List<PublicKey> recipients = recipients(103);
+
+    final List<byte[]> boxes = RecipientBoxSealer.parallel(4, 10).seal(recipients, sealer);
+
+    assertThat(boxes).containsExactlyElementsOf(expectedBoxes(recipients));
+    assertThat(sealingThreads).contains(Thread.currentThread().getName());
+    assertThat(sealingThreads).anyMatch(name -> name.startsWith("recipient-box-sealer-"));
+  }
+
+  @Test
+  public void parallelSealerUsesRegisteredPool() {
+    RecipientBoxSealer.parallel(4, 10).seal(recipients(103), sealer);
+
+    assertThat(ExecutorRegistry.INSTANCE.getExecutors())
+        .extracting(BoundedExecutor::getName)
+        .contains(RecipientBoxSealer.EXECUTOR_NAME);
+  }
+
+  @Test
+  public void parallelSealerStaysOnCallingThreadBelowThreshold() {
+    final List<PublicKey> recipients = recipients(9);
+
+    final List<byte[]> boxes = RecipientBoxSealer.parallel(4, 10).seal(recipients, sealer);
+
+    assertThat(boxes).containsExactlyElementsOf(expectedBoxes(recipients));
+    assertThat(sealingThreads).containsExactly(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void failureInPoolIsRethrown() {
+    final List<PublicKey> recipients = recipients(20);
+    final PublicKey failingKey = recipients.get(19);
+
+    final Throwable throwable =
+        catchThrowable(
+            () ->
+                RecipientBoxSealer.parallel(2, 2)
+                    .seal(
+                        recipients,
+                        publicKey -> {
+                          if (publicKey.equals(failingKey)) {
+                            throw new EnclaveException("OUCH");
+                          }
+                          return publicKey.getKeyBytes();
+                        }));
+
+    assertThat(throwable).isExactlyInstanceOf(EnclaveException.class).hasMessage("OUCH");
+  }
+
+  @Test
+  public void invalidSettingsAreRejected() {
+    assertThat(catchThrowable(() -> RecipientBoxSealer.parallel(1, 10)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> RecipientBoxSealer.parallel(4, 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<PublicKey> recipients(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> PublicKey.from(("key" + i).getBytes()))
+        .collect(Collectors.toList());
+  }
+
+  private static List<byte[]> expectedBoxes(List<PublicKey> recipients) {
+    return recipients.stream()
+        .map(publicKey -> ("box-" + new String(publicKey.getKeyBytes())).getBytes())
+        .collect(Collectors.toList());
+  }
+}
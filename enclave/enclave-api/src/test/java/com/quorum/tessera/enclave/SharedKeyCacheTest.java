@@ -0,0 +1,202 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.encryption.PrivateKey;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.encryption.SharedKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedKeyCacheTest {
+
+  private final PublicKey publicKey = PublicKey.from("public".getBytes());
+
+  private final PrivateKey privateKey = PrivateKey.from("private".getBytes());
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private BiFunction<PublicKey, PrivateKey, SharedKey> computation;
+
+  private long hitsBefore;
+
+  private long missesBefore;
+
+  private long evictionsBefore;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void onSetUp() {
+    computation = mock(BiFunction.class);
+    when(computation.apply(any(PublicKey.class), any(PrivateKey.class)))
+        .thenAnswer(
+            invocation ->
+                SharedKey.from(
+                    (invocation.getArgument(0, PublicKey.class).encodeToBase64()
+                            + invocation.getArgument(1, PrivateKey.class).encodeToBase64())
+                        .getBytes()));
+
+    hitsBefore = SharedKeyCache.HITS.get();
+    missesBefore = SharedKeyCache.MISSES.get();
+    evictionsBefore = SharedKeyCache.EVICTIONS.get();
+  }
+
+  private long hits() {
+    return SharedKeyCache.HITS.get() - hitsBefore;
+  }
+
+  private long misses() {
+    return SharedKeyCache.MISSES.get() - missesBefore;
+  }
+
+  private long evictions() {
+    return SharedKeyCache.EVICTIONS.get() - evictionsBefore;
+  }
+
+  @Test
+  public void sharedKeyIsComputedOnceForSamePair() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+    final SharedKey first = cache.get(publicKey, privateKey, computation);
+    final SharedKey second = cache.get(publicKey, privateKey, computation);
+
+    assertThat(second).isSameAs(first);
+    assertThat(misses()).isEqualTo(1);
+    assertThat(hits()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+
+    verify(computation).apply(publicKey, privateKey);
+    verifyNoMoreInteractions(computation);
+  }
+
+  @Test
+  public void differentPrivateKeyIsNotServedFromCache() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+    final PrivateKey otherPrivateKey = PrivateKey.from("other".getBytes());
+
+    final SharedKey first = cache.get(publicKey, privateKey, computation);
+    final SharedKey second = cache.get(publicKey, otherPrivateKey, computation);
+
+    assertThat(second).isNotEqualTo(first);
+    assertThat(misses()).isEqualTo(2);
+    assertThat(hits()).isZero();
+
+    verify(computation).apply(publicKey, privateKey);
+    verify(computation).apply(publicKey, otherPrivateKey);
+  }
+
+  @Test
+  public void expiredEntryIsComputedAgain() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+    cache.get(publicKey, privateKey, computation);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000L));
+    cache.get(publicKey, privateKey, computation);
+
+    assertThat(misses()).isEqualTo(2);
+    assertThat(evictions()).isEqualTo(1);
+    verify(computation, times(2)).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void keyComputedWithoutStoringIsNotHeld() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+
+    cache.getWithoutStoring(publicKey, privateKey, computation);
+    cache.getWithoutStoring(publicKey, privateKey, computation);
+
+    assertThat(cache.size()).isZero();
+    assertThat(misses()).isEqualTo(2);
+    verify(computation, times(2)).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void heldKeyIsUsedWithoutStoring() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+
+    final SharedKey held = cache.get(publicKey, privateKey, computation);
+
+    assertThat(cache.getWithoutStoring(publicKey, privateKey, computation)).isSameAs(held);
+    assertThat(hits()).isEqualTo(1);
+    verify(computation).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void keyComputedWithoutStoringCanBePutOnceKnownToBeNeeded() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+
+    final SharedKey tried = cache.getWithoutStoring(publicKey, privateKey, computation);
+    cache.put(publicKey, privateKey, tried);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.get(publicKey, privateKey, computation)).isSameAs(tried);
+    verify(computation).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void disabledCacheDoesNotHoldPutKeys() {
+    final SharedKeyCache cache = SharedKeyCache.disabled();
+
+    cache.put(publicKey, privateKey, SharedKey.from("shared".getBytes()));
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvictedWhenFull() {
+    final SharedKeyCache cache = new SharedKeyCache(2, 1000L, clock::get);
+    final PublicKey second = PublicKey.from("second".getBytes());
+    final PublicKey third = PublicKey.from("third".getBytes());
+
+    cache.get(publicKey, privateKey, computation);
+    cache.get(second, privateKey, computation);
+    cache.get(publicKey, privateKey, computation);
+    cache.get(third, privateKey, computation);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(evictions()).isEqualTo(1);
+
+    cache.get(publicKey, privateKey, computation);
+    cache.get(second, privateKey, computation);
+
+    verify(computation).apply(publicKey, privateKey);
+    verify(computation, times(2)).apply(second, privateKey);
+    verify(computation).apply(third, privateKey);
+  }
+
+  @Test
+  public void clearDiscardsAllEntries() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 1000L, clock::get);
+
+    cache.get(publicKey, privateKey, computation);
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+
+    cache.get(publicKey, privateKey, computation);
+    verify(computation, times(2)).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void disabledCacheAlwaysComputes() {
+    final SharedKeyCache cache = SharedKeyCache.disabled();
+
+    cache.get(publicKey, privateKey, computation);
+    cache.get(publicKey, privateKey, computation);
+
+    assertThat(cache.size()).isZero();
+    assertThat(misses()).isEqualTo(2);
+    verify(computation, times(2)).apply(publicKey, privateKey);
+  }
+
+  @Test
+  public void invalidSettingsAreRejected() {
+    assertThat(catchThrowable(() -> new SharedKeyCache(-1, 1000L)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> new SharedKeyCache(10, 0L)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,128 @@
+package com.quorum.tessera.enclave.rest;
+
+import com.quorum.tessera.enclave.BinaryEncoder;
+import com.quorum.tessera.encryption.PublicKey;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Binary form of the batch requests and responses exchanged with a remote enclave, using the same
+ * length prefixed fields as the payloads themselves so that no JSON or base64 conversion is needed.
+ *
+ * <p>A request is the encoded payload as a single field followed by an array of the keys. A
+ * response is an array with an entry per key, in the same order as the keys of the request. For
+ * results that may be missing, each entry starts with a single byte that is 1 if the result is
+ * present, followed by the result, or 0 if it is not.
+ */
+class EnclaveBatchCodec implements BinaryEncoder {
+
+  private static final byte PRESENT = 1;
+
+  private static final byte ABSENT = 0;
+
+  static class Request {
+
+    private final byte[] payload;
+
+    private final List<PublicKey> keys;
+
+    Request(byte[] payload, List<PublicKey> keys) {
+      this.payload = Objects.requireNonNull(payload, "payload is required");
+      this.keys = List.copyOf(keys);
+    }
+
+    byte[] getPayload() {
+      return payload;
+    }
+
+    List<PublicKey> getKeys() {
+      return keys;
+    }
+  }
+
+  byte[] encodeRequest(Request request) {
+    final byte[] payload = encodeField(request.getPayload());
+    final byte[] keys =
+        encodeArray(
+            request.getKeys().stream().map(PublicKey::getKeyBytes).collect(Collectors.toList()));
+
+    return ByteBuffer.allocate(payload.length + keys.length).put(payload).put(keys).array();
+  }
+
+  Request decodeRequest(byte[] data) {
+    final ByteBuffer buffer = ByteBuffer.wrap(data);
+    final byte[] payload = readField(buffer);
+    final List<PublicKey> keys =
+        readArray(buffer).stream().map(PublicKey::from).collect(Collectors.toList());
+    return new Request(payload, keys);
+  }
+
+  byte[] encodeResults(List<byte[]> results) {
+    return encodeArray(results);
+  }
+
+  List<byte[]> decodeResults(byte[] data) {
+    return readArray(ByteBuffer.wrap(data));
+  }
+
+  byte[] encodeOptionalResults(List<Optional<byte[]>> results) {
+    final List<byte[]> entries =
+        results.stream()
+            .map(
+                result ->
+                    result
+                        .map(
+                            value ->
+                                ByteBuffer.allocate(1 + value.length)
+                                    .put(PRESENT)
+                                    .put(value)
+                                    .array())
+                        .orElseGet(() -> new byte[] {ABSENT}))
+            .collect(Collectors.toList());
+    return encodeArray(entries);
+  }
+
+  List<Optional<byte[]>> decodeOptionalResults(byte[] data) {
+    return readArray(ByteBuffer.wrap(data)).stream()
+        .map(
+            entry -> {
+              if (entry.length == 0 || entry[0] != PRESENT) {
+                return Optional.<byte[]>empty();
+              }
+              final byte[] value = new byte[entry.length - 1];
+              System.arraycopy(entry, 1, value, 0, value.length);
+              return Optional.of(value);
+            })
+        .collect(Collectors.toList());
+  }
+
+  // lengths and counts are read from the request, so are checked against the bytes actually left
+  // before anything is allocated for them
+  private static byte[] readField(ByteBuffer buffer) {
+    final long length = buffer.getLong();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    final byte[] field = new byte[(int) length];
+    buffer.get(field);
+    return field;
+  }
+
+  private static List<byte[]> readArray(ByteBuffer buffer) {
+    final long count = buffer.getLong();
+    // each element takes at least its length prefix
+    if (count < 0 || count > buffer.remaining() / Long.BYTES) {
+      throw new BufferUnderflowException();
+    }
+    final List<byte[]> elements = new ArrayList<>((int) count);
+    for (int i = 0; i < count; i++) {
+      elements.add(readField(buffer));
+    }
+    return elements;
+  }
+}
@@ -1,9 +1,14 @@
 package com.quorum.tessera.enclave.rest;
 
 import com.quorum.tessera.config.*;
+import com.quorum.tessera.config.util.IntervalPropertyHelper;
 import com.quorum.tessera.enclave.EnclaveClient;
 import com.quorum.tessera.jaxrs.client.ClientFactory;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 import javax.ws.rs.client.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +17,10 @@ public class EnclaveClientProvider {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EnclaveClientProvider.class);
 
+  static final String STATUS_EXECUTOR_NAME = "enclave-status";
+
+  static final String KEY_REFRESH_EXECUTOR_NAME = "enclave-key-refresh";
+
   public static EnclaveClient provider() {
 
     Config config = ConfigFactory.create().getConfig();
@@ -27,7 +36,31 @@ public class EnclaveClientProvider {
     LOGGER.debug("Created server context from config");
 
     Client client = clientFactory.buildFrom(serverConfig);
+
+    // Refresh the cached enclave keys as often as they are synchronised with the network store
+    final long keyCacheRefreshInterval =
+        new IntervalPropertyHelper(
+                Optional.ofNullable(config.getP2PServerConfig())
+                    .map(ServerConfig::getProperties)
+                    .orElse(Map.of()))
+            .enclaveKeySyncInterval();
+
+    final ExecutorFactory executorFactory = new ExecutorFactory();
+    final BoundedExecutor statusExecutor =
+        executorFactory.create(
+            STATUS_EXECUTOR_NAME, 1, 10, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+    // only one refresh waits behind a running one, any more are dropped as the next is due soon
+    final BoundedExecutor keyCacheRefreshExecutor =
+        executorFactory.create(
+            KEY_REFRESH_EXECUTOR_NAME, 1, 1, BoundedExecutor.RejectionPolicy.DISCARD);
+
     LOGGER.info("Creating remoted enclave for {}", serverConfig.getServerUri());
-    return new RestfulEnclaveClient(client, serverConfig.getServerUri());
+    return new RestfulEnclaveClient(
+        client,
+        serverConfig.getServerUri(),
+        statusExecutor,
+        Executors.newSingleThreadScheduledExecutor(),
+        keyCacheRefreshExecutor,
+        keyCacheRefreshInterval);
   }
 }
@@ -0,0 +1,130 @@
+package com.quorum.tessera.enclave.rest;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.Counter;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the keys of a remote enclave so that looking them up does not need a request to the
+ * enclave each time.
+ *
+ * <p>Each value is fetched from the enclave the first time it is needed and then kept until it is
+ * replaced by a {@link #refresh()} or discarded by {@link #invalidate()}. A failed refresh keeps
+ * the previously known keys.
+ */
+public class EnclaveKeyCache implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EnclaveKeyCache.class);
+
+  static final Counter HITS = lookups("hit");
+
+  static final Counter MISSES = lookups("miss");
+
+  static final Counter REFRESHES = refreshes("success");
+
+  static final Counter REFRESH_FAILURES = refreshes("failure");
+
+  private final Supplier<PublicKey> defaultPublicKeyLoader;
+
+  private final Supplier<Set<PublicKey>> publicKeysLoader;
+
+  private final Supplier<Set<PublicKey>> forwardingKeysLoader;
+
+  private final AtomicReference<PublicKey> defaultPublicKey = new AtomicReference<>();
+
+  private final AtomicReference<Set<PublicKey>> publicKeys = new AtomicReference<>();
+
+  private final AtomicReference<Set<PublicKey>> forwardingKeys = new AtomicReference<>();
+
+  public EnclaveKeyCache(
+      Supplier<PublicKey> defaultPublicKeyLoader,
+      Supplier<Set<PublicKey>> publicKeysLoader,
+      Supplier<Set<PublicKey>> forwardingKeysLoader) {
+    this.defaultPublicKeyLoader =
+        Objects.requireNonNull(defaultPublicKeyLoader, "defaultPublicKeyLoader is required");
+    this.publicKeysLoader =
+        Objects.requireNonNull(publicKeysLoader, "publicKeysLoader is required");
+    this.forwardingKeysLoader =
+        Objects.requireNonNull(forwardingKeysLoader, "forwardingKeysLoader is required");
+  }
+
+  private static Counter lookups(final String outcome) {
+    return MetricsRegistry.node()
+        .counter(
+            "tessera_enclave_key_cache_lookups_total",
+            "Lookups of the remote enclave's keys that were answered from the cache or not",
+            "outcome",
+            outcome);
+  }
+
+  private static Counter refreshes(final String outcome) {
+    return MetricsRegistry.node()
+        .counter(
+            "tessera_enclave_key_cache_refreshes_total",
+            "Refreshes of the cached keys from the remote enclave that succeeded or failed",
+            "outcome",
+            outcome);
+  }
+
+  public PublicKey defaultPublicKey() {
+    return get(defaultPublicKey, defaultPublicKeyLoader);
+  }
+
+  public Set<PublicKey> getPublicKeys() {
+    return get(publicKeys, publicKeysLoader);
+  }
+
+  public Set<PublicKey> getForwardingKeys() {
+    return get(forwardingKeys, forwardingKeysLoader);
+  }
+
+  /** Fetches all the keys from the enclave, replacing any that are currently held. */
+  public void refresh() {
+    try {
+      final PublicKey latestDefaultPublicKey = defaultPublicKeyLoader.get();
+      final Set<PublicKey> latestPublicKeys = Set.copyOf(publicKeysLoader.get());
+      final Set<PublicKey> latestForwardingKeys = Set.copyOf(forwardingKeysLoader.get());
+
+      defaultPublicKey.set(latestDefaultPublicKey);
+      publicKeys.set(latestPublicKeys);
+      forwardingKeys.set(latestForwardingKeys);
+      REFRESHES.increment();
+    } catch (RuntimeException ex) {
+      REFRESH_FAILURES.increment();
+      LOGGER.warn("Unable to refresh keys from enclave, keeping known keys: {}", ex.getMessage());
+      LOGGER.debug(null, ex);
+    }
+  }
+
+  /** Discards all the held keys, so that they are fetched from the enclave when next needed. */
+  public void invalidate() {
+    defaultPublicKey.set(null);
+    publicKeys.set(null);
+    forwardingKeys.set(null);
+  }
+
+  @Override
+  public void run() {
+    refresh();
+  }
+
+  private <T> T get(AtomicReference<T> reference, Supplier<T> loader) {
+    final T cached = reference.get();
+    if (cached != null) {
+      HITS.increment();
+      return cached;
+    }
+
+    MISSES.increment();
+    final T loaded = loader.get();
+    // keep whatever a concurrent refresh stored, as it is at least as recent as this value
+    reference.compareAndSet(null, loaded);
+    return loaded;
+  }
+}
@@ -23,6 +23,8 @@ public class EnclaveResource {
 
   private final PayloadEncoder payloadEncoder = PayloadEncoder.create();
 
+  private final EnclaveBatchCodec batchCodec = new EnclaveBatchCodec();
+
   public EnclaveResource(Enclave enclave) {
     this.enclave = Objects.requireNonNull(enclave);
   }
@@ -251,6 +253,38 @@ public class EnclaveResource {
     return Response.ok(streamingOutput).build();
   }
 
+  @POST
+  @Path("unencrypt/batch")
+  @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response unencryptTransactions(byte[] body) {
+
+    EnclaveBatchCodec.Request request = batchCodec.decodeRequest(body);
+    EncodedPayload payload = payloadEncoder.decode(request.getPayload());
+
+    List<Optional<byte[]>> results = enclave.unencryptTransactions(payload, request.getKeys());
+
+    byte[] response = batchCodec.encodeOptionalResults(results);
+    final StreamingOutput streamingOutput = out -> out.write(response);
+    return Response.ok(streamingOutput).build();
+  }
+
+  @POST
+  @Path("addRecipient/batch")
+  @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response createNewRecipientBoxes(byte[] body) {
+
+    EnclaveBatchCodec.Request request = batchCodec.decodeRequest(body);
+    EncodedPayload payload = payloadEncoder.decode(request.getPayload());
+
+    List<byte[]> boxes = enclave.createNewRecipientBoxes(payload, request.getKeys());
+
+    byte[] response = batchCodec.encodeResults(boxes);
+    final StreamingOutput streamingOutput = out -> out.write(response);
+    return Response.ok(streamingOutput).build();
+  }
+
   private List<AffectedTransaction> convertToAffectedTransactions(
       final List<KeyValuePair> keyValuePairs) {
     return keyValuePairs.stream()
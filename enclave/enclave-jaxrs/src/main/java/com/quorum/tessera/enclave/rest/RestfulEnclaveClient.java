@@ -3,10 +3,12 @@ package com.quorum.tessera.enclave.rest;
 import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.threading.TesseraScheduledExecutor;
 import java.net.URI;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
@@ -14,6 +16,7 @@ import java.util.stream.IntStream;
 import javax.json.JsonArray;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,19 +33,86 @@ public class RestfulEnclaveClient implements EnclaveClient {
 
   private final PayloadEncoder payloadEncoder;
 
+  private final EnclaveBatchCodec batchCodec = new EnclaveBatchCodec();
+
+  private final EnclaveKeyCache keyCache;
+
+  private final TesseraScheduledExecutor keyCacheRefresher;
+
   public RestfulEnclaveClient(Client client, URI uri) {
     this(client, uri, Executors.newSingleThreadExecutor());
   }
 
   public RestfulEnclaveClient(Client client, URI uri, ExecutorService executorService) {
+    this(client, uri, executorService, null, null, 0L);
+  }
+
+  /**
+   * Creates a client for the enclave at the given uri
+   *
+   * @param client the rest client to make the requests with
+   * @param uri the location of the remote enclave
+   * @param executorService executor used to check the status of the enclave
+   * @param keyCacheRefreshScheduler executor that starts each background refresh of the cached
+   *     enclave keys, or null if the cached keys are only fetched when first needed
+   * @param keyCacheRefreshExecutor executor the background refreshes run on
+   * @param keyCacheRefreshInterval milliseconds between each background refresh of the keys
+   */
+  public RestfulEnclaveClient(
+      Client client,
+      URI uri,
+      ExecutorService executorService,
+      ScheduledExecutorService keyCacheRefreshScheduler,
+      Executor keyCacheRefreshExecutor,
+      long keyCacheRefreshInterval) {
     this.client = Objects.requireNonNull(client);
     this.uri = Objects.requireNonNull(uri);
     this.payloadEncoder = PayloadEncoder.create();
     this.executorService = executorService;
+    this.keyCache =
+        new EnclaveKeyCache(
+            this::fetchDefaultPublicKey, this::fetchPublicKeys, this::fetchForwardingKeys);
+
+    if (Objects.nonNull(keyCacheRefreshScheduler)) {
+      Objects.requireNonNull(keyCacheRefreshExecutor);
+      this.keyCacheRefresher =
+          new TesseraScheduledExecutor(
+              keyCacheRefreshScheduler,
+              () -> keyCacheRefreshExecutor.execute(keyCache),
+              keyCacheRefreshInterval,
+              keyCacheRefreshInterval);
+      this.keyCacheRefresher.start();
+    } else {
+      this.keyCacheRefresher = null;
+    }
+  }
+
+  /**
+   * The remote enclave's keys are served from a cache, so the transaction paths don't make a
+   * request to the enclave just to find out which keys it manages.
+   *
+   * @return the cache holding the keys of the remote enclave
+   */
+  public EnclaveKeyCache getKeyCache() {
+    return keyCache;
   }
 
   @Override
   public PublicKey defaultPublicKey() {
+    return keyCache.defaultPublicKey();
+  }
+
+  @Override
+  public Set<PublicKey> getForwardingKeys() {
+    return keyCache.getForwardingKeys();
+  }
+
+  @Override
+  public Set<PublicKey> getPublicKeys() {
+    return keyCache.getPublicKeys();
+  }
+
+  private PublicKey fetchDefaultPublicKey() {
 
     return ClientCallback.execute(
         () -> {
@@ -56,8 +126,7 @@ public class RestfulEnclaveClient implements EnclaveClient {
         });
   }
 
-  @Override
-  public Set<PublicKey> getForwardingKeys() {
+  private Set<PublicKey> fetchForwardingKeys() {
     return ClientCallback.execute(
         () -> {
           Response response = client.target(uri).path("forwarding").request().get();
@@ -70,12 +139,11 @@ public class RestfulEnclaveClient implements EnclaveClient {
               .mapToObj(results::getString)
               .map(s -> Base64.getDecoder().decode(s))
               .map(PublicKey::from)
-              .collect(Collectors.toSet());
+              .collect(Collectors.toUnmodifiableSet());
         });
   }
 
-  @Override
-  public Set<PublicKey> getPublicKeys() {
+  private Set<PublicKey> fetchPublicKeys() {
     return ClientCallback.execute(
         () -> {
           Response response = client.target(uri).path("public").request().get();
@@ -88,7 +156,7 @@ public class RestfulEnclaveClient implements EnclaveClient {
               .mapToObj(results::getString)
               .map(s -> Base64.getDecoder().decode(s))
               .map(PublicKey::from)
-              .collect(Collectors.toSet());
+              .collect(Collectors.toUnmodifiableSet());
         });
   }
 
@@ -269,6 +337,71 @@ public class RestfulEnclaveClient implements EnclaveClient {
         });
   }
 
+  /**
+   * Tries all the keys in a single request. An enclave that does not support the batch request is
+   * sent a request for each key instead.
+   */
+  @Override
+  public List<Optional<byte[]>> unencryptTransactions(
+      final EncodedPayload payload, final List<PublicKey> providedKeys) {
+    if (providedKeys.isEmpty()) {
+      return List.of();
+    }
+
+    return ClientCallback.execute(
+        () -> {
+          final Response response = postBatch("unencrypt", payload, providedKeys);
+
+          if (response.getStatus() == 404) {
+            LOGGER.debug("Remote enclave does not support batch decryption");
+            return EnclaveClient.super.unencryptTransactions(payload, providedKeys);
+          }
+
+          validateResponseIsOk(response);
+
+          return batchCodec.decodeOptionalResults(response.readEntity(byte[].class));
+        });
+  }
+
+  /**
+   * Creates all the boxes in a single request. An enclave that does not support the batch request
+   * is sent a request for each box instead.
+   */
+  @Override
+  public List<byte[]> createNewRecipientBoxes(
+      final EncodedPayload payload, final List<PublicKey> recipientKeys) {
+    if (recipientKeys.isEmpty()) {
+      return List.of();
+    }
+
+    return ClientCallback.execute(
+        () -> {
+          final Response response = postBatch("addRecipient", payload, recipientKeys);
+
+          if (response.getStatus() == 404) {
+            LOGGER.debug("Remote enclave does not support batch recipient box creation");
+            return EnclaveClient.super.createNewRecipientBoxes(payload, recipientKeys);
+          }
+
+          validateResponseIsOk(response);
+
+          return batchCodec.decodeResults(response.readEntity(byte[].class));
+        });
+  }
+
+  private Response postBatch(String path, EncodedPayload payload, List<PublicKey> keys) {
+    final byte[] body =
+        batchCodec.encodeRequest(
+            new EnclaveBatchCodec.Request(payloadEncoder.encode(payload), keys));
+
+    return client
+        .target(uri)
+        .path(path)
+        .path("batch")
+        .request()
+        .post(Entity.entity(body, MediaType.APPLICATION_OCTET_STREAM));
+  }
+
   @Override
   public Set<TxHash> findInvalidSecurityHashes(
       EncodedPayload encodedPayload, List<AffectedTransaction> affectedContractTransactions) {
@@ -313,12 +446,26 @@ public class RestfulEnclaveClient implements EnclaveClient {
               return Status.STOPPED;
             });
 
+    Status status;
     try {
       // TODO: 2 seconds is arguably a long time
-      return outcome.get(2, TimeUnit.SECONDS);
+      status = outcome.get(2, TimeUnit.SECONDS);
     } catch (InterruptedException | ExecutionException | TimeoutException ex) {
       LOGGER.trace(null, ex);
-      return Status.STOPPED;
+      status = Status.STOPPED;
+    }
+
+    if (status == Status.STOPPED) {
+      // the enclave may come back with a different set of keys
+      keyCache.invalidate();
+    }
+    return status;
+  }
+
+  @Override
+  public void stop() {
+    if (Objects.nonNull(keyCacheRefresher)) {
+      keyCacheRefresher.stop();
     }
   }
 
@@ -0,0 +1,82 @@
+package com.quorum.tessera.enclave.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.PublicKey;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class EnclaveBatchCodecTest {
+
+  private final EnclaveBatchCodec batchCodec = new EnclaveBatchCodec();
+
+  @Test
+  public void encodeAndDecodeRequest() {
+    final PublicKey key = PublicKey.from("KEY".getBytes());
+    final PublicKey otherKey = PublicKey.from("OTHERKEY".getBytes());
+
+    final byte[] encoded =
+        batchCodec.encodeRequest(
+            new EnclaveBatchCodec.Request("PAYLOAD".getBytes(), List.of(key, otherKey)));
+
+    final EnclaveBatchCodec.Request result = batchCodec.decodeRequest(encoded);
+
+    assertThat(result.getPayload()).isEqualTo("PAYLOAD".getBytes());
+    assertThat(result.getKeys()).containsExactly(key, otherKey);
+  }
+
+  @Test
+  public void encodeAndDecodeResults() {
+    final byte[] encoded =
+        batchCodec.encodeResults(List.of("BOX1".getBytes(), new byte[0], "BOX2".getBytes()));
+
+    assertThat(batchCodec.decodeResults(encoded))
+        .containsExactly("BOX1".getBytes(), new byte[0], "BOX2".getBytes());
+  }
+
+  @Test
+  public void encodeAndDecodeOptionalResults() {
+    final byte[] encoded =
+        batchCodec.encodeOptionalResults(
+            List.of(Optional.empty(), Optional.of("RESULT".getBytes()), Optional.of(new byte[0])));
+
+    final List<Optional<byte[]>> result = batchCodec.decodeOptionalResults(encoded);
+
+    assertThat(result).hasSize(3);
+    assertThat(result.get(0)).isEmpty();
+    assertThat(result.get(1)).contains("RESULT".getBytes());
+    assertThat(result.get(2)).contains(new byte[0]);
+  }
+
+  @Test
+  public void decodeResultsWithCountLargerThanDataIsRejected() {
+    final byte[] encoded =
+        ByteBuffer.allocate(Long.BYTES * 2).putLong(Integer.MAX_VALUE).putLong(0).array();
+
+    final Throwable ex = catchThrowable(() -> batchCodec.decodeResults(encoded));
+
+    assertThat(ex).isInstanceOf(BufferUnderflowException.class);
+  }
+
+  @Test
+  public void decodeResultsWithNegativeCountIsRejected() {
+    final byte[] encoded = ByteBuffer.allocate(Long.BYTES).putLong(-1).array();
+
+    final Throwable ex = catchThrowable(() -> batchCodec.decodeResults(encoded));
+
+    assertThat(ex).isInstanceOf(BufferUnderflowException.class);
+  }
+
+  @Test
+  public void decodeRequestWithFieldLengthLargerThanDataIsRejected() {
+    final byte[] encoded = ByteBuffer.allocate(Long.BYTES + 4).putLong(Long.MAX_VALUE).array();
+
+    final Throwable ex = catchThrowable(() -> batchCodec.decodeRequest(encoded));
+
+    assertThat(ex).isInstanceOf(BufferUnderflowException.class);
+  }
+}
@@ -9,6 +9,8 @@ import com.quorum.tessera.config.Config;
 import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.enclave.EnclaveClient;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorRegistry;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
@@ -55,6 +57,12 @@ public class EnclaveClientProviderTest {
       if (appType == AppType.ENCLAVE) {
         EnclaveClient enclaveClient = EnclaveClientProvider.provider();
         assertThat(enclaveClient).isNotNull();
+        assertThat(ExecutorRegistry.INSTANCE.getExecutors())
+            .extracting(BoundedExecutor::getName)
+            .contains(
+                EnclaveClientProvider.STATUS_EXECUTOR_NAME,
+                EnclaveClientProvider.KEY_REFRESH_EXECUTOR_NAME);
+        enclaveClient.stop();
       } else {
         Throwable ex = catchThrowable(() -> EnclaveClientProvider.provider());
         assertThat(ex).isExactlyInstanceOf(NoSuchElementException.class);
@@ -0,0 +1,136 @@
+package com.quorum.tessera.enclave.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.enclave.EnclaveNotAvailableException;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EnclaveKeyCacheTest {
+
+  private Supplier<PublicKey> defaultPublicKeyLoader;
+
+  private Supplier<Set<PublicKey>> publicKeysLoader;
+
+  private Supplier<Set<PublicKey>> forwardingKeysLoader;
+
+  private EnclaveKeyCache keyCache;
+
+  private final PublicKey key = PublicKey.from("KEY".getBytes());
+
+  private final PublicKey otherKey = PublicKey.from("OTHERKEY".getBytes());
+
+  @Before
+  public void onSetUp() {
+    defaultPublicKeyLoader = mock(Supplier.class);
+    publicKeysLoader = mock(Supplier.class);
+    forwardingKeysLoader = mock(Supplier.class);
+
+    keyCache = new EnclaveKeyCache(defaultPublicKeyLoader, publicKeysLoader, forwardingKeysLoader);
+  }
+
+  @After
+  public void onTearDown() {
+    verifyNoMoreInteractions(defaultPublicKeyLoader, publicKeysLoader, forwardingKeysLoader);
+  }
+
+  @Test
+  public void keysAreLoadedWhenFirstNeeded() {
+    when(defaultPublicKeyLoader.get()).thenReturn(key);
+    when(publicKeysLoader.get()).thenReturn(Set.of(key));
+    final long hits = EnclaveKeyCache.HITS.get();
+    final long misses = EnclaveKeyCache.MISSES.get();
+
+    assertThat(keyCache.defaultPublicKey()).isEqualTo(key);
+    assertThat(keyCache.defaultPublicKey()).isEqualTo(key);
+    assertThat(keyCache.getPublicKeys()).containsExactly(key);
+
+    assertThat(EnclaveKeyCache.MISSES.get() - misses).isEqualTo(2);
+    assertThat(EnclaveKeyCache.HITS.get() - hits).isEqualTo(1);
+
+    verify(defaultPublicKeyLoader).get();
+    verify(publicKeysLoader).get();
+  }
+
+  @Test
+  public void refreshReplacesAllKeys() {
+    when(defaultPublicKeyLoader.get()).thenReturn(key).thenReturn(otherKey);
+    when(publicKeysLoader.get()).thenReturn(Set.of(key)).thenReturn(Set.of(key, otherKey));
+    when(forwardingKeysLoader.get()).thenReturn(Set.of()).thenReturn(Set.of(otherKey));
+    final long hits = EnclaveKeyCache.HITS.get();
+    final long misses = EnclaveKeyCache.MISSES.get();
+    final long refreshes = EnclaveKeyCache.REFRESHES.get();
+
+    assertThat(keyCache.defaultPublicKey()).isEqualTo(key);
+    assertThat(keyCache.getPublicKeys()).containsExactly(key);
+    assertThat(keyCache.getForwardingKeys()).isEmpty();
+
+    keyCache.run();
+
+    assertThat(keyCache.defaultPublicKey()).isEqualTo(otherKey);
+    assertThat(keyCache.getPublicKeys()).containsExactlyInAnyOrder(key, otherKey);
+    assertThat(keyCache.getForwardingKeys()).containsExactly(otherKey);
+    assertThat(EnclaveKeyCache.HITS.get() - hits).isEqualTo(3);
+    assertThat(EnclaveKeyCache.MISSES.get() - misses).isEqualTo(3);
+    assertThat(EnclaveKeyCache.REFRESHES.get() - refreshes).isEqualTo(1);
+
+    verify(defaultPublicKeyLoader, times(2)).get();
+    verify(publicKeysLoader, times(2)).get();
+    verify(forwardingKeysLoader, times(2)).get();
+  }
+
+  @Test
+  public void failedRefreshKeepsKnownKeys() {
+    when(publicKeysLoader.get())
+        .thenReturn(Set.of(key))
+        .thenThrow(new EnclaveNotAvailableException("OUCH"));
+    when(defaultPublicKeyLoader.get()).thenReturn(key);
+    final long refreshes = EnclaveKeyCache.REFRESHES.get();
+    final long refreshFailures = EnclaveKeyCache.REFRESH_FAILURES.get();
+
+    assertThat(keyCache.getPublicKeys()).containsExactly(key);
+
+    keyCache.refresh();
+
+    assertThat(keyCache.getPublicKeys()).containsExactly(key);
+    assertThat(EnclaveKeyCache.REFRESHES.get() - refreshes).isZero();
+    assertThat(EnclaveKeyCache.REFRESH_FAILURES.get() - refreshFailures).isEqualTo(1);
+
+    verify(defaultPublicKeyLoader).get();
+    verify(publicKeysLoader, times(2)).get();
+  }
+
+  @Test
+  public void invalidateCausesKeysToBeLoadedAgain() {
+    when(forwardingKeysLoader.get()).thenReturn(Set.of(key)).thenReturn(Set.of(otherKey));
+    final long misses = EnclaveKeyCache.MISSES.get();
+
+    assertThat(keyCache.getForwardingKeys()).containsExactly(key);
+
+    keyCache.invalidate();
+
+    assertThat(keyCache.getForwardingKeys()).containsExactly(otherKey);
+    assertThat(EnclaveKeyCache.MISSES.get() - misses).isEqualTo(2);
+
+    verify(forwardingKeysLoader, times(2)).get();
+  }
+
+  @Test
+  public void loadFailureIsPropagatedAndNotCached() {
+    final EnclaveNotAvailableException failure = new EnclaveNotAvailableException("OUCH");
+    when(defaultPublicKeyLoader.get()).thenThrow(failure).thenReturn(key);
+
+    final Throwable result = catchThrowable(keyCache::defaultPublicKey);
+
+    assertThat(result).isSameAs(failure);
+    assertThat(keyCache.defaultPublicKey()).isEqualTo(key);
+
+    verify(defaultPublicKeyLoader, times(2)).get();
+  }
+}
@@ -11,8 +11,10 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.service.Service.Status;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.glassfish.jersey.test.JerseyTest;
@@ -115,6 +117,78 @@ public class RestfulEnclaveClientTest {
     verify(enclave).getForwardingKeys();
   }
 
+  @Test
+  public void keysAreOnlyFetchedOnce() {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+    PublicKey forwardingKey = PublicKey.from("FORWARDING".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key));
+    when(enclave.getForwardingKeys()).thenReturn(Set.of(forwardingKey));
+    final long hits = EnclaveKeyCache.HITS.get();
+    final long misses = EnclaveKeyCache.MISSES.get();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(enclaveClient.defaultPublicKey()).isEqualTo(key);
+      assertThat(enclaveClient.getPublicKeys()).containsExactly(key);
+      assertThat(enclaveClient.getForwardingKeys()).containsExactly(forwardingKey);
+    }
+
+    assertThat(EnclaveKeyCache.MISSES.get() - misses).isEqualTo(3);
+    assertThat(EnclaveKeyCache.HITS.get() - hits).isEqualTo(6);
+
+    verify(enclave).defaultPublicKey();
+    verify(enclave).getPublicKeys();
+    verify(enclave).getForwardingKeys();
+  }
+
+  @Test
+  public void keysAreFetchedAgainWhenEnclaveStops() {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+    PublicKey otherKey = PublicKey.from("OTHER".getBytes());
+
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key)).thenReturn(Set.of(otherKey));
+    when(enclave.status()).thenThrow(RuntimeException.class);
+
+    assertThat(enclaveClient.getPublicKeys()).containsExactly(key);
+    assertThat(enclaveClient.status()).isEqualTo(Status.STOPPED);
+    assertThat(enclaveClient.getPublicKeys()).containsExactly(otherKey);
+
+    verify(enclave, times(2)).getPublicKeys();
+    verify(enclave).status();
+  }
+
+  @Test
+  public void keyCacheIsRefreshedInBackground() {
+
+    ScheduledExecutorService scheduledExecutorService = mock(ScheduledExecutorService.class);
+    Executor keyCacheRefreshExecutor = mock(Executor.class);
+
+    RestfulEnclaveClient restfulEnclaveClient =
+        new RestfulEnclaveClient(
+            jersey.client(),
+            jersey.target().getUri(),
+            mock(ExecutorService.class),
+            scheduledExecutorService,
+            keyCacheRefreshExecutor,
+            2000L);
+
+    ArgumentCaptor<Runnable> scheduled = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduledExecutorService)
+        .scheduleWithFixedDelay(
+            scheduled.capture(), eq(2000L), eq(2000L), eq(TimeUnit.MILLISECONDS));
+
+    // the scheduler only hands each refresh to the refresh executor
+    scheduled.getValue().run();
+    verify(keyCacheRefreshExecutor).execute(restfulEnclaveClient.getKeyCache());
+
+    restfulEnclaveClient.stop();
+    verify(scheduledExecutorService).shutdown();
+    verifyNoMoreInteractions(scheduledExecutorService, keyCacheRefreshExecutor);
+  }
+
   @Test
   public void encryptPayload() {
 
@@ -443,6 +517,72 @@ public class RestfulEnclaveClientTest {
     verify(enclave).createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class));
   }
 
+  @Test
+  public void unencryptTransactions() {
+
+    EncodedPayload payload = Fixtures.createSample();
+
+    PublicKey providedKey = PublicKey.from("ProvidedKey".getBytes());
+    PublicKey otherKey = PublicKey.from("OtherKey".getBytes());
+
+    byte[] outcome = "SUCCESS".getBytes();
+
+    when(enclave.unencryptTransactions(any(EncodedPayload.class), anyList()))
+        .thenReturn(List.of(Optional.empty(), Optional.of(outcome)));
+
+    List<Optional<byte[]>> result =
+        enclaveClient.unencryptTransactions(payload, List.of(otherKey, providedKey));
+
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0)).isEmpty();
+    assertThat(result.get(1)).contains(outcome);
+
+    ArgumentCaptor<List<PublicKey>> keysCaptor = ArgumentCaptor.forClass(List.class);
+    verify(enclave).unencryptTransactions(any(EncodedPayload.class), keysCaptor.capture());
+    assertThat(keysCaptor.getValue()).containsExactly(otherKey, providedKey);
+  }
+
+  @Test
+  public void unencryptTransactionsWithNoKeysDoesNotCallEnclave() {
+    assertThat(enclaveClient.unencryptTransactions(Fixtures.createSample(), List.of())).isEmpty();
+  }
+
+  @Test
+  public void createNewRecipientBoxes() {
+
+    EncodedPayload payload = Fixtures.createSample();
+
+    PublicKey providedKey = PublicKey.from("ProvidedKey".getBytes());
+    PublicKey otherKey = PublicKey.from("OtherKey".getBytes());
+
+    when(enclave.createNewRecipientBoxes(any(EncodedPayload.class), anyList()))
+        .thenReturn(List.of("BOX1".getBytes(), "BOX2".getBytes()));
+
+    List<byte[]> result =
+        enclaveClient.createNewRecipientBoxes(payload, List.of(providedKey, otherKey));
+
+    assertThat(result).containsExactly("BOX1".getBytes(), "BOX2".getBytes());
+
+    verify(enclave).createNewRecipientBoxes(any(EncodedPayload.class), anyList());
+  }
+
+  @Test
+  public void createNewRecipientBoxesFailsWhenEnclaveFails() {
+
+    when(enclave.createNewRecipientBoxes(any(EncodedPayload.class), anyList()))
+        .thenThrow(new RuntimeException("No key or recipient-box to use"));
+
+    Throwable throwable =
+        catchThrowable(
+            () ->
+                enclaveClient.createNewRecipientBoxes(
+                    Fixtures.createSample(), List.of(PublicKey.from("ProvidedKey".getBytes()))));
+
+    assertThat(throwable).isInstanceOf(EnclaveNotAvailableException.class);
+
+    verify(enclave).createNewRecipientBoxes(any(EncodedPayload.class), anyList());
+  }
+
   @Test
   public void statusStarted() {
     when(enclave.status()).thenReturn(Status.STARTED);
@@ -1,6 +1,7 @@
 package com.quorum.tessera.multitenancy.migration;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionCursor;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
@@ -10,9 +11,7 @@ import com.quorum.tessera.enclave.TxHash;
 import com.quorum.tessera.encryption.PublicKey;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
 
 public class EncryptedTransactionMigrator {
 
@@ -35,21 +34,7 @@ public class EncryptedTransactionMigrator {
 
   public void migrate() {
 
-    final long secondaryTxCount =
-        secondaryEntityManager
-            .createQuery("select count(e) from EncryptedTransaction e", Long.class)
-            .getSingleResult();
-    final int batchCount = calculateBatchCount(maxBatchSize, secondaryTxCount);
-
-    IntStream.range(0, batchCount)
-        .map(i -> i * maxBatchSize)
-        .mapToObj(
-            offset ->
-                secondaryEntityManager
-                    .createNamedQuery("EncryptedTransaction.FindAll", EncryptedTransaction.class)
-                    .setFirstResult(offset)
-                    .setMaxResults(maxBatchSize))
-        .flatMap(TypedQuery<EncryptedTransaction>::getResultStream)
+    EncryptedTransactionCursor.stream(maxBatchSize, query -> query.execute(secondaryEntityManager))
         .forEach(
             et -> {
               final Optional<EncryptedTransaction> existing =
@@ -200,8 +185,4 @@ public class EncryptedTransactionMigrator {
     return combinedAffectedTxs.entrySet().stream()
         .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> e.getValue().getData()));
   }
-
-  static int calculateBatchCount(long maxResults, long total) {
-    return (int) Math.ceil((double) total / maxResults);
-  }
 }
@@ -10,6 +10,7 @@ import com.quorum.tessera.server.jaxrs.CorsDomainResponseFilter;
 import com.quorum.tessera.server.jaxrs.LoggingFilter;
 import com.quorum.tessera.server.monitoring.InfluxDbClient;
 import com.quorum.tessera.server.monitoring.InfluxDbPublisher;
+import com.quorum.tessera.server.monitoring.MetricsFilter;
 import com.quorum.tessera.server.monitoring.MetricsResource;
 import com.quorum.tessera.server.utils.ServerUtils;
 import java.net.URI;
@@ -82,7 +83,11 @@ public class JerseyServer implements TesseraServer {
 
     final ResourceConfig config = ResourceConfig.forApplicationClass(application);
 
-    config.addProperties(initParams).register(MetricsResource.class).register(LoggingFilter.class);
+    config
+        .addProperties(initParams)
+        .register(new MetricsResource(type))
+        .register(new MetricsFilter(MetricsResource.serverMetrics(type)))
+        .register(LoggingFilter.class);
 
     if (serverConfig.getCrossDomainConfig() != null && !serverConfig.isUnixSocket()) {
       config.register(new CorsDomainResponseFilter(serverConfig.getCrossDomainConfig()));
@@ -0,0 +1,72 @@
+package com.quorum.tessera.server.monitoring;
+
+import com.quorum.tessera.metrics.MetricsRegistry;
+import java.util.Objects;
+import java.util.Optional;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+
+/**
+ * Records how long each request to a server took, by resource method and response status, in the
+ * server's own {@link MetricsRegistry}.
+ */
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  static final String START_PROPERTY = MetricsFilter.class.getName() + ".start";
+
+  private final MetricsRegistry metricsRegistry;
+
+  @Context private ResourceInfo resourceInfo;
+
+  public MetricsFilter(final MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = Objects.requireNonNull(metricsRegistry);
+  }
+
+  @Override
+  public void filter(final ContainerRequestContext request) {
+    request.setProperty(START_PROPERTY, System.nanoTime());
+  }
+
+  @Override
+  public void filter(
+      final ContainerRequestContext request, final ContainerResponseContext response) {
+    final Object start = request.getProperty(START_PROPERTY);
+    if (!(start instanceof Long)) {
+      return;
+    }
+
+    // requests that matched no resource are kept together, so unknown paths don't add metrics
+    final String resource =
+        Optional.ofNullable(resourceInfo)
+            .filter(r -> r.getResourceClass() != null && r.getResourceMethod() != null)
+            .map(
+                r -> r.getResourceClass().getSimpleName() + "." + r.getResourceMethod().getName())
+            .orElse("unmatched");
+
+    metricsRegistry
+        .histogram(
+            "tessera_http_request_seconds",
+            "Time taken to handle a request to the server",
+            "resource",
+            resource,
+            "method",
+            request.getMethod(),
+            "status",
+            String.valueOf(response.getStatus()))
+        .recordSince((Long) start);
+  }
+
+  /**
+   * Set the request resource info. Only needed for unit tests.
+   *
+   * @param resourceInfo the resource info
+   */
+  @Context
+  public void setResourceInfo(final ResourceInfo resourceInfo) {
+    this.resourceInfo = resourceInfo;
+  }
+}
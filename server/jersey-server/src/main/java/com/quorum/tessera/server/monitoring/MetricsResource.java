@@ -3,43 +3,51 @@ package com.quorum.tessera.server.monitoring;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 
 import com.quorum.tessera.config.AppType;
-import java.lang.management.ManagementFactory;
-import java.util.List;
-import javax.management.MBeanServer;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import java.util.Optional;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
+/**
+ * Exposes the metrics of the server it is deployed on in the Prometheus text format.
+ *
+ * <p>Metrics about the node as a whole are exposed by the P2P server, or by the enclave server of a
+ * standalone enclave, so that they are only scraped once per process.
+ */
 @Path("/metrics")
 public class MetricsResource {
 
-  private final MBeanServer mbs;
+  private final MetricsRegistry serverMetrics;
 
-  public MetricsResource() {
-    mbs = ManagementFactory.getPlatformMBeanServer();
+  private final boolean includeNodeMetrics;
+
+  public MetricsResource(final AppType appType) {
+    this.serverMetrics = serverMetrics(appType);
+    this.includeNodeMetrics = appType == AppType.P2P || appType == AppType.ENCLAVE;
+  }
+
+  /** @return the registry of metrics about requests to the server of the given type */
+  public static MetricsRegistry serverMetrics(final AppType appType) {
+    final String server = Optional.ofNullable(appType).map(AppType::name).orElse("unknown");
+    return MetricsRegistry.server(server);
   }
 
   @GET
   @Produces("text/plain")
   public Response getMetrics() {
-    MetricsEnquirer metricsEnquirer = new MetricsEnquirer(mbs);
     final StringBuilder formattedMetrics = new StringBuilder();
 
-    // TODO Each app server has a /metrics endpoint but currently each endpoint returns the metrics
-    // for all servers.  Would be better to lock this down e.g. <p2puri>/metrics only returns the
-    // p2p metrics
-    for (AppType type : AppType.values()) {
-      List<MBeanMetric> metrics = metricsEnquirer.getMBeanMetrics(type);
-      PrometheusProtocolFormatter formatter = new PrometheusProtocolFormatter();
-
-      formattedMetrics.append(formatter.format(metrics, type)).append("\n");
+    serverMetrics.writeTo(formattedMetrics);
+    if (includeNodeMetrics) {
+      MetricsRegistry.node().writeTo(formattedMetrics);
     }
 
     return Response.status(Response.Status.OK)
         .header(HttpHeaders.CONTENT_TYPE, TEXT_PLAIN)
-        .entity(formattedMetrics.toString().trim())
+        .entity(formattedMetrics.toString())
         .build();
   }
 }
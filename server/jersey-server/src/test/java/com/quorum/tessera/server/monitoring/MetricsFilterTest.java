@@ -0,0 +1,89 @@
+package com.quorum.tessera.server.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.metrics.MetricsRegistry;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsFilterTest {
+
+  private MetricsRegistry metricsRegistry;
+
+  private MetricsFilter metricsFilter;
+
+  @Before
+  public void setUp() {
+    metricsRegistry = MetricsRegistry.server("metrics-filter-test");
+    metricsFilter = new MetricsFilter(metricsRegistry);
+  }
+
+  private String scrape() {
+    final StringBuilder out = new StringBuilder();
+    metricsRegistry.writeTo(out);
+    return out.toString();
+  }
+
+  @Test
+  public void requestStartIsRecorded() {
+    final ContainerRequestContext request = mock(ContainerRequestContext.class);
+
+    metricsFilter.filter(request);
+
+    verify(request).setProperty(eq(MetricsFilter.START_PROPERTY), anyLong());
+  }
+
+  @Test
+  public void responseIsRecordedByResourceMethodAndStatus() throws Exception {
+    final ResourceInfo resourceInfo = mock(ResourceInfo.class);
+    doReturn(MetricsFilterTest.class).when(resourceInfo).getResourceClass();
+    when(resourceInfo.getResourceMethod())
+        .thenReturn(MetricsFilterTest.class.getMethod("requestStartIsRecorded"));
+    metricsFilter.setResourceInfo(resourceInfo);
+
+    final ContainerRequestContext request = mock(ContainerRequestContext.class);
+    when(request.getProperty(MetricsFilter.START_PROPERTY)).thenReturn(System.nanoTime());
+    when(request.getMethod()).thenReturn("POST");
+    final ContainerResponseContext response = mock(ContainerResponseContext.class);
+    when(response.getStatus()).thenReturn(201);
+
+    metricsFilter.filter(request, response);
+
+    assertThat(scrape())
+        .contains(
+            "tessera_http_request_seconds_count{server=\"metrics-filter-test\","
+                + "resource=\"MetricsFilterTest.requestStartIsRecorded\",method=\"POST\","
+                + "status=\"201\"} 1\n");
+  }
+
+  @Test
+  public void unmatchedRequestsAreKeptTogether() {
+    metricsFilter.setResourceInfo(mock(ResourceInfo.class));
+
+    final ContainerRequestContext request = mock(ContainerRequestContext.class);
+    when(request.getProperty(MetricsFilter.START_PROPERTY)).thenReturn(System.nanoTime());
+    when(request.getMethod()).thenReturn("GET");
+    final ContainerResponseContext response = mock(ContainerResponseContext.class);
+    when(response.getStatus()).thenReturn(404);
+
+    metricsFilter.filter(request, response);
+
+    assertThat(scrape()).contains("resource=\"unmatched\",method=\"GET\",status=\"404\"} 1\n");
+  }
+
+  @Test
+  public void responseWithoutStartIsIgnored() {
+    final ContainerRequestContext request = mock(ContainerRequestContext.class);
+    final ContainerResponseContext response = mock(ContainerResponseContext.class);
+
+    metricsFilter.filter(request, response);
+
+    verifyNoInteractions(response);
+  }
+}
@@ -0,0 +1,41 @@
+package com.quorum.tessera.server.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import javax.ws.rs.core.Response;
+import org.junit.Test;
+
+public class MetricsResourceTest {
+
+  @Test
+  public void p2pServerExportsItsOwnAndNodeMetrics() {
+    MetricsResource.serverMetrics(AppType.P2P)
+        .counter("metrics_resource_test_p2p_total", "P2P")
+        .increment();
+    MetricsRegistry.node().counter("metrics_resource_test_node_total", "Node").increment();
+
+    final Response response = new MetricsResource(AppType.P2P).getMetrics();
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat((String) response.getEntity())
+        .contains("metrics_resource_test_p2p_total{server=\"p2p\"} 1\n")
+        .contains("metrics_resource_test_node_total 1\n");
+  }
+
+  @Test
+  public void otherServersOnlyExportTheirOwnMetrics() {
+    MetricsResource.serverMetrics(AppType.Q2T)
+        .counter("metrics_resource_test_q2t_total", "Q2T")
+        .increment();
+    MetricsRegistry.node().counter("metrics_resource_test_node_total", "Node");
+
+    final Response response = new MetricsResource(AppType.Q2T).getMetrics();
+
+    assertThat((String) response.getEntity())
+        .contains("metrics_resource_test_q2t_total{server=\"q2t\"} 1\n")
+        .doesNotContain("metrics_resource_test_node_total")
+        .doesNotContain("metrics_resource_test_p2p_total");
+  }
+}
@@ -5,7 +5,12 @@ import com.quorum.tessera.ssl.context.ServerSSLContextFactory;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.Optional;
 import javax.net.ssl.SSLContext;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -15,9 +20,50 @@ import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.unixsocket.UnixSocketConnector;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ServerUtils {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerUtils.class);
+
+  /** Server property that turns on HTTP/2, alongside HTTP/1.1 for peers that don't speak it */
+  public static final String HTTP2_ENABLED = "http2.enabled";
+
+  /** Server property limiting the requests a peer may have in flight on one HTTP/2 connection */
+  public static final String HTTP2_MAX_CONCURRENT_STREAMS = "http2.maxConcurrentStreams";
+
+  public static boolean isHttp2Enabled(ServerConfig serverConfig) {
+    return Optional.ofNullable(serverConfig.getProperties())
+        .map(properties -> properties.get(HTTP2_ENABLED))
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  private static HTTP2ServerConnectionFactory configure(
+      HTTP2ServerConnectionFactory http2, ServerConfig serverConfig) {
+    final String value =
+        Optional.ofNullable(serverConfig.getProperties())
+            .map(properties -> properties.get(HTTP2_MAX_CONCURRENT_STREAMS))
+            .orElse(null);
+    if (value == null) {
+      return http2;
+    }
+    try {
+      final int maxConcurrentStreams = Integer.parseInt(value.trim());
+      if (maxConcurrentStreams > 0) {
+        http2.setMaxConcurrentStreams(maxConcurrentStreams);
+        return http2;
+      }
+    } catch (NumberFormatException ex) {
+      LOGGER.debug(null, ex);
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead",
+        HTTP2_MAX_CONCURRENT_STREAMS);
+    return http2;
+  }
+
   public static Server buildWebServer(ServerConfig serverConfig) {
     Server server = new Server();
     URI uri = serverConfig.getBindingUri();
@@ -53,17 +99,49 @@ public class ServerUtils {
       if (Objects.nonNull(excludedCipherSuites)) {
         sslContextFactory.addExcludeCipherSuites(excludedCipherSuites);
       }
-      ServerConnector connector =
-          new ServerConnector(
-              server,
-              new SslConnectionFactory(sslContextFactory, "http/1.1"),
-              new HttpConnectionFactory(https));
+      final ServerConnector connector;
+      if (isHttp2Enabled(serverConfig)) {
+        // h2 is picked over ALPN, peers that don't offer it get http/1.1
+        final HttpConnectionFactory http1 = new HttpConnectionFactory(https);
+        final HTTP2ServerConnectionFactory http2 =
+            configure(new HTTP2ServerConnectionFactory(https), serverConfig);
+        final ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory();
+        alpn.setDefaultProtocol(http1.getProtocol());
+
+        sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+        sslContextFactory.setUseCipherSuitesOrder(true);
+
+        connector =
+            new ServerConnector(
+                server,
+                new SslConnectionFactory(sslContextFactory, alpn.getProtocol()),
+                alpn,
+                http2,
+                http1);
+      } else {
+        connector =
+            new ServerConnector(
+                server,
+                new SslConnectionFactory(sslContextFactory, "http/1.1"),
+                new HttpConnectionFactory(https));
+      }
       connector.setPort(uri.getPort());
       server.setConnectors(new Connector[] {connector});
       return server;
     }
 
-    ServerConnector connector = new ServerConnector(server);
+    final ServerConnector connector;
+    if (isHttp2Enabled(serverConfig)) {
+      // http/1.1 by default, h2c for peers that upgrade or send the HTTP/2 preface
+      final HttpConfiguration http = new HttpConfiguration();
+      connector =
+          new ServerConnector(
+              server,
+              new HttpConnectionFactory(http),
+              configure(new HTTP2CServerConnectionFactory(http), serverConfig));
+    } else {
+      connector = new ServerConnector(server);
+    }
     connector.setPort(uri.getPort());
     server.setConnectors(new Connector[] {connector});
 
@@ -0,0 +1,181 @@
+package com.quorum.tessera.server.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.config.CommunicationType;
+import com.quorum.tessera.config.ServerConfig;
+import com.quorum.tessera.config.SslAuthenticationMode;
+import com.quorum.tessera.config.SslConfig;
+import com.quorum.tessera.config.SslConfigType;
+import com.quorum.tessera.config.SslTrustMode;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.junit.After;
+import org.junit.Test;
+
+public class ServerUtilsTest {
+
+  private Server server;
+
+  private HttpClient client;
+
+  @After
+  public void onTearDown() throws Exception {
+    if (client != null) {
+      client.stop();
+    }
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void http2IsNegotiatedOverCleartext() throws Exception {
+    final int port = freePort();
+    final ServerConfig serverConfig = serverConfig("http://localhost:" + port);
+    serverConfig.setProperties(Map.of(ServerUtils.HTTP2_ENABLED, "true"));
+
+    start(serverConfig);
+
+    client = new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()));
+    client.start();
+
+    final ContentResponse contentResponse = client.GET("http://localhost:" + port + "/ping");
+
+    assertThat(contentResponse.getStatus()).isEqualTo(200);
+    assertThat(contentResponse.getVersion()).isEqualTo(HttpVersion.HTTP_2);
+  }
+
+  @Test
+  public void http2IsNegotiatedOverTlsWithAlpn() throws Exception {
+    final int port = freePort();
+    final ServerConfig serverConfig = serverConfig("https://localhost:" + port);
+    serverConfig.setProperties(Map.of(ServerUtils.HTTP2_ENABLED, "true"));
+    serverConfig.setSslConfig(sslConfig());
+
+    start(serverConfig);
+
+    final SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
+    sslContextFactory.setTrustStorePath(certificate("truststore.jks").toString());
+    sslContextFactory.setTrustStorePassword("testtest");
+
+    client =
+        new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), sslContextFactory);
+    client.start();
+
+    final ContentResponse contentResponse = client.GET("https://localhost:" + port + "/ping");
+
+    assertThat(contentResponse.getStatus()).isEqualTo(200);
+    assertThat(contentResponse.getVersion()).isEqualTo(HttpVersion.HTTP_2);
+  }
+
+  @Test
+  public void http1IsServedWhenHttp2IsNotEnabled() throws Exception {
+    final int port = freePort();
+
+    start(serverConfig("http://localhost:" + port));
+
+    client = new HttpClient();
+    client.start();
+
+    final ContentResponse contentResponse = client.GET("http://localhost:" + port + "/ping");
+
+    assertThat(contentResponse.getStatus()).isEqualTo(200);
+    assertThat(contentResponse.getVersion()).isEqualTo(HttpVersion.HTTP_1_1);
+  }
+
+  @Test
+  public void maxConcurrentStreamsIsApplied() {
+    final ServerConfig serverConfig = serverConfig("http://localhost:8080");
+    serverConfig.setProperties(
+        Map.of(ServerUtils.HTTP2_ENABLED, "true", ServerUtils.HTTP2_MAX_CONCURRENT_STREAMS, "7"));
+
+    assertThat(maxConcurrentStreams(ServerUtils.buildWebServer(serverConfig))).isEqualTo(7);
+  }
+
+  @Test
+  public void invalidMaxConcurrentStreamsKeepsTheDefault() {
+    final int defaultValue =
+        new HTTP2CServerConnectionFactory(new HttpConfiguration()).getMaxConcurrentStreams();
+
+    for (String value : new String[] {"lots", "0", "-1", ""}) {
+      final ServerConfig serverConfig = serverConfig("http://localhost:8080");
+      serverConfig.setProperties(
+          Map.of(
+              ServerUtils.HTTP2_ENABLED, "true", ServerUtils.HTTP2_MAX_CONCURRENT_STREAMS, value));
+
+      assertThat(maxConcurrentStreams(ServerUtils.buildWebServer(serverConfig)))
+          .describedAs(value)
+          .isEqualTo(defaultValue);
+    }
+  }
+
+  private void start(ServerConfig serverConfig) throws Exception {
+    server = ServerUtils.buildWebServer(serverConfig);
+    server.setHandler(
+        new AbstractHandler() {
+          @Override
+          public void handle(
+              String target,
+              Request baseRequest,
+              HttpServletRequest request,
+              HttpServletResponse response) {
+            response.setStatus(200);
+            baseRequest.setHandled(true);
+          }
+        });
+    server.start();
+  }
+
+  private static int maxConcurrentStreams(Server server) {
+    return server
+        .getConnectors()[0]
+        .getConnectionFactory(HTTP2CServerConnectionFactory.class)
+        .getMaxConcurrentStreams();
+  }
+
+  private static ServerConfig serverConfig(String address) {
+    final ServerConfig serverConfig = new ServerConfig();
+    serverConfig.setCommunicationType(CommunicationType.REST);
+    serverConfig.setServerAddress(address);
+    return serverConfig;
+  }
+
+  private SslConfig sslConfig() {
+    final SslConfig sslConfig = new SslConfig();
+    sslConfig.setTls(SslAuthenticationMode.STRICT);
+    sslConfig.setSslConfigType(SslConfigType.SERVER_ONLY);
+    sslConfig.setServerKeyStore(certificate("server-localhost-with-san.jks"));
+    sslConfig.setServerKeyStorePassword("testtest".toCharArray());
+    sslConfig.setServerTrustMode(SslTrustMode.CA);
+    sslConfig.setServerTrustStore(certificate("truststore.jks"));
+    sslConfig.setServerTrustStorePassword("testtest".toCharArray());
+    sslConfig.setClientAuth(false);
+    return sslConfig;
+  }
+
+  private Path certificate(String name) {
+    return Path.of(getClass().getResource("/certificates/" + name).getPath());
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.quorum.tessera.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A count that only goes up, such as the number of transactions stored */
+public class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter() {}
+
+  public void increment() {
+    count.increment();
+  }
+
+  public void add(final long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Counters can only be increased");
+    }
+    count.add(amount);
+  }
+
+  public long get() {
+    return count.sum();
+  }
+}
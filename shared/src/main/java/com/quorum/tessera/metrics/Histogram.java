@@ -0,0 +1,57 @@
+package com.quorum.tessera.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long an operation took, in a fixed set of buckets running from 100 microseconds to a
+ * minute, and keeps the total time spent. Recording a value takes no locks.
+ *
+ * <p>Every histogram uses the same buckets, so that latencies can be compared and combined across
+ * operations and across nodes.
+ */
+public class Histogram {
+
+  static final long[] BUCKETS =
+      Arrays.stream(
+              new double[] {
+                0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+                1, 2.5, 5, 10, 30, 60
+              })
+          .mapToLong(seconds -> Math.round(seconds * TimeUnit.SECONDS.toNanos(1)))
+          .toArray();
+
+  private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+
+  private final LongAdder sumNanos = new LongAdder();
+
+  Histogram() {
+    Arrays.setAll(counts, i -> new LongAdder());
+  }
+
+  /** Records the time since {@code startNanos}, a value of {@link System#nanoTime()} */
+  public void recordSince(final long startNanos) {
+    recordNanos(System.nanoTime() - startNanos);
+  }
+
+  public void recordNanos(final long nanos) {
+    final long value = Math.max(nanos, 0);
+    final int index = Arrays.binarySearch(BUCKETS, value);
+    counts[index < 0 ? -index - 1 : index].increment();
+    sumNanos.add(value);
+  }
+
+  /** @return the number of values recorded in each bucket, followed by those above the last one */
+  long[] getCounts() {
+    return Arrays.stream(counts).mapToLong(LongAdder::sum).toArray();
+  }
+
+  public long getCount() {
+    return Arrays.stream(counts).mapToLong(LongAdder::sum).sum();
+  }
+
+  public long getSumNanos() {
+    return sumNanos.sum();
+  }
+}
@@ -0,0 +1,216 @@
+package com.quorum.tessera.metrics;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the metrics the node keeps about itself and writes them out in the Prometheus text format,
+ * without going through JMX.
+ *
+ * <p>Metrics about the node as a whole, such as time spent in the enclave or the database, are kept
+ * in the {@link #node()} registry. Each server also has a registry of its own, whose metrics all
+ * carry a {@code server} label, for the requests made to it.
+ *
+ * <p>A metric is identified by its name and labels, given as name and value pairs. Asking for the
+ * same metric twice returns the same instance, so callers may either keep hold of it or ask for it
+ * each time.
+ */
+public class MetricsRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+
+  private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+  private static final MetricsRegistry NODE = new MetricsRegistry("");
+
+  private static final ConcurrentMap<String, MetricsRegistry> SERVERS = new ConcurrentHashMap<>();
+
+  private enum Type {
+    COUNTER,
+    GAUGE,
+    HISTOGRAM
+  }
+
+  private final String commonLabels;
+
+  private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+  MetricsRegistry(final String commonLabels) {
+    this.commonLabels = commonLabels;
+  }
+
+  /** @return the registry of metrics about the node as a whole */
+  public static MetricsRegistry node() {
+    return NODE;
+  }
+
+  /** @return the registry of metrics about requests to the named server, such as {@code p2p} */
+  public static MetricsRegistry server(final String server) {
+    final String name = server.toLowerCase(Locale.ROOT);
+    return SERVERS.computeIfAbsent(name, n -> new MetricsRegistry("server=\"" + escape(n) + "\""));
+  }
+
+  public Counter counter(final String name, final String help, final String... labels) {
+    return (Counter) family(name, help, Type.COUNTER)
+        .series
+        .computeIfAbsent(labels(labels), k -> new Counter());
+  }
+
+  public Histogram histogram(final String name, final String help, final String... labels) {
+    return (Histogram) family(name, help, Type.HISTOGRAM)
+        .series
+        .computeIfAbsent(labels(labels), k -> new Histogram());
+  }
+
+  /**
+   * Gets a {@link Timer}, whose calls are recorded in the histogram of the given name with an extra
+   * {@code outcome} label of {@code success} or {@code error}.
+   */
+  public Timer timer(final String name, final String help, final String... labels) {
+    final String[] success = Arrays.copyOf(labels, labels.length + 2);
+    success[labels.length] = "outcome";
+    success[labels.length + 1] = "success";
+    final String[] error = success.clone();
+    error[labels.length + 1] = "error";
+    return new Timer(histogram(name, help, success), histogram(name, help, error));
+  }
+
+  /**
+   * Adds a value that is read each time the metrics are written out, such as the length of a
+   * queue. A gauge given the same name and labels as an earlier one replaces it.
+   */
+  public void gauge(
+      final String name, final String help, final LongSupplier value, final String... labels) {
+    family(name, help, Type.GAUGE).series.put(labels(labels), Objects.requireNonNull(value));
+  }
+
+  /** Writes every metric in the registry to {@code out} in the Prometheus text format */
+  public void writeTo(final StringBuilder out) {
+    families.values().forEach(family -> family.writeTo(out));
+  }
+
+  private Family family(final String name, final String help, final Type type) {
+    if (!NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid metric name " + name);
+    }
+    final Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+    if (family.type != type) {
+      throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+    }
+    return family;
+  }
+
+  private String labels(final String... labels) {
+    if (labels.length % 2 != 0) {
+      throw new IllegalArgumentException("Labels must be given as name and value pairs");
+    }
+    final StringBuilder rendered = new StringBuilder(commonLabels);
+    for (int i = 0; i < labels.length; i += 2) {
+      if (!NAME.matcher(labels[i]).matches()) {
+        throw new IllegalArgumentException("Invalid label name " + labels[i]);
+      }
+      if (rendered.length() > 0) {
+        rendered.append(',');
+      }
+      rendered.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+    }
+    return rendered.toString();
+  }
+
+  private static String escape(final String value) {
+    return String.valueOf(value)
+        .replace("\\", "\\\\")
+        .replace("\"", "\\\"")
+        .replace("\n", "\\n");
+  }
+
+  private static String seconds(final long nanos) {
+    return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+  }
+
+  private static final class Family {
+
+    private final String name;
+
+    private final String help;
+
+    private final Type type;
+
+    private final ConcurrentMap<String, Object> series = new ConcurrentSkipListMap<>();
+
+    private Family(final String name, final String help, final Type type) {
+      this.name = name;
+      this.help = help;
+      this.type = type;
+    }
+
+    private void writeTo(final StringBuilder out) {
+      if (series.isEmpty()) {
+        return;
+      }
+      out.append("# HELP ").append(name).append(' ');
+      out.append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+      out.append("# TYPE ").append(name).append(' ');
+      out.append(type.name().toLowerCase(Locale.ROOT)).append('\n');
+
+      for (final Map.Entry<String, Object> entry : series.entrySet()) {
+        final String labels = entry.getKey();
+        switch (type) {
+          case COUNTER:
+            sample(out, name, labels, ((Counter) entry.getValue()).get());
+            break;
+          case GAUGE:
+            try {
+              sample(out, name, labels, ((LongSupplier) entry.getValue()).getAsLong());
+            } catch (final RuntimeException ex) {
+              LOGGER.debug("Unable to read gauge {}", name, ex);
+            }
+            break;
+          default:
+            writeHistogram(out, labels, (Histogram) entry.getValue());
+        }
+      }
+    }
+
+    private void writeHistogram(
+        final StringBuilder out, final String labels, final Histogram histogram) {
+      final String separator = labels.isEmpty() ? "" : ",";
+      final long[] counts = histogram.getCounts();
+
+      long cumulative = 0;
+      for (int i = 0; i < Histogram.BUCKETS.length; i++) {
+        cumulative += counts[i];
+        final String le = "le=\"" + seconds(Histogram.BUCKETS[i]) + "\"";
+        sample(out, name + "_bucket", labels + separator + le, cumulative);
+      }
+      cumulative += counts[Histogram.BUCKETS.length];
+      sample(out, name + "_bucket", labels + separator + "le=\"+Inf\"", cumulative);
+
+      out.append(name).append("_sum");
+      if (!labels.isEmpty()) {
+        out.append('{').append(labels).append('}');
+      }
+      out.append(' ').append(seconds(histogram.getSumNanos())).append('\n');
+      sample(out, name + "_count", labels, cumulative);
+    }
+
+    private static void sample(
+        final StringBuilder out, final String name, final String labels, final long value) {
+      out.append(name);
+      if (!labels.isEmpty()) {
+        out.append('{').append(labels).append('}');
+      }
+      out.append(' ').append(value).append('\n');
+    }
+  }
+}
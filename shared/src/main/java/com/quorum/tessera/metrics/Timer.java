@@ -0,0 +1,45 @@
+package com.quorum.tessera.metrics;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/** Times an operation, keeping the times of calls that succeeded apart from those that failed */
+public class Timer {
+
+  private final Histogram success;
+
+  private final Histogram error;
+
+  Timer(final Histogram success, final Histogram error) {
+    this.success = Objects.requireNonNull(success);
+    this.error = Objects.requireNonNull(error);
+  }
+
+  public <T> T time(final Supplier<T> operation) {
+    final long start = System.nanoTime();
+    try {
+      final T result = operation.get();
+      success.recordSince(start);
+      return result;
+    } catch (final RuntimeException | Error ex) {
+      error.recordSince(start);
+      throw ex;
+    }
+  }
+
+  public void run(final Runnable operation) {
+    time(
+        () -> {
+          operation.run();
+          return null;
+        });
+  }
+
+  public Histogram getSuccess() {
+    return success;
+  }
+
+  public Histogram getError() {
+    return error;
+  }
+}
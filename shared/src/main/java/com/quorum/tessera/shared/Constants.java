@@ -3,4 +3,10 @@ package com.quorum.tessera.shared;
 public interface Constants {
 
   String API_VERSION_HEADER = "tesseraSupportedApiVersions";
+
+  String PARTY_INFO_DIGEST_HEADER = "tesseraPartyInfoDigest";
+
+  String PARTY_INFO_BASE_DIGEST_HEADER = "tesseraPartyInfoBaseDigest";
+
+  String PARTY_INFO_REMOVED_KEYS_HEADER = "tesseraPartyInfoRemovedKeys";
 }
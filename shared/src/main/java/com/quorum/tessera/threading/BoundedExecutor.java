@@ -0,0 +1,237 @@
+package com.quorum.tessera.threading;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread pool with a fixed number of named threads and a bounded queue, which records how busy it
+ * is and how long its tasks wait and run for.
+ *
+ * <p>Once every thread is busy and the queue is full, new tasks are handled by the {@link
+ * RejectionPolicy} the pool was created with, so a burst of work cannot create more threads or
+ * queue more tasks than the pool was sized for. Idle threads are let go after a minute.
+ */
+public class BoundedExecutor extends ThreadPoolExecutor implements BoundedExecutorMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BoundedExecutor.class);
+
+  /** What happens to a task given to a pool that has no thread or queue space left for it */
+  public enum RejectionPolicy {
+    /** a {@link RejectedExecutionException} is thrown to the caller */
+    ABORT,
+    /** the task runs on the caller's thread, slowing the caller down to the pool's pace */
+    CALLER_RUNS,
+    /** the task is dropped, for work that is repeated anyway such as polling */
+    DISCARD
+  }
+
+  private final String name;
+
+  private final int queueCapacity;
+
+  private final RejectionPolicy rejectionPolicy;
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder timedTasks = new LongAdder();
+
+  private final LongAdder totalQueueNanos = new LongAdder();
+
+  private final LongAdder totalRunNanos = new LongAdder();
+
+  private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+  private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+  private final ThreadLocal<Long> runStart = new ThreadLocal<>();
+
+  public BoundedExecutor(
+      final String name,
+      final int threads,
+      final int queueCapacity,
+      final RejectionPolicy rejectionPolicy) {
+    super(
+        threads,
+        threads,
+        60L,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new NamedThreadFactory(name));
+    this.name = Objects.requireNonNull(name);
+    this.queueCapacity = queueCapacity;
+    this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy);
+    allowCoreThreadTimeOut(true);
+    setRejectedExecutionHandler(new CountingRejectionHandler());
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    super.execute(new TimedTask(Objects.requireNonNull(command)));
+  }
+
+  @Override
+  protected void beforeExecute(final Thread thread, final Runnable task) {
+    final long now = System.nanoTime();
+    if (task instanceof TimedTask) {
+      final long queued = now - ((TimedTask) task).submittedAt;
+      totalQueueNanos.add(queued);
+      maxQueueNanos.accumulate(queued);
+    }
+    runStart.set(now);
+    super.beforeExecute(thread, task);
+  }
+
+  @Override
+  protected void afterExecute(final Runnable task, final Throwable throwable) {
+    super.afterExecute(task, throwable);
+    final Long started = runStart.get();
+    if (started != null) {
+      runStart.remove();
+      final long ran = System.nanoTime() - started;
+      totalRunNanos.add(ran);
+      maxRunNanos.accumulate(ran);
+      timedTasks.increment();
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getThreads() {
+    return getMaximumPoolSize();
+  }
+
+  @Override
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  @Override
+  public String getRejectionPolicy() {
+    return rejectionPolicy.name();
+  }
+
+  @Override
+  public int getQueuedCount() {
+    return getQueue().size();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public double getAverageQueueMillis() {
+    return averageMillis(totalQueueNanos);
+  }
+
+  @Override
+  public long getMaxQueueMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get());
+  }
+
+  @Override
+  public double getAverageRunMillis() {
+    return averageMillis(totalRunNanos);
+  }
+
+  @Override
+  public long getMaxRunMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxRunNanos.get());
+  }
+
+  /** Counts a rejection made by a wrapper of this pool, such as a {@link PeerExecutor} */
+  void recordRejection() {
+    rejected.increment();
+  }
+
+  private double averageMillis(final LongAdder totalNanos) {
+    final long count = timedTasks.sum();
+    return count == 0 ? 0 : totalNanos.sum() / (count * 1_000_000.0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s[threads=%d, active=%d, queued=%d/%d, rejected=%d, completed=%d]",
+        name,
+        getPoolSize(),
+        getActiveCount(),
+        getQueuedCount(),
+        queueCapacity,
+        getRejectedCount(),
+        getCompletedTaskCount());
+  }
+
+  private final class CountingRejectionHandler implements RejectedExecutionHandler {
+
+    @Override
+    public void rejectedExecution(final Runnable task, final ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException(name + " has been shut down");
+      }
+
+      rejected.increment();
+      LOGGER.debug("{} is full, task handled by {} policy", BoundedExecutor.this, rejectionPolicy);
+
+      switch (rejectionPolicy) {
+        case CALLER_RUNS:
+          task.run();
+          return;
+        case DISCARD:
+          LOGGER.warn("{} is full, dropping task", name);
+          return;
+        default:
+          throw new RejectedExecutionException(name + " is full");
+      }
+    }
+  }
+
+  private static final class TimedTask implements Runnable {
+
+    private final Runnable delegate;
+
+    private final long submittedAt = System.nanoTime();
+
+    private TimedTask(final Runnable delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void run() {
+      delegate.run();
+    }
+  }
+
+  private static final class NamedThreadFactory implements ThreadFactory {
+
+    private final String name;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private NamedThreadFactory(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
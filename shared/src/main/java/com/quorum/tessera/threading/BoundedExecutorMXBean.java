@@ -0,0 +1,35 @@
+package com.quorum.tessera.threading;
+
+/** The figures a {@link BoundedExecutor} publishes over JMX */
+public interface BoundedExecutorMXBean {
+
+  String getName();
+
+  /** @return the most threads the pool will run */
+  int getThreads();
+
+  int getQueueCapacity();
+
+  String getRejectionPolicy();
+
+  /** @return the threads currently in the pool, busy or not */
+  int getPoolSize();
+
+  /** @return the threads currently running a task */
+  int getActiveCount();
+
+  int getQueuedCount();
+
+  long getCompletedTaskCount();
+
+  /** @return the tasks that found the pool full, whatever the rejection policy did with them */
+  long getRejectedCount();
+
+  double getAverageQueueMillis();
+
+  long getMaxQueueMillis();
+
+  double getAverageRunMillis();
+
+  long getMaxRunMillis();
+}
@@ -1,11 +1,22 @@
 package com.quorum.tessera.threading;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-
+/** Creates the thread pools the node runs its background work on, see {@link ExecutorRegistry} */
 public class ExecutorFactory {
 
-  public Executor createCachedThreadPool() {
-    return Executors.newCachedThreadPool();
+  public BoundedExecutor create(
+      final String name,
+      final int threads,
+      final int queueCapacity,
+      final BoundedExecutor.RejectionPolicy rejectionPolicy) {
+    return ExecutorRegistry.INSTANCE.getOrCreate(name, threads, queueCapacity, rejectionPolicy);
+  }
+
+  public PeerExecutor createPeerExecutor(
+      final String name,
+      final int threads,
+      final int queueCapacity,
+      final int maxConcurrentPerPeer) {
+    return ExecutorRegistry.INSTANCE.getOrCreatePeerExecutor(
+        name, threads, queueCapacity, maxConcurrentPerPeer);
   }
 }
@@ -0,0 +1,155 @@
+package com.quorum.tessera.threading;
+
+import com.quorum.tessera.metrics.MetricsRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps every {@link BoundedExecutor} the node creates, so that there is one pool per name however
+ * many times it is asked for, and publishes each pool's figures over JMX as {@code
+ * com.quorum.tessera:type=Executor,name=<name>}. The length of each pool's queue and its busy
+ * threads are also kept in the node's {@link MetricsRegistry}.
+ *
+ * <p>The size of a pool can be changed without a rebuild by setting the system properties {@code
+ * tessera.executor.<name>.threads}, {@code tessera.executor.<name>.queue} and, for a {@link
+ * PeerExecutor}, {@code tessera.executor.<name>.perPeer}.
+ */
+public enum ExecutorRegistry {
+  INSTANCE;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorRegistry.class);
+
+  static final String PROPERTY_PREFIX = "tessera.executor.";
+
+  private final ConcurrentMap<String, BoundedExecutor> executors = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, PeerExecutor> peerExecutors = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the pool with the given name, creating it if it doesn't exist yet. The sizes are only used
+   * when the pool is created.
+   */
+  public BoundedExecutor getOrCreate(
+      final String name,
+      final int threads,
+      final int queueCapacity,
+      final BoundedExecutor.RejectionPolicy rejectionPolicy) {
+    return executors.computeIfAbsent(
+        name,
+        n -> {
+          final BoundedExecutor executor =
+              new BoundedExecutor(
+                  n,
+                  property(n, "threads", threads),
+                  property(n, "queue", queueCapacity),
+                  rejectionPolicy);
+          register(executor);
+          MetricsRegistry.node()
+              .gauge(
+                  "tessera_executor_queued_tasks",
+                  "Tasks waiting for a thread of the executor",
+                  executor::getQueuedCount,
+                  "executor",
+                  n);
+          MetricsRegistry.node()
+              .gauge(
+                  "tessera_executor_active_threads",
+                  "Threads of the executor running a task",
+                  executor::getActiveCount,
+                  "executor",
+                  n);
+          LOGGER.info("Created executor {}", executor);
+          return executor;
+        });
+  }
+
+  /**
+   * Gets the per-peer executor with the given name, creating it and its pool if they don't exist
+   * yet. Its pool runs tasks on the caller's thread when full, and each peer may have as many
+   * tasks waiting as the pool's queue holds.
+   */
+  public PeerExecutor getOrCreatePeerExecutor(
+      final String name,
+      final int threads,
+      final int queueCapacity,
+      final int maxConcurrentPerPeer) {
+    return peerExecutors.computeIfAbsent(
+        name,
+        n -> {
+          final BoundedExecutor executor =
+              getOrCreate(n, threads, queueCapacity, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+          return new PeerExecutor(
+              executor,
+              property(n, "perPeer", maxConcurrentPerPeer),
+              executor.getQueueCapacity());
+        });
+  }
+
+  public Collection<BoundedExecutor> getExecutors() {
+    return List.copyOf(executors.values());
+  }
+
+  /** Shuts down every pool, letting tasks already given to them finish */
+  public void shutdown() {
+    executors.values().forEach(BoundedExecutor::shutdown);
+    executors.values().forEach(this::unregister);
+    executors.clear();
+    peerExecutors.clear();
+  }
+
+  static int property(final String name, final String setting, final int defaultValue) {
+    final String key = PROPERTY_PREFIX + name + "." + setting;
+    final String value = System.getProperty(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      final int parsed = Integer.parseInt(value.trim());
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (final NumberFormatException ex) {
+      LOGGER.debug(null, ex);
+    }
+    LOGGER.warn("Invalid value {} for {}, using default {}", value, key, defaultValue);
+    return defaultValue;
+  }
+
+  private static ObjectName objectName(final BoundedExecutor executor) throws JMException {
+    return new ObjectName("com.quorum.tessera:type=Executor,name=" + executor.getName());
+  }
+
+  private void register(final BoundedExecutor executor) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName objectName = objectName(executor);
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(executor, objectName);
+      }
+    } catch (final JMException | RuntimeException ex) {
+      LOGGER.warn(
+          "Unable to publish figures of executor {}: {}", executor.getName(), ex.toString());
+      LOGGER.debug(null, ex);
+    }
+  }
+
+  private void unregister(final BoundedExecutor executor) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName objectName = objectName(executor);
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (final JMException | RuntimeException ex) {
+      LOGGER.debug(null, ex);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.quorum.tessera.threading;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks for many peers on a shared {@link BoundedExecutor}, but no more than a set number of
+ * them for any one peer at a time. Further tasks for a busy peer wait in a queue of their own, and
+ * once that queue is full they are rejected, so a peer that is slow to respond holds on to a few
+ * threads rather than all of them.
+ *
+ * <p>A task that has been accepted is always run: if the pool turns it away when its turn comes, it
+ * is run by the thread that finished the peer's previous task.
+ */
+public class PeerExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PeerExecutor.class);
+
+  private final BoundedExecutor executor;
+
+  private final int maxConcurrentPerPeer;
+
+  private final int maxPendingPerPeer;
+
+  private final Map<String, PeerQueue> peers = new ConcurrentHashMap<>();
+
+  public PeerExecutor(
+      final BoundedExecutor executor, final int maxConcurrentPerPeer, final int maxPendingPerPeer) {
+    if (maxConcurrentPerPeer <= 0 || maxPendingPerPeer < 0) {
+      throw new IllegalArgumentException("Peer limits must be positive");
+    }
+    this.executor = Objects.requireNonNull(executor);
+    this.maxConcurrentPerPeer = maxConcurrentPerPeer;
+    this.maxPendingPerPeer = maxPendingPerPeer;
+  }
+
+  /**
+   * Runs the task for the given peer, now if the peer has fewer tasks than allowed running and
+   * later otherwise
+   *
+   * @param peer the peer the task talks to, usually its URL
+   * @param task the task to run
+   * @throws RejectedExecutionException if the peer already has as many tasks waiting as allowed, or
+   *     if the pool is full and rejects tasks
+   */
+  public void execute(final String peer, final Runnable task) {
+    Objects.requireNonNull(task);
+    final PeerQueue queue = peers.computeIfAbsent(peer, p -> new PeerQueue());
+    synchronized (queue) {
+      if (queue.running >= maxConcurrentPerPeer) {
+        if (queue.pending.size() >= maxPendingPerPeer) {
+          executor.recordRejection();
+          throw new RejectedExecutionException(
+              String.format(
+                  "%s already has %d tasks running and %d waiting for %s",
+                  executor.getName(), queue.running, queue.pending.size(), peer));
+        }
+        queue.pending.add(task);
+        return;
+      }
+      queue.running++;
+    }
+
+    try {
+      executor.execute(() -> runThenNext(queue, task));
+    } catch (final RejectedExecutionException ex) {
+      synchronized (queue) {
+        queue.running--;
+      }
+      throw ex;
+    }
+  }
+
+  /** @return the tasks waiting for a busy peer, across all peers */
+  public int getPendingCount() {
+    return peers.values().stream()
+        .mapToInt(
+            queue -> {
+              synchronized (queue) {
+                return queue.pending.size();
+              }
+            })
+        .sum();
+  }
+
+  public BoundedExecutor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Runs the task, then the tasks that are waiting for the same peer. Each waiting task is passed
+   * to the pool in turn, and those the pool turns away or hands back to this thread are run by the
+   * loop here rather than by a nested call, so a long queue can't exhaust the stack.
+   */
+  private void runThenNext(final PeerQueue queue, final Runnable task) {
+    Runnable current = task;
+    while (current != null) {
+      try {
+        current.run();
+      } catch (final RuntimeException ex) {
+        LOGGER.warn("Task run by {} failed", executor.getName(), ex);
+      }
+      current = handOff(queue);
+    }
+  }
+
+  /** @return the peer's next task if it is to be run on this thread, otherwise null */
+  private Runnable handOff(final PeerQueue queue) {
+    final Runnable next;
+    synchronized (queue) {
+      next = queue.pending.poll();
+      if (next == null) {
+        queue.running--;
+        return null;
+      }
+    }
+
+    final HandOff handOff = new HandOff(queue, next);
+    try {
+      executor.execute(handOff);
+    } catch (final RejectedExecutionException ex) {
+      LOGGER.debug("{} rejected waiting task, running it on this thread", executor.getName());
+      return next;
+    }
+    return handOff.handedBack() ? next : null;
+  }
+
+  /** A waiting task passed to the pool, which notices if the pool runs it on the caller's thread */
+  private final class HandOff implements Runnable {
+
+    private final PeerQueue queue;
+
+    private final Runnable task;
+
+    private final Thread caller = Thread.currentThread();
+
+    private volatile boolean handingOver = true;
+
+    private volatile boolean handedBack;
+
+    private HandOff(final PeerQueue queue, final Runnable task) {
+      this.queue = queue;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      if (handingOver && Thread.currentThread() == caller) {
+        handedBack = true;
+        return;
+      }
+      runThenNext(queue, task);
+    }
+
+    private boolean handedBack() {
+      handingOver = false;
+      return handedBack;
+    }
+  }
+
+  private static final class PeerQueue {
+
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    private int running;
+  }
+}
@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class BatchKeyValidationVersion implements ApiVersion {
+
+  public static final String API_VERSION_3_4 = "3.4";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_3_4;
+  }
+}
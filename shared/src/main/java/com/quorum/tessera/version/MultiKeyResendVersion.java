@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class MultiKeyResendVersion implements ApiVersion {
+
+  public static final String API_VERSION_3_2 = "3.2";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_3_2;
+  }
+}
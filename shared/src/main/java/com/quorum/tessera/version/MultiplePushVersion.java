@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class MultiplePushVersion implements ApiVersion {
+
+  public static final String API_VERSION_3_1 = "3.1";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_3_1;
+  }
+}
@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class PartyInfoDeltaVersion implements ApiVersion {
+
+  public static final String API_VERSION_3_3 = "3.3";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_3_3;
+  }
+}
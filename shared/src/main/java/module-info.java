@@ -2,11 +2,13 @@ module tessera.shared {
   // requires java.compiler;
 
   requires java.annotation;
+  requires java.management;
   requires org.slf4j;
 
   exports com.quorum.tessera.base64;
   exports com.quorum.tessera.exception;
   exports com.quorum.tessera.io;
+  exports com.quorum.tessera.metrics;
   exports com.quorum.tessera.passwords;
   exports com.quorum.tessera.reflect;
   exports com.quorum.tessera.service;
@@ -22,7 +24,11 @@ module tessera.shared {
       com.quorum.tessera.nio.unix.UnixSocketFileSystemProvider;
   provides com.quorum.tessera.version.ApiVersion with
       com.quorum.tessera.version.BaseVersion,
+      com.quorum.tessera.version.BatchKeyValidationVersion,
       com.quorum.tessera.version.EnhancedPrivacyVersion,
+      com.quorum.tessera.version.MultiKeyResendVersion,
       com.quorum.tessera.version.MultiTenancyVersion,
+      com.quorum.tessera.version.MultiplePushVersion,
+      com.quorum.tessera.version.PartyInfoDeltaVersion,
       com.quorum.tessera.version.PrivacyGroupVersion;
 }
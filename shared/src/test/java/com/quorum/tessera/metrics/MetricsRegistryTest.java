@@ -0,0 +1,147 @@
+package com.quorum.tessera.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+  private MetricsRegistry metricsRegistry;
+
+  @Before
+  public void setUp() {
+    metricsRegistry = new MetricsRegistry("");
+  }
+
+  private String scrape(MetricsRegistry registry) {
+    final StringBuilder out = new StringBuilder();
+    registry.writeTo(out);
+    return out.toString();
+  }
+
+  @Test
+  public void emptyRegistryWritesNothing() {
+    assertThat(scrape(metricsRegistry)).isEmpty();
+  }
+
+  @Test
+  public void counterIsWrittenWithHelpAndType() {
+    final Counter counter = metricsRegistry.counter("things_total", "Things", "kind", "a");
+    counter.increment();
+    counter.add(2);
+
+    assertThat(metricsRegistry.counter("things_total", "Things", "kind", "a")).isSameAs(counter);
+    assertThat(counter.get()).isEqualTo(3);
+    assertThat(scrape(metricsRegistry))
+        .isEqualTo(
+            "# HELP things_total Things\n# TYPE things_total counter\n"
+                + "things_total{kind=\"a\"} 3\n");
+  }
+
+  @Test
+  public void counterCannotGoDown() {
+    final Throwable ex = catchThrowable(() -> metricsRegistry.counter("c", "C").add(-1));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void gaugeIsReadWhenWritten() {
+    final long[] value = {1};
+    metricsRegistry.gauge("queue", "Queue", () -> value[0]);
+    value[0] = 5;
+
+    assertThat(scrape(metricsRegistry)).contains("# TYPE queue gauge\nqueue 5\n");
+  }
+
+  @Test
+  public void failingGaugeIsLeftOut() {
+    metricsRegistry.gauge(
+        "broken",
+        "Broken",
+        () -> {
+          throw new IllegalStateException();
+        });
+
+    assertThat(scrape(metricsRegistry)).doesNotContain("broken ");
+  }
+
+  @Test
+  public void histogramBucketsAreCumulative() {
+    final Histogram histogram = metricsRegistry.histogram("latency_seconds", "Latency");
+    histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(50));
+    histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(3));
+    histogram.recordNanos(TimeUnit.MINUTES.toNanos(2));
+
+    assertThat(histogram.getCount()).isEqualTo(4);
+
+    assertThat(scrape(metricsRegistry))
+        .contains("# TYPE latency_seconds histogram\n")
+        .contains("latency_seconds_bucket{le=\"0.0001\"} 1\n")
+        .contains("latency_seconds_bucket{le=\"0.001\"} 2\n")
+        .contains("latency_seconds_bucket{le=\"0.0025\"} 2\n")
+        .contains("latency_seconds_bucket{le=\"0.005\"} 3\n")
+        .contains("latency_seconds_bucket{le=\"60\"} 3\n")
+        .contains("latency_seconds_bucket{le=\"+Inf\"} 4\n")
+        .contains("latency_seconds_sum 120.00405\n")
+        .contains("latency_seconds_count 4\n");
+  }
+
+  @Test
+  public void timerSeparatesSuccessesFromErrors() {
+    final Timer timer = metricsRegistry.timer("op_seconds", "Op", "operation", "send");
+
+    assertThat(timer.time(() -> "result")).isEqualTo("result");
+    final Throwable ex =
+        catchThrowable(
+            () ->
+                timer.run(
+                    () -> {
+                      throw new IllegalStateException("failed");
+                    }));
+
+    assertThat(ex).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+    assertThat(timer.getSuccess().getCount()).isEqualTo(1);
+    assertThat(timer.getError().getCount()).isEqualTo(1);
+    assertThat(scrape(metricsRegistry))
+        .contains("op_seconds_count{operation=\"send\",outcome=\"error\"} 1\n")
+        .contains("op_seconds_count{operation=\"send\",outcome=\"success\"} 1\n");
+  }
+
+  @Test
+  public void serverRegistryLabelsEverySeries() {
+    final MetricsRegistry server = MetricsRegistry.server("TEST_SERVER");
+    server.counter("server_requests_total", "Requests", "path", "a\"b").increment();
+
+    assertThat(MetricsRegistry.server("test_server")).isSameAs(server);
+    assertThat(scrape(server))
+        .contains("server_requests_total{server=\"test_server\",path=\"a\\\"b\"} 1\n");
+  }
+
+  @Test
+  public void nameMustBeValid() {
+    final Throwable ex = catchThrowable(() -> metricsRegistry.counter("not valid", "Help"));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void labelsMustBePairs() {
+    final Throwable ex = catchThrowable(() -> metricsRegistry.counter("c", "Help", "label"));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void nameCannotBeReusedForAnotherType() {
+    metricsRegistry.counter("metric", "Help");
+
+    final Throwable ex = catchThrowable(() -> metricsRegistry.histogram("metric", "Help"));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,131 @@
+package com.quorum.tessera.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+
+public class BoundedExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private BoundedExecutor executor;
+
+  @After
+  public void onTearDown() throws InterruptedException {
+    release.countDown();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private void fill() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          started.countDown();
+          await(release);
+        });
+    started.await(5, TimeUnit.SECONDS);
+    executor.execute(() -> await(release));
+  }
+
+  @Test
+  public void abortThrowsOnceThreadsAndQueueAreFull() throws InterruptedException {
+    executor = new BoundedExecutor("abort-test", 1, 1, BoundedExecutor.RejectionPolicy.ABORT);
+    fill();
+
+    final Throwable ex = catchThrowable(() -> executor.execute(() -> {}));
+
+    assertThat(ex).isInstanceOf(RejectedExecutionException.class).hasMessage("abort-test is full");
+    assertThat(executor.getRejectedCount()).isEqualTo(1);
+    assertThat(executor.getActiveCount()).isEqualTo(1);
+    assertThat(executor.getQueuedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void callerRunsRunsTaskOnCallingThreadOnceFull() throws InterruptedException {
+    executor =
+        new BoundedExecutor("caller-runs-test", 1, 1, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+    fill();
+
+    final AtomicReference<Thread> ranOn = new AtomicReference<>();
+    executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+    assertThat(ranOn).hasValue(Thread.currentThread());
+    assertThat(executor.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void discardDropsTaskOnceFull() throws InterruptedException {
+    executor = new BoundedExecutor("discard-test", 1, 1, BoundedExecutor.RejectionPolicy.DISCARD);
+    fill();
+
+    final AtomicReference<Thread> ranOn = new AtomicReference<>();
+    executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+    assertThat(ranOn.get()).isNull();
+    assertThat(executor.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void rejectsAfterShutdownWhateverThePolicy() {
+    executor =
+        new BoundedExecutor("shutdown-test", 1, 1, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+    executor.shutdown();
+
+    final Throwable ex = catchThrowable(() -> executor.execute(() -> {}));
+
+    assertThat(ex)
+        .isInstanceOf(RejectedExecutionException.class)
+        .hasMessage("shutdown-test has been shut down");
+    assertThat(executor.getRejectedCount()).isZero();
+  }
+
+  @Test
+  public void recordsNamedThreadsAndTimings() throws InterruptedException {
+    executor = new BoundedExecutor("timing-test", 2, 10, BoundedExecutor.RejectionPolicy.ABORT);
+
+    final AtomicReference<Thread> ranOn = new AtomicReference<>();
+    final CountDownLatch done = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          ranOn.set(Thread.currentThread());
+          sleep(20);
+          done.countDown();
+        });
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+    executor.shutdown();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(ranOn.get().getName()).isEqualTo("timing-test-1");
+    assertThat(ranOn.get().isDaemon()).isTrue();
+    assertThat(executor.getCompletedTaskCount()).isEqualTo(1);
+    assertThat(executor.getMaxRunMillis()).isGreaterThanOrEqualTo(20);
+    assertThat(executor.getAverageRunMillis()).isGreaterThanOrEqualTo(20);
+    assertThat(executor.getAverageQueueMillis()).isGreaterThanOrEqualTo(0);
+    assertThat(executor.getMaxQueueMillis()).isGreaterThanOrEqualTo(0);
+    assertThat(executor.toString()).startsWith("timing-test[");
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,14 +2,45 @@ package com.quorum.tessera.threading;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import java.util.concurrent.Executor;
+import org.junit.After;
 import org.junit.Test;
 
 public class ExecutorFactoryTest {
 
+  @After
+  public void onTearDown() {
+    ExecutorRegistry.INSTANCE.shutdown();
+  }
+
+  @Test
+  public void create() {
+    final ExecutorFactory executorFactory = new ExecutorFactory();
+
+    final BoundedExecutor executor =
+        executorFactory.create("factory-test", 2, 10, BoundedExecutor.RejectionPolicy.ABORT);
+
+    assertThat(executor).isNotNull();
+    assertThat(executor.getName()).isEqualTo("factory-test");
+    assertThat(executor.getThreads()).isEqualTo(2);
+    assertThat(executor.getQueueCapacity()).isEqualTo(10);
+    assertThat(executor.getRejectionPolicy()).isEqualTo("ABORT");
+
+    assertThat(
+            executorFactory.create("factory-test", 4, 20, BoundedExecutor.RejectionPolicy.DISCARD))
+        .isSameAs(executor);
+  }
+
   @Test
-  public void createCachedThreadPool() {
-    Executor executor = new ExecutorFactory().createCachedThreadPool();
+  public void createPeerExecutor() {
+    final ExecutorFactory executorFactory = new ExecutorFactory();
+
+    final PeerExecutor executor = executorFactory.createPeerExecutor("factory-peer-test", 2, 10, 1);
+
     assertThat(executor).isNotNull();
+    assertThat(executor.getExecutor().getName()).isEqualTo("factory-peer-test");
+    assertThat(executor.getExecutor().getRejectionPolicy()).isEqualTo("CALLER_RUNS");
+
+    assertThat(executorFactory.createPeerExecutor("factory-peer-test", 2, 10, 1))
+        .isSameAs(executor);
   }
 }
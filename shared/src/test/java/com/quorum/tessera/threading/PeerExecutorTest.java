@@ -0,0 +1,168 @@
+package com.quorum.tessera.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PeerExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private BoundedExecutor executor;
+
+  private PeerExecutor peerExecutor;
+
+  @Before
+  public void onSetUp() {
+    executor = new BoundedExecutor("peer-test", 4, 10, BoundedExecutor.RejectionPolicy.ABORT);
+    peerExecutor = new PeerExecutor(executor, 1, 1);
+  }
+
+  @After
+  public void onTearDown() throws InterruptedException {
+    release.countDown();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void limitsTasksRunningForOnePeer() throws InterruptedException {
+    final List<String> ran = new CopyOnWriteArrayList<>();
+    final CountDownLatch done = new CountDownLatch(3);
+    final CountDownLatch fastDone = new CountDownLatch(1);
+
+    peerExecutor.execute(
+        "slow",
+        () -> {
+          await(release);
+          ran.add("slow-1");
+          done.countDown();
+        });
+    peerExecutor.execute(
+        "slow",
+        () -> {
+          ran.add("slow-2");
+          done.countDown();
+        });
+    peerExecutor.execute(
+        "fast",
+        () -> {
+          ran.add("fast");
+          fastDone.countDown();
+          done.countDown();
+        });
+
+    // the other peer isn't held up by the slow one
+    assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(peerExecutor.getPendingCount()).isEqualTo(1);
+
+    final Throwable ex = catchThrowable(() -> peerExecutor.execute("slow", () -> {}));
+    assertThat(ex).isInstanceOf(RejectedExecutionException.class);
+    assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+    release.countDown();
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(ran).containsExactly("fast", "slow-1", "slow-2");
+    assertThat(peerExecutor.getPendingCount()).isZero();
+  }
+
+  @Test
+  public void peerCanRunAgainOnceItsTasksAreDone() throws InterruptedException {
+    final CountDownLatch first = new CountDownLatch(1);
+    peerExecutor.execute("peer", first::countDown);
+    assertThat(first.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final CountDownLatch second = new CountDownLatch(1);
+    peerExecutor.execute("peer", second::countDown);
+    assertThat(second.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void failedTaskDoesNotHoldUpPeer() throws InterruptedException {
+    final CountDownLatch next = new CountDownLatch(1);
+
+    peerExecutor.execute(
+        "peer",
+        () -> {
+          await(release);
+          throw new IllegalStateException("OUCH");
+        });
+    peerExecutor.execute("peer", next::countDown);
+
+    release.countDown();
+    assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void waitingTasksHandedBackByFullPoolAreRunWithoutNesting() throws InterruptedException {
+    final int tasks = 50000;
+    final BoundedExecutor callerRuns =
+        new BoundedExecutor("peer-caller-runs", 1, 1, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+    final PeerExecutor callerRunsPeerExecutor = new PeerExecutor(callerRuns, 1, tasks);
+    final AtomicInteger ran = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(1);
+
+    try {
+      callerRunsPeerExecutor.execute("peer", () -> await(release));
+      // keeps the pool's queue full, so that it hands every waiting task back to the thread
+      callerRuns.execute(() -> {});
+      for (int i = 0; i < tasks; i++) {
+        callerRunsPeerExecutor.execute(
+            "peer",
+            () -> {
+              if (ran.incrementAndGet() == tasks) {
+                done.countDown();
+              }
+            });
+      }
+
+      release.countDown();
+
+      assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+      assertThat(callerRunsPeerExecutor.getPendingCount()).isZero();
+    } finally {
+      callerRuns.shutdown();
+      assertThat(callerRuns.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+
+  @Test
+  public void peerIsFreedIfPoolRejectsTask() {
+    executor.shutdown();
+
+    final Throwable ex = catchThrowable(() -> peerExecutor.execute("peer", () -> {}));
+
+    assertThat(ex).isInstanceOf(RejectedExecutionException.class);
+    assertThat(peerExecutor.getPendingCount()).isZero();
+  }
+
+  @Test
+  public void invalidLimitsAreRejected() {
+    final Throwable ex = catchThrowable(() -> new PeerExecutor(executor, 0, 1));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void getExecutor() {
+    assertThat(peerExecutor.getExecutor()).isSameAs(executor);
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -8,6 +8,7 @@ public class ApiVersionTest {
 
   @Test
   public void create() {
-    assertThat(ApiVersion.versions()).containsExactlyInAnyOrder("v1", "v2", "2.1", "3.0");
+    assertThat(ApiVersion.versions())
+        .containsExactlyInAnyOrder("v1", "v2", "2.1", "3.0", "3.1", "3.2", "3.3", "3.4");
   }
 }
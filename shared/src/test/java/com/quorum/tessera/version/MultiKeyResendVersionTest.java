@@ -0,0 +1,15 @@
+package com.quorum.tessera.version;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class MultiKeyResendVersionTest {
+
+  private MultiKeyResendVersion version = new MultiKeyResendVersion();
+
+  @Test
+  public void getVersion() {
+    assertThat(version.getVersion()).isEqualTo("3.2");
+  }
+}
@@ -0,0 +1,15 @@
+package com.quorum.tessera.version;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class MultiplePushVersionTest {
+
+  private MultiplePushVersion version = new MultiplePushVersion();
+
+  @Test
+  public void getVersion() {
+    assertThat(version.getVersion()).isEqualTo("3.1");
+  }
+}
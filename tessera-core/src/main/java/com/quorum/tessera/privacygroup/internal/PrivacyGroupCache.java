@@ -0,0 +1,213 @@
+package com.quorum.tessera.privacygroup.internal;
+
+import com.quorum.tessera.enclave.PrivacyGroup;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Holds decoded privacy groups in memory, indexed by id, lookup id and type, so that sends to a
+ * privacy group and searches for groups don't need to go to the database.
+ *
+ * <p>Every change the node makes to a group is written through to the cache once it has been
+ * stored. Groups read from the database are only added if the cache is still at the version it
+ * was at when the read started, so a slow read can never undo a newer write. Deleted groups are
+ * kept, so that they are not looked up again.
+ *
+ * <p>Nodes that share a database don't see each other's writes, so each group is only held for
+ * {@code timeToLive} milliseconds after it was stored or read, and the cache is only complete for
+ * that long after every group was loaded. A time to live of zero holds nothing, so that every read
+ * goes to the database.
+ *
+ * <p>Reads don't lock; writes are rare and are made one at a time.
+ */
+class PrivacyGroupCache {
+
+  static final long DEFAULT_TIME_TO_LIVE = 60000L; // 1 minute
+
+  private final long timeToLiveNanos;
+
+  private final LongSupplier clock;
+
+  private final ConcurrentMap<PrivacyGroup.Id, Entry> byId = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<ByteBuffer, Set<PrivacyGroup.Id>> byLookupId =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<PrivacyGroup.Type, Set<PrivacyGroup.Id>> byType =
+      new ConcurrentHashMap<>();
+
+  private volatile long version;
+
+  private volatile boolean complete;
+
+  private volatile long completedAt;
+
+  PrivacyGroupCache() {
+    this(DEFAULT_TIME_TO_LIVE);
+  }
+
+  PrivacyGroupCache(final long timeToLive) {
+    this(timeToLive, System::nanoTime);
+  }
+
+  PrivacyGroupCache(final long timeToLive, final LongSupplier clock) {
+    if (timeToLive < 0) {
+      throw new IllegalArgumentException("timeToLive must not be negative");
+    }
+    this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    this.clock = Objects.requireNonNull(clock, "clock is required");
+  }
+
+  /** @return a number that changes whenever a group is written to or dropped from the cache */
+  long getVersion() {
+    return version;
+  }
+
+  /** @return whether every group in the database has been loaded into the cache recently */
+  boolean isComplete() {
+    return complete && isFresh(completedAt);
+  }
+
+  Optional<PrivacyGroup> get(final PrivacyGroup.Id id) {
+    return Optional.ofNullable(byId.get(id))
+        .filter(entry -> isFresh(entry.heldAt))
+        .map(Entry::getPrivacyGroup);
+  }
+
+  List<PrivacyGroup> findByLookupId(final byte[] lookupId) {
+    return groups(byLookupId.get(ByteBuffer.wrap(lookupId)));
+  }
+
+  List<PrivacyGroup> findByType(final PrivacyGroup.Type type) {
+    return groups(byType.get(type));
+  }
+
+  /** Writes through a group that has just been stored in the database */
+  synchronized void put(final Entry entry) {
+    version++;
+    index(entry);
+  }
+
+  /**
+   * Adds a group read from the database, unless the cache has changed since the read started
+   *
+   * @param entry the group that was read
+   * @param readVersion the version of the cache before the database was read
+   * @return whether the group was added
+   */
+  synchronized boolean load(final Entry entry, final long readVersion) {
+    if (version != readVersion || timeToLiveNanos == 0) {
+      return false;
+    }
+    index(entry);
+    return true;
+  }
+
+  /**
+   * Adds every group in the database, unless the cache has changed since they were read, after
+   * which searches by lookup id and type are answered by the cache alone
+   *
+   * @param entries all the groups in the database
+   * @param readVersion the version of the cache before the database was read
+   * @return whether the groups were added
+   */
+  synchronized boolean loadAll(final Collection<Entry> entries, final long readVersion) {
+    if (version != readVersion || timeToLiveNanos == 0) {
+      return false;
+    }
+    completedAt = clock.getAsLong();
+    entries.forEach(this::index);
+    complete = true;
+    return true;
+  }
+
+  /**
+   * Drops a group whose state in the database is no longer known, for instance because storing it
+   * failed part way. The next read of the group goes back to the database.
+   */
+  synchronized void invalidate(final PrivacyGroup.Id id) {
+    version++;
+    complete = false;
+    unindex(byId.remove(id));
+  }
+
+  private boolean isFresh(final long heldAt) {
+    return clock.getAsLong() - heldAt < timeToLiveNanos;
+  }
+
+  private void index(final Entry entry) {
+    if (timeToLiveNanos == 0) {
+      return;
+    }
+    final PrivacyGroup.Id id = entry.getPrivacyGroup().getId();
+    unindex(byId.put(id, new Entry(entry.privacyGroup, entry.lookupId, clock.getAsLong())));
+    if (entry.lookupId != null) {
+      byLookupId.computeIfAbsent(entry.lookupId, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+    byType
+        .computeIfAbsent(entry.getPrivacyGroup().getType(), k -> ConcurrentHashMap.newKeySet())
+        .add(id);
+  }
+
+  private void unindex(final Entry previous) {
+    if (previous == null) {
+      return;
+    }
+    final PrivacyGroup.Id id = previous.getPrivacyGroup().getId();
+    if (previous.lookupId != null) {
+      byLookupId.computeIfPresent(previous.lookupId, (k, ids) -> remove(ids, id));
+    }
+    byType.computeIfPresent(previous.getPrivacyGroup().getType(), (k, ids) -> remove(ids, id));
+  }
+
+  private static Set<PrivacyGroup.Id> remove(
+      final Set<PrivacyGroup.Id> ids, final PrivacyGroup.Id id) {
+    ids.remove(id);
+    return ids.isEmpty() ? null : ids;
+  }
+
+  private List<PrivacyGroup> groups(final Set<PrivacyGroup.Id> ids) {
+    if (ids == null) {
+      return List.of();
+    }
+    return ids.stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
+        .filter(entry -> isFresh(entry.heldAt))
+        .map(Entry::getPrivacyGroup)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /** A decoded privacy group together with the lookup id it is stored under */
+  static final class Entry {
+
+    private final PrivacyGroup privacyGroup;
+
+    private final ByteBuffer lookupId;
+
+    private final long heldAt;
+
+    Entry(final PrivacyGroup privacyGroup, final byte[] lookupId) {
+      this(privacyGroup, lookupId == null ? null : ByteBuffer.wrap(lookupId), 0L);
+    }
+
+    private Entry(final PrivacyGroup privacyGroup, final ByteBuffer lookupId, final long heldAt) {
+      this.privacyGroup = privacyGroup;
+      this.lookupId = lookupId;
+      this.heldAt = heldAt;
+    }
+
+    PrivacyGroup getPrivacyGroup() {
+      return privacyGroup;
+    }
+  }
+}
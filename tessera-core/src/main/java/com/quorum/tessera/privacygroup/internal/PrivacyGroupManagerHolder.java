@@ -0,0 +1,19 @@
+package com.quorum.tessera.privacygroup.internal;
+
+import com.quorum.tessera.privacygroup.PrivacyGroupManager;
+import java.util.Optional;
+
+enum PrivacyGroupManagerHolder {
+  INSTANCE;
+
+  private PrivacyGroupManager privacyGroupManager;
+
+  Optional<PrivacyGroupManager> getPrivacyGroupManager() {
+    return Optional.ofNullable(privacyGroupManager);
+  }
+
+  PrivacyGroupManager store(PrivacyGroupManager privacyGroupManager) {
+    this.privacyGroupManager = privacyGroupManager;
+    return privacyGroupManager;
+  }
+}
@@ -11,6 +11,8 @@ import com.quorum.tessera.privacygroup.exception.PrivacyGroupNotFoundException;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
 import com.quorum.tessera.transaction.exception.PrivacyViolationException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -26,6 +28,8 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
 
   private final PrivacyGroupUtil privacyGroupUtil;
 
+  private final PrivacyGroupCache privacyGroupCache;
+
   public PrivacyGroupManagerImpl(
       Enclave enclave, PrivacyGroupDAO privacyGroupDAO, BatchPrivacyGroupPublisher publisher) {
     this(enclave, privacyGroupDAO, publisher, PrivacyGroupUtil.create());
@@ -36,10 +40,20 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
       PrivacyGroupDAO privacyGroupDAO,
       BatchPrivacyGroupPublisher publisher,
       PrivacyGroupUtil privacyGroupUtil) {
+    this(enclave, privacyGroupDAO, publisher, privacyGroupUtil, new PrivacyGroupCache());
+  }
+
+  PrivacyGroupManagerImpl(
+      Enclave enclave,
+      PrivacyGroupDAO privacyGroupDAO,
+      BatchPrivacyGroupPublisher publisher,
+      PrivacyGroupUtil privacyGroupUtil,
+      PrivacyGroupCache privacyGroupCache) {
     this.enclave = enclave;
     this.privacyGroupDAO = privacyGroupDAO;
     this.publisher = publisher;
     this.privacyGroupUtil = privacyGroupUtil;
+    this.privacyGroupCache = privacyGroupCache;
   }
 
   @Override
@@ -72,12 +86,16 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
     final List<PublicKey> forwardingMembers =
         members.stream().filter(Predicate.not(localKeys::contains)).collect(Collectors.toList());
 
-    privacyGroupDAO.save(
-        new PrivacyGroupEntity(groupIdBytes, lookupId, encodedData),
-        () -> {
-          publisher.publishPrivacyGroup(encodedData, forwardingMembers);
-          return null;
-        });
+    writeThrough(
+        created,
+        lookupId,
+        () ->
+            privacyGroupDAO.save(
+                new PrivacyGroupEntity(groupIdBytes, lookupId, encodedData),
+                () -> {
+                  publisher.publishPrivacyGroup(encodedData, forwardingMembers);
+                  return null;
+                }));
 
     return created;
   }
@@ -105,10 +123,22 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
             .withState(PrivacyGroup.State.ACTIVE)
             .build();
 
+    // the same members always make the same legacy group, so a known one is not stored again
+    if (privacyGroupCache.get(created.getId()).isPresent()) {
+      return created;
+    }
+
     final byte[] lookupId = privacyGroupUtil.generateLookupId(members);
     final byte[] encodedData = privacyGroupUtil.encode(created);
 
-    privacyGroupDAO.retrieveOrSave(new PrivacyGroupEntity(groupIdBytes, lookupId, encodedData));
+    final long readVersion = privacyGroupCache.getVersion();
+    final PrivacyGroupEntity stored =
+        privacyGroupDAO.retrieveOrSave(new PrivacyGroupEntity(groupIdBytes, lookupId, encodedData));
+
+    // the group may have been stored before, in which case it is cached when next retrieved
+    if (stored != null && Arrays.equals(stored.getData(), encodedData)) {
+      privacyGroupCache.load(new PrivacyGroupCache.Entry(created, lookupId), readVersion);
+    }
 
     return created;
   }
@@ -122,7 +152,11 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
     final byte[] lookupId = privacyGroupUtil.generateLookupId(members);
     final byte[] encodedData = privacyGroupUtil.encode(privacyGroup);
 
-    privacyGroupDAO.update(new PrivacyGroupEntity(name.getBytes(), lookupId, encodedData));
+    writeThrough(
+        privacyGroup,
+        lookupId,
+        () ->
+            privacyGroupDAO.update(new PrivacyGroupEntity(name.getBytes(), lookupId, encodedData)));
 
     return privacyGroup;
   }
@@ -132,29 +166,75 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
 
     final byte[] lookupId = privacyGroupUtil.generateLookupId(members);
 
-    return privacyGroupDAO.findByLookupId(lookupId).stream()
-        .map(PrivacyGroupEntity::getData)
-        .map(privacyGroupUtil::decode)
+    // groups stored by another node sharing the database are only found there
+    final List<PrivacyGroup> cached =
+        privacyGroupCache.isComplete()
+            ? privacyGroupCache.findByLookupId(lookupId)
+            : Collections.emptyList();
+
+    final List<PrivacyGroup> found;
+    if (cached.isEmpty()) {
+      final long readVersion = privacyGroupCache.getVersion();
+      found =
+          privacyGroupDAO.findByLookupId(lookupId).stream()
+              .map(this::toCacheEntry)
+              .map(
+                  entry -> {
+                    privacyGroupCache.load(entry, readVersion);
+                    return entry.getPrivacyGroup();
+                  })
+              .collect(Collectors.toList());
+    } else {
+      found = cached;
+    }
+
+    return found.stream()
         .filter(pg -> pg.getState() == PrivacyGroup.State.ACTIVE)
         .collect(Collectors.toUnmodifiableList());
   }
 
   @Override
   public List<PrivacyGroup> findPrivacyGroupByType(PrivacyGroup.Type type) {
-    return privacyGroupDAO.findAll().stream()
-        .map(PrivacyGroupEntity::getData)
-        .map(privacyGroupUtil::decode)
-        .filter(pg -> pg.getState() == PrivacyGroup.State.ACTIVE && pg.getType() == type)
+
+    final List<PrivacyGroup> found;
+    if (privacyGroupCache.isComplete()) {
+      found = privacyGroupCache.findByType(type);
+    } else {
+      final long readVersion = privacyGroupCache.getVersion();
+      final List<PrivacyGroupCache.Entry> all =
+          privacyGroupDAO.findAll().stream()
+              .map(this::toCacheEntry)
+              .collect(Collectors.toList());
+      privacyGroupCache.loadAll(all, readVersion);
+      found =
+          all.stream()
+              .map(PrivacyGroupCache.Entry::getPrivacyGroup)
+              .filter(pg -> pg.getType() == type)
+              .collect(Collectors.toList());
+    }
+
+    return found.stream()
+        .filter(pg -> pg.getState() == PrivacyGroup.State.ACTIVE)
         .collect(Collectors.toUnmodifiableList());
   }
 
   @Override
   public PrivacyGroup retrievePrivacyGroup(PrivacyGroup.Id privacyGroupId) {
 
-    return privacyGroupDAO
-        .retrieve(privacyGroupId.getBytes())
-        .map(PrivacyGroupEntity::getData)
-        .map(privacyGroupUtil::decode)
+    return privacyGroupCache
+        .get(privacyGroupId)
+        .or(
+            () -> {
+              final long readVersion = privacyGroupCache.getVersion();
+              return privacyGroupDAO
+                  .retrieve(privacyGroupId.getBytes())
+                  .map(this::toCacheEntry)
+                  .map(
+                      entry -> {
+                        privacyGroupCache.load(entry, readVersion);
+                        return entry.getPrivacyGroup();
+                      });
+            })
         .filter(pg -> pg.getState() == PrivacyGroup.State.ACTIVE)
         .orElseThrow(
             () ->
@@ -173,7 +253,7 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
           .ifPresent(
               et -> {
                 et.setData(encodedData);
-                privacyGroupDAO.update(et);
+                writeThrough(privacyGroup, et.getLookupId(), () -> privacyGroupDAO.update(et));
               });
       return;
     }
@@ -181,7 +261,7 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
     final byte[] lookupId = privacyGroupUtil.generateLookupId(privacyGroup.getMembers());
     final PrivacyGroupEntity newEntity = new PrivacyGroupEntity(id, lookupId, encodedData);
 
-    privacyGroupDAO.save(newEntity);
+    writeThrough(privacyGroup, lookupId, () -> privacyGroupDAO.save(newEntity));
   }
 
   @Override
@@ -208,16 +288,39 @@ public class PrivacyGroupManagerImpl implements PrivacyGroupManager {
             .filter(Predicate.not(localKeys::contains))
             .collect(Collectors.toList());
 
-    privacyGroupDAO.update(
-        updatedEt,
-        () -> {
-          publisher.publishPrivacyGroup(updatedData, forwardingMembers);
-          return null;
-        });
+    writeThrough(
+        updated,
+        lookupId,
+        () ->
+            privacyGroupDAO.update(
+                updatedEt,
+                () -> {
+                  publisher.publishPrivacyGroup(updatedData, forwardingMembers);
+                  return null;
+                }));
 
     return updated;
   }
 
+  private PrivacyGroupCache.Entry toCacheEntry(PrivacyGroupEntity entity) {
+    return new PrivacyGroupCache.Entry(
+        privacyGroupUtil.decode(entity.getData()), entity.getLookupId());
+  }
+
+  /**
+   * Stores a group in the database and then in the cache. If storing fails the group is dropped
+   * from the cache, as it is no longer known what the database holds for it.
+   */
+  private void writeThrough(PrivacyGroup privacyGroup, byte[] lookupId, Runnable store) {
+    try {
+      store.run();
+    } catch (RuntimeException ex) {
+      privacyGroupCache.invalidate(privacyGroup.getId());
+      throw ex;
+    }
+    privacyGroupCache.put(new PrivacyGroupCache.Entry(privacyGroup, lookupId));
+  }
+
   @Override
   public PublicKey defaultPublicKey() {
     return enclave.defaultPublicKey();
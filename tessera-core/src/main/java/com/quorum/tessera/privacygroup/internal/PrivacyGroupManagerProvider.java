@@ -1,16 +1,69 @@
 package com.quorum.tessera.privacygroup.internal;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.data.PrivacyGroupDAO;
 import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.PrivacyGroupUtil;
 import com.quorum.tessera.privacygroup.PrivacyGroupManager;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class PrivacyGroupManagerProvider {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(PrivacyGroupManagerProvider.class);
+
+  static final String CACHE_TTL_PROPERTY = "privacyGroupCacheTtl";
+
+  /**
+   * Every caller gets the same manager, so that a group stored through one server, such as a
+   * remote update arriving over P2P, is seen through the cache used by the others.
+   */
   public static PrivacyGroupManager provider() {
+    final PrivacyGroupManagerHolder privacyGroupManagerHolder = PrivacyGroupManagerHolder.INSTANCE;
+    if (privacyGroupManagerHolder.getPrivacyGroupManager().isPresent()) {
+      return privacyGroupManagerHolder.getPrivacyGroupManager().get();
+    }
+
     Enclave enclave = Enclave.create();
     PrivacyGroupDAO privacyGroupDAO = PrivacyGroupDAO.create();
     BatchPrivacyGroupPublisher publisher = BatchPrivacyGroupPublisher.create();
-    return new PrivacyGroupManagerImpl(enclave, privacyGroupDAO, publisher);
+
+    final Config config = ConfigFactory.create().getConfig();
+    final Map<String, String> properties =
+        Optional.ofNullable(config.getP2PServerConfig())
+            .map(ServerConfig::getProperties)
+            .orElse(Map.of());
+
+    return privacyGroupManagerHolder.store(
+        new PrivacyGroupManagerImpl(
+            enclave,
+            privacyGroupDAO,
+            publisher,
+            PrivacyGroupUtil.create(),
+            new PrivacyGroupCache(cacheTimeToLive(properties))));
+  }
+
+  /** @return how long privacy groups are cached for, where zero means they aren't cached */
+  static long cacheTimeToLive(final Map<String, String> properties) {
+    final String defaultValue = String.valueOf(PrivacyGroupCache.DEFAULT_TIME_TO_LIVE);
+    try {
+      final long timeToLive =
+          Long.parseLong(properties.getOrDefault(CACHE_TTL_PROPERTY, defaultValue));
+      if (timeToLive >= 0) {
+        LOGGER.debug("Caching privacy groups for {}ms", timeToLive);
+        return timeToLive;
+      }
+    } catch (NumberFormatException ex) {
+      LOGGER.debug("Unable to parse {}", CACHE_TTL_PROPERTY, ex);
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead",
+        CACHE_TTL_PROPERTY);
+    return PrivacyGroupCache.DEFAULT_TIME_TO_LIVE;
   }
 }
@@ -0,0 +1,59 @@
+package com.quorum.tessera.transaction.internal;
+
+import com.quorum.tessera.data.MessageHash;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks that keep updates to the same transaction from overlapping, while letting updates to
+ * different transactions run at the same time. There is a fixed number of locks and each hash is
+ * given one of them, so two hashes may now and then share a lock, but no lock is ever created or
+ * cleaned up per hash.
+ */
+public class MessageHashLocks {
+
+  public static final int DEFAULT_STRIPES = 1024;
+
+  private final Lock[] locks;
+
+  public MessageHashLocks() {
+    this(DEFAULT_STRIPES);
+  }
+
+  public MessageHashLocks(final int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("stripes must be positive");
+    }
+    this.locks = new Lock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Runs the given action holding the lock for the given hash
+   *
+   * @param messageHash the hash of the transaction the action reads and updates
+   * @param action the action to run
+   * @return what the action returned
+   */
+  public <T> T withLock(final MessageHash messageHash, final Supplier<T> action) {
+    final Lock lock = locks[Math.floorMod(messageHash.hashCode(), locks.length)];
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void withLock(final MessageHash messageHash, final Runnable action) {
+    withLock(
+        messageHash,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+}
@@ -0,0 +1,19 @@
+package com.quorum.tessera.transaction.internal;
+
+import com.quorum.tessera.transaction.publish.PushOutbox;
+import java.util.Optional;
+
+enum PushOutboxHolder {
+  INSTANCE;
+
+  private PushOutbox pushOutbox;
+
+  Optional<PushOutbox> getPushOutbox() {
+    return Optional.ofNullable(pushOutbox);
+  }
+
+  PushOutbox store(PushOutbox pushOutbox) {
+    this.pushOutbox = pushOutbox;
+    return pushOutbox;
+  }
+}
@@ -0,0 +1,245 @@
+package com.quorum.tessera.transaction.internal;
+
+import com.quorum.tessera.data.*;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.encryption.KeyNotFoundException;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.Counter;
+import com.quorum.tessera.metrics.Histogram;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedException;
+import com.quorum.tessera.transaction.exception.PrivacyViolationException;
+import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushOutbox;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PushOutboxImpl implements PushOutbox {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PushOutboxImpl.class);
+
+  static final long INITIAL_BACKOFF_MILLIS = 1000L;
+
+  static final long MAX_BACKOFF_MILLIS = 300000L;
+
+  /**
+   * How long an entry is held back from other dispatchers while it is being pushed, which is longer
+   * than a push is expected to take. A push that fails before then reschedules the entry itself.
+   */
+  static final long CLAIM_LEASE_MILLIS = 120000L;
+
+  static final Counter DELIVERED = deliveries("delivered");
+
+  static final Counter FAILED = deliveries("failed");
+
+  static final Counter DISCARDED = deliveries("discarded");
+
+  static final Counter DEAD_LETTERED = deliveries("dead_lettered");
+
+  static final Histogram DELIVERY_LATENCY =
+      MetricsRegistry.node()
+          .histogram(
+              "tessera_push_outbox_delivery_seconds",
+              "Time from a push being queued in the outbox to its recipient accepting it");
+
+  private final PushOutboxDAO pushOutboxDAO;
+
+  private final EncryptedTransactionDAO encryptedTransactionDAO;
+
+  private final PayloadPublisher payloadPublisher;
+
+  private final PayloadEncoder payloadEncoder;
+
+  private final Executor executor;
+
+  private final boolean awaitAcknowledgement;
+
+  private final int batchSize;
+
+  private final int maxAttempts;
+
+  public PushOutboxImpl(
+      PushOutboxDAO pushOutboxDAO,
+      EncryptedTransactionDAO encryptedTransactionDAO,
+      PayloadPublisher payloadPublisher,
+      PayloadEncoder payloadEncoder,
+      Executor executor,
+      boolean awaitAcknowledgement,
+      int batchSize,
+      int maxAttempts) {
+    this.pushOutboxDAO = Objects.requireNonNull(pushOutboxDAO, "pushOutboxDAO is required");
+    this.encryptedTransactionDAO =
+        Objects.requireNonNull(encryptedTransactionDAO, "encryptedTransactionDAO is required");
+    this.payloadPublisher =
+        Objects.requireNonNull(payloadPublisher, "payloadPublisher is required");
+    this.payloadEncoder = Objects.requireNonNull(payloadEncoder, "payloadEncoder is required");
+    this.executor = Objects.requireNonNull(executor, "executor is required");
+    this.awaitAcknowledgement = awaitAcknowledgement;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+
+    MetricsRegistry.node()
+        .gauge(
+            "tessera_push_outbox_pending",
+            "Pushes in the outbox that their recipient has not accepted yet",
+            pushOutboxDAO::count);
+  }
+
+  private static Counter deliveries(final String outcome) {
+    return MetricsRegistry.node()
+        .counter(
+            "tessera_push_outbox_deliveries_total",
+            "Pushes from the outbox that were accepted, failed, discarded or dead-lettered",
+            "outcome",
+            outcome);
+  }
+
+  @Override
+  public void submit(
+      EncryptedTransaction transaction, EncodedPayload payload, List<PublicKey> recipientKeys) {
+
+    final long now = System.currentTimeMillis();
+    // When the caller waits for the acknowledgements the pushes are made straight away, so the
+    // entries start out claimed, and only reach the background dispatcher if that attempt fails
+    // (which reschedules them) or never finishes
+    final long firstAttempt = awaitAcknowledgement ? now + CLAIM_LEASE_MILLIS : now;
+
+    final List<PushOutboxEntry> entries =
+        recipientKeys.stream()
+            .map(key -> new PushOutboxEntry(transaction.getHash(), key.getKeyBytes()))
+            .peek(entry -> entry.setNextAttempt(firstAttempt))
+            .collect(Collectors.toList());
+
+    pushOutboxDAO.save(transaction, entries);
+    LOGGER.debug("Queued {} pushes for transaction {}", entries.size(), transaction.getHash());
+
+    if (!awaitAcknowledgement || entries.isEmpty()) {
+      return;
+    }
+
+    final List<CompletableFuture<Boolean>> outcomes =
+        entries.stream()
+            .map(entry -> CompletableFuture.supplyAsync(() -> deliver(entry, payload), executor))
+            .collect(Collectors.toList());
+
+    try {
+      CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  @Override
+  public void run() {
+    final long now = System.currentTimeMillis();
+    final List<PushOutboxEntry> due =
+        pushOutboxDAO.claimDue(now, now + CLAIM_LEASE_MILLIS, batchSize);
+    if (due.isEmpty()) {
+      return;
+    }
+    LOGGER.debug("Dispatching {} pending pushes", due.size());
+
+    final Map<MessageHash, List<PushOutboxEntry>> entriesByHash =
+        due.stream()
+            .collect(
+                Collectors.groupingBy(
+                    PushOutboxEntry::getHash, LinkedHashMap::new, Collectors.toList()));
+
+    final List<CompletableFuture<Boolean>> outcomes = new ArrayList<>();
+    for (Map.Entry<MessageHash, List<PushOutboxEntry>> pending : entriesByHash.entrySet()) {
+      final Optional<EncodedPayload> payload =
+          encryptedTransactionDAO
+              .retrieveByHash(pending.getKey())
+              .map(EncryptedTransaction::getEncodedPayload)
+              .map(payloadEncoder::decode);
+
+      if (payload.isEmpty()) {
+        LOGGER.info("Transaction {} no longer exists, discarding its pushes", pending.getKey());
+        pending.getValue().forEach(pushOutboxDAO::acknowledge);
+        DISCARDED.add(pending.getValue().size());
+        continue;
+      }
+
+      pending.getValue().stream()
+          .map(
+              entry ->
+                  CompletableFuture.supplyAsync(() -> deliver(entry, payload.get()), executor)
+                      .exceptionally(ex -> false))
+          .forEach(outcomes::add);
+    }
+
+    CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).join();
+  }
+
+  /**
+   * Pushes the payload to the recipient of the entry, acknowledging the entry if the recipient
+   * accepted it or scheduling the next attempt if not. An entry whose push can never succeed, or
+   * that has used up its attempts, is dead-lettered instead.
+   *
+   * @throws RuntimeException the cause of the failed attempt, after it has been rescheduled
+   */
+  private boolean deliver(PushOutboxEntry entry, EncodedPayload payload) {
+    final PublicKey recipient = PublicKey.from(entry.getRecipient());
+    try {
+      final EncodedPayload outgoing = payloadEncoder.forRecipient(payload, recipient);
+      payloadPublisher.publishPayload(outgoing, recipient);
+    } catch (RuntimeException ex) {
+      final int attempts = entry.getAttempts() + 1;
+      entry.setAttempts(attempts);
+      FAILED.increment();
+
+      if (isPermanent(ex) || attempts >= maxAttempts) {
+        entry.setNextAttempt(PushOutboxEntry.DEAD_LETTER);
+        pushOutboxDAO.update(entry);
+        DEAD_LETTERED.increment();
+        LOGGER.warn(
+            "Unable to push transaction {} to {} (attempt {}), giving up: {}",
+            entry.getHash(),
+            recipient.encodeToBase64(),
+            attempts,
+            ex.getMessage());
+        throw ex;
+      }
+
+      final long backoff =
+          Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempts - 1, 20));
+      entry.setNextAttempt(System.currentTimeMillis() + backoff);
+      pushOutboxDAO.update(entry);
+      LOGGER.info(
+          "Unable to push transaction {} to {} (attempt {}), retrying in {}ms: {}",
+          entry.getHash(),
+          recipient.encodeToBase64(),
+          attempts,
+          backoff,
+          ex.getMessage());
+      throw ex;
+    }
+
+    pushOutboxDAO.acknowledge(entry);
+    DELIVERED.increment();
+    DELIVERY_LATENCY.recordNanos(
+        TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - entry.getTimestamp()));
+    return true;
+  }
+
+  /**
+   * @return whether a push that failed with the given exception would fail the same way if it was
+   *     retried, such as when the recipient does not support the privacy mode of the transaction
+   *     or is no longer known to the node
+   */
+  static boolean isPermanent(RuntimeException ex) {
+    return ex instanceof EnhancedPrivacyNotSupportedException
+        || ex instanceof PrivacyViolationException
+        || ex instanceof KeyNotFoundException;
+  }
+}
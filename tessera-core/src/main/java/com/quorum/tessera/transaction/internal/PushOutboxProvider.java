@@ -0,0 +1,79 @@
+package com.quorum.tessera.transaction.internal;
+
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.PushOutboxDAO;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
+import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushDeliveryMode;
+import com.quorum.tessera.transaction.publish.PushOutbox;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PushOutboxProvider {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PushOutboxProvider.class);
+
+  static final String EXECUTOR_NAME = "push-outbox";
+
+  public static PushOutbox provider() {
+    final PushOutboxHolder pushOutboxHolder = PushOutboxHolder.INSTANCE;
+    if (pushOutboxHolder.getPushOutbox().isPresent()) {
+      return pushOutboxHolder.getPushOutbox().get();
+    }
+
+    final Config config = ConfigFactory.create().getConfig();
+    final Map<String, String> properties =
+        Optional.ofNullable(config.getP2PServerConfig())
+            .map(ServerConfig::getProperties)
+            .orElse(Map.of());
+
+    final PushDeliveryMode pushDeliveryMode = PushDeliveryMode.from(properties);
+    final int threads = positiveInt(properties, "outboxDispatchThreads", 10);
+    final int batchSize = positiveInt(properties, "outboxBatchSize", 100);
+    final int maxAttempts = positiveInt(properties, "outboxMaxAttempts", 100);
+
+    LOGGER.debug("Creating PushOutbox with delivery mode {}", pushDeliveryMode);
+    final PushOutboxDAO pushOutboxDAO = PushOutboxDAO.create();
+    final EncryptedTransactionDAO encryptedTransactionDAO = EncryptedTransactionDAO.create();
+    final PayloadPublisher payloadPublisher = PayloadPublisher.create();
+    final PayloadEncoder payloadEncoder = PayloadEncoder.create();
+    // a whole batch can wait for a thread, any more are pushed by the dispatcher itself
+    final BoundedExecutor executor =
+        new ExecutorFactory()
+            .create(
+                EXECUTOR_NAME, threads, batchSize, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
+
+    return pushOutboxHolder.store(
+        new PushOutboxImpl(
+            pushOutboxDAO,
+            encryptedTransactionDAO,
+            payloadPublisher,
+            payloadEncoder,
+            executor,
+            pushDeliveryMode == PushDeliveryMode.OUTBOX_SYNC,
+            batchSize,
+            maxAttempts));
+  }
+
+  private static int positiveInt(
+      final Map<String, String> properties, final String name, final int defaultValue) {
+    try {
+      final int value =
+          Integer.parseInt(properties.getOrDefault(name, String.valueOf(defaultValue)));
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      LOGGER.debug("Unable to parse {}", name, ex);
+    }
+    LOGGER.warn("Not able to parse configured property {}. Will use default value instead", name);
+    return defaultValue;
+  }
+}
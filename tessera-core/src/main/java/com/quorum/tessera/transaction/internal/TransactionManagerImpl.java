@@ -8,13 +8,17 @@ import com.quorum.tessera.enclave.PayloadDigest;
 import com.quorum.tessera.encryption.EncryptorException;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.metrics.Timer;
 import com.quorum.tessera.transaction.*;
 import com.quorum.tessera.transaction.exception.RecipientKeyNotFoundException;
 import com.quorum.tessera.transaction.exception.TransactionNotFoundException;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushOutbox;
 import com.quorum.tessera.transaction.resend.ResendManager;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +27,18 @@ public class TransactionManagerImpl implements TransactionManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TransactionManagerImpl.class);
 
+  private static final Timer SEND = timer("send");
+
+  private static final Timer SEND_SIGNED = timer("sendSignedTransaction");
+
+  private static final Timer STORE_PAYLOAD = timer("storePayload");
+
+  private static final Timer RECEIVE = timer("receive");
+
+  private static final Timer STORE_RAW = timer("storeRaw");
+
+  private static final Timer DELETE = timer("delete");
+
   private final PayloadEncoder payloadEncoder;
 
   private final EncryptedTransactionDAO encryptedTransactionDAO;
@@ -39,6 +55,19 @@ public class TransactionManagerImpl implements TransactionManager {
 
   private final PayloadDigest payloadDigest;
 
+  private final PushOutbox pushOutbox;
+
+  private final MessageHashLocks messageHashLocks = new MessageHashLocks();
+
+  private static Timer timer(final String operation) {
+    return MetricsRegistry.node()
+        .timer(
+            "tessera_transaction_seconds",
+            "Time taken by the transaction manager to handle a transaction",
+            "operation",
+            operation);
+  }
+
   public TransactionManagerImpl(
       EncryptedTransactionDAO encryptedTransactionDAO,
       Enclave enclave,
@@ -47,6 +76,30 @@ public class TransactionManagerImpl implements TransactionManager {
       BatchPayloadPublisher batchPayloadPublisher,
       PrivacyHelper privacyHelper,
       PayloadDigest payloadDigest) {
+    this(
+        encryptedTransactionDAO,
+        enclave,
+        encryptedRawTransactionDAO,
+        resendManager,
+        batchPayloadPublisher,
+        privacyHelper,
+        payloadDigest,
+        null);
+  }
+
+  /**
+   * @param pushOutbox if present, new transactions are stored with an outbox entry per remote
+   *     recipient and delivered by the outbox, rather than pushed inside the database transaction
+   */
+  public TransactionManagerImpl(
+      EncryptedTransactionDAO encryptedTransactionDAO,
+      Enclave enclave,
+      EncryptedRawTransactionDAO encryptedRawTransactionDAO,
+      ResendManager resendManager,
+      BatchPayloadPublisher batchPayloadPublisher,
+      PrivacyHelper privacyHelper,
+      PayloadDigest payloadDigest,
+      PushOutbox pushOutbox) {
     this(
         PayloadEncoder.create(),
         encryptedTransactionDAO,
@@ -55,7 +108,8 @@ public class TransactionManagerImpl implements TransactionManager {
         encryptedRawTransactionDAO,
         resendManager,
         privacyHelper,
-        payloadDigest);
+        payloadDigest,
+        pushOutbox);
   }
 
   // Only use for tests
@@ -68,6 +122,28 @@ public class TransactionManagerImpl implements TransactionManager {
       ResendManager resendManager,
       PrivacyHelper privacyHelper,
       PayloadDigest payloadDigest) {
+    this(
+        payloadEncoder,
+        encryptedTransactionDAO,
+        batchPayloadPublisher,
+        enclave,
+        encryptedRawTransactionDAO,
+        resendManager,
+        privacyHelper,
+        payloadDigest,
+        null);
+  }
+
+  public TransactionManagerImpl(
+      PayloadEncoder payloadEncoder,
+      EncryptedTransactionDAO encryptedTransactionDAO,
+      BatchPayloadPublisher batchPayloadPublisher,
+      Enclave enclave,
+      EncryptedRawTransactionDAO encryptedRawTransactionDAO,
+      ResendManager resendManager,
+      PrivacyHelper privacyHelper,
+      PayloadDigest payloadDigest,
+      PushOutbox pushOutbox) {
 
     this.payloadEncoder = Objects.requireNonNull(payloadEncoder, "payloadEncoder is required");
     this.encryptedTransactionDAO =
@@ -81,10 +157,15 @@ public class TransactionManagerImpl implements TransactionManager {
     this.resendManager = Objects.requireNonNull(resendManager, "resendManager is required");
     this.privacyHelper = Objects.requireNonNull(privacyHelper, "privacyHelper is required");
     this.payloadDigest = Objects.requireNonNull(payloadDigest, "payloadDigest is required");
+    this.pushOutbox = pushOutbox;
   }
 
   @Override
   public SendResponse send(SendRequest sendRequest) {
+    return SEND.time(() -> doSend(sendRequest));
+  }
+
+  private SendResponse doSend(SendRequest sendRequest) {
 
     final PublicKey senderPublicKey = sendRequest.getSender();
     final List<PublicKey> recipientList = new ArrayList<>(sendRequest.getRecipients());
@@ -139,12 +220,7 @@ public class TransactionManagerImpl implements TransactionManager {
             .filter(not(managedPublicKeys::contains))
             .collect(Collectors.toList());
 
-    this.encryptedTransactionDAO.save(
-        newTransaction,
-        () -> {
-          batchPayloadPublisher.publishPayload(payload, recipientListRemotesOnly);
-          return null;
-        });
+    this.storeAndPublish(newTransaction, payload, recipientListRemotesOnly);
 
     return SendResponse.Builder.create()
         .withMessageHash(transactionHash)
@@ -155,6 +231,10 @@ public class TransactionManagerImpl implements TransactionManager {
 
   @Override
   public SendResponse sendSignedTransaction(final SendSignedRequest sendRequest) {
+    return SEND_SIGNED.time(() -> doSendSignedTransaction(sendRequest));
+  }
+
+  private SendResponse doSendSignedTransaction(final SendSignedRequest sendRequest) {
 
     final List<PublicKey> recipientList = new ArrayList<>(sendRequest.getRecipients());
     recipientList.addAll(enclave.getForwardingKeys());
@@ -211,12 +291,7 @@ public class TransactionManagerImpl implements TransactionManager {
             .filter(not(managedPublicKeys::contains))
             .collect(Collectors.toList());
 
-    this.encryptedTransactionDAO.save(
-        newTransaction,
-        () -> {
-          batchPayloadPublisher.publishPayload(payload, recipientListRemotesOnly);
-          return null;
-        });
+    this.storeAndPublish(newTransaction, payload, recipientListRemotesOnly);
 
     return SendResponse.Builder.create()
         .withMessageHash(messageHash)
@@ -225,8 +300,27 @@ public class TransactionManagerImpl implements TransactionManager {
         .build();
   }
 
+  private void storeAndPublish(
+      EncryptedTransaction transaction, EncodedPayload payload, List<PublicKey> recipientKeys) {
+    if (Objects.nonNull(pushOutbox)) {
+      pushOutbox.submit(transaction, payload, recipientKeys);
+      return;
+    }
+
+    this.encryptedTransactionDAO.save(
+        transaction,
+        () -> {
+          batchPayloadPublisher.publishPayload(payload, recipientKeys);
+          return null;
+        });
+  }
+
   @Override
-  public synchronized MessageHash storePayload(final EncodedPayload payload) {
+  public MessageHash storePayload(final EncodedPayload payload) {
+    return STORE_PAYLOAD.time(() -> doStorePayload(payload));
+  }
+
+  private MessageHash doStorePayload(final EncodedPayload payload) {
 
     final byte[] digest = payloadDigest.digest(payload.getCipherText());
     final MessageHash transactionHash = new MessageHash(digest);
@@ -261,7 +355,16 @@ public class TransactionManagerImpl implements TransactionManager {
       return transactionHash;
     }
 
-    // This is a transaction with a different node as the sender
+    // This is a transaction with a different node as the sender. Only one payload with the same
+    // hash is merged at a time, so that no recipient is lost, while other payloads go ahead
+    return messageHashLocks.withLock(
+        transactionHash, () -> storeRemotePayload(transactionHash, encodedPayload, payload));
+  }
+
+  private MessageHash storeRemotePayload(
+      final MessageHash transactionHash,
+      final EncodedPayload encodedPayload,
+      final EncodedPayload payload) {
     final Optional<EncryptedTransaction> tx =
         this.encryptedTransactionDAO.retrieveByHash(transactionHash);
     if (tx.isEmpty()) {
@@ -354,11 +457,15 @@ public class TransactionManagerImpl implements TransactionManager {
   @Override
   public void delete(MessageHash messageHash) {
     LOGGER.info("Received request to delete message with hash {}", messageHash);
-    this.encryptedTransactionDAO.delete(messageHash);
+    DELETE.run(() -> this.encryptedTransactionDAO.delete(messageHash));
   }
 
   @Override
   public ReceiveResponse receive(ReceiveRequest request) {
+    return RECEIVE.time(() -> doReceive(request));
+  }
+
+  private ReceiveResponse doReceive(ReceiveRequest request) {
 
     final MessageHash hash = request.getTransactionHash();
     LOGGER.info("Lookup transaction {}", hash);
@@ -405,11 +512,11 @@ public class TransactionManagerImpl implements TransactionManager {
             .orElseThrow(
                 () -> new IllegalStateException("Unable to decode previously encoded payload"));
 
-    PublicKey recipientKey =
-        request
-            .getRecipient()
-            .orElse(
-                searchForRecipientKey(payload)
+    final Optional<PublicKey> providedRecipientKey = request.getRecipient();
+    final PublicKey recipientKey =
+        providedRecipientKey.orElseGet(
+            () ->
+                findRecipientKey(hash, payload)
                     .orElseThrow(
                         () ->
                             new RecipientKeyNotFoundException(
@@ -427,10 +534,22 @@ public class TransactionManagerImpl implements TransactionManager {
     Set<PublicKey> managedParties = new HashSet<>();
     if (payload.getRecipientKeys().isEmpty()) {
       // legacy tx
-      for (RecipientBox box : payload.getRecipientBoxes()) {
+      final List<RecipientBox> boxes = payload.getRecipientBoxes();
+      for (int i = 0; i < boxes.size(); i++) {
+        if (i == 0 && providedRecipientKey.isEmpty()) {
+          // the first box is the one that was opened by the key that was found above
+          managedParties.add(recipientKey);
+          continue;
+        }
         EncodedPayload singleBoxPayload =
-            EncodedPayload.Builder.from(payload).withRecipientBoxes(List.of(box.getData())).build();
-        Optional<PublicKey> possibleRecipient = searchForRecipientKey(singleBoxPayload);
+            EncodedPayload.Builder.from(payload)
+                .withRecipientBoxes(List.of(boxes.get(i).getData()))
+                .build();
+        // the key recorded for the transaction is the one that opens its first box
+        Optional<PublicKey> possibleRecipient =
+            i == 0
+                ? findRecipientKey(hash, singleBoxPayload)
+                : searchForRecipientKey(singleBoxPayload);
         possibleRecipient.ifPresent(managedParties::add);
       }
     } else {
@@ -453,8 +572,57 @@ public class TransactionManagerImpl implements TransactionManager {
         .build();
   }
 
+  /**
+   * Finds a key managed by this node that can decrypt a stored transaction. Keys are found without
+   * any decryption where possible, either from the keys listed in the payload or from the key
+   * recorded when the transaction was last decrypted. Only legacy payloads, which do not list their
+   * recipients, fall back to trying each key in turn, and the key that is found is recorded.
+   */
+  private Optional<PublicKey> findRecipientKey(
+      final MessageHash hash, final EncodedPayload payload) {
+    final Set<PublicKey> managedKeys = enclave.getPublicKeys();
+
+    if (!payload.getRecipientKeys().isEmpty()) {
+      final Optional<PublicKey> listedKey =
+          payload.getRecipientKeys().stream().filter(managedKeys::contains).findFirst();
+      if (listedKey.isPresent()) {
+        return listedKey;
+      }
+      // a payload we sent, from a version that didn't list the sender as a recipient
+      return Optional.ofNullable(payload.getSenderKey()).filter(managedKeys::contains);
+    }
+
+    final Optional<PublicKey> recordedKey =
+        encryptedTransactionDAO
+            .findRecipientKey(hash)
+            .map(PublicKey::from)
+            .filter(managedKeys::contains);
+    if (recordedKey.isPresent()) {
+      return recordedKey;
+    }
+
+    final Optional<PublicKey> foundKey = searchForRecipientKey(payload, managedKeys);
+    foundKey.ifPresent(key -> encryptedTransactionDAO.saveRecipientKey(hash, key.getKeyBytes()));
+    return foundKey;
+  }
+
   private Optional<PublicKey> searchForRecipientKey(final EncodedPayload payload) {
-    for (final PublicKey potentialMatchingKey : enclave.getPublicKeys()) {
+    return searchForRecipientKey(payload, enclave.getPublicKeys());
+  }
+
+  private Optional<PublicKey> searchForRecipientKey(
+      final EncodedPayload payload, final Set<PublicKey> potentialMatchingKeys) {
+    // a remote enclave is sent all the keys in one request, rather than a request for each key
+    if (enclave instanceof EnclaveClient) {
+      final List<PublicKey> keys = List.copyOf(potentialMatchingKeys);
+      final List<Optional<byte[]>> results = enclave.unencryptTransactions(payload, keys);
+      return IntStream.range(0, keys.size())
+          .filter(i -> results.get(i).isPresent())
+          .mapToObj(keys::get)
+          .findFirst();
+    }
+
+    for (final PublicKey potentialMatchingKey : potentialMatchingKeys) {
       try {
         enclave.unencryptTransaction(payload, potentialMatchingKey);
         return Optional.of(potentialMatchingKey);
@@ -467,6 +635,10 @@ public class TransactionManagerImpl implements TransactionManager {
 
   @Override
   public StoreRawResponse store(StoreRawRequest storeRequest) {
+    return STORE_RAW.time(() -> doStore(storeRequest));
+  }
+
+  private StoreRawResponse doStore(StoreRawRequest storeRequest) {
 
     RawTransaction rawTransaction =
         enclave.encryptRawPayload(storeRequest.getPayload(), storeRequest.getSender());
@@ -1,5 +1,8 @@
 package com.quorum.tessera.transaction.internal;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.data.EncryptedRawTransactionDAO;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.enclave.Enclave;
@@ -8,7 +11,10 @@ import com.quorum.tessera.transaction.PrivacyHelper;
 import com.quorum.tessera.transaction.TransactionManager;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushDeliveryMode;
+import com.quorum.tessera.transaction.publish.PushOutbox;
 import com.quorum.tessera.transaction.resend.ResendManager;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +54,22 @@ public class TransactionManagerProvider {
     final PayloadDigest messageHashFactory = PayloadDigest.create();
     LOGGER.debug("Created PayloadDigest {}", messageHashFactory);
 
+    final Config config = ConfigFactory.create().getConfig();
+    final PushDeliveryMode pushDeliveryMode =
+        Optional.ofNullable(config.getP2PServerConfig())
+            .map(ServerConfig::getProperties)
+            .map(PushDeliveryMode::from)
+            .orElse(PushDeliveryMode.TRANSACTIONAL);
+
+    final PushOutbox pushOutbox;
+    if (pushDeliveryMode.isOutbox()) {
+      LOGGER.debug("Creating PushOutbox");
+      pushOutbox = PushOutbox.create();
+      LOGGER.debug("Created PushOutbox {}", pushOutbox);
+    } else {
+      pushOutbox = null;
+    }
+
     return transactionManagerHolder.store(
         new TransactionManagerImpl(
             encryptedTransactionDAO,
@@ -56,6 +78,7 @@ public class TransactionManagerProvider {
             resendManager,
             batchPayloadPublisher,
             privacyHelper,
-            messageHashFactory));
+            messageHashFactory,
+            pushOutbox));
   }
 }
@@ -3,6 +3,7 @@ package com.quorum.tessera.transaction.publish;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /** Publishes messages from one node to another */
@@ -16,6 +17,17 @@ public interface PayloadPublisher {
    */
   void publishPayload(EncodedPayload payload, PublicKey recipientKey);
 
+  /**
+   * Publishes several EncodedPayloads, each already stripped for the recipient it is keyed by. All
+   * the recipients are expected to be hosted by the same node, so implementations may deliver the
+   * payloads together rather than one at a time.
+   *
+   * @param payloads the payloads to be pushed, keyed by the public key of their recipient
+   */
+  default void publishPayloads(Map<PublicKey, EncodedPayload> payloads) {
+    payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+  }
+
   static PayloadPublisher create() {
     return ServiceLoaderUtil.loadSingle(ServiceLoader.load(PayloadPublisher.class));
   }
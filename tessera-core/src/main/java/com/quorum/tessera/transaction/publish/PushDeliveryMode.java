@@ -0,0 +1,36 @@
+package com.quorum.tessera.transaction.publish;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/** How a newly sent transaction is delivered to its remote recipients */
+public enum PushDeliveryMode {
+
+  /** Push to every recipient while the database transaction that stores the payload is open */
+  TRANSACTIONAL,
+
+  /** Commit the payload with an outbox entry per recipient and deliver in the background */
+  OUTBOX,
+
+  /** As {@link #OUTBOX}, but wait for every recipient to acknowledge before returning */
+  OUTBOX_SYNC;
+
+  public static final String PROPERTY_NAME = "pushDeliveryMode";
+
+  public boolean isOutbox() {
+    return this != TRANSACTIONAL;
+  }
+
+  public static PushDeliveryMode from(final Map<String, String> properties) {
+    if (Objects.isNull(properties) || !properties.containsKey(PROPERTY_NAME)) {
+      return TRANSACTIONAL;
+    }
+    final String value = properties.get(PROPERTY_NAME).trim();
+    return Stream.of(values())
+        .filter(m -> m.name().equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(
+            () -> new IllegalArgumentException("Unsupported " + PROPERTY_NAME + " " + value));
+  }
+}
@@ -0,0 +1,39 @@
+package com.quorum.tessera.transaction.publish;
+
+import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Durable delivery of new transactions to remote recipients.
+ *
+ * <p>The transaction is committed together with a pending push per recipient, so no database
+ * connection is held while remote nodes are contacted. Pending pushes are delivered, retried and
+ * acknowledged by {@link #run()}, which is expected to be invoked periodically.
+ */
+public interface PushOutbox extends Runnable {
+
+  /**
+   * Stores the transaction and queues a push of the payload to each of the recipients. Depending
+   * on the configured {@link PushDeliveryMode} this either returns as soon as the data is
+   * committed, or blocks until every recipient has acknowledged the push.
+   *
+   * @param transaction the encrypted transaction to persist
+   * @param payload the decoded payload of the transaction, to be stripped per recipient
+   * @param recipientKeys list of public keys identifying the target nodes
+   * @throws RuntimeException the first delivery failure, if acknowledgement was awaited
+   */
+  void submit(
+      EncryptedTransaction transaction, EncodedPayload payload, List<PublicKey> recipientKeys);
+
+  /** Delivers the pending pushes that are due, rescheduling the ones that fail */
+  @Override
+  void run();
+
+  static PushOutbox create() {
+    return ServiceLoaderUtil.loadSingle(ServiceLoader.load(PushOutbox.class));
+  }
+}
@@ -5,6 +5,7 @@ import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.MessageHash;
 import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.transaction.internal.MessageHashLocks;
 import com.quorum.tessera.transaction.resend.ResendManager;
 import java.util.*;
 
@@ -18,6 +19,8 @@ public class ResendManagerImpl implements ResendManager {
 
   private final PayloadDigest payloadDigest;
 
+  private final MessageHashLocks messageHashLocks = new MessageHashLocks();
+
   public ResendManagerImpl(
       EncryptedTransactionDAO encryptedTransactionDAO,
       Enclave enclave,
@@ -36,8 +39,7 @@ public class ResendManagerImpl implements ResendManager {
     this.payloadDigest = payloadDigest;
   }
 
-  // TODO: synchronize based on messagehash, so different message don't lock each other
-  public synchronized void acceptOwnMessage(final EncodedPayload payload) {
+  public void acceptOwnMessage(final EncodedPayload payload) {
     // check the payload can be decrypted to ensure it isn't rubbish being sent to us
     final byte[] newDecrypted;
     if (payload.getPrivacyMode() == PrivacyMode.PRIVATE_STATE_VALIDATION) {
@@ -72,6 +74,16 @@ public class ResendManagerImpl implements ResendManager {
               + " does not have one the nodes own keys as a sender");
     }
 
+    // only one message with the same hash is merged at a time, so no recipient is lost
+    messageHashLocks.withLock(
+        transactionHash, () -> storeOwnMessage(payload, transactionHash, sender, newDecrypted));
+  }
+
+  private void storeOwnMessage(
+      final EncodedPayload payload,
+      final MessageHash transactionHash,
+      final PublicKey sender,
+      final byte[] newDecrypted) {
     // this is a tx which we created
     final Optional<EncryptedTransaction> tx =
         this.encryptedTransactionDAO.retrieveByHash(transactionHash);
@@ -130,10 +142,12 @@ public class ResendManagerImpl implements ResendManager {
       }
 
       // add recipient boxes for all recipients (applicable for PSV transactions)
-      for (int i = payload.getRecipientBoxes().size(); i < recipientKeys.size(); i++) {
-        PublicKey recipient = recipientKeys.get(i);
-        byte[] newBox = enclave.createNewRecipientBox(payload, recipient);
-        payloadBuilder.withRecipientBox(newBox);
+      final List<PublicKey> recipientsWithoutBoxes =
+          recipientKeys.subList(payload.getRecipientBoxes().size(), recipientKeys.size());
+      if (!recipientsWithoutBoxes.isEmpty()) {
+        enclave
+            .createNewRecipientBoxes(payload, recipientsWithoutBoxes)
+            .forEach(payloadBuilder::withRecipientBox);
       }
 
       final byte[] encoded = payloadEncoder.encode(payloadBuilder.build());
@@ -20,6 +20,7 @@ module tessera.transaction {
   uses com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
   uses com.quorum.tessera.transaction.EncodedPayloadManager;
   uses com.quorum.tessera.transaction.resend.ResendManager;
+  uses com.quorum.tessera.transaction.publish.PushOutbox;
   uses com.quorum.tessera.transaction.PrivacyHelper;
   uses com.quorum.tessera.privacygroup.PrivacyGroupManager;
   uses com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
@@ -32,6 +33,8 @@ module tessera.transaction {
       com.quorum.tessera.transaction.internal.EncodedPayloadManagerProvider;
   provides com.quorum.tessera.transaction.PrivacyHelper with
       com.quorum.tessera.transaction.internal.PrivacyHelperProvider;
+  provides com.quorum.tessera.transaction.publish.PushOutbox with
+      com.quorum.tessera.transaction.internal.PushOutboxProvider;
   provides com.quorum.tessera.transaction.resend.ResendManager with
       com.quorum.tessera.transaction.resend.internal.ResendManagerProvider;
   provides com.quorum.tessera.privacygroup.PrivacyGroupManager with
@@ -0,0 +1,216 @@
+package com.quorum.tessera.privacygroup.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.enclave.PrivacyGroup;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrivacyGroupCacheTest {
+
+  private PrivacyGroupCache privacyGroupCache;
+
+  @Before
+  public void setUp() {
+    privacyGroupCache = new PrivacyGroupCache();
+  }
+
+  private static PrivacyGroup privacyGroup(
+      String id, PrivacyGroup.Type type, PrivacyGroup.State state) {
+    return PrivacyGroup.Builder.create()
+        .withPrivacyGroupId(id.getBytes())
+        .withName(id)
+        .withDescription("description")
+        .withMembers(List.of(PublicKey.from("member".getBytes())))
+        .withType(type)
+        .withState(state)
+        .build();
+  }
+
+  @Test
+  public void emptyCache() {
+    assertThat(privacyGroupCache.isComplete()).isFalse();
+    assertThat(privacyGroupCache.getVersion()).isZero();
+    assertThat(privacyGroupCache.get(PrivacyGroup.Id.fromBytes("id".getBytes()))).isEmpty();
+    assertThat(privacyGroupCache.findByLookupId("lookup".getBytes())).isEmpty();
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.PANTHEON)).isEmpty();
+  }
+
+  @Test
+  public void putIndexesGroupByIdLookupIdAndType() {
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+
+    privacyGroupCache.put(new PrivacyGroupCache.Entry(group, "lookup".getBytes()));
+
+    assertThat(privacyGroupCache.getVersion()).isEqualTo(1);
+    assertThat(privacyGroupCache.get(group.getId())).containsSame(group);
+    assertThat(privacyGroupCache.findByLookupId("lookup".getBytes())).containsExactly(group);
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.PANTHEON)).containsExactly(group);
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.RESIDENT)).isEmpty();
+  }
+
+  @Test
+  public void putReplacesPreviousGroupInEveryIndex() {
+    final PrivacyGroup resident =
+        privacyGroup("id", PrivacyGroup.Type.RESIDENT, PrivacyGroup.State.ACTIVE);
+    privacyGroupCache.put(new PrivacyGroupCache.Entry(resident, "old".getBytes()));
+
+    final PrivacyGroup updated =
+        privacyGroup("id", PrivacyGroup.Type.RESIDENT, PrivacyGroup.State.DELETED);
+    privacyGroupCache.put(new PrivacyGroupCache.Entry(updated, "new".getBytes()));
+
+    assertThat(privacyGroupCache.get(resident.getId())).containsSame(updated);
+    assertThat(privacyGroupCache.findByLookupId("old".getBytes())).isEmpty();
+    assertThat(privacyGroupCache.findByLookupId("new".getBytes())).containsExactly(updated);
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.RESIDENT)).containsExactly(updated);
+  }
+
+  @Test
+  public void loadIsDroppedIfCacheChangedSinceRead() {
+    final long readVersion = privacyGroupCache.getVersion();
+
+    final PrivacyGroup written =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.DELETED);
+    privacyGroupCache.put(new PrivacyGroupCache.Entry(written, "lookup".getBytes()));
+
+    final PrivacyGroup read =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+    final boolean loaded =
+        privacyGroupCache.load(new PrivacyGroupCache.Entry(read, "lookup".getBytes()), readVersion);
+
+    assertThat(loaded).isFalse();
+    assertThat(privacyGroupCache.get(read.getId())).containsSame(written);
+  }
+
+  @Test
+  public void loadDoesNotChangeVersion() {
+    final PrivacyGroup read =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+
+    final boolean loaded =
+        privacyGroupCache.load(new PrivacyGroupCache.Entry(read, "lookup".getBytes()), 0);
+
+    assertThat(loaded).isTrue();
+    assertThat(privacyGroupCache.getVersion()).isZero();
+    assertThat(privacyGroupCache.get(read.getId())).containsSame(read);
+    assertThat(privacyGroupCache.isComplete()).isFalse();
+  }
+
+  @Test
+  public void loadAllCompletesCache() {
+    final PrivacyGroup first =
+        privacyGroup("first", PrivacyGroup.Type.RESIDENT, PrivacyGroup.State.ACTIVE);
+    final PrivacyGroup second =
+        privacyGroup("second", PrivacyGroup.Type.LEGACY, PrivacyGroup.State.ACTIVE);
+
+    final boolean loaded =
+        privacyGroupCache.loadAll(
+            List.of(
+                new PrivacyGroupCache.Entry(first, "lookup".getBytes()),
+                new PrivacyGroupCache.Entry(second, "lookup".getBytes())),
+            0);
+
+    assertThat(loaded).isTrue();
+    assertThat(privacyGroupCache.isComplete()).isTrue();
+    assertThat(privacyGroupCache.findByLookupId("lookup".getBytes()))
+        .containsExactlyInAnyOrder(first, second);
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.RESIDENT)).containsExactly(first);
+  }
+
+  @Test
+  public void loadAllIsDroppedIfCacheChangedSinceRead() {
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.RESIDENT, PrivacyGroup.State.ACTIVE);
+    privacyGroupCache.invalidate(group.getId());
+
+    final boolean loaded =
+        privacyGroupCache.loadAll(
+            List.of(new PrivacyGroupCache.Entry(group, "lookup".getBytes())), 0);
+
+    assertThat(loaded).isFalse();
+    assertThat(privacyGroupCache.isComplete()).isFalse();
+    assertThat(privacyGroupCache.get(group.getId())).isEmpty();
+  }
+
+  @Test
+  public void invalidateDropsGroupAndCompleteness() {
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+    privacyGroupCache.loadAll(List.of(new PrivacyGroupCache.Entry(group, "lookup".getBytes())), 0);
+
+    privacyGroupCache.invalidate(group.getId());
+
+    assertThat(privacyGroupCache.getVersion()).isEqualTo(1);
+    assertThat(privacyGroupCache.isComplete()).isFalse();
+    assertThat(privacyGroupCache.get(group.getId())).isEmpty();
+    assertThat(privacyGroupCache.findByLookupId("lookup".getBytes())).isEmpty();
+    assertThat(privacyGroupCache.findByType(PrivacyGroup.Type.PANTHEON)).isEmpty();
+  }
+
+  @Test
+  public void groupsExpireAfterTimeToLive() {
+    final AtomicLong clock = new AtomicLong();
+    final PrivacyGroupCache expiringCache = new PrivacyGroupCache(1000L, clock::get);
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+    expiringCache.loadAll(List.of(new PrivacyGroupCache.Entry(group, "lookup".getBytes())), 0);
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999L));
+
+    assertThat(expiringCache.isComplete()).isTrue();
+    assertThat(expiringCache.get(group.getId())).containsSame(group);
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1L));
+
+    assertThat(expiringCache.isComplete()).isFalse();
+    assertThat(expiringCache.get(group.getId())).isEmpty();
+    assertThat(expiringCache.findByLookupId("lookup".getBytes())).isEmpty();
+    assertThat(expiringCache.findByType(PrivacyGroup.Type.PANTHEON)).isEmpty();
+  }
+
+  @Test
+  public void reloadedGroupIsHeldAgain() {
+    final AtomicLong clock = new AtomicLong();
+    final PrivacyGroupCache expiringCache = new PrivacyGroupCache(1000L, clock::get);
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+    final PrivacyGroupCache.Entry entry = new PrivacyGroupCache.Entry(group, "lookup".getBytes());
+    expiringCache.load(entry, 0);
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000L));
+    expiringCache.load(entry, 0);
+
+    assertThat(expiringCache.get(group.getId())).containsSame(group);
+    assertThat(expiringCache.findByLookupId("lookup".getBytes())).containsExactly(group);
+  }
+
+  @Test
+  public void zeroTimeToLiveHoldsNothing() {
+    final PrivacyGroupCache disabledCache = new PrivacyGroupCache(0L);
+    final PrivacyGroup group =
+        privacyGroup("id", PrivacyGroup.Type.PANTHEON, PrivacyGroup.State.ACTIVE);
+
+    disabledCache.put(new PrivacyGroupCache.Entry(group, "lookup".getBytes()));
+    final boolean loaded =
+        disabledCache.loadAll(
+            List.of(new PrivacyGroupCache.Entry(group, "lookup".getBytes())),
+            disabledCache.getVersion());
+
+    assertThat(loaded).isFalse();
+    assertThat(disabledCache.isComplete()).isFalse();
+    assertThat(disabledCache.get(group.getId())).isEmpty();
+    assertThat(disabledCache.findByLookupId("lookup".getBytes())).isEmpty();
+  }
+
+  @Test
+  public void negativeTimeToLiveIsRejected() {
+    assertThat(catchThrowable(() -> new PrivacyGroupCache(-1L)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -36,6 +36,8 @@ public class PrivacyGroupManagerImplTest {
 
   private BatchPrivacyGroupPublisher publisher;
 
+  private PrivacyGroupCache privacyGroupCache;
+
   private final PublicKey localKey = PublicKey.from("ownKey".getBytes());
 
   @Before
@@ -44,8 +46,10 @@ public class PrivacyGroupManagerImplTest {
     privacyGroupDAO = mock(PrivacyGroupDAO.class);
     publisher = mock(BatchPrivacyGroupPublisher.class);
     privacyGroupUtil = mock(PrivacyGroupUtil.class);
+    privacyGroupCache = mock(PrivacyGroupCache.class);
     privacyGroupManager =
-        new PrivacyGroupManagerImpl(enclave, privacyGroupDAO, publisher, privacyGroupUtil);
+        new PrivacyGroupManagerImpl(
+            enclave, privacyGroupDAO, publisher, privacyGroupUtil, privacyGroupCache);
 
     when(enclave.getPublicKeys()).thenReturn(Set.of(localKey));
   }
@@ -508,6 +512,168 @@ public class PrivacyGroupManagerImplTest {
     verify(privacyGroupDAO).retrieve("id".getBytes());
   }
 
+  @Test
+  public void createdPrivacyGroupIsWrittenThroughToCache() {
+
+    when(privacyGroupUtil.generateId(anyList(), any(byte[].class)))
+        .thenReturn("generatedId".getBytes());
+    when(privacyGroupUtil.generateLookupId(anyList())).thenReturn("lookup".getBytes());
+    when(privacyGroupUtil.encode(any())).thenReturn("encoded".getBytes());
+
+    final PrivacyGroup privacyGroup =
+        privacyGroupManager.createPrivacyGroup(
+            "name", "description", localKey, List.of(localKey), new byte[1]);
+
+    verify(privacyGroupDAO).save(any(), any());
+
+    final ArgumentCaptor<PrivacyGroupCache.Entry> entryCaptor =
+        ArgumentCaptor.forClass(PrivacyGroupCache.Entry.class);
+    verify(privacyGroupCache).put(entryCaptor.capture());
+    assertThat(entryCaptor.getValue().getPrivacyGroup()).isSameAs(privacyGroup);
+  }
+
+  @Test
+  public void failedStoreInvalidatesCache() {
+
+    final PrivacyGroup mockPrivacyGroup = mock(PrivacyGroup.class);
+    final PrivacyGroup.Id id = PrivacyGroup.Id.fromBytes("id".getBytes());
+    when(mockPrivacyGroup.getId()).thenReturn(id);
+    final byte[] encoded = "encoded".getBytes();
+    when(privacyGroupUtil.decode(encoded)).thenReturn(mockPrivacyGroup);
+    when(privacyGroupUtil.generateLookupId(anyList())).thenReturn("lookup".getBytes());
+
+    final RuntimeException cause = new RuntimeException("OUCH");
+    when(privacyGroupDAO.save(any())).thenThrow(cause);
+
+    final Throwable ex = catchThrowable(() -> privacyGroupManager.storePrivacyGroup(encoded));
+
+    assertThat(ex).isSameAs(cause);
+
+    verify(privacyGroupDAO).save(any());
+    verify(privacyGroupCache).invalidate(id);
+    verify(privacyGroupCache, never()).put(any());
+  }
+
+  @Test
+  public void retrievePrivacyGroupFromCache() {
+
+    final PrivacyGroup.Id id = PrivacyGroup.Id.fromBytes("id".getBytes());
+    final PrivacyGroup cached = mock(PrivacyGroup.class);
+    when(cached.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+    when(privacyGroupCache.get(id)).thenReturn(Optional.of(cached));
+
+    final PrivacyGroup result = privacyGroupManager.retrievePrivacyGroup(id);
+
+    assertThat(result).isSameAs(cached);
+  }
+
+  @Test
+  public void retrieveDeletedPrivacyGroupFromCache() {
+
+    final PrivacyGroup.Id id = PrivacyGroup.Id.fromBytes("id".getBytes());
+    final PrivacyGroup cached = mock(PrivacyGroup.class);
+    when(cached.getState()).thenReturn(PrivacyGroup.State.DELETED);
+    when(privacyGroupCache.get(id)).thenReturn(Optional.of(cached));
+
+    final Throwable ex = catchThrowable(() -> privacyGroupManager.retrievePrivacyGroup(id));
+
+    assertThat(ex).isInstanceOf(PrivacyGroupNotFoundException.class);
+  }
+
+  @Test
+  public void retrievedPrivacyGroupIsLoadedIntoCache() {
+
+    final PrivacyGroup.Id id = PrivacyGroup.Id.fromBytes("id".getBytes());
+    final PrivacyGroupEntity entity =
+        new PrivacyGroupEntity("id".getBytes(), "lookup".getBytes(), "data".getBytes());
+    final PrivacyGroup privacyGroup = mock(PrivacyGroup.class);
+    when(privacyGroup.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+    when(privacyGroupUtil.decode("data".getBytes())).thenReturn(privacyGroup);
+    when(privacyGroupCache.getVersion()).thenReturn(3L);
+    when(privacyGroupDAO.retrieve("id".getBytes())).thenReturn(Optional.of(entity));
+
+    final PrivacyGroup result = privacyGroupManager.retrievePrivacyGroup(id);
+
+    assertThat(result).isSameAs(privacyGroup);
+
+    verify(privacyGroupDAO).retrieve("id".getBytes());
+
+    final ArgumentCaptor<PrivacyGroupCache.Entry> entryCaptor =
+        ArgumentCaptor.forClass(PrivacyGroupCache.Entry.class);
+    verify(privacyGroupCache).load(entryCaptor.capture(), eq(3L));
+    assertThat(entryCaptor.getValue().getPrivacyGroup()).isSameAs(privacyGroup);
+  }
+
+  @Test
+  public void knownLegacyPrivacyGroupIsNotStoredAgain() {
+
+    final List<PublicKey> members = List.of(mock(PublicKey.class));
+    when(privacyGroupUtil.generateId(anyList())).thenReturn("generatedId".getBytes());
+    when(privacyGroupCache.get(PrivacyGroup.Id.fromBytes("generatedId".getBytes())))
+        .thenReturn(Optional.of(mock(PrivacyGroup.class)));
+
+    final PrivacyGroup privacyGroup =
+        privacyGroupManager.createLegacyPrivacyGroup(localKey, members);
+
+    assertThat(privacyGroup.getType()).isEqualTo(PrivacyGroup.Type.LEGACY);
+    assertThat(privacyGroup.getState()).isEqualTo(PrivacyGroup.State.ACTIVE);
+
+    verify(privacyGroupUtil, never()).encode(any());
+  }
+
+  @Test
+  public void findPrivacyGroupByTypeFromCompleteCache() {
+
+    final PrivacyGroup active = mock(PrivacyGroup.class);
+    when(active.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+    final PrivacyGroup deleted = mock(PrivacyGroup.class);
+    when(deleted.getState()).thenReturn(PrivacyGroup.State.DELETED);
+
+    when(privacyGroupCache.isComplete()).thenReturn(true);
+    when(privacyGroupCache.findByType(PrivacyGroup.Type.RESIDENT))
+        .thenReturn(List.of(active, deleted));
+
+    final List<PrivacyGroup> result =
+        privacyGroupManager.findPrivacyGroupByType(PrivacyGroup.Type.RESIDENT);
+
+    assertThat(result).containsExactly(active);
+  }
+
+  @Test
+  public void findPrivacyGroupByTypeLoadsCache() {
+
+    final PrivacyGroupEntity entity =
+        new PrivacyGroupEntity("id".getBytes(), "lookup".getBytes(), "data".getBytes());
+    final PrivacyGroup privacyGroup = mock(PrivacyGroup.class);
+    when(privacyGroup.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+    when(privacyGroup.getType()).thenReturn(PrivacyGroup.Type.RESIDENT);
+    when(privacyGroupUtil.decode("data".getBytes())).thenReturn(privacyGroup);
+    when(privacyGroupDAO.findAll()).thenReturn(List.of(entity));
+
+    final List<PrivacyGroup> result =
+        privacyGroupManager.findPrivacyGroupByType(PrivacyGroup.Type.RESIDENT);
+
+    assertThat(result).containsExactly(privacyGroup);
+
+    verify(privacyGroupDAO).findAll();
+    verify(privacyGroupCache).loadAll(anyList(), eq(0L));
+  }
+
+  @Test
+  public void findPrivacyGroupFromCompleteCache() {
+
+    final PrivacyGroup active = mock(PrivacyGroup.class);
+    when(active.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+
+    when(privacyGroupUtil.generateLookupId(anyList())).thenReturn("lookup".getBytes());
+    when(privacyGroupCache.isComplete()).thenReturn(true);
+    when(privacyGroupCache.findByLookupId("lookup".getBytes())).thenReturn(List.of(active));
+
+    final List<PrivacyGroup> result = privacyGroupManager.findPrivacyGroup(List.of(localKey));
+
+    assertThat(result).containsExactly(active);
+  }
+
   @Test
   public void defaultPublicKey() {
     privacyGroupManager.defaultPublicKey();
@@ -1,17 +1,36 @@
 package com.quorum.tessera.privacygroup.internal;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.data.PrivacyGroupDAO;
 import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.PrivacyGroup;
+import com.quorum.tessera.enclave.PrivacyGroupUtil;
 import com.quorum.tessera.privacygroup.PrivacyGroupManager;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 public class PrivacyGroupManagerProviderTest {
 
+  @Before
+  @After
+  public void clearHolder() {
+    PrivacyGroupManagerHolder.INSTANCE.store(null);
+    assertThat(PrivacyGroupManagerHolder.INSTANCE.getPrivacyGroupManager()).isNotPresent();
+  }
+
   @Test
   public void defaultConstructor() {
     assertThat(new PrivacyGroupManagerProvider()).isNotNull();
@@ -22,7 +41,12 @@ public class PrivacyGroupManagerProviderTest {
 
     try (var enclaveMockedStatic = mockStatic(Enclave.class);
         var privacyGroupDAOMockStatic = mockStatic(PrivacyGroupDAO.class);
-        var batchPrivacyGroupPublisherMockedStatic = mockStatic(BatchPrivacyGroupPublisher.class)) {
+        var batchPrivacyGroupPublisherMockedStatic = mockStatic(BatchPrivacyGroupPublisher.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+
+      final ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(mock(Config.class));
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
 
       enclaveMockedStatic.when(Enclave::create).thenReturn(mock(Enclave.class));
 
@@ -37,6 +61,9 @@ public class PrivacyGroupManagerProviderTest {
       PrivacyGroupManager result = PrivacyGroupManagerProvider.provider();
 
       assertThat(result).isNotNull();
+      assertThat(result)
+          .describedAs("Subsequent invocations should return the same instance")
+          .isSameAs(PrivacyGroupManagerProvider.provider());
 
       enclaveMockedStatic.verify(Enclave::create);
       enclaveMockedStatic.verifyNoMoreInteractions();
@@ -48,4 +75,68 @@ public class PrivacyGroupManagerProviderTest {
       batchPrivacyGroupPublisherMockedStatic.verifyNoMoreInteractions();
     }
   }
+
+  @Test
+  public void groupStoredThroughOneProviderResultIsSeenThroughAnother() {
+
+    try (var enclaveMockedStatic = mockStatic(Enclave.class);
+        var privacyGroupDAOMockStatic = mockStatic(PrivacyGroupDAO.class);
+        var batchPrivacyGroupPublisherMockedStatic = mockStatic(BatchPrivacyGroupPublisher.class);
+        var privacyGroupUtilMockedStatic = mockStatic(PrivacyGroupUtil.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+
+      final ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(mock(Config.class));
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
+
+      enclaveMockedStatic.when(Enclave::create).thenReturn(mock(Enclave.class));
+
+      final PrivacyGroupDAO privacyGroupDAO = mock(PrivacyGroupDAO.class);
+      privacyGroupDAOMockStatic.when(PrivacyGroupDAO::create).thenReturn(privacyGroupDAO);
+
+      batchPrivacyGroupPublisherMockedStatic
+          .when(BatchPrivacyGroupPublisher::create)
+          .thenReturn(mock(BatchPrivacyGroupPublisher.class));
+
+      final PrivacyGroup.Id id = PrivacyGroup.Id.fromBytes("id".getBytes());
+      final PrivacyGroup privacyGroup = mock(PrivacyGroup.class);
+      when(privacyGroup.getId()).thenReturn(id);
+      when(privacyGroup.getMembers()).thenReturn(List.of());
+      when(privacyGroup.getState()).thenReturn(PrivacyGroup.State.ACTIVE);
+
+      final PrivacyGroupUtil privacyGroupUtil = mock(PrivacyGroupUtil.class);
+      when(privacyGroupUtil.decode("data".getBytes())).thenReturn(privacyGroup);
+      when(privacyGroupUtil.generateLookupId(List.of())).thenReturn("lookup".getBytes());
+      privacyGroupUtilMockedStatic.when(PrivacyGroupUtil::create).thenReturn(privacyGroupUtil);
+
+      // e.g. the manager of the P2P server storing a group sent by a remote node
+      PrivacyGroupManagerProvider.provider().storePrivacyGroup("data".getBytes());
+
+      // and that of the Q2T server reading it back
+      final PrivacyGroup result = PrivacyGroupManagerProvider.provider().retrievePrivacyGroup(id);
+
+      assertThat(result).isSameAs(privacyGroup);
+      verify(privacyGroupDAO).save(any());
+      verify(privacyGroupDAO, never()).retrieve(any());
+    }
+  }
+
+  @Test
+  public void cacheTimeToLive() {
+    assertThat(PrivacyGroupManagerProvider.cacheTimeToLive(Map.of()))
+        .isEqualTo(PrivacyGroupCache.DEFAULT_TIME_TO_LIVE);
+    assertThat(PrivacyGroupManagerProvider.cacheTimeToLive(Map.of("privacyGroupCacheTtl", "0")))
+        .isZero();
+    assertThat(PrivacyGroupManagerProvider.cacheTimeToLive(Map.of("privacyGroupCacheTtl", "5000")))
+        .isEqualTo(5000L);
+  }
+
+  @Test
+  public void cacheTimeToLiveFallsBackToDefaultForInvalidValues() {
+    assertThat(PrivacyGroupManagerProvider.cacheTimeToLive(Map.of("privacyGroupCacheTtl", "-1")))
+        .isEqualTo(PrivacyGroupCache.DEFAULT_TIME_TO_LIVE);
+    assertThat(
+            PrivacyGroupManagerProvider.cacheTimeToLive(Map.of("privacyGroupCacheTtl", "forever")))
+        .isEqualTo(PrivacyGroupCache.DEFAULT_TIME_TO_LIVE);
+  }
 }
@@ -0,0 +1,275 @@
+package com.quorum.tessera.transaction.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.data.*;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.encryption.KeyNotFoundException;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedException;
+import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import com.quorum.tessera.transaction.publish.PublishPayloadException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class PushOutboxImplTest {
+
+  private PushOutboxDAO pushOutboxDAO;
+
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
+  private PayloadPublisher payloadPublisher;
+
+  private PayloadEncoder payloadEncoder;
+
+  private final MessageHash hash = new MessageHash("HASH".getBytes());
+
+  private final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+
+  @Before
+  public void onSetUp() {
+    pushOutboxDAO = mock(PushOutboxDAO.class);
+    encryptedTransactionDAO = mock(EncryptedTransactionDAO.class);
+    payloadPublisher = mock(PayloadPublisher.class);
+    payloadEncoder = mock(PayloadEncoder.class);
+  }
+
+  @After
+  public void onTearDown() {
+    verifyNoMoreInteractions(pushOutboxDAO, encryptedTransactionDAO, payloadPublisher);
+  }
+
+  private PushOutboxImpl pushOutbox(boolean awaitAcknowledgement) {
+    return pushOutbox(awaitAcknowledgement, 100);
+  }
+
+  private PushOutboxImpl pushOutbox(boolean awaitAcknowledgement, int maxAttempts) {
+    return new PushOutboxImpl(
+        pushOutboxDAO,
+        encryptedTransactionDAO,
+        payloadPublisher,
+        payloadEncoder,
+        Runnable::run,
+        awaitAcknowledgement,
+        10,
+        maxAttempts);
+  }
+
+  @Test
+  public void submitStoresTransactionAndEntriesWithoutPushing() {
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+
+    pushOutbox(false).submit(transaction, mock(EncodedPayload.class), List.of(recipient));
+
+    final ArgumentCaptor<Collection<PushOutboxEntry>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(pushOutboxDAO).save(eq(transaction), captor.capture());
+
+    assertThat(captor.getValue()).hasSize(1);
+    final PushOutboxEntry entry = captor.getValue().iterator().next();
+    assertThat(entry.getHash()).isEqualTo(hash);
+    assertThat(entry.getRecipient()).isEqualTo(recipient.getKeyBytes());
+    assertThat(entry.getAttempts()).isZero();
+  }
+
+  @Test
+  public void submitAwaitingAcknowledgementPushesAndAcknowledges() {
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload outgoing = mock(EncodedPayload.class);
+    when(payloadEncoder.forRecipient(payload, recipient)).thenReturn(outgoing);
+
+    final long delivered = PushOutboxImpl.DELIVERED.get();
+    final long before = System.currentTimeMillis();
+    pushOutbox(true).submit(transaction, payload, List.of(recipient));
+
+    final ArgumentCaptor<Collection<PushOutboxEntry>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(pushOutboxDAO).save(eq(transaction), captor.capture());
+    verify(payloadPublisher).publishPayload(outgoing, recipient);
+    verify(pushOutboxDAO).acknowledge(any(PushOutboxEntry.class));
+
+    // held back from the dispatcher while the push is made here
+    assertThat(captor.getValue().iterator().next().getNextAttempt())
+        .isGreaterThanOrEqualTo(before + PushOutboxImpl.CLAIM_LEASE_MILLIS);
+    assertThat(PushOutboxImpl.DELIVERED.get() - delivered).isEqualTo(1);
+  }
+
+  @Test
+  public void submitAwaitingAcknowledgementRethrowsAndReschedulesFailure() {
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final PublishPayloadException failure = new PublishPayloadException("OUCH");
+    doThrow(failure).when(payloadPublisher).publishPayload(any(), any());
+
+    final Throwable result =
+        catchThrowable(() -> pushOutbox(true).submit(transaction, payload, List.of(recipient)));
+
+    assertThat(result).isSameAs(failure);
+
+    final ArgumentCaptor<PushOutboxEntry> captor = ArgumentCaptor.forClass(PushOutboxEntry.class);
+    verify(pushOutboxDAO).save(eq(transaction), any());
+    verify(payloadPublisher).publishPayload(any(), eq(recipient));
+    verify(pushOutboxDAO).update(captor.capture());
+
+    assertThat(captor.getValue().getAttempts()).isEqualTo(1);
+    assertThat(captor.getValue().getNextAttempt()).isGreaterThan(System.currentTimeMillis());
+  }
+
+  @Test
+  public void runDeliversDueEntries() {
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, recipient.getKeyBytes());
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload outgoing = mock(EncodedPayload.class);
+
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of(entry));
+    when(encryptedTransactionDAO.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(payloadEncoder.decode("DATA".getBytes())).thenReturn(payload);
+    when(payloadEncoder.forRecipient(payload, recipient)).thenReturn(outgoing);
+
+    pushOutbox(false).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), eq(10));
+    verify(encryptedTransactionDAO).retrieveByHash(hash);
+    verify(payloadPublisher).publishPayload(outgoing, recipient);
+    verify(pushOutboxDAO).acknowledge(entry);
+  }
+
+  @Test
+  public void runReschedulesFailedDeliveryWithBackoff() {
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, recipient.getKeyBytes());
+    entry.setAttempts(3);
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of(entry));
+    when(encryptedTransactionDAO.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(payloadEncoder.decode(any())).thenReturn(mock(EncodedPayload.class));
+    doThrow(new PublishPayloadException("OUCH"))
+        .when(payloadPublisher)
+        .publishPayload(any(), any());
+
+    final long delivered = PushOutboxImpl.DELIVERED.get();
+    final long failed = PushOutboxImpl.FAILED.get();
+    final long before = System.currentTimeMillis();
+    pushOutbox(false).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), anyInt());
+    verify(encryptedTransactionDAO).retrieveByHash(hash);
+    verify(payloadPublisher).publishPayload(any(), eq(recipient));
+    verify(pushOutboxDAO).update(entry);
+
+    assertThat(entry.getAttempts()).isEqualTo(4);
+    assertThat(entry.getNextAttempt())
+        .isGreaterThanOrEqualTo(before + 8 * PushOutboxImpl.INITIAL_BACKOFF_MILLIS);
+
+    assertThat(PushOutboxImpl.FAILED.get() - failed).isEqualTo(1);
+    assertThat(PushOutboxImpl.DELIVERED.get() - delivered).isZero();
+  }
+
+  @Test
+  public void runDeadLettersPermanentFailureWithoutRetrying() {
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, recipient.getKeyBytes());
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of(entry));
+    when(encryptedTransactionDAO.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(payloadEncoder.decode(any())).thenReturn(mock(EncodedPayload.class));
+    doThrow(new EnhancedPrivacyNotSupportedException("OUCH"))
+        .when(payloadPublisher)
+        .publishPayload(any(), any());
+
+    final long deadLettered = PushOutboxImpl.DEAD_LETTERED.get();
+    pushOutbox(false).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), anyInt());
+    verify(encryptedTransactionDAO).retrieveByHash(hash);
+    verify(payloadPublisher).publishPayload(any(), eq(recipient));
+    verify(pushOutboxDAO).update(entry);
+
+    assertThat(entry.getAttempts()).isEqualTo(1);
+    assertThat(entry.isDeadLettered()).isTrue();
+    assertThat(PushOutboxImpl.DEAD_LETTERED.get() - deadLettered).isEqualTo(1);
+  }
+
+  @Test
+  public void runDeadLettersEntryThatHasUsedUpItsAttempts() {
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, recipient.getKeyBytes());
+    entry.setAttempts(4);
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of(entry));
+    when(encryptedTransactionDAO.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(payloadEncoder.decode(any())).thenReturn(mock(EncodedPayload.class));
+    doThrow(new PublishPayloadException("OUCH"))
+        .when(payloadPublisher)
+        .publishPayload(any(), any());
+
+    final long deadLettered = PushOutboxImpl.DEAD_LETTERED.get();
+    pushOutbox(false, 5).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), anyInt());
+    verify(encryptedTransactionDAO).retrieveByHash(hash);
+    verify(payloadPublisher).publishPayload(any(), eq(recipient));
+    verify(pushOutboxDAO).update(entry);
+
+    assertThat(entry.getAttempts()).isEqualTo(5);
+    assertThat(entry.isDeadLettered()).isTrue();
+    assertThat(PushOutboxImpl.DEAD_LETTERED.get() - deadLettered).isEqualTo(1);
+  }
+
+  @Test
+  public void submitAwaitingAcknowledgementFailsFastOnPermanentFailure() {
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+    final KeyNotFoundException failure = new KeyNotFoundException("OUCH");
+    doThrow(failure).when(payloadPublisher).publishPayload(any(), any());
+
+    final Throwable result =
+        catchThrowable(
+            () ->
+                pushOutbox(true)
+                    .submit(transaction, mock(EncodedPayload.class), List.of(recipient)));
+
+    assertThat(result).isSameAs(failure);
+
+    final ArgumentCaptor<PushOutboxEntry> captor = ArgumentCaptor.forClass(PushOutboxEntry.class);
+    verify(pushOutboxDAO).save(eq(transaction), any());
+    verify(payloadPublisher).publishPayload(any(), eq(recipient));
+    verify(pushOutboxDAO).update(captor.capture());
+
+    assertThat(captor.getValue().isDeadLettered()).isTrue();
+  }
+
+  @Test
+  public void runDiscardsEntriesForDeletedTransactions() {
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, recipient.getKeyBytes());
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of(entry));
+    when(encryptedTransactionDAO.retrieveByHash(hash)).thenReturn(Optional.empty());
+
+    final long discarded = PushOutboxImpl.DISCARDED.get();
+    pushOutbox(false).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), anyInt());
+    verify(encryptedTransactionDAO).retrieveByHash(hash);
+    verify(pushOutboxDAO).acknowledge(entry);
+
+    assertThat(PushOutboxImpl.DISCARDED.get() - discarded).isEqualTo(1);
+  }
+
+  @Test
+  public void runWithNothingDueDoesNothing() {
+    when(pushOutboxDAO.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+
+    pushOutbox(false).run();
+
+    verify(pushOutboxDAO).claimDue(anyLong(), anyLong(), anyInt());
+  }
+}
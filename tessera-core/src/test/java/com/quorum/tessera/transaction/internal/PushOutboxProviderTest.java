@@ -0,0 +1,87 @@
+package com.quorum.tessera.transaction.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.PushOutboxDAO;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushOutbox;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PushOutboxProviderTest {
+
+  @Before
+  @After
+  public void clearHolder() {
+    PushOutboxHolder.INSTANCE.store(null);
+    assertThat(PushOutboxHolder.INSTANCE.getPushOutbox()).isNotPresent();
+  }
+
+  @Test
+  public void defaultConstructorForCoverage() {
+    assertThat(new PushOutboxProvider()).isNotNull();
+  }
+
+  @Test
+  public void provider() {
+    PushOutbox pushOutbox = providerWith(Map.of("pushDeliveryMode", "OUTBOX_SYNC"));
+    assertThat(pushOutbox).isNotNull().isExactlyInstanceOf(PushOutboxImpl.class);
+  }
+
+  @Test
+  public void providerFallsBackToDefaultsForInvalidProperties() {
+    PushOutbox pushOutbox =
+        providerWith(Map.of("outboxDispatchThreads", "many", "outboxBatchSize", "-1"));
+    assertThat(pushOutbox).isNotNull().isExactlyInstanceOf(PushOutboxImpl.class);
+  }
+
+  private PushOutbox providerWith(Map<String, String> properties) {
+    try (var mockedStaticConfigFactory = mockStatic(ConfigFactory.class);
+        var mockedStaticPushOutboxDAO = mockStatic(PushOutboxDAO.class);
+        var mockedStaticEncryptedTransactionDAO = mockStatic(EncryptedTransactionDAO.class);
+        var mockedStaticPayloadPublisher = mockStatic(PayloadPublisher.class);
+        var mockedStaticPayloadEncoder = mockStatic(PayloadEncoder.class)) {
+
+      ServerConfig serverConfig = mock(ServerConfig.class);
+      when(serverConfig.getProperties()).thenReturn(properties);
+      Config config = mock(Config.class);
+      when(config.getP2PServerConfig()).thenReturn(serverConfig);
+      ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(config);
+      mockedStaticConfigFactory.when(ConfigFactory::create).thenReturn(configFactory);
+
+      mockedStaticPushOutboxDAO.when(PushOutboxDAO::create).thenReturn(mock(PushOutboxDAO.class));
+      mockedStaticEncryptedTransactionDAO
+          .when(EncryptedTransactionDAO::create)
+          .thenReturn(mock(EncryptedTransactionDAO.class));
+      mockedStaticPayloadPublisher
+          .when(PayloadPublisher::create)
+          .thenReturn(mock(PayloadPublisher.class));
+      mockedStaticPayloadEncoder
+          .when(PayloadEncoder::create)
+          .thenReturn(mock(PayloadEncoder.class));
+
+      PushOutbox pushOutbox = PushOutboxProvider.provider();
+      assertThat(pushOutbox).isNotNull().isExactlyInstanceOf(PushOutboxImpl.class);
+
+      assertThat(PushOutboxProvider.provider())
+          .describedAs("Second invocation should return same instance")
+          .isSameAs(pushOutbox);
+
+      mockedStaticPushOutboxDAO.verify(PushOutboxDAO::create);
+      mockedStaticPushOutboxDAO.verifyNoMoreInteractions();
+
+      mockedStaticEncryptedTransactionDAO.verify(EncryptedTransactionDAO::create);
+      mockedStaticEncryptedTransactionDAO.verifyNoMoreInteractions();
+      return pushOutbox;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package com.quorum.tessera.transaction.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.data.EncryptedRawTransactionDAO;
+import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.transaction.PrivacyHelper;
+import com.quorum.tessera.transaction.TransactionManager;
+import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
+import com.quorum.tessera.transaction.resend.ResendManager;
+import com.quorum.tessera.transaction.resend.internal.ResendManagerImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stores many payloads for the same transactions at once, against a DAO that reads and writes
+ * whole payloads as the database does, to check that no recipient is lost when the payloads are
+ * merged.
+ */
+public class StorePayloadStressTest {
+
+  private static final int TRANSACTIONS = 20;
+
+  private static final int RECIPIENTS = 16;
+
+  private static final PublicKey SENDER = PublicKey.from("SENDER".getBytes());
+
+  private final PayloadEncoder payloadEncoder = new PayloadEncoderImpl();
+
+  private final Map<MessageHash, byte[]> stored = new ConcurrentHashMap<>();
+
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
+  private Enclave enclave;
+
+  private PrivacyHelper privacyHelper;
+
+  private ResendManager resendManager;
+
+  private TransactionManager transactionManager;
+
+  private ExecutorService executorService;
+
+  @Before
+  public void onSetUp() {
+    encryptedTransactionDAO = mock(EncryptedTransactionDAO.class);
+    when(encryptedTransactionDAO.retrieveByHash(any(MessageHash.class)))
+        .then(
+            invocation -> {
+              final MessageHash hash = invocation.getArgument(0);
+              final Optional<EncryptedTransaction> found =
+                  Optional.ofNullable(stored.get(hash))
+                      .map(payload -> new EncryptedTransaction(hash, payload));
+              // give other threads the chance to read the same payload before it is written
+              Thread.sleep(1);
+              return found;
+            });
+    doAnswer(invocation -> write(invocation.getArgument(0)))
+        .when(encryptedTransactionDAO)
+        .save(any(EncryptedTransaction.class));
+    doAnswer(invocation -> write(invocation.getArgument(0)))
+        .when(encryptedTransactionDAO)
+        .update(any(EncryptedTransaction.class));
+
+    enclave = mock(Enclave.class);
+    privacyHelper = mock(PrivacyHelper.class);
+    when(privacyHelper.validatePayload(any(), any(), any())).thenReturn(true);
+
+    final PayloadDigest payloadDigest = cipherText -> cipherText;
+    resendManager =
+        new ResendManagerImpl(encryptedTransactionDAO, payloadEncoder, enclave, payloadDigest);
+    transactionManager =
+        new TransactionManagerImpl(
+            payloadEncoder,
+            encryptedTransactionDAO,
+            mock(BatchPayloadPublisher.class),
+            enclave,
+            mock(EncryptedRawTransactionDAO.class),
+            resendManager,
+            privacyHelper,
+            payloadDigest);
+
+    executorService = Executors.newFixedThreadPool(RECIPIENTS);
+  }
+
+  @After
+  public void onTearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void concurrentPayloadsForSameTransactionAreAllMerged() throws Exception {
+    when(enclave.getPublicKeys()).thenReturn(Set.of());
+
+    storeConcurrently(transactionManager::storePayload);
+
+    for (int tx = 0; tx < TRANSACTIONS; tx++) {
+      final EncodedPayload merged = storedPayload(tx);
+      assertThat(merged.getRecipientKeys())
+          .containsExactlyInAnyOrderElementsOf(recipients())
+          .doesNotHaveDuplicates();
+      assertThat(merged.getRecipientBoxes()).hasSize(RECIPIENTS);
+    }
+  }
+
+  @Test
+  public void concurrentOwnPayloadsForSameTransactionAreAllMerged() throws Exception {
+    when(enclave.getPublicKeys()).thenReturn(Set.of(SENDER));
+    when(enclave.unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class)))
+        .thenReturn("PLAINTEXT".getBytes());
+    when(enclave.createNewRecipientBoxes(any(EncodedPayload.class), any()))
+        .thenReturn(List.of("SENDER_BOX".getBytes()));
+
+    storeConcurrently(transactionManager::storePayload);
+
+    final List<PublicKey> expected = new ArrayList<>(recipients());
+    expected.add(SENDER);
+    for (int tx = 0; tx < TRANSACTIONS; tx++) {
+      final EncodedPayload merged = storedPayload(tx);
+      assertThat(merged.getRecipientKeys())
+          .containsExactlyInAnyOrderElementsOf(expected)
+          .doesNotHaveDuplicates();
+      assertThat(merged.getRecipientBoxes()).hasSize(RECIPIENTS + 1);
+    }
+  }
+
+  @Test
+  public void payloadsForDifferentTransactionsAreStoredAtTheSameTime() throws Exception {
+    when(enclave.getPublicKeys()).thenReturn(Set.of());
+
+    final CountDownLatch bothReading = new CountDownLatch(2);
+    when(encryptedTransactionDAO.retrieveByHash(any(MessageHash.class)))
+        .then(
+            invocation -> {
+              bothReading.countDown();
+              bothReading.await(5, TimeUnit.SECONDS);
+              return Optional.empty();
+            });
+
+    final Future<?> first =
+        executorService.submit(() -> transactionManager.storePayload(payload(0, 0)));
+    final Future<?> second =
+        executorService.submit(() -> transactionManager.storePayload(payload(1, 0)));
+    first.get(10, TimeUnit.SECONDS);
+    second.get(10, TimeUnit.SECONDS);
+
+    assertThat(bothReading.getCount()).isZero();
+    assertThat(stored).hasSize(2);
+  }
+
+  private void storeConcurrently(final Consumer<EncodedPayload> store) throws Exception {
+    for (int tx = 0; tx < TRANSACTIONS; tx++) {
+      final int transaction = tx;
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> futures =
+          IntStream.range(0, RECIPIENTS)
+              .mapToObj(
+                  recipient ->
+                      executorService.submit(
+                          () -> {
+                            start.await();
+                            store.accept(payload(transaction, recipient));
+                            return null;
+                          }))
+              .collect(Collectors.toList());
+      start.countDown();
+      for (final Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    }
+  }
+
+  private Object write(final EncryptedTransaction encryptedTransaction) {
+    stored.put(encryptedTransaction.getHash(), encryptedTransaction.getEncodedPayload());
+    return encryptedTransaction;
+  }
+
+  private EncodedPayload storedPayload(final int transaction) {
+    return payloadEncoder.decode(stored.get(new MessageHash(cipherText(transaction))));
+  }
+
+  private static List<PublicKey> recipients() {
+    return IntStream.range(0, RECIPIENTS)
+        .mapToObj(StorePayloadStressTest::recipient)
+        .collect(Collectors.toList());
+  }
+
+  private static PublicKey recipient(final int recipient) {
+    return PublicKey.from(("RECIPIENT" + recipient).getBytes());
+  }
+
+  private static byte[] cipherText(final int transaction) {
+    return ("CIPHERTEXT" + transaction).getBytes();
+  }
+
+  private static EncodedPayload payload(final int transaction, final int recipient) {
+    return EncodedPayload.Builder.create()
+        .withSenderKey(SENDER)
+        .withCipherText(cipherText(transaction))
+        .withCipherTextNonce("NONCE".getBytes())
+        .withRecipientNonce("RECIPIENT_NONCE".getBytes())
+        .withRecipientKey(recipient(recipient))
+        .withRecipientBox(("BOX" + recipient).getBytes())
+        .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+        .build();
+  }
+}
@@ -14,9 +14,11 @@ import com.quorum.tessera.transaction.exception.PrivacyViolationException;
 import com.quorum.tessera.transaction.exception.RecipientKeyNotFoundException;
 import com.quorum.tessera.transaction.exception.TransactionNotFoundException;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
+import com.quorum.tessera.transaction.publish.PushOutbox;
 import com.quorum.tessera.transaction.resend.ResendManager;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -155,6 +157,49 @@ public class TransactionManagerTest {
     verify(batchPayloadPublisher).publishPayload(any(), anyList());
   }
 
+  @Test
+  public void sendThroughPushOutbox() {
+    PushOutbox pushOutbox = mock(PushOutbox.class);
+    TransactionManager outboxTransactionManager =
+        new TransactionManagerImpl(
+            payloadEncoder,
+            encryptedTransactionDAO,
+            batchPayloadPublisher,
+            enclave,
+            encryptedRawTransactionDAO,
+            resendManager,
+            privacyHelper,
+            mockDigest,
+            pushOutbox);
+
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getCipherText()).thenReturn("CIPHERTEXT".getBytes());
+    when(enclave.encryptPayload(any(), any(), any(), any())).thenReturn(encodedPayload);
+
+    PublicKey sender = PublicKey.from("SENDER".getBytes());
+    PublicKey receiver = PublicKey.from("RECEIVER".getBytes());
+    when(enclave.getPublicKeys()).thenReturn(Set.of(sender));
+
+    SendRequest sendRequest = mock(SendRequest.class);
+    when(sendRequest.getPayload()).thenReturn("PAYLOAD".getBytes());
+    when(sendRequest.getSender()).thenReturn(sender);
+    when(sendRequest.getRecipients()).thenReturn(List.of(receiver));
+    when(sendRequest.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+
+    SendResponse result = outboxTransactionManager.send(sendRequest);
+
+    assertThat(result.getTransactionHash().toString()).isEqualTo("Q0lQSEVSVEVYVA==");
+    assertThat(result.getManagedParties()).containsExactly(sender);
+
+    verify(enclave).encryptPayload(any(), any(), any(), any());
+    verify(payloadEncoder).encode(encodedPayload);
+    verify(enclave).getForwardingKeys();
+    verify(enclave).getPublicKeys();
+    verify(pushOutbox)
+        .submit(any(EncryptedTransaction.class), eq(encodedPayload), eq(List.of(receiver)));
+    verifyNoMoreInteractions(pushOutbox);
+  }
+
   @Test
   public void sendWithDuplicateRecipients() {
     EncodedPayload encodedPayload = mock(EncodedPayload.class);
@@ -933,8 +978,7 @@ public class TransactionManagerTest {
 
     verify(payloadEncoder).decode(any(byte[].class));
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave).getPublicKeys();
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
   }
 
   @Test
@@ -981,8 +1025,7 @@ public class TransactionManagerTest {
 
     verify(payloadEncoder).decode(any(byte[].class));
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave).getPublicKeys();
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
   }
 
   @Test
@@ -1028,8 +1071,8 @@ public class TransactionManagerTest {
 
     verify(payloadEncoder).decode(any(byte[].class));
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave, times(2)).getPublicKeys();
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).getPublicKeys();
   }
 
   @Test
@@ -1072,8 +1115,72 @@ public class TransactionManagerTest {
 
     verify(payloadEncoder).decode(any(byte[].class));
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(3)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave, times(2)).getPublicKeys();
+    verify(encryptedTransactionDAO).findRecipientKey(messageHash);
+    verify(encryptedTransactionDAO).saveRecipientKey(messageHash, recipient1.getKeyBytes());
+    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveWithNoRecipientsPresentSendsAllKeysToRemoteEnclaveAtOnce() {
+    final EnclaveClient enclaveClient = mock(EnclaveClient.class);
+    final TransactionManager remoteEnclaveTransactionManager =
+        new TransactionManagerImpl(
+            payloadEncoder,
+            encryptedTransactionDAO,
+            batchPayloadPublisher,
+            enclaveClient,
+            encryptedRawTransactionDAO,
+            resendManager,
+            privacyHelper,
+            mockDigest);
+
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey recipient1 = PublicKey.from("recipient1".getBytes());
+    final PublicKey recipient2 = PublicKey.from("recipient2".getBytes());
+
+    final MessageHash messageHash = new MessageHash("hash".getBytes());
+    final ReceiveRequest receiveRequest =
+        ReceiveRequest.Builder.create().withTransactionHash(messageHash).build();
+
+    final EncryptedTransaction encryptedTransaction =
+        new EncryptedTransaction(messageHash, "odd-data".getBytes());
+
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getSenderKey()).thenReturn(sender);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getRecipientBoxes()).thenReturn(List.of(RecipientBox.from("box1".getBytes())));
+    when(payloadEncoder.decode(any(byte[].class))).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(messageHash))
+        .thenReturn(Optional.of(encryptedTransaction));
+
+    final byte[] expectedOutcome = "Encrypted payload".getBytes();
+    when(enclaveClient.getPublicKeys())
+        .thenReturn(new LinkedHashSet<>(List.of(recipient1, recipient2)));
+    when(enclaveClient.unencryptTransactions(any(EncodedPayload.class), anyList()))
+        .thenAnswer(
+            invocation -> {
+              final List<PublicKey> keys = invocation.getArgument(1);
+              return keys.stream()
+                  .map(k -> Optional.of(expectedOutcome).filter(data -> k.equals(recipient2)))
+                  .collect(Collectors.toList());
+            });
+    when(enclaveClient.unencryptTransaction(payload, recipient2)).thenReturn(expectedOutcome);
+
+    final ReceiveResponse receiveResponse = remoteEnclaveTransactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo(expectedOutcome);
+    assertThat(receiveResponse.getManagedParties()).containsExactly(recipient2);
+
+    verify(payloadEncoder).decode(any(byte[].class));
+    verify(encryptedTransactionDAO).retrieveByHash(messageHash);
+    verify(encryptedTransactionDAO).findRecipientKey(messageHash);
+    verify(encryptedTransactionDAO).saveRecipientKey(messageHash, recipient2.getKeyBytes());
+    verify(enclaveClient).unencryptTransactions(payload, List.of(recipient1, recipient2));
+    verify(enclaveClient).unencryptTransaction(payload, recipient2);
+    verify(enclaveClient).getPublicKeys();
+    verifyNoMoreInteractions(enclaveClient);
   }
 
   @Test
@@ -1178,8 +1285,7 @@ public class TransactionManagerTest {
 
     verify(payloadEncoder).decode(any(byte[].class));
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave).getPublicKeys();
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
   }
 
   @Test
@@ -1210,7 +1316,7 @@ public class TransactionManagerTest {
   }
 
   @Test
-  public void receiveNoRecipientKeyFound() {
+  public void receiveWithRecipientThatCannotDecrypt() {
 
     final byte[] keyData = Base64.getEncoder().encode("KEY".getBytes());
     PublicKey recipient = PublicKey.from("recipient".getBytes());
@@ -1231,21 +1337,119 @@ public class TransactionManagerTest {
     when(encryptedTransactionDAO.retrieveByHash(any(MessageHash.class)))
         .thenReturn(Optional.of(encryptedTransaction));
 
-    PublicKey publicKey = mock(PublicKey.class);
-    when(enclave.getPublicKeys()).thenReturn(Collections.singleton(publicKey));
-
     when(enclave.unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class)))
         .thenThrow(EncryptorException.class);
 
-    try {
-      transactionManager.receive(receiveRequest);
-      failBecauseExceptionWasNotThrown(RecipientKeyNotFoundException.class);
-    } catch (RecipientKeyNotFoundException ex) {
-      verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-      verify(enclave).getPublicKeys();
-      verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-      verify(payloadEncoder).decode(any(byte[].class));
-    }
+    final Throwable throwable = catchThrowable(() -> transactionManager.receive(receiveRequest));
+
+    // the provided key is used as is, without searching the other keys
+    assertThat(throwable).isInstanceOf(EncryptorException.class);
+
+    verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+    verify(enclave).unencryptTransaction(payload, recipient);
+    verify(payloadEncoder).decode(any(byte[].class));
+  }
+
+  @Test
+  public void receiveFindsListedRecipientKeyWithoutDecrypting() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey remote = PublicKey.from("remote".getBytes());
+    final PublicKey recipient = PublicKey.from("recipient".getBytes());
+
+    final MessageHash messageHash = new MessageHash("HASH".getBytes());
+    final ReceiveRequest receiveRequest =
+        ReceiveRequest.Builder.create().withTransactionHash(messageHash).build();
+
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getRecipientKeys()).thenReturn(List.of(remote, recipient));
+    when(payload.getSenderKey()).thenReturn(sender);
+    when(payloadEncoder.decode(any(byte[].class))).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(messageHash))
+        .thenReturn(Optional.of(new EncryptedTransaction(messageHash, "DATA".getBytes())));
+    when(enclave.getPublicKeys()).thenReturn(Set.of(recipient));
+    when(enclave.unencryptTransaction(payload, recipient)).thenReturn("DECRYPTED".getBytes());
+
+    final ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo("DECRYPTED".getBytes());
+    assertThat(receiveResponse.getManagedParties()).containsExactly(recipient);
+
+    verify(payloadEncoder).decode(any(byte[].class));
+    verify(encryptedTransactionDAO).retrieveByHash(messageHash);
+    verify(enclave).unencryptTransaction(payload, recipient);
+    verify(enclave, times(2)).getPublicKeys();
+  }
+
+  @Test
+  public void receiveLegacyPayloadRecordsRecipientKeyFoundBySearching() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey recipient = PublicKey.from("recipient".getBytes());
+
+    final MessageHash messageHash = new MessageHash("HASH".getBytes());
+    final ReceiveRequest receiveRequest =
+        ReceiveRequest.Builder.create().withTransactionHash(messageHash).build();
+
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getSenderKey()).thenReturn(sender);
+    when(payload.getRecipientBoxes()).thenReturn(List.of(RecipientBox.from("box1".getBytes())));
+    when(payloadEncoder.decode(any(byte[].class))).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(messageHash))
+        .thenReturn(Optional.of(new EncryptedTransaction(messageHash, "DATA".getBytes())));
+    when(encryptedTransactionDAO.findRecipientKey(messageHash)).thenReturn(Optional.empty());
+    when(enclave.getPublicKeys()).thenReturn(Set.of(recipient));
+    when(enclave.unencryptTransaction(payload, recipient)).thenReturn("DECRYPTED".getBytes());
+
+    final ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo("DECRYPTED".getBytes());
+    assertThat(receiveResponse.getManagedParties()).containsExactly(recipient);
+
+    verify(payloadEncoder).decode(any(byte[].class));
+    verify(encryptedTransactionDAO).retrieveByHash(messageHash);
+    verify(encryptedTransactionDAO).findRecipientKey(messageHash);
+    verify(encryptedTransactionDAO).saveRecipientKey(messageHash, recipient.getKeyBytes());
+    // once to find the key and once to decrypt, the only box is known to be for the found key
+    verify(enclave, times(2)).unencryptTransaction(payload, recipient);
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveLegacyPayloadUsesRecordedRecipientKey() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey recipient = PublicKey.from("recipient".getBytes());
+    final PublicKey otherKey = PublicKey.from("other".getBytes());
+
+    final MessageHash messageHash = new MessageHash("HASH".getBytes());
+    final ReceiveRequest receiveRequest =
+        ReceiveRequest.Builder.create().withTransactionHash(messageHash).build();
+
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getSenderKey()).thenReturn(sender);
+    when(payload.getRecipientBoxes()).thenReturn(List.of(RecipientBox.from("box1".getBytes())));
+    when(payloadEncoder.decode(any(byte[].class))).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(messageHash))
+        .thenReturn(Optional.of(new EncryptedTransaction(messageHash, "DATA".getBytes())));
+    when(encryptedTransactionDAO.findRecipientKey(messageHash))
+        .thenReturn(Optional.of(recipient.getKeyBytes()));
+    when(enclave.getPublicKeys()).thenReturn(Set.of(otherKey, recipient));
+    when(enclave.unencryptTransaction(payload, recipient)).thenReturn("DECRYPTED".getBytes());
+
+    final ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo("DECRYPTED".getBytes());
+    assertThat(receiveResponse.getManagedParties()).containsExactly(recipient);
+
+    verify(payloadEncoder).decode(any(byte[].class));
+    verify(encryptedTransactionDAO).retrieveByHash(messageHash);
+    verify(encryptedTransactionDAO).findRecipientKey(messageHash);
+    verify(enclave).unencryptTransaction(payload, recipient);
+    verify(enclave).getPublicKeys();
   }
 
   @Test
@@ -1316,6 +1520,7 @@ public class TransactionManagerTest {
       failBecauseExceptionWasNotThrown(RecipientKeyNotFoundException.class);
     } catch (RecipientKeyNotFoundException ex) {
       verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+      verify(encryptedTransactionDAO).findRecipientKey(transactionHash);
       verify(enclave).getPublicKeys();
       verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
       verify(payloadEncoder).decode(any(byte[].class));
@@ -1351,6 +1556,7 @@ public class TransactionManagerTest {
       failBecauseExceptionWasNotThrown(RecipientKeyNotFoundException.class);
     } catch (RecipientKeyNotFoundException ex) {
       verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+      verify(encryptedTransactionDAO).findRecipientKey(transactionHash);
       verify(enclave).getPublicKeys();
       verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
       verify(payloadEncoder).decode(any(byte[].class));
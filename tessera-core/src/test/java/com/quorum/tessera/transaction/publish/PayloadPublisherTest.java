@@ -2,7 +2,11 @@ package com.quorum.tessera.transaction.publish;
 
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.ServiceLoader;
 import org.junit.Test;
 
@@ -28,4 +32,26 @@ public class PayloadPublisherTest {
       verifyNoInteractions(serviceLoader);
     }
   }
+
+  @Test
+  public void publishPayloadsDefaultsToPublishingEachPayload() {
+    final PayloadPublisher payloadPublisher = mock(PayloadPublisher.class);
+    doCallRealMethod().when(payloadPublisher).publishPayloads(anyMap());
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(recipient, payload);
+    payloads.put(otherRecipient, otherPayload);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    verify(payloadPublisher).publishPayloads(payloads);
+    verify(payloadPublisher).publishPayload(payload, recipient);
+    verify(payloadPublisher).publishPayload(otherPayload, otherRecipient);
+    verifyNoMoreInteractions(payloadPublisher);
+  }
 }
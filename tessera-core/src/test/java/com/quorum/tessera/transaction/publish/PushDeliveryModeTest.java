@@ -0,0 +1,37 @@
+package com.quorum.tessera.transaction.publish;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class PushDeliveryModeTest {
+
+  @Test
+  public void defaultsToTransactional() {
+    assertThat(PushDeliveryMode.from(Map.of())).isEqualTo(PushDeliveryMode.TRANSACTIONAL);
+    assertThat(PushDeliveryMode.from(null)).isEqualTo(PushDeliveryMode.TRANSACTIONAL);
+    assertThat(PushDeliveryMode.TRANSACTIONAL.isOutbox()).isFalse();
+  }
+
+  @Test
+  public void parsesIgnoringCase() {
+    assertThat(PushDeliveryMode.from(Map.of("pushDeliveryMode", "outbox")))
+        .isEqualTo(PushDeliveryMode.OUTBOX);
+    assertThat(PushDeliveryMode.from(Map.of("pushDeliveryMode", " OUTBOX_SYNC ")))
+        .isEqualTo(PushDeliveryMode.OUTBOX_SYNC);
+    assertThat(PushDeliveryMode.OUTBOX.isOutbox()).isTrue();
+    assertThat(PushDeliveryMode.OUTBOX_SYNC.isOutbox()).isTrue();
+  }
+
+  @Test
+  public void unknownModeIsRejected() {
+    final Throwable ex =
+        catchThrowable(() -> PushDeliveryMode.from(Map.of("pushDeliveryMode", "BOGUS")));
+
+    assertThat(ex)
+        .isExactlyInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Unsupported pushDeliveryMode BOGUS");
+  }
+}
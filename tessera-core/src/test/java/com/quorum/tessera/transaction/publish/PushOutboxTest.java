@@ -0,0 +1,31 @@
+package com.quorum.tessera.transaction.publish;
+
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.ServiceLoader;
+import org.junit.Test;
+
+public class PushOutboxTest {
+
+  @Test
+  public void create() {
+    try (var serviceLoaderUtilMockedStatic = mockStatic(ServiceLoaderUtil.class);
+        var serviceLoaderMockedStatic = mockStatic(ServiceLoader.class)) {
+
+      ServiceLoader<PushOutbox> serviceLoader = mock(ServiceLoader.class);
+      serviceLoaderMockedStatic
+          .when(() -> ServiceLoader.load(PushOutbox.class))
+          .thenReturn(serviceLoader);
+
+      PushOutbox.create();
+
+      serviceLoaderUtilMockedStatic.verify(() -> ServiceLoaderUtil.loadSingle(serviceLoader));
+      serviceLoaderUtilMockedStatic.verifyNoMoreInteractions();
+
+      serviceLoaderMockedStatic.verify(() -> ServiceLoader.load(PushOutbox.class));
+      serviceLoaderMockedStatic.verifyNoMoreInteractions();
+      verifyNoInteractions(serviceLoader);
+    }
+  }
+}
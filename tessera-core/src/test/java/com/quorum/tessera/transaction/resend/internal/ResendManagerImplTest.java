@@ -68,7 +68,8 @@ public class ResendManagerImplTest {
     when(enclave.getPublicKeys()).thenReturn(singleton(senderKey));
     when(encryptedTransactionDAO.retrieveByHash(any(MessageHash.class)))
         .thenReturn(Optional.empty());
-    when(enclave.createNewRecipientBox(any(), any())).thenReturn(newEncryptedMasterKey);
+    when(enclave.createNewRecipientBoxes(any(), any()))
+        .thenReturn(List.of(newEncryptedMasterKey));
 
     resendManager.acceptOwnMessage(encodedPayload);
 
@@ -90,7 +91,7 @@ public class ResendManagerImplTest {
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
     verify(enclave).getPublicKeys();
-    verify(enclave).createNewRecipientBox(any(), any());
+    verify(enclave).createNewRecipientBoxes(encodedPayload, List.of(senderKey));
     verify(enclave).unencryptTransaction(encodedPayload, senderKey);
   }
 
@@ -21,8 +21,37 @@ import javax.persistence.*;
       name = "EncryptedTransaction.Upcheck",
       query = "select count(c) from EncryptedTransaction c")
 })
+// Native so that the hashes can be compared, which is needed to seek to the next page of results
+@NamedNativeQueries({
+  @NamedNativeQuery(
+      name = "EncryptedTransaction.FindFirstWithoutTimestamp",
+      query =
+          "SELECT HASH, ENCODED_PAYLOAD, TIMESTAMP FROM ENCRYPTED_TRANSACTION"
+              + " WHERE TIMESTAMP IS NULL ORDER BY HASH",
+      resultClass = EncryptedTransaction.class),
+  @NamedNativeQuery(
+      name = "EncryptedTransaction.FindNextWithoutTimestamp",
+      query =
+          "SELECT HASH, ENCODED_PAYLOAD, TIMESTAMP FROM ENCRYPTED_TRANSACTION"
+              + " WHERE TIMESTAMP IS NULL AND HASH > ?1 ORDER BY HASH",
+      resultClass = EncryptedTransaction.class),
+  @NamedNativeQuery(
+      name = "EncryptedTransaction.FindFirstWithTimestamp",
+      query =
+          "SELECT HASH, ENCODED_PAYLOAD, TIMESTAMP FROM ENCRYPTED_TRANSACTION"
+              + " WHERE TIMESTAMP IS NOT NULL ORDER BY TIMESTAMP, HASH",
+      resultClass = EncryptedTransaction.class),
+  @NamedNativeQuery(
+      name = "EncryptedTransaction.FindNextWithTimestamp",
+      query =
+          "SELECT HASH, ENCODED_PAYLOAD, TIMESTAMP FROM ENCRYPTED_TRANSACTION"
+              + " WHERE TIMESTAMP > ?1 OR (TIMESTAMP = ?2 AND HASH > ?3) ORDER BY TIMESTAMP, HASH",
+      resultClass = EncryptedTransaction.class)
+})
 @Entity
-@Table(name = "ENCRYPTED_TRANSACTION")
+@Table(
+    name = "ENCRYPTED_TRANSACTION",
+    indexes = {@Index(name = "ENCRYPTED_TRANSACTION_TIMESTAMP", columnList = "TIMESTAMP,HASH")})
 public class EncryptedTransaction implements Serializable {
 
   @EmbeddedId
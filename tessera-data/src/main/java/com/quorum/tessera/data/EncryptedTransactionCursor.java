@@ -0,0 +1,112 @@
+package com.quorum.tessera.data;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * Iterates over all the stored {@link EncryptedTransaction}s ordered by timestamp and then hash,
+ * loading one page at a time.
+ *
+ * <p>Each page is found by seeking past the timestamp and hash of the last transaction of the
+ * previous page rather than by skipping a number of rows, so every page costs the same no matter
+ * how far through the table it is and a full pass takes linear time. Transactions stored before
+ * timestamps were recorded have no timestamp and are returned first, ordered by hash.
+ *
+ * <p>Each page is loaded by its own query, so transactions stored or deleted during the iteration
+ * may or may not be seen, but no transaction that is present throughout is missed or repeated.
+ */
+public class EncryptedTransactionCursor implements Iterator<EncryptedTransaction> {
+
+  /** Runs the query for a page, e.g. in a transaction of its own */
+  @FunctionalInterface
+  public interface PageLoader {
+    List<EncryptedTransaction> load(EntityManagerCallback<List<EncryptedTransaction>> query);
+  }
+
+  private final int pageSize;
+
+  private final PageLoader pageLoader;
+
+  private Iterator<EncryptedTransaction> page = Collections.emptyIterator();
+
+  private boolean withoutTimestamp = true;
+
+  private boolean lastPage;
+
+  private EncryptedTransaction last;
+
+  public EncryptedTransactionCursor(int pageSize, PageLoader pageLoader) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize must be at least 1");
+    }
+    this.pageSize = pageSize;
+    this.pageLoader = Objects.requireNonNull(pageLoader, "pageLoader is required");
+  }
+
+  /**
+   * Creates a stream of all the stored transactions, loading them a page at a time
+   *
+   * @param pageSize the number of transactions to load at a time
+   * @param pageLoader runs the query for each page
+   * @return a lazily loaded stream of all the transactions
+   */
+  public static Stream<EncryptedTransaction> stream(int pageSize, PageLoader pageLoader) {
+    final EncryptedTransactionCursor cursor = new EncryptedTransactionCursor(pageSize, pageLoader);
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL),
+        false);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext() && !lastPage) {
+      final List<EncryptedTransaction> next = pageLoader.load(this::nextPage);
+      page = next.iterator();
+
+      if (next.size() == pageSize) {
+        last = next.get(pageSize - 1);
+      } else if (withoutTimestamp) {
+        // all the transactions without a timestamp have been seen, move on to the others
+        withoutTimestamp = false;
+        last = null;
+      } else {
+        lastPage = true;
+      }
+    }
+    return page.hasNext();
+  }
+
+  @Override
+  public EncryptedTransaction next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return page.next();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<EncryptedTransaction> nextPage(EntityManager entityManager) {
+    final Query query;
+    if (withoutTimestamp && last == null) {
+      query = entityManager.createNamedQuery("EncryptedTransaction.FindFirstWithoutTimestamp");
+    } else if (withoutTimestamp) {
+      query =
+          entityManager
+              .createNamedQuery("EncryptedTransaction.FindNextWithoutTimestamp")
+              .setParameter(1, last.getHash().getHashBytes());
+    } else if (last == null) {
+      query = entityManager.createNamedQuery("EncryptedTransaction.FindFirstWithTimestamp");
+    } else {
+      query =
+          entityManager
+              .createNamedQuery("EncryptedTransaction.FindNextWithTimestamp")
+              .setParameter(1, last.getTimestamp())
+              .setParameter(2, last.getTimestamp())
+              .setParameter(3, last.getHash().getHashBytes());
+    }
+    return query.setMaxResults(pageSize).getResultList();
+  }
+}
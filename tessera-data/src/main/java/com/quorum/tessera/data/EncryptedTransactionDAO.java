@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 /** A data store for transactions that need to be retrieved later */
 public interface EncryptedTransactionDAO {
@@ -50,6 +51,16 @@ public interface EncryptedTransactionDAO {
    */
   List<EncryptedTransaction> retrieveTransactions(int offset, int maxResult);
 
+  /**
+   * Stream all the transactions stored in the database, ordered by timestamp and then hash. The
+   * transactions are loaded a page at a time as the stream is consumed, with each page found by
+   * seeking past the last transaction of the previous page, so a full pass takes linear time.
+   *
+   * @param pageSize the number of transactions to load from the database at a time
+   * @return a lazily loaded stream of all the transactions
+   */
+  Stream<EncryptedTransaction> streamTransactions(int pageSize);
+
   /**
    * Retrieve the total transaction count.
    *
@@ -75,6 +86,23 @@ public interface EncryptedTransactionDAO {
    */
   <T> EncryptedTransaction save(EncryptedTransaction transaction, Callable<T> consumer);
 
+  /**
+   * Record which of the node's keys is able to decrypt a transaction, replacing any key that was
+   * recorded before. The key is forgotten when the transaction is updated or deleted.
+   *
+   * @param hash the hash of the transaction
+   * @param recipientKey the key that decrypted the transaction
+   */
+  void saveRecipientKey(MessageHash hash, byte[] recipientKey);
+
+  /**
+   * Retrieve the key that was recorded as being able to decrypt a transaction
+   *
+   * @param hash the hash of the transaction
+   * @return the recorded key, or empty if no key has been recorded for the transaction
+   */
+  Optional<byte[]> findRecipientKey(MessageHash hash);
+
   /**
    * Check whether data store is available
    *
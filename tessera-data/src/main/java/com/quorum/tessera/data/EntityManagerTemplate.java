@@ -1,7 +1,11 @@
 package com.quorum.tessera.data;
 
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.metrics.Timer;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -16,8 +20,37 @@ public class EntityManagerTemplate {
 
   private final EntityManagerFactory entityManagerFactory;
 
+  private final String dao;
+
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
   public EntityManagerTemplate(EntityManagerFactory entityManagerFactory) {
+    this(entityManagerFactory, "unknown");
+  }
+
+  /** @param dao the name the time taken by each operation is recorded under */
+  public EntityManagerTemplate(EntityManagerFactory entityManagerFactory, String dao) {
     this.entityManagerFactory = Objects.requireNonNull(entityManagerFactory);
+    this.dao = Objects.requireNonNull(dao);
+  }
+
+  private Timer timer(String operation) {
+    return timers.computeIfAbsent(
+        operation,
+        op ->
+            MetricsRegistry.node()
+                .timer(
+                    "tessera_database_seconds",
+                    "Time taken by an operation on the database, including its transaction",
+                    "dao",
+                    dao,
+                    "operation",
+                    op));
+  }
+
+  /** Executes the callback, recording how long it took as the given operation */
+  public <T> T execute(String operation, EntityManagerCallback<T> callback) {
+    return timer(operation).time(() -> execute(callback));
   }
 
   public <T> T execute(EntityManagerCallback<T> callback) {
@@ -42,6 +75,11 @@ public class EntityManagerTemplate {
     }
   }
 
+  /** Retrieves or saves the entity, recording how long it took as the given operation */
+  public <T> T retrieveOrSave(String operation, Supplier<T> retriever, Supplier<T> factory) {
+    return timer(operation).time(() -> retrieveOrSave(retriever, factory));
+  }
+
   public <T> T retrieveOrSave(Supplier<T> retriever, Supplier<T> factory) {
     EntityManager entityManager = entityManagerFactory.createEntityManager();
     EntityTransaction transaction = entityManager.getTransaction();
@@ -0,0 +1,68 @@
+package com.quorum.tessera.data;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/** A durable store of pushes that still need to be delivered to remote recipients */
+public interface PushOutboxDAO {
+
+  /**
+   * Save a new Encrypted Transaction together with the outbox entries for each of its remote
+   * recipients, in a single database transaction
+   *
+   * @param transaction the entity to be persisted
+   * @param entries the pending pushes for the transaction
+   * @return the entity that was persisted
+   */
+  EncryptedTransaction save(EncryptedTransaction transaction, Collection<PushOutboxEntry> entries);
+
+  /**
+   * Claim the entries whose next delivery attempt is due, by moving their next attempt to the end
+   * of a lease in the same database transaction. An entry that was claimed or rescheduled by
+   * someone else since it was read is left out, so each due entry is handed out only once.
+   *
+   * @param now the current time in milliseconds since the epoch
+   * @param leaseUntil the time at which the claimed entries become due again if they are neither
+   *     acknowledged nor rescheduled first
+   * @param maxResult the maximum number of entries to return
+   * @return the claimed entries, oldest first
+   */
+  List<PushOutboxEntry> claimDue(long now, long leaseUntil, int maxResult);
+
+  /**
+   * Retrieve all pending entries for a given transaction
+   *
+   * @param hash the hash of the transaction
+   * @return the pending entries for the transaction
+   */
+  List<PushOutboxEntry> findByHash(MessageHash hash);
+
+  /**
+   * Update the delivery schedule of an entry after a failed attempt
+   *
+   * @param entry the entry to be merged
+   * @return the entry that was merged
+   */
+  PushOutboxEntry update(PushOutboxEntry entry);
+
+  /**
+   * Remove an entry once the recipient has accepted the payload. Entries that have already been
+   * removed are ignored.
+   *
+   * @param entry the entry to acknowledge
+   */
+  void acknowledge(PushOutboxEntry entry);
+
+  /**
+   * Retrieve the number of pushes still waiting to be delivered, leaving out those that have been
+   * dead-lettered
+   *
+   * @return the pending entry count
+   */
+  long count();
+
+  static PushOutboxDAO create() {
+    return ServiceLoader.load(PushOutboxDAO.class).findFirst().get();
+  }
+}
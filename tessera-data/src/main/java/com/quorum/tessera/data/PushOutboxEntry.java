@@ -0,0 +1,116 @@
+package com.quorum.tessera.data;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.*;
+
+/**
+ * The JPA entity that records a push to a single recipient that has not yet been acknowledged.
+ *
+ * <p>Entries are written in the same transaction as the {@link EncryptedTransaction} they refer
+ * to, and removed once the recipient has accepted the payload.
+ */
+@NamedQueries({
+  @NamedQuery(
+      name = "PushOutboxEntry.FindDue",
+      query =
+          "select e from PushOutboxEntry e where e.nextAttempt <= :now order by e.nextAttempt"),
+  @NamedQuery(
+      name = "PushOutboxEntry.Claim",
+      query =
+          "update PushOutboxEntry e set e.nextAttempt = :leaseUntil where e.id.hash = :hash"
+              + " and e.id.recipient = :recipient and e.nextAttempt = :nextAttempt"),
+  @NamedQuery(
+      name = "PushOutboxEntry.FindByHash",
+      query = "select e from PushOutboxEntry e where e.id.hash = :hash"),
+  @NamedQuery(
+      name = "PushOutboxEntry.Count",
+      query = "select count(e) from PushOutboxEntry e where e.nextAttempt < :deadLetter")
+})
+@Entity
+@Table(
+    name = "PUSH_OUTBOX",
+    indexes = {@Index(name = "PUSH_OUTBOX_NEXT_ATTEMPT", columnList = "NEXT_ATTEMPT")})
+public class PushOutboxEntry implements Serializable {
+
+  /**
+   * The next attempt of an entry that will not be retried, which is never due. Such entries are
+   * kept, but not counted as pending, so that they can be looked into and requeued by hand.
+   */
+  public static final long DEAD_LETTER = Long.MAX_VALUE;
+
+  @EmbeddedId private PushOutboxEntryId id;
+
+  @Column(name = "ATTEMPTS", nullable = false)
+  private int attempts;
+
+  @Column(name = "NEXT_ATTEMPT", nullable = false)
+  private long nextAttempt;
+
+  @Column(name = "TIMESTAMP", updatable = false)
+  private long timestamp;
+
+  public PushOutboxEntry(final MessageHash hash, final byte[] recipient) {
+    this.id = new PushOutboxEntryId(hash.getHashBytes(), recipient);
+  }
+
+  public PushOutboxEntry() {}
+
+  @PrePersist
+  public void onPersist() {
+    this.timestamp = System.currentTimeMillis();
+    if (nextAttempt == 0L) {
+      this.nextAttempt = timestamp;
+    }
+  }
+
+  public PushOutboxEntryId getId() {
+    return id;
+  }
+
+  public void setId(final PushOutboxEntryId id) {
+    this.id = id;
+  }
+
+  public MessageHash getHash() {
+    return new MessageHash(id.getHash());
+  }
+
+  public byte[] getRecipient() {
+    return id.getRecipient();
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(final int attempts) {
+    this.attempts = attempts;
+  }
+
+  public long getNextAttempt() {
+    return nextAttempt;
+  }
+
+  public void setNextAttempt(final long nextAttempt) {
+    this.nextAttempt = nextAttempt;
+  }
+
+  public boolean isDeadLettered() {
+    return nextAttempt == DEAD_LETTER;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public int hashCode() {
+    return 47 * 3 + Objects.hashCode(this.id);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return (obj instanceof PushOutboxEntry) && Objects.equals(this.id, ((PushOutboxEntry) obj).id);
+  }
+}
@@ -0,0 +1,57 @@
+package com.quorum.tessera.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.Lob;
+
+/** Identifies a pending push by the transaction hash and the recipient key it is destined for */
+@Embeddable
+public class PushOutboxEntryId implements Serializable {
+
+  @Lob
+  @Column(name = "HASH", nullable = false, updatable = false)
+  private byte[] hash;
+
+  @Lob
+  @Column(name = "RECIPIENT", nullable = false, updatable = false)
+  private byte[] recipient;
+
+  public PushOutboxEntryId() {}
+
+  public PushOutboxEntryId(final byte[] hash, final byte[] recipient) {
+    this.hash = Arrays.copyOf(hash, hash.length);
+    this.recipient = Arrays.copyOf(recipient, recipient.length);
+  }
+
+  public byte[] getHash() {
+    return Arrays.copyOf(hash, hash.length);
+  }
+
+  public void setHash(final byte[] hash) {
+    this.hash = Arrays.copyOf(hash, hash.length);
+  }
+
+  public byte[] getRecipient() {
+    return Arrays.copyOf(recipient, recipient.length);
+  }
+
+  public void setRecipient(final byte[] recipient) {
+    this.recipient = Arrays.copyOf(recipient, recipient.length);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (!(o instanceof PushOutboxEntryId)) {
+      return false;
+    }
+    final PushOutboxEntryId that = (PushOutboxEntryId) o;
+    return Arrays.equals(hash, that.hash) && Arrays.equals(recipient, that.recipient);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(hash) + Arrays.hashCode(recipient);
+  }
+}
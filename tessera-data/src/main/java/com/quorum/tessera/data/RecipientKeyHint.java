@@ -0,0 +1,70 @@
+package com.quorum.tessera.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.persistence.*;
+
+/**
+ * The JPA entity that records which of the node's keys is able to decrypt a stored {@link
+ * EncryptedTransaction}, so that the key does not have to be found again by trying each key in
+ * turn.
+ *
+ * <p>The hint is discarded whenever the transaction it refers to is updated or deleted.
+ */
+@NamedQueries({
+  @NamedQuery(
+      name = "RecipientKeyHint.FindByHash",
+      query = "select h from RecipientKeyHint h where h.hash.hashBytes = :hash"),
+  @NamedQuery(
+      name = "RecipientKeyHint.DeleteByHash",
+      query = "delete from RecipientKeyHint h where h.hash.hashBytes = :hash")
+})
+@Entity
+@Table(name = "RECIPIENT_KEY_HINT")
+public class RecipientKeyHint implements Serializable {
+
+  @EmbeddedId
+  @AttributeOverride(
+      name = "hashBytes",
+      column = @Column(name = "HASH", nullable = false, unique = true, updatable = false))
+  private MessageHash hash;
+
+  @Lob
+  @Column(name = "RECIPIENT_KEY", nullable = false)
+  private byte[] recipientKey;
+
+  public RecipientKeyHint(final MessageHash hash, final byte[] recipientKey) {
+    this.hash = hash;
+    this.recipientKey = Arrays.copyOf(recipientKey, recipientKey.length);
+  }
+
+  public RecipientKeyHint() {}
+
+  public MessageHash getHash() {
+    return hash;
+  }
+
+  public void setHash(final MessageHash hash) {
+    this.hash = hash;
+  }
+
+  public byte[] getRecipientKey() {
+    return Arrays.copyOf(recipientKey, recipientKey.length);
+  }
+
+  public void setRecipientKey(final byte[] recipientKey) {
+    this.recipientKey = Arrays.copyOf(recipientKey, recipientKey.length);
+  }
+
+  @Override
+  public int hashCode() {
+    return 47 * 3 + Objects.hashCode(this.hash);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return (obj instanceof RecipientKeyHint)
+        && Objects.equals(this.hash, ((RecipientKeyHint) obj).hash);
+  }
+}
@@ -20,7 +20,8 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
   private final EntityManagerTemplate entityManagerTemplate;
 
   public EncryptedRawTransactionDAOImpl(EntityManagerFactory entityManagerFactory) {
-    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory);
+    this.entityManagerTemplate =
+        new EntityManagerTemplate(entityManagerFactory, "EncryptedRawTransactionDAO");
   }
 
   @Override
@@ -34,6 +35,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
         toHexString(entity.getSender()));
 
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(entity);
           return entity;
@@ -46,6 +48,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
 
     EncryptedRawTransaction encryptedRawTransaction =
         entityManagerTemplate.execute(
+            "retrieveByHash",
             entityManager -> entityManager.find(EncryptedRawTransaction.class, hash));
 
     return Optional.ofNullable(encryptedRawTransaction);
@@ -55,6 +58,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
   public void delete(final MessageHash hash) {
     LOGGER.info("Deleting transaction with hash {}", hash);
     entityManagerTemplate.execute(
+        "delete",
         entityManager -> {
           EncryptedRawTransaction txn = entityManager.find(EncryptedRawTransaction.class, hash);
           if (txn == null) {
@@ -75,6 +79,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
     // if query succeeds then DB is up and running (else get exception)
     try {
       return entityManagerTemplate.execute(
+          "upcheck",
           entityManager -> {
             Object result =
                 entityManager.createNamedQuery("EncryptedRawTransaction.Upcheck").getSingleResult();
@@ -90,6 +95,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
   public long transactionCount() {
     upcheck();
     return entityManagerTemplate.execute(
+        "transactionCount",
         entityManager -> {
           CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
 
@@ -107,6 +113,7 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
         offset,
         maxResult);
     return entityManagerTemplate.execute(
+        "retrieveTransactions",
         entityManager ->
             entityManager
                 .createNamedQuery("EncryptedRawTransaction.FindAll", EncryptedRawTransaction.class)
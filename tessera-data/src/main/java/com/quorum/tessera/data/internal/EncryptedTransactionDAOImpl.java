@@ -1,11 +1,16 @@
 package com.quorum.tessera.data.internal;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionCursor;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.EntityManagerTemplate;
 import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.RecipientKeyHint;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
 import javax.persistence.PersistenceException;
@@ -20,15 +25,26 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EncryptedTransactionDAOImpl.class);
 
+  private static final long HINT_TABLE_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
   private EntityManagerTemplate entityManagerTemplate;
 
+  // a database that has not run the add-recipient-key-hint script yet has no table for the hints
+  private volatile boolean hintTableFound;
+
+  private volatile long hintTableRetryAt;
+
+  private volatile boolean hintTableWarned;
+
   public EncryptedTransactionDAOImpl(EntityManagerFactory entityManagerFactory) {
-    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory);
+    this.entityManagerTemplate =
+        new EntityManagerTemplate(entityManagerFactory, "EncryptedTransactionDAO");
   }
 
   @Override
   public EncryptedTransaction save(final EncryptedTransaction entity) {
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(entity);
           LOGGER.debug("Stored transaction {}", entity.getHash());
@@ -39,8 +55,13 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
   @Override
   public EncryptedTransaction update(final EncryptedTransaction entity) {
     return entityManagerTemplate.execute(
+        "update",
         entityManager -> {
           entityManager.merge(entity);
+          // the updated payload may have its boxes in a different order, so the key may not fit
+          if (hintTableAvailable()) {
+            deleteRecipientKey(entityManager, entity.getHash());
+          }
           LOGGER.debug("Updated transaction {}", entity.getHash());
           return entity;
         });
@@ -50,6 +71,7 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
   public Optional<EncryptedTransaction> retrieveByHash(final MessageHash hash) {
     LOGGER.debug("Retrieving payload with hash {}", hash);
     return entityManagerTemplate.execute(
+        "retrieveByHash",
         entityManager ->
             entityManager
                 .createNamedQuery("EncryptedTransaction.FindByHash", EncryptedTransaction.class)
@@ -65,6 +87,7 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
         offset,
         maxResult);
     return entityManagerTemplate.execute(
+        "retrieveTransactions",
         entityManager ->
             entityManager
                 .createNamedQuery("EncryptedTransaction.FindAll", EncryptedTransaction.class)
@@ -73,9 +96,17 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
                 .getResultList());
   }
 
+  @Override
+  public Stream<EncryptedTransaction> streamTransactions(int pageSize) {
+    LOGGER.debug("Streaming EncryptedTransaction database rows {} at a time", pageSize);
+    return EncryptedTransactionCursor.stream(
+        pageSize, query -> entityManagerTemplate.execute("streamTransactions", query));
+  }
+
   @Override
   public long transactionCount() {
     return entityManagerTemplate.execute(
+        "transactionCount",
         entityManager -> {
           CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
 
@@ -92,6 +123,7 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
     LOGGER.info("Deleting transaction with hash {}", hash);
 
     entityManagerTemplate.execute(
+        "delete",
         entityManager -> {
           final EncryptedTransaction message =
               entityManager
@@ -102,6 +134,9 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
                   .orElseThrow(EntityNotFoundException::new);
 
           entityManager.remove(message);
+          if (hintTableAvailable()) {
+            deleteRecipientKey(entityManager, hash);
+          }
           return message;
         });
   }
@@ -110,6 +145,7 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
   public <T> EncryptedTransaction save(EncryptedTransaction transaction, Callable<T> consumer) {
 
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(transaction);
           try {
@@ -124,11 +160,84 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
         });
   }
 
+  @Override
+  public void saveRecipientKey(final MessageHash hash, final byte[] recipientKey) {
+    if (!hintTableAvailable()) {
+      return;
+    }
+    entityManagerTemplate.execute(
+        "saveRecipientKey",
+        entityManager -> {
+          entityManager.merge(new RecipientKeyHint(hash, recipientKey));
+          LOGGER.debug("Stored recipient key hint for transaction {}", hash);
+          return null;
+        });
+  }
+
+  @Override
+  public Optional<byte[]> findRecipientKey(final MessageHash hash) {
+    if (!hintTableAvailable()) {
+      return Optional.empty();
+    }
+    return entityManagerTemplate.execute(
+        "findRecipientKey",
+        entityManager ->
+            entityManager
+                .createNamedQuery("RecipientKeyHint.FindByHash", RecipientKeyHint.class)
+                .setParameter("hash", hash.getHashBytes())
+                .getResultStream()
+                .findAny()
+                .map(RecipientKeyHint::getRecipientKey));
+  }
+
+  private static void deleteRecipientKey(EntityManager entityManager, MessageHash hash) {
+    entityManager
+        .createNamedQuery("RecipientKeyHint.DeleteByHash")
+        .setParameter("hash", hash.getHashBytes())
+        .executeUpdate();
+  }
+
+  /**
+   * Checks, in a transaction of its own, whether the RECIPIENT_KEY_HINT table exists. A failed
+   * statement aborts the whole transaction on some databases, so the check can't be made as part of
+   * the operation that needs the table. Once found the table is assumed to stay, otherwise it is
+   * looked for again after a minute so that the hints are used as soon as the script has been run.
+   */
+  private boolean hintTableAvailable() {
+    if (hintTableFound) {
+      return true;
+    }
+    if (System.currentTimeMillis() < hintTableRetryAt) {
+      return false;
+    }
+    try {
+      entityManagerTemplate.execute(
+          entityManager ->
+              entityManager
+                  .createNamedQuery("RecipientKeyHint.FindByHash", RecipientKeyHint.class)
+                  .setParameter("hash", new byte[0])
+                  .getResultList());
+      hintTableFound = true;
+    } catch (final PersistenceException ex) {
+      hintTableRetryAt = System.currentTimeMillis() + HINT_TABLE_RETRY_MILLIS;
+      if (!hintTableWarned) {
+        hintTableWarned = true;
+        LOGGER.warn(
+            "Table RECIPIENT_KEY_HINT not found, so the recipient key of each transaction will be "
+                + "found by trying every key. Run the script in ddls/add-recipient-key-hint for "
+                + "this database to create it");
+      }
+      LOGGER.debug("Unable to query RECIPIENT_KEY_HINT", ex);
+    }
+    return hintTableFound;
+  }
+
   @Override
   public boolean upcheck() {
     // if query succeeds then DB is up and running (else get exception)
     try {
       return entityManagerTemplate.execute(
+          "upcheck",
           entityManager -> {
             Object result =
                 entityManager.createNamedQuery("EncryptedTransaction.Upcheck").getSingleResult();
@@ -147,6 +256,7 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
     }
 
     return entityManagerTemplate.execute(
+        "findByHashes",
         entityManager -> {
           CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
           CriteriaQuery<EncryptedTransaction> query =
@@ -15,12 +15,13 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   private EntityManagerTemplate entityManagerTemplate;
 
   public PrivacyGroupDAOImpl(EntityManagerFactory entityManagerFactory) {
-    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory);
+    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory, "PrivacyGroupDAO");
   }
 
   @Override
   public PrivacyGroupEntity save(PrivacyGroupEntity entity) {
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(entity);
           return entity;
@@ -30,6 +31,7 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public <T> PrivacyGroupEntity save(PrivacyGroupEntity entity, Callable<T> consumer) {
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(entity);
           try {
@@ -47,6 +49,7 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public PrivacyGroupEntity update(PrivacyGroupEntity entity) {
     return entityManagerTemplate.execute(
+        "update",
         entityManager -> {
           entityManager.merge(entity);
           return entity;
@@ -56,6 +59,7 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public <T> PrivacyGroupEntity update(PrivacyGroupEntity entity, Callable<T> consumer) {
     return entityManagerTemplate.execute(
+        "update",
         entityManager -> {
           entityManager.merge(entity);
           try {
@@ -73,6 +77,7 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public Optional<PrivacyGroupEntity> retrieve(byte[] id) {
     return entityManagerTemplate.execute(
+        "retrieve",
         entityManager ->
             entityManager
                 .createNamedQuery("PrivacyGroup.FindById", PrivacyGroupEntity.class)
@@ -84,12 +89,14 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public PrivacyGroupEntity retrieveOrSave(PrivacyGroupEntity entity) {
     return entityManagerTemplate.retrieveOrSave(
+        "retrieveOrSave",
         () -> retrieve(entity.getId()).orElse(null), () -> entity);
   }
 
   @Override
   public List<PrivacyGroupEntity> findByLookupId(byte[] lookupId) {
     return entityManagerTemplate.execute(
+        "findByLookupId",
         entityManager ->
             entityManager
                 .createNamedQuery("PrivacyGroup.FindByLookupId", PrivacyGroupEntity.class)
@@ -101,6 +108,7 @@ public class PrivacyGroupDAOImpl implements PrivacyGroupDAO {
   @Override
   public List<PrivacyGroupEntity> findAll() {
     return entityManagerTemplate.execute(
+        "findAll",
         em ->
             em.createNamedQuery("PrivacyGroup.FindAll", PrivacyGroupEntity.class).getResultList());
   }
@@ -0,0 +1,116 @@
+package com.quorum.tessera.data.internal;
+
+import com.quorum.tessera.data.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** A JPA implementation of {@link PushOutboxDAO} */
+public class PushOutboxDAOImpl implements PushOutboxDAO {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PushOutboxDAOImpl.class);
+
+  private final EntityManagerTemplate entityManagerTemplate;
+
+  public PushOutboxDAOImpl(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory, "PushOutboxDAO");
+  }
+
+  @Override
+  public EncryptedTransaction save(
+      final EncryptedTransaction transaction, final Collection<PushOutboxEntry> entries) {
+    return entityManagerTemplate.execute(
+        "save",
+        entityManager -> {
+          entityManager.persist(transaction);
+          entries.forEach(entityManager::persist);
+          LOGGER.debug(
+              "Stored transaction {} with {} outbox entries",
+              transaction.getHash(),
+              entries.size());
+          return transaction;
+        });
+  }
+
+  @Override
+  public List<PushOutboxEntry> claimDue(
+      final long now, final long leaseUntil, final int maxResult) {
+    return entityManagerTemplate.execute(
+        "claimDue",
+        entityManager -> {
+          final List<PushOutboxEntry> due =
+              entityManager
+                  .createNamedQuery("PushOutboxEntry.FindDue", PushOutboxEntry.class)
+                  .setParameter("now", now)
+                  .setMaxResults(maxResult)
+                  .getResultList();
+          entityManager.clear();
+
+          final List<PushOutboxEntry> claimed = new ArrayList<>();
+          for (final PushOutboxEntry entry : due) {
+            // another dispatcher may have claimed the entry since it was read
+            final int updated =
+                entityManager
+                    .createNamedQuery("PushOutboxEntry.Claim")
+                    .setParameter("leaseUntil", leaseUntil)
+                    .setParameter("hash", entry.getId().getHash())
+                    .setParameter("recipient", entry.getRecipient())
+                    .setParameter("nextAttempt", entry.getNextAttempt())
+                    .executeUpdate();
+            if (updated == 1) {
+              entry.setNextAttempt(leaseUntil);
+              claimed.add(entry);
+            }
+          }
+          return claimed;
+        });
+  }
+
+  @Override
+  public List<PushOutboxEntry> findByHash(final MessageHash hash) {
+    return entityManagerTemplate.execute(
+        "findByHash",
+        entityManager ->
+            entityManager
+                .createNamedQuery("PushOutboxEntry.FindByHash", PushOutboxEntry.class)
+                .setParameter("hash", hash.getHashBytes())
+                .getResultList());
+  }
+
+  @Override
+  public PushOutboxEntry update(final PushOutboxEntry entry) {
+    return entityManagerTemplate.execute(
+        "update",
+        entityManager -> {
+          entityManager.merge(entry);
+          return entry;
+        });
+  }
+
+  @Override
+  public void acknowledge(final PushOutboxEntry entry) {
+    entityManagerTemplate.execute(
+        "acknowledge",
+        entityManager -> {
+          final PushOutboxEntry found = entityManager.find(PushOutboxEntry.class, entry.getId());
+          if (found != null) {
+            entityManager.remove(found);
+          }
+          return found;
+        });
+  }
+
+  @Override
+  public long count() {
+    return entityManagerTemplate.execute(
+        "count",
+        entityManager ->
+            entityManager
+                .createNamedQuery("PushOutboxEntry.Count", Long.class)
+                .setParameter("deadLetter", PushOutboxEntry.DEAD_LETTER)
+                .getSingleResult());
+  }
+}
@@ -1,8 +1,11 @@
 package com.quorum.tessera.data.staging;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.Set;
 
 /** A data store for transactions that need to be retrieved later */
 public interface StagingEntityDAO {
@@ -15,6 +18,15 @@ public interface StagingEntityDAO {
    */
   StagingTransaction save(StagingTransaction entity);
 
+  /**
+   * Save a batch of new transactions in a single database transaction, so either all of them are
+   * stored or none are. All fields are required to be non-null on the entities
+   *
+   * @param entities The entities to be persisted
+   * @return The entities that were persisted
+   */
+  List<StagingTransaction> saveAll(List<StagingTransaction> entities);
+
   /**
    * Update an Encrypted Transaction All fields are required to be non-null on the entity
    *
@@ -59,6 +71,32 @@ public interface StagingEntityDAO {
    */
   int updateStageForBatch(int batchSize, long validationStage);
 
+  /**
+   * Retrieves the hashes of the transactions that have not been staged yet, each with the hashes of
+   * the transactions it affects. The versions of a transaction are merged, so a transaction
+   * affects every hash that any of its versions does. Payloads are not loaded.
+   *
+   * @return the affected hashes, keyed by the hash of the transaction that affects them
+   */
+  Map<String, Set<String>> retrieveUnstagedDependencies();
+
+  /**
+   * Finds which of the given hashes belong to transactions that have already been staged
+   *
+   * @param hashes the hashes to look for
+   * @return the hashes that have a staged transaction
+   */
+  Set<String> retrieveStagedHashes(Collection<String> hashes);
+
+  /**
+   * Sets the validation stage of every unstaged version of the given transactions
+   *
+   * @param hashes the hashes of the transactions to update
+   * @param validationStage the stage to set
+   * @return number of records that have been updated
+   */
+  int updateStageForHashes(Collection<String> hashes, long validationStage);
+
   static StagingEntityDAO create() {
     return ServiceLoader.load(StagingEntityDAO.class).findFirst().get();
   }
@@ -21,6 +21,19 @@ import javax.persistence.*;
               + "    (select act from StagingAffectedTransaction act  where act.sourceTransaction.hash = st.hash and  "
               + "        (select coalesce(sum(CASE WHEN ast.validationStage is Null THEN 1 else 0 END), 1) from StagingTransaction ast where ast.hash = act.hash) > 0"
               + "    )"),
+  @NamedQuery(
+      name = "StagingTransaction.findUnstagedDependencies",
+      query =
+          "select st.hash, act.hash from StagingTransaction st left join st.affectedContractTransactions act "
+              + "where st.validationStage is null"),
+  @NamedQuery(
+      name = "StagingTransaction.findStagedHashes",
+      query =
+          "select distinct st.hash from StagingTransaction st where st.validationStage is not null and st.hash in :hashes"),
+  @NamedQuery(
+      name = "StagingTransaction.updateStageForHashes",
+      query =
+          "update StagingTransaction st set st.validationStage = :stage where st.validationStage is null and st.hash in :hashes"),
   @NamedQuery(
       name = "StagingTransaction.countAll",
       query = "select count(st) from StagingTransaction st"),
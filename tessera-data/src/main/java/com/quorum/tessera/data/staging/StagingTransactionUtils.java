@@ -4,6 +4,7 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadDigest;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -12,17 +13,37 @@ public class StagingTransactionUtils {
 
   private final PayloadDigest payloadDigest;
 
-  private StagingTransactionUtils(PayloadDigest payloadDigest) {
+  private final PayloadEncoder payloadEncoder;
+
+  private StagingTransactionUtils(PayloadDigest payloadDigest, PayloadEncoder payloadEncoder) {
     this.payloadDigest = Objects.requireNonNull(payloadDigest);
+    this.payloadEncoder = Objects.requireNonNull(payloadEncoder);
+  }
+
+  private static StagingTransactionUtils create() {
+    return new StagingTransactionUtils(PayloadDigest.create(), PayloadEncoder.create());
   }
 
   public static StagingTransaction fromRawPayload(byte[] rawPayload) {
-    PayloadDigest payloadDigest = PayloadDigest.create();
-    return new StagingTransactionUtils(payloadDigest).createFromRawPayload(rawPayload);
+    return create().createFromRawPayload(rawPayload);
+  }
+
+  /**
+   * Converts a batch of raw payloads, looking up the digest and encoder once for the whole batch
+   * rather than once per payload
+   *
+   * @param rawPayloads the encoded payloads to convert
+   * @return the staging transactions, in the same order as the payloads
+   */
+  public static List<StagingTransaction> fromRawPayloads(List<byte[]> rawPayloads) {
+    final StagingTransactionUtils stagingTransactionUtils = create();
+    return rawPayloads.stream()
+        .map(stagingTransactionUtils::createFromRawPayload)
+        .collect(Collectors.toList());
   }
 
   private StagingTransaction createFromRawPayload(byte[] rawPayload) {
-    final EncodedPayload encodedPayload = PayloadEncoder.create().decode(rawPayload);
+    final EncodedPayload encodedPayload = payloadEncoder.decode(rawPayload);
     final byte[] messageHashData = payloadDigest.digest(encodedPayload.getCipherText());
     final String messageHash = Base64.getEncoder().encodeToString(messageHashData);
 
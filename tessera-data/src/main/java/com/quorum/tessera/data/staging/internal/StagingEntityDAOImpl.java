@@ -3,8 +3,14 @@ package com.quorum.tessera.data.staging.internal;
 import com.quorum.tessera.data.EntityManagerTemplate;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.data.staging.StagingTransaction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -17,15 +23,20 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StagingEntityDAOImpl.class);
 
+  /** Some databases limit how many values an IN clause may hold */
+  private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
   private EntityManagerTemplate entityManagerTemplate;
 
   public StagingEntityDAOImpl(EntityManagerFactory entityManagerFactory) {
-    this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory);
+    this.entityManagerTemplate =
+        new EntityManagerTemplate(entityManagerFactory, "StagingEntityDAO");
   }
 
   @Override
   public StagingTransaction save(final StagingTransaction entity) {
     return entityManagerTemplate.execute(
+        "save",
         entityManager -> {
           entityManager.persist(entity);
 
@@ -35,10 +46,24 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
         });
   }
 
+  @Override
+  public List<StagingTransaction> saveAll(final List<StagingTransaction> entities) {
+    return entityManagerTemplate.execute(
+        "saveAll",
+        entityManager -> {
+          entities.forEach(entityManager::persist);
+
+          LOGGER.debug("Persisting batch of {} StagingTransaction entities", entities.size());
+
+          return entities;
+        });
+  }
+
   @Override
   public StagingTransaction update(StagingTransaction entity) {
 
     return entityManagerTemplate.execute(
+        "update",
         entityManager -> {
           entityManager.merge(entity);
 
@@ -51,6 +76,7 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
   @Override
   public Optional<StagingTransaction> retrieveByHash(final String hash) {
     return entityManagerTemplate.execute(
+        "retrieveByHash",
         entityManager -> {
           LOGGER.debug("Retrieving payload with hash {}", hash);
 
@@ -72,6 +98,7 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
         maxResults);
 
     return entityManagerTemplate.execute(
+        "retrieveTransactionBatchOrderByStageAndHash",
         em ->
             em.createNamedQuery("StagingTransaction.findAllOrderByStage", StagingTransaction.class)
                 .setFirstResult(offset)
@@ -82,12 +109,14 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
   @Override
   public long countAll() {
     return entityManagerTemplate.execute(
+        "countAll",
         em -> em.createNamedQuery("StagingTransaction.countAll", Long.class).getSingleResult());
   }
 
   @Override
   public long countStaged() {
     return entityManagerTemplate.execute(
+        "countStaged",
         em -> em.createNamedQuery("StagingTransaction.countStaged", Long.class).getSingleResult());
   }
 
@@ -95,6 +124,7 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
   public int updateStageForBatch(int batchSize, long validationStage) {
 
     return entityManagerTemplate.execute(
+        "updateStageForBatch",
         entityManager -> {
           List<StagingTransaction> resultList =
               entityManager
@@ -107,4 +137,75 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
           return resultList.size();
         });
   }
+
+  @Override
+  public Map<String, Set<String>> retrieveUnstagedDependencies() {
+    return entityManagerTemplate.execute(
+        "retrieveUnstagedDependencies",
+        entityManager -> {
+          final Map<String, Set<String>> dependencies = new HashMap<>();
+          entityManager
+              .createNamedQuery("StagingTransaction.findUnstagedDependencies", Object[].class)
+              .getResultStream()
+              .forEach(
+                  row -> {
+                    final Set<String> affected =
+                        dependencies.computeIfAbsent((String) row[0], hash -> new HashSet<>());
+                    if (row[1] != null) {
+                      affected.add((String) row[1]);
+                    }
+                  });
+
+          LOGGER.debug("Found {} unstaged transactions", dependencies.size());
+
+          return dependencies;
+        });
+  }
+
+  @Override
+  public Set<String> retrieveStagedHashes(final Collection<String> hashes) {
+    return entityManagerTemplate.execute(
+        "retrieveStagedHashes",
+        entityManager -> {
+          final Set<String> staged = new HashSet<>();
+          for (final List<String> chunk : partition(hashes)) {
+            staged.addAll(
+                entityManager
+                    .createNamedQuery("StagingTransaction.findStagedHashes", String.class)
+                    .setParameter("hashes", chunk)
+                    .getResultList());
+          }
+          return staged;
+        });
+  }
+
+  @Override
+  public int updateStageForHashes(final Collection<String> hashes, final long validationStage) {
+    return entityManagerTemplate.execute(
+        "updateStageForHashes",
+        entityManager -> {
+          int updated = 0;
+          for (final List<String> chunk : partition(hashes)) {
+            updated +=
+                entityManager
+                    .createNamedQuery("StagingTransaction.updateStageForHashes")
+                    .setParameter("stage", validationStage)
+                    .setParameter("hashes", chunk)
+                    .executeUpdate();
+          }
+
+          LOGGER.debug("Set validation stage {} on {} rows", validationStage, updated);
+
+          return updated;
+        });
+  }
+
+  private static List<List<String>> partition(final Collection<String> hashes) {
+    final List<String> all = List.copyOf(hashes);
+    final List<List<String>> chunks = new ArrayList<>();
+    for (int from = 0; from < all.size(); from += MAX_IN_CLAUSE_SIZE) {
+      chunks.add(all.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, all.size())));
+    }
+    return chunks;
+  }
 }
@@ -38,6 +38,11 @@ public class StagingEntityDAOProvider {
 
     properties.put(
         "eclipselink.session.customizer", "com.quorum.tessera.eclipselink.AtomicLongSequence");
+
+    // rows of a pushed batch are saved together, so send their inserts to the database in batches
+    // too; ids come from the in-memory sequence and need no round trip between inserts
+    properties.put("eclipselink.jdbc.batch-writing", "JDBC");
+    properties.put("eclipselink.jdbc.batch-writing.size", "500");
     properties.put("javax.persistence.schema-generation.database.action", "drop-and-create");
 
     LOGGER.debug("Creating EntityManagerFactory from {}", properties);
@@ -24,6 +24,7 @@ open module tessera.data {
   uses com.quorum.tessera.data.staging.StagingEntityDAO;
   uses com.quorum.tessera.data.DataSourceFactory;
   uses com.quorum.tessera.data.PrivacyGroupDAO;
+  uses com.quorum.tessera.data.PushOutboxDAO;
 
   provides com.quorum.tessera.data.EncryptedTransactionDAO with
       com.quorum.tessera.data.internal.EncryptedTransactionDAOProvider;
@@ -33,6 +34,8 @@ open module tessera.data {
       com.quorum.tessera.data.staging.internal.StagingEntityDAOProvider;
   provides com.quorum.tessera.data.PrivacyGroupDAO with
       com.quorum.tessera.data.internal.PrivacyGroupDAOProvider;
+  provides com.quorum.tessera.data.PushOutboxDAO with
+      com.quorum.tessera.data.internal.PushOutboxDAOProvider;
   provides com.quorum.tessera.data.DataSourceFactory with
       com.quorum.tessera.data.internal.DataSourceFactoryProvider;
 }
@@ -53,6 +53,7 @@ public class EncryptedTransactionDAOTest {
     EntityManager entityManager = entityManagerFactory.createEntityManager();
     entityManager.getTransaction().begin();
     entityManager.createQuery("delete from EncryptedTransaction").executeUpdate();
+    entityManager.createQuery("delete from RecipientKeyHint").executeUpdate();
     entityManager.getTransaction().commit();
   }
 
@@ -191,6 +192,66 @@ public class EncryptedTransactionDAOTest {
     assertThat(retrievedList).hasSameElementsAs(payloads);
   }
 
+  @Test
+  public void streamTransactionsReturnsAllInOrderAcrossPages() {
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    entityManager.getTransaction().begin();
+    IntStream.range(0, 50)
+        .mapToObj(i -> UUID.randomUUID().toString().getBytes())
+        .map(MessageHash::new)
+        .map(hash -> new EncryptedTransaction(hash, hash.getHashBytes()))
+        .forEach(entityManager::persist);
+    entityManager.getTransaction().commit();
+
+    final List<EncryptedTransaction> expected =
+        encryptedTransactionDAO.retrieveTransactions(0, Integer.MAX_VALUE);
+
+    final List<EncryptedTransaction> streamed =
+        encryptedTransactionDAO.streamTransactions(7).collect(Collectors.toList());
+
+    assertThat(streamed).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void streamTransactionsReturnsTransactionsWithoutTimestampFirst() {
+
+    final List<MessageHash> withoutTimestamp =
+        IntStream.range(0, 5)
+            .mapToObj(i -> new MessageHash(UUID.randomUUID().toString().getBytes()))
+            .collect(Collectors.toList());
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    entityManager.getTransaction().begin();
+    withoutTimestamp.forEach(
+        hash ->
+            entityManager
+                .createNativeQuery(
+                    "INSERT INTO ENCRYPTED_TRANSACTION (HASH, ENCODED_PAYLOAD) VALUES (?1, ?2)")
+                .setParameter(1, hash.getHashBytes())
+                .setParameter(2, hash.getHashBytes())
+                .executeUpdate());
+    IntStream.range(0, 5)
+        .mapToObj(i -> new MessageHash(UUID.randomUUID().toString().getBytes()))
+        .map(hash -> new EncryptedTransaction(hash, hash.getHashBytes()))
+        .forEach(entityManager::persist);
+    entityManager.getTransaction().commit();
+
+    final List<MessageHash> streamed =
+        encryptedTransactionDAO
+            .streamTransactions(2)
+            .map(EncryptedTransaction::getHash)
+            .collect(Collectors.toList());
+
+    assertThat(streamed).hasSize(10).doesNotHaveDuplicates();
+    assertThat(streamed.subList(0, 5)).containsExactlyInAnyOrderElementsOf(withoutTimestamp);
+  }
+
+  @Test
+  public void streamTransactionsOfEmptyTable() {
+    assertThat(encryptedTransactionDAO.streamTransactions(10)).isEmpty();
+  }
+
   @Test
   public void deleteTransactionRemovesFromDatabaseAndReturnsTrue() {
 
@@ -418,6 +479,68 @@ public class EncryptedTransactionDAOTest {
     }
   }
 
+  @Test
+  public void saveAndFindRecipientKey() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    encryptedTransactionDAO.save(new EncryptedTransaction(hash, "PAYLOAD".getBytes()));
+
+    assertThat(encryptedTransactionDAO.findRecipientKey(hash)).isEmpty();
+
+    encryptedTransactionDAO.saveRecipientKey(hash, "KEY".getBytes());
+    assertThat(encryptedTransactionDAO.findRecipientKey(hash)).contains("KEY".getBytes());
+
+    encryptedTransactionDAO.saveRecipientKey(hash, "OTHERKEY".getBytes());
+    assertThat(encryptedTransactionDAO.findRecipientKey(hash)).contains("OTHERKEY".getBytes());
+  }
+
+  @Test
+  public void updateDiscardsRecipientKey() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "PAYLOAD".getBytes());
+    encryptedTransactionDAO.save(transaction);
+    encryptedTransactionDAO.saveRecipientKey(hash, "KEY".getBytes());
+
+    transaction.setEncodedPayload("UPDATED".getBytes());
+    encryptedTransactionDAO.update(transaction);
+
+    assertThat(encryptedTransactionDAO.findRecipientKey(hash)).isEmpty();
+  }
+
+  @Test
+  public void deleteDiscardsRecipientKey() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    encryptedTransactionDAO.save(new EncryptedTransaction(hash, "PAYLOAD".getBytes()));
+    encryptedTransactionDAO.saveRecipientKey(hash, "KEY".getBytes());
+
+    encryptedTransactionDAO.delete(hash);
+
+    assertThat(encryptedTransactionDAO.findRecipientKey(hash)).isEmpty();
+  }
+
+  @Test
+  public void recipientKeysAreSkippedWhenHintTableIsMissing() {
+    EntityManagerFactory mockEntityManagerFactory = mock(EntityManagerFactory.class);
+    EntityManager mockEntityManager = mock(EntityManager.class);
+    when(mockEntityManagerFactory.createEntityManager()).thenReturn(mockEntityManager);
+    when(mockEntityManager.getTransaction()).thenReturn(mock(EntityTransaction.class));
+    when(mockEntityManager.createNamedQuery("RecipientKeyHint.FindByHash", RecipientKeyHint.class))
+        .thenThrow(new PersistenceException("Table RECIPIENT_KEY_HINT not found"));
+
+    EncryptedTransactionDAO dao = new EncryptedTransactionDAOImpl(mockEntityManagerFactory);
+    MessageHash hash = new MessageHash(new byte[] {1});
+
+    dao.saveRecipientKey(hash, new byte[] {2});
+    assertThat(dao.findRecipientKey(hash)).isEmpty();
+    dao.update(new EncryptedTransaction(hash, new byte[] {3}));
+
+    // the table is only looked for once a minute
+    verify(mockEntityManager)
+        .createNamedQuery("RecipientKeyHint.FindByHash", RecipientKeyHint.class);
+    verify(mockEntityManager).merge(any(EncryptedTransaction.class));
+    verify(mockEntityManager, never()).merge(any(RecipientKeyHint.class));
+    verify(mockEntityManager, never()).createNamedQuery("RecipientKeyHint.DeleteByHash");
+  }
+
   @Test
   public void upcheckReturnsTrue() {
     assertThat(encryptedTransactionDAO.upcheck());
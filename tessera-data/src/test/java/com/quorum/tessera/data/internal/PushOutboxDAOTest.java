@@ -0,0 +1,166 @@
+package com.quorum.tessera.data.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.data.*;
+import java.util.*;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class PushOutboxDAOTest {
+
+  private PushOutboxDAO pushOutboxDAO;
+
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
+  private TestConfig testConfig;
+
+  private EntityManager entityManager;
+
+  public PushOutboxDAOTest(TestConfig testConfig) {
+    this.testConfig = testConfig;
+  }
+
+  @Before
+  public void onSetUp() {
+
+    Map properties = new HashMap();
+    properties.put("javax.persistence.jdbc.url", testConfig.getUrl());
+    properties.put("javax.persistence.jdbc.user", "junit");
+    properties.put("javax.persistence.jdbc.password", "");
+    properties.put(
+        "eclipselink.logging.logger", "org.eclipse.persistence.logging.slf4j.SLF4JLogger");
+    properties.put("eclipselink.logging.level", "FINE");
+    properties.put("eclipselink.logging.parameters", "true");
+    properties.put("eclipselink.logging.level.sql", "FINE");
+    properties.put("eclipselink.cache.shared.default", "false");
+    properties.put("javax.persistence.schema-generation.database.action", "create");
+
+    EntityManagerFactory entityManagerFactory =
+        Persistence.createEntityManagerFactory("tessera", properties);
+    pushOutboxDAO = new PushOutboxDAOImpl(entityManagerFactory);
+    encryptedTransactionDAO = new EncryptedTransactionDAOImpl(entityManagerFactory);
+    entityManager = entityManagerFactory.createEntityManager();
+  }
+
+  @After
+  public void onTearDown() {
+    entityManager.getTransaction().begin();
+    entityManager.createQuery("delete from PushOutboxEntry").executeUpdate();
+    entityManager.createQuery("delete from EncryptedTransaction").executeUpdate();
+    entityManager.getTransaction().commit();
+    entityManager.close();
+  }
+
+  @Test
+  public void saveStoresTransactionAndEntries() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, "DATA".getBytes());
+
+    pushOutboxDAO.save(
+        transaction,
+        List.of(
+            new PushOutboxEntry(hash, "RECIPIENT1".getBytes()),
+            new PushOutboxEntry(hash, "RECIPIENT2".getBytes())));
+
+    assertThat(encryptedTransactionDAO.retrieveByHash(hash)).isPresent();
+    assertThat(pushOutboxDAO.count()).isEqualTo(2);
+    assertThat(pushOutboxDAO.findByHash(hash))
+        .extracting(PushOutboxEntry::getRecipient)
+        .containsExactlyInAnyOrder("RECIPIENT1".getBytes(), "RECIPIENT2".getBytes());
+  }
+
+  @Test
+  public void claimDueOnlyReturnsEntriesWhoseAttemptIsDue() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final long now = System.currentTimeMillis();
+
+    final PushOutboxEntry due = new PushOutboxEntry(hash, "DUE".getBytes());
+    due.setNextAttempt(now - 1000L);
+    final PushOutboxEntry later = new PushOutboxEntry(hash, "LATER".getBytes());
+    later.setNextAttempt(now + 60000L);
+
+    pushOutboxDAO.save(new EncryptedTransaction(hash, "DATA".getBytes()), List.of(due, later));
+
+    final List<PushOutboxEntry> result = pushOutboxDAO.claimDue(now, now + 30000L, 10);
+    assertThat(result).containsExactly(due);
+  }
+
+  @Test
+  public void claimedEntriesAreNotDueUntilTheLeaseEnds() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final long now = System.currentTimeMillis();
+
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, "RECIPIENT".getBytes());
+    entry.setNextAttempt(now - 1000L);
+    pushOutboxDAO.save(new EncryptedTransaction(hash, "DATA".getBytes()), List.of(entry));
+
+    final List<PushOutboxEntry> claimed = pushOutboxDAO.claimDue(now, now + 30000L, 10);
+    assertThat(claimed).hasSize(1);
+    assertThat(claimed.get(0).getNextAttempt()).isEqualTo(now + 30000L);
+
+    assertThat(pushOutboxDAO.claimDue(now, now + 30000L, 10)).isEmpty();
+    assertThat(pushOutboxDAO.findByHash(hash).get(0).getNextAttempt()).isEqualTo(now + 30000L);
+    assertThat(pushOutboxDAO.claimDue(now + 30000L, now + 60000L, 10)).hasSize(1);
+  }
+
+  @Test
+  public void updateReschedulesEntry() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, "RECIPIENT".getBytes());
+    pushOutboxDAO.save(new EncryptedTransaction(hash, "DATA".getBytes()), List.of(entry));
+
+    entry.setAttempts(2);
+    entry.setNextAttempt(Long.MAX_VALUE);
+    pushOutboxDAO.update(entry);
+
+    final long now = System.currentTimeMillis();
+    assertThat(pushOutboxDAO.claimDue(now, now + 30000L, 10)).isEmpty();
+    final PushOutboxEntry result = pushOutboxDAO.findByHash(hash).get(0);
+    assertThat(result.getAttempts()).isEqualTo(2);
+  }
+
+  @Test
+  public void deadLetteredEntriesAreNeitherDueNorPending() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, "RECIPIENT".getBytes());
+    final PushOutboxEntry other = new PushOutboxEntry(hash, "OTHER".getBytes());
+    pushOutboxDAO.save(new EncryptedTransaction(hash, "DATA".getBytes()), List.of(entry, other));
+
+    entry.setNextAttempt(PushOutboxEntry.DEAD_LETTER);
+    pushOutboxDAO.update(entry);
+
+    final long now = System.currentTimeMillis();
+    assertThat(pushOutboxDAO.count()).isEqualTo(1);
+    assertThat(pushOutboxDAO.claimDue(now, now + 30000L, 10)).containsExactly(other);
+    assertThat(pushOutboxDAO.findByHash(hash))
+        .filteredOn(PushOutboxEntry::isDeadLettered)
+        .containsExactly(entry);
+  }
+
+  @Test
+  public void acknowledgeRemovesEntry() {
+    final MessageHash hash = new MessageHash("HASH".getBytes());
+    final PushOutboxEntry entry = new PushOutboxEntry(hash, "RECIPIENT".getBytes());
+    pushOutboxDAO.save(new EncryptedTransaction(hash, "DATA".getBytes()), List.of(entry));
+
+    pushOutboxDAO.acknowledge(entry);
+    assertThat(pushOutboxDAO.count()).isZero();
+
+    // acknowledging twice is harmless
+    pushOutboxDAO.acknowledge(entry);
+    assertThat(pushOutboxDAO.count()).isZero();
+  }
+
+  @Parameterized.Parameters(name = "DB {0}")
+  public static Collection<TestConfig> connectionDetails() {
+    return List.of(TestConfig.values());
+  }
+}
@@ -103,6 +103,37 @@ public class StagingTransactionUtilsTest {
             });
   }
 
+  @Test
+  public void testFromRawPayloads() {
+
+    final List<byte[]> raw = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      raw.add(
+          encoder.encode(
+              EncodedPayload.Builder.create()
+                  .withSenderKey(sender)
+                  .withCipherText(("cipherText" + i).getBytes())
+                  .withCipherTextNonce(new Nonce("nonce".getBytes()))
+                  .withRecipientBoxes(List.of("box1".getBytes()))
+                  .withRecipientNonce(new Nonce("recipientNonce".getBytes()))
+                  .withRecipientKeys(List.of(recipient1))
+                  .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+                  .build()));
+    }
+
+    final List<StagingTransaction> results = StagingTransactionUtils.fromRawPayloads(raw);
+
+    assertThat(results).extracting(StagingTransaction::getPayload).containsExactlyElementsOf(raw);
+    for (int i = 0; i < 3; i++) {
+      assertThat(results.get(i).getHash())
+          .isEqualTo(
+              Base64.getEncoder()
+                  .encodeToString(payloadDigest.digest(("cipherText" + i).getBytes())));
+      assertThat(results.get(i).getPrivacyMode()).isEqualTo(PrivacyMode.STANDARD_PRIVATE);
+      assertThat(results.get(i).getAffectedContractTransactions()).isEmpty();
+    }
+  }
+
   @Parameterized.Parameters(name = "{0}")
   public static List<ClientMode> configs() {
     return List.of(ClientMode.values());
@@ -264,6 +264,93 @@ public class StagingEntityDAOTest {
     retrieved.getAffectedContractTransactions().forEach(a -> assertThat(a.getId()).isNotNull());
   }
 
+  @Test
+  public void testSaveAll() {
+
+    final List<StagingTransaction> stagingTransactions =
+        Stream.generate(Utils::createHashStr)
+            .limit(3)
+            .map(
+                txHash -> {
+                  final StagingTransaction stagingTransaction = new StagingTransaction();
+                  stagingTransaction.setHash(txHash);
+                  stagingTransaction.setPrivacyMode(PrivacyMode.STANDARD_PRIVATE);
+
+                  final StagingAffectedTransaction affected = new StagingAffectedTransaction();
+                  affected.setSourceTransaction(stagingTransaction);
+                  affected.setHash("affected");
+                  stagingTransaction.getAffectedContractTransactions().add(affected);
+                  return stagingTransaction;
+                })
+            .collect(Collectors.toList());
+
+    stagingEntityDAO.saveAll(stagingTransactions);
+
+    assertThat(stagingEntityDAO.countAll()).isEqualTo(10);
+
+    stagingTransactions.forEach(
+        stagingTransaction -> {
+          final StagingTransaction retrieved =
+              stagingEntityDAO.retrieveByHash(stagingTransaction.getHash()).get();
+          assertThat(retrieved.getId()).isNotNull();
+          assertThat(retrieved.getAffectedContractTransactions())
+              .singleElement()
+              .extracting(StagingAffectedTransaction::getHash)
+              .isEqualTo("affected");
+        });
+  }
+
+  @Test
+  public void retrieveUnstagedDependencies() {
+    final String txnHash1 = transactions.get("TXN1").getHash();
+    final String txnHash3 = transactions.get("TXN3").getHash();
+    final String txnHash4 = transactions.get("TXN4").getHash();
+
+    final Map<String, Set<String>> dependencies = stagingEntityDAO.retrieveUnstagedDependencies();
+
+    // both versions of TXN2 are merged
+    assertThat(dependencies).hasSize(6);
+    assertThat(dependencies.get(txnHash1)).isEmpty();
+    assertThat(dependencies.get(transactions.get("TXN2A").getHash())).containsOnly(txnHash1);
+    assertThat(dependencies.get(txnHash3)).containsOnly(txnHash1);
+    assertThat(dependencies.get(txnHash4)).containsOnly(txnHash3);
+    assertThat(dependencies.get(transactions.get("TXN5").getHash())).hasSize(1);
+    assertThat(dependencies.get(transactions.get("TXN7").getHash()))
+        .containsOnly(txnHash1, txnHash4);
+  }
+
+  @Test
+  public void updateStageForHashes() {
+    final String txnHash1 = transactions.get("TXN1").getHash();
+    final String txnHash2 = transactions.get("TXN2A").getHash();
+    final String txnHash3 = transactions.get("TXN3").getHash();
+
+    final int updated = stagingEntityDAO.updateStageForHashes(List.of(txnHash1, txnHash2), 1L);
+
+    assertThat(updated).isEqualTo(3);
+    assertThat(stagingEntityDAO.countStaged()).isEqualTo(3);
+    assertThat(stagingEntityDAO.retrieveStagedHashes(List.of(txnHash1, txnHash3)))
+        .containsOnly(txnHash1);
+    assertThat(stagingEntityDAO.retrieveUnstagedDependencies())
+        .hasSize(4)
+        .doesNotContainKeys(txnHash1, txnHash2);
+
+    // rows already staged keep their stage
+    assertThat(stagingEntityDAO.updateStageForHashes(List.of(txnHash1), 2L)).isZero();
+  }
+
+  @Test
+  public void retrieveStagedHashesWithMoreHashesThanFitInOneQuery() {
+    final String txnHash1 = transactions.get("TXN1").getHash();
+    stagingEntityDAO.updateStageForHashes(List.of(txnHash1), 1L);
+
+    final List<String> hashes =
+        Stream.concat(Stream.generate(Utils::createHashStr).limit(2500), Stream.of(txnHash1))
+            .collect(Collectors.toList());
+
+    assertThat(stagingEntityDAO.retrieveStagedHashes(hashes)).containsOnly(txnHash1);
+  }
+
   public Map<String, StagingTransaction> createFixtures() {
 
     final EntityManager entityManager = entityManagerFactory.createEntityManager();
@@ -7,6 +7,7 @@ import com.quorum.tessera.config.ConfigException;
 import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.config.cli.PicoCliDelegate;
 import com.quorum.tessera.context.RuntimeContext;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.privacygroup.ResidentGroupHandler;
@@ -73,42 +74,97 @@ public class Main {
       ConfigFactory.create().store(config);
       LOGGER.debug("Stored config {}", config);
 
-      LOGGER.debug("Creating enclave");
-      final Enclave enclave = Enclave.create();
-      LOGGER.debug("Created enclave {}", enclave);
+      // stages that don't depend on each other, such as unlocking the keys of the enclave and
+      // bootstrapping the database, are run at the same time
+      final StartupGraph startup =
+          new StartupGraph()
+              .add(
+                  "enclave",
+                  () -> {
+                    LOGGER.debug("Creating enclave");
+                    final Enclave enclave = Enclave.create();
+                    LOGGER.debug("Created enclave {}", enclave);
+                  })
+              .add(
+                  "database",
+                  () -> {
+                    LOGGER.debug("Creating EntityManagerFactory");
+                    final boolean upcheck = EncryptedTransactionDAO.create().upcheck();
+                    LOGGER.debug("Created EntityManagerFactory, database upcheck {}", upcheck);
+                  })
+              .add(
+                  "runtimeContext",
+                  () -> {
+                    LOGGER.debug("Creating RuntimeContext");
+                    final RuntimeContext runtimeContext = RuntimeContext.getInstance();
+                    LOGGER.debug("Created RuntimeContext {}", runtimeContext);
+                  },
+                  "enclave")
+              .add(
+                  "discovery",
+                  () -> {
+                    LOGGER.debug("Creating Discovery");
+                    Discovery discovery = Discovery.create();
+                    discovery.onCreate();
+                    LOGGER.debug("Created Discovery {}", discovery);
+                  },
+                  "runtimeContext")
+              .add(
+                  "residentGroupHandler",
+                  () -> {
+                    if (RuntimeContext.getInstance().isMultiplePrivateStates()) {
+                      LOGGER.debug("Creating ResidentGroupHandler");
+                      ResidentGroupHandler residentGroupHandler = ResidentGroupHandler.create();
+                      residentGroupHandler.onCreate(config);
+                      LOGGER.debug("Created ResidentGroupHandler {}", residentGroupHandler);
+                    }
+                  },
+                  "discovery",
+                  "database")
+              .add(
+                  "encodedPayloadManager",
+                  () -> {
+                    LOGGER.debug("Creating EncodedPayloadManager");
+                    EncodedPayloadManager.create();
+                    LOGGER.debug("Created EncodedPayloadManager");
+                  },
+                  "discovery",
+                  "database")
+              .add(
+                  "batchResendManager",
+                  () -> {
+                    LOGGER.debug("Creating BatchResendManager");
+                    BatchResendManager.create();
+                    LOGGER.debug("Created BatchResendManager");
+                  },
+                  "discovery",
+                  "database")
+              .add(
+                  "transactionManager",
+                  () -> {
+                    LOGGER.debug("Creating txn manager");
+                    TransactionManager.create();
+                    LOGGER.debug("Created txn manager");
+                  },
+                  "discovery",
+                  "database")
+              .add(
+                  "scheduledServices",
+                  () -> {
+                    LOGGER.debug("Creating ScheduledServiceFactory");
+                    ScheduledServiceFactory scheduledServiceFactory =
+                        ScheduledServiceFactory.fromConfig(config);
+                    scheduledServiceFactory.build();
+                    LOGGER.debug("Created ScheduledServiceFactory");
+                  },
+                  "residentGroupHandler",
+                  "encodedPayloadManager",
+                  "batchResendManager",
+                  "transactionManager");
+
+      startup.run();
 
-      LOGGER.debug("Creating RuntimeContext");
       final RuntimeContext runtimeContext = RuntimeContext.getInstance();
-      LOGGER.debug("Created RuntimeContext {}", runtimeContext);
-
-      LOGGER.debug("Creating Discovery");
-      Discovery discovery = Discovery.create();
-      discovery.onCreate();
-      LOGGER.debug("Created Discovery {}", discovery);
-
-      if (runtimeContext.isMultiplePrivateStates()) {
-        LOGGER.debug("Creating ResidentGroupHandler");
-        ResidentGroupHandler residentGroupHandler = ResidentGroupHandler.create();
-        residentGroupHandler.onCreate(config);
-        LOGGER.debug("Created ResidentGroupHandler {}", residentGroupHandler);
-      }
-
-      LOGGER.debug("Creating EncodedPayloadManager");
-      EncodedPayloadManager.create();
-      LOGGER.debug("Created EncodedPayloadManager");
-
-      LOGGER.debug("Creating BatchResendManager");
-      BatchResendManager.create();
-      LOGGER.debug("Created BatchResendManager");
-
-      LOGGER.debug("Creating txn manager");
-      TransactionManager.create();
-      LOGGER.debug("Created txn manager");
-
-      LOGGER.debug("Creating ScheduledServiceFactory");
-      ScheduledServiceFactory scheduledServiceFactory = ScheduledServiceFactory.fromConfig(config);
-      scheduledServiceFactory.build();
-      LOGGER.debug("Created ScheduledServiceFactory");
 
       LOGGER.debug("Creating Launcher");
       Launcher.create(runtimeContext.isRecoveryMode()).launchServer(config);
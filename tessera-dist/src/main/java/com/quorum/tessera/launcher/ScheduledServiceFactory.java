@@ -11,6 +11,8 @@ import com.quorum.tessera.p2p.resend.TransactionRequester;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.service.ServiceContainer;
 import com.quorum.tessera.threading.TesseraScheduledExecutor;
+import com.quorum.tessera.transaction.publish.PushDeliveryMode;
+import com.quorum.tessera.transaction.publish.PushOutbox;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ServiceLoader;
@@ -91,6 +93,19 @@ public class ScheduledServiceFactory {
             intervalPropertyHelper.partyInfoInterval(),
             5000L));
 
+    if (PushDeliveryMode.from(config.getP2PServerConfig().getProperties()).isOutbox()) {
+      LOGGER.info("Creating PushOutbox dispatcher");
+      PushOutbox pushOutbox = PushOutbox.create();
+      LOGGER.info("Created PushOutbox dispatcher {}", pushOutbox);
+
+      tesseraScheduledExecutors.add(
+          new TesseraScheduledExecutor(
+              java.util.concurrent.Executors.newSingleThreadScheduledExecutor(),
+              pushOutbox,
+              intervalPropertyHelper.outboxDispatchInterval(),
+              5000L));
+    }
+
     tesseraScheduledExecutors.forEach(TesseraScheduledExecutor::start);
 
     LOGGER.info("Creating Enclave");
@@ -0,0 +1,198 @@
+package com.quorum.tessera.launcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The stages of starting a node and the stages each of them depends on. Each stage is run as soon
+ * as the stages it depends on have finished, so stages that don't depend on each other run at the
+ * same time. When a stage fails the stages depending on it are not run, and the failure is thrown
+ * from {@link #run()} once the stages already running have finished.
+ *
+ * <p>Many of the services created at startup are kept in holders that are not thread safe, so a
+ * stage must depend on every stage creating a service that it uses, directly or not.
+ */
+public class StartupGraph {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StartupGraph.class);
+
+  @FunctionalInterface
+  public interface Stage {
+    void run() throws Exception;
+  }
+
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+  private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+  private final List<Timing> timeline = new ArrayList<>();
+
+  /**
+   * Adds a stage to the graph. The stages it depends on must have been added already, which keeps
+   * the graph free of cycles.
+   *
+   * @param name the name of the stage, as shown in the startup timeline
+   * @param stage the work of the stage
+   * @param dependsOn the names of the stages that must finish before this one starts
+   * @return this graph
+   */
+  public StartupGraph add(final String name, final Stage stage, final String... dependsOn) {
+    Objects.requireNonNull(name);
+    Objects.requireNonNull(stage);
+    if (stages.containsKey(name)) {
+      throw new IllegalArgumentException("Startup stage " + name + " has already been added");
+    }
+    for (final String dependency : dependsOn) {
+      if (!stages.containsKey(dependency)) {
+        throw new IllegalArgumentException(
+            "Startup stage " + name + " depends on unknown stage " + dependency);
+      }
+    }
+    stages.put(name, stage);
+    dependencies.put(name, List.of(dependsOn));
+    return this;
+  }
+
+  /**
+   * Runs every stage, returning once all of them have finished
+   *
+   * @throws Exception the failure of the first stage that failed
+   */
+  public void run() throws Exception {
+    if (stages.isEmpty()) {
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(stages.size());
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final long start = System.nanoTime();
+
+    final Map<String, CompletableFuture<Void>> running = new LinkedHashMap<>();
+    try {
+      stages.forEach(
+          (name, stage) -> {
+            final CompletableFuture<?>[] before =
+                dependencies.get(name).stream()
+                    .map(running::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            running.put(
+                name,
+                CompletableFuture.allOf(before)
+                    .thenRunAsync(() -> runStage(name, stage, start, failure), executor));
+          });
+
+      try {
+        CompletableFuture.allOf(running.values().toArray(CompletableFuture<?>[]::new)).join();
+      } catch (final CompletionException ex) {
+        final Throwable cause = failure.get() != null ? failure.get() : ex.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw ex;
+      }
+    } finally {
+      executor.shutdownNow();
+      LOGGER.info(
+          "Startup stages finished in {}ms: {}",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          getTimeline().stream().map(Timing::toString).collect(Collectors.joining(", ")));
+    }
+  }
+
+  /** @return the stages that have run so far, in the order they started */
+  public List<Timing> getTimeline() {
+    synchronized (timeline) {
+      return timeline.stream()
+          .sorted(Comparator.comparingLong(Timing::getStartedAt))
+          .collect(Collectors.toUnmodifiableList());
+    }
+  }
+
+  private void runStage(
+      final String name,
+      final Stage stage,
+      final long graphStart,
+      final AtomicReference<Throwable> failure) {
+    final long start = System.nanoTime();
+    LOGGER.debug("Starting stage {}", name);
+    boolean succeeded = false;
+    try {
+      stage.run();
+      succeeded = true;
+    } catch (final Throwable ex) {
+      failure.compareAndSet(null, ex);
+      throw new CompletionException(ex);
+    } finally {
+      final Timing timing =
+          new Timing(
+              name,
+              TimeUnit.NANOSECONDS.toMillis(start - graphStart),
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+              succeeded);
+      synchronized (timeline) {
+        timeline.add(timing);
+      }
+      LOGGER.info("Startup stage {}", timing);
+    }
+  }
+
+  /** When a stage started, relative to the start of the graph, and how long it ran for */
+  public static final class Timing {
+
+    private final String name;
+
+    private final long startedAt;
+
+    private final long duration;
+
+    private final boolean succeeded;
+
+    private Timing(
+        final String name, final long startedAt, final long duration, final boolean succeeded) {
+      this.name = name;
+      this.startedAt = startedAt;
+      this.duration = duration;
+      this.succeeded = succeeded;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** @return the milliseconds between the start of the graph and the start of the stage */
+    public long getStartedAt() {
+      return startedAt;
+    }
+
+    /** @return the milliseconds the stage ran for */
+    public long getDuration() {
+      return duration;
+    }
+
+    public boolean isSucceeded() {
+      return succeeded;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s at +%dms took %dms%s", name, startedAt, duration, succeeded ? "" : " (failed)");
+    }
+  }
+}
@@ -11,6 +11,7 @@ module tessera.application {
   requires tessera.server.jersey;
   requires tessera.server.api;
   requires tessera.context;
+  requires tessera.data;
   requires tessera.transaction;
   requires tessera.partyinfo;
   requires tessera.shared;
@@ -27,4 +28,5 @@ module tessera.application {
   uses com.quorum.tessera.server.TesseraServerFactory;
   uses com.quorum.tessera.context.RuntimeContext;
   uses com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+  uses com.quorum.tessera.transaction.publish.PushOutbox;
 }
@@ -0,0 +1,122 @@
+package com.quorum.tessera.launcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class StartupGraphTest {
+
+  @Test
+  public void independentStagesRunAtTheSameTime() throws Exception {
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    final StartupGraph.Stage stage =
+        () -> {
+          bothStarted.countDown();
+          bothStarted.await(5, TimeUnit.SECONDS);
+        };
+
+    final StartupGraph startupGraph = new StartupGraph().add("one", stage).add("two", stage);
+    startupGraph.run();
+
+    assertThat(bothStarted.getCount()).isZero();
+    assertThat(startupGraph.getTimeline())
+        .extracting(StartupGraph.Timing::getName)
+        .containsExactlyInAnyOrder("one", "two");
+  }
+
+  @Test
+  public void stageRunsAfterTheStagesItDependsOn() throws Exception {
+    final List<String> finished = new CopyOnWriteArrayList<>();
+
+    final StartupGraph startupGraph =
+        new StartupGraph()
+            .add(
+                "slow",
+                () -> {
+                  Thread.sleep(50);
+                  finished.add("slow");
+                })
+            .add("fast", () -> finished.add("fast"))
+            .add("last", () -> finished.add("last"), "slow", "fast");
+    startupGraph.run();
+
+    assertThat(finished).hasSize(3).endsWith("last");
+    assertThat(startupGraph.getTimeline())
+        .allMatch(StartupGraph.Timing::isSucceeded)
+        .last()
+        .extracting(StartupGraph.Timing::getName)
+        .isEqualTo("last");
+  }
+
+  @Test
+  public void failureOfStageIsThrownAndItsDependentsAreNotRun() {
+    final IllegalStateException failure = new IllegalStateException("no keys");
+    final List<String> finished = new CopyOnWriteArrayList<>();
+
+    final StartupGraph startupGraph =
+        new StartupGraph()
+            .add(
+                "failing",
+                () -> {
+                  throw failure;
+                })
+            .add("independent", () -> finished.add("independent"))
+            .add("dependent", () -> finished.add("dependent"), "failing");
+
+    final Throwable throwable = catchThrowable(startupGraph::run);
+
+    assertThat(throwable).isSameAs(failure);
+    assertThat(finished).containsExactly("independent");
+    assertThat(startupGraph.getTimeline())
+        .filteredOn(timing -> timing.getName().equals("failing"))
+        .singleElement()
+        .matches(timing -> !timing.isSucceeded());
+  }
+
+  @Test
+  public void checkedExceptionIsThrownAsItIs() {
+    final Exception failure = new Exception("checked");
+
+    final StartupGraph startupGraph =
+        new StartupGraph()
+            .add(
+                "failing",
+                () -> {
+                  throw failure;
+                });
+
+    assertThat(catchThrowable(startupGraph::run)).isSameAs(failure);
+  }
+
+  @Test
+  public void dependencyMustBeAddedFirst() {
+    final Throwable throwable =
+        catchThrowable(() -> new StartupGraph().add("stage", () -> {}, "unknown"));
+
+    assertThat(throwable)
+        .isExactlyInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Startup stage stage depends on unknown stage unknown");
+  }
+
+  @Test
+  public void stageCannotBeAddedTwice() {
+    final StartupGraph startupGraph = new StartupGraph().add("stage", () -> {});
+
+    final Throwable throwable = catchThrowable(() -> startupGraph.add("stage", () -> {}));
+
+    assertThat(throwable).isExactlyInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void emptyGraphRuns() throws Exception {
+    final StartupGraph startupGraph = new StartupGraph();
+    startupGraph.run();
+
+    assertThat(startupGraph.getTimeline()).isEmpty();
+  }
+}
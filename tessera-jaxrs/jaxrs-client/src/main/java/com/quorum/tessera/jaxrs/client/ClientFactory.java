@@ -14,6 +14,7 @@ import javax.net.ssl.SSLContext;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.Configuration;
+import org.glassfish.jersey.client.ClientConfig;
 
 /**
  * Creates HTTP clients that can make requests
@@ -58,6 +59,9 @@ public class ClientFactory implements RestClientFactory {
    * Creates a new client, which may or may not be SSL enabled or a unix socket enabled depending on
    * the configuration.
    *
+   * <p>If the server's {@code jettyClient.enabled} property is set, requests are sent over a pool
+   * of kept-alive connections, see {@link JettyConnectorConfig} for its settings.
+   *
    * @param config
    * @return
    * @see Client
@@ -66,6 +70,13 @@ public class ClientFactory implements RestClientFactory {
 
     final ClientBuilder clientBuilder = ClientBuilder.newBuilder();
 
+    final JettyConnectorConfig jettyConnectorConfig =
+        new JettyConnectorConfig(config.getProperties());
+    if (jettyConnectorConfig.isEnabled() && !config.isUnixSocket()) {
+      clientBuilder.withConfig(
+          new ClientConfig().connectorProvider(new JettyConnectorProvider(jettyConnectorConfig)));
+    }
+
     final long pollInterval =
         new IntervalPropertyHelper(config.getProperties()).partyInfoInterval();
     final long timeout = Math.round(Math.ceil(pollInterval * 0.75));
@@ -0,0 +1,297 @@
+package com.quorum.tessera.jaxrs.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.Response;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.client.util.BytesContentProvider;
+import org.eclipse.jetty.client.util.FutureResponseListener;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.Statuses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends requests with Jetty's {@link HttpClient}, which keeps a pool of open connections to each
+ * peer and reuses them, rather than opening (and for TLS, handshaking) a connection per request.
+ *
+ * <p>Each peer gets at most a set number of connections, requests beyond that wait in a queue of
+ * their own, and connections that have been idle for a while are closed. Response bodies are read
+ * in full before being handed back, so a connection returns to the pool as soon as its response
+ * has arrived, whether or not the caller reads or closes it.
+ *
+ * <p>With HTTP/2 turned on, requests to a peer are multiplexed over a single connection, negotiated
+ * with ALPN over TLS or sent as h2c otherwise. A peer that has never answered over HTTP/2 and fails
+ * to is then only sent HTTP/1.1 for a while. The failed request itself is only sent again over
+ * HTTP/1.1 if none of it was sent over HTTP/2, as when ALPN finds no common protocol, or if it is
+ * idempotent, as a peer may have acted on a POST whose response was lost.
+ */
+class JettyConnector implements Connector {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JettyConnector.class);
+
+  private static final Set<String> IDEMPOTENT_METHODS =
+      Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+  private final HttpClient httpClient;
+
+  private final HttpClient http2Client;
+
+  private final JettyConnectorConfig config;
+
+  private final long defaultTimeout;
+
+  private final Set<String> http2Peers = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Long> http1PeersUntil = new ConcurrentHashMap<>();
+
+  JettyConnector(
+      final JettyConnectorConfig config,
+      final SSLContext sslContext,
+      final long connectTimeout,
+      final long readTimeout) {
+    this.config = config;
+    this.defaultTimeout = readTimeout;
+
+    this.httpClient =
+        start(
+            new HttpClient(new HttpClientTransportOverHTTP(), sslContextFactory(sslContext)),
+            "jetty-http-client",
+            connectTimeout);
+
+    if (config.isHttp2()) {
+      this.http2Client =
+          start(
+              new HttpClient(
+                  new HttpClientTransportOverHTTP2(new HTTP2Client()),
+                  sslContextFactory(sslContext)),
+              "jetty-http2-client",
+              connectTimeout);
+    } else {
+      this.http2Client = null;
+    }
+  }
+
+  private static SslContextFactory.Client sslContextFactory(final SSLContext sslContext) {
+    final SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
+    sslContextFactory.setSslContext(sslContext);
+    return sslContextFactory;
+  }
+
+  private HttpClient start(
+      final HttpClient client, final String threadName, final long connectTimeout) {
+    final QueuedThreadPool threadPool = new QueuedThreadPool();
+    threadPool.setName(threadName);
+    threadPool.setDaemon(true);
+
+    client.setExecutor(threadPool);
+    client.setMaxConnectionsPerDestination(config.maxConnectionsPerDestination());
+    client.setMaxRequestsQueuedPerDestination(config.maxRequestsQueuedPerDestination());
+    client.setIdleTimeout(config.idleTimeout());
+    client.setRemoveIdleDestinations(true);
+    if (connectTimeout > 0) {
+      client.setConnectTimeout(connectTimeout);
+    }
+    // bodies are passed on as sent, as the default connector does
+    client.getContentDecoderFactories().clear();
+
+    try {
+      client.start();
+    } catch (Exception ex) {
+      throw new ProcessingException(ex);
+    }
+    return client;
+  }
+
+  @Override
+  public ClientResponse apply(final ClientRequest request) {
+    try {
+      return doApply(request);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException(ex);
+    } catch (ExecutionException ex) {
+      throw new ProcessingException(ex.getCause());
+    } catch (ProcessingException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new ProcessingException(ex);
+    }
+  }
+
+  private ClientResponse doApply(final ClientRequest request) throws Exception {
+
+    final byte[] entity;
+    if (request.hasEntity()) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      request.setStreamProvider(contentLength -> out);
+      request.writeEntity();
+      entity = out.toByteArray();
+    } else {
+      entity = null;
+    }
+
+    final URI uri = request.getUri();
+    final String peer = uri.getScheme() + "://" + uri.getRawAuthority();
+
+    if (!useHttp2(peer)) {
+      return send(httpClient, request, entity, new AtomicBoolean());
+    }
+
+    final AtomicBoolean committed = new AtomicBoolean();
+    try {
+      final ClientResponse response = send(http2Client, request, entity, committed);
+      http2Peers.add(peer);
+      return response;
+    } catch (ExecutionException ex) {
+      // a peer that has spoken HTTP/2 before, or was just slow, gets HTTP/1.1 from the next request
+      if (http2Peers.remove(peer) || ex.getCause() instanceof TimeoutException) {
+        throw ex;
+      }
+      if (committed.get() && !IDEMPOTENT_METHODS.contains(request.getMethod())) {
+        LOGGER.info("{} does not support HTTP/2, using HTTP/1.1 from the next request", peer);
+        http1PeersUntil.put(peer, System.currentTimeMillis() + config.http1Fallback());
+        throw ex;
+      }
+      LOGGER.debug("HTTP/2 request to {} failed, trying HTTP/1.1", peer, ex.getCause());
+      final ClientResponse response = send(httpClient, request, entity, new AtomicBoolean());
+      LOGGER.info("{} does not support HTTP/2, using HTTP/1.1", peer);
+      http1PeersUntil.put(peer, System.currentTimeMillis() + config.http1Fallback());
+      return response;
+    }
+  }
+
+  private boolean useHttp2(final String peer) {
+    if (http2Client == null) {
+      return false;
+    }
+    final Long until = http1PeersUntil.get(peer);
+    if (until == null) {
+      return true;
+    }
+    if (until < System.currentTimeMillis()) {
+      http1PeersUntil.remove(peer, until);
+      return true;
+    }
+    return false;
+  }
+
+  // committed is set once the request has started to be written to the peer
+  private ClientResponse send(
+      final HttpClient client,
+      final ClientRequest request,
+      final byte[] entity,
+      final AtomicBoolean committed)
+      throws InterruptedException, ExecutionException {
+
+    final URI uri = request.getUri();
+    final Request jettyRequest =
+        client
+            .newRequest(uri)
+            .method(request.getMethod())
+            .onRequestCommit(r -> committed.set(true));
+
+    final long timeout = config.requestTimeout(uri.getRawPath(), defaultTimeout);
+    if (timeout > 0) {
+      jettyRequest.timeout(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    if (entity != null) {
+      jettyRequest.content(new BytesContentProvider(entity));
+    }
+
+    // copied after the entity is written, as writing it may add headers
+    request
+        .getStringHeaders()
+        .forEach(
+            (name, values) -> {
+              if (!HttpHeader.CONTENT_LENGTH.is(name)) {
+                values.forEach(value -> jettyRequest.header(name, value));
+              }
+            });
+
+    if (!config.isKeepAlive() && client == httpClient) {
+      jettyRequest.header(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+    }
+
+    final FutureResponseListener listener =
+        new FutureResponseListener(jettyRequest, config.maxResponseSize());
+    jettyRequest.send(listener);
+    final ContentResponse contentResponse = listener.get();
+
+    LOGGER.trace(
+        "uri {}, method: {}, version: {}, status: {}",
+        uri,
+        request.getMethod(),
+        contentResponse.getVersion(),
+        contentResponse.getStatus());
+
+    final Response.StatusType status =
+        Statuses.from(contentResponse.getStatus(), contentResponse.getReason());
+
+    final ClientResponse response = new ClientResponse(status, request);
+    contentResponse
+        .getHeaders()
+        .forEach(field -> response.header(field.getName(), field.getValue()));
+    response.setEntityStream(new ByteArrayInputStream(contentResponse.getContent()));
+
+    return response;
+  }
+
+  @Override
+  public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+
+    try {
+      callback.response(apply(request));
+    } catch (Throwable t) {
+      callback.failure(t);
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public String getName() {
+    return "Jetty HttpClient " + HttpClient.class.getPackage().getImplementationVersion();
+  }
+
+  @Override
+  public void close() {
+    stop(httpClient);
+    if (http2Client != null) {
+      stop(http2Client);
+    }
+  }
+
+  private static void stop(final HttpClient client) {
+    try {
+      client.stop();
+    } catch (Exception ex) {
+      LOGGER.debug("Unable to stop http client", ex);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.quorum.tessera.jaxrs.client;
+
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Settings of the pooled {@link JettyConnector}, read from the properties of the server the client
+ * talks to.
+ *
+ * <p>The connector is used when {@code jettyClient.enabled} is {@code true}, or when HTTP/2 is
+ * turned on with {@code http2.enabled}. All timeouts are in milliseconds; a request timeout that
+ * isn't set falls back to the client's read timeout.
+ */
+class JettyConnectorConfig {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JettyConnectorConfig.class);
+
+  static final String PREFIX = "jettyClient.";
+
+  private final Map<String, String> properties;
+
+  JettyConnectorConfig(final Map<String, String> properties) {
+    this.properties = Objects.requireNonNull(properties);
+  }
+
+  boolean isEnabled() {
+    return Boolean.parseBoolean(properties.getOrDefault(PREFIX + "enabled", "false"))
+        || isHttp2();
+  }
+
+  /** @return whether to talk HTTP/2 to peers that support it, the same setting as the server's */
+  boolean isHttp2() {
+    return Boolean.parseBoolean(properties.getOrDefault("http2.enabled", "false"));
+  }
+
+  /** @return how long a peer found not to speak HTTP/2 is sent HTTP/1.1 before trying again */
+  long http1Fallback() {
+    return positive("http1Fallback", 600000L);
+  }
+
+  /** @return the most connections kept open to any one peer */
+  int maxConnectionsPerDestination() {
+    return (int) positive("maxConnectionsPerDestination", 64);
+  }
+
+  /** @return the most requests to any one peer waiting for a connection */
+  int maxRequestsQueuedPerDestination() {
+    return (int) positive("maxRequestsQueuedPerDestination", 1024);
+  }
+
+  /** @return how long a pooled connection may be idle before it is closed */
+  long idleTimeout() {
+    return positive("idleTimeout", 30000L);
+  }
+
+  /** @return whether connections are kept open and reused once a request is done */
+  boolean isKeepAlive() {
+    return Boolean.parseBoolean(properties.getOrDefault(PREFIX + "keepAlive", "true"));
+  }
+
+  /** @return the largest response body that will be read, in bytes */
+  int maxResponseSize() {
+    return (int) positive("maxResponseSize", 256L * 1024 * 1024);
+  }
+
+  /**
+   * The time allowed for a request to a path, from being queued to the response being read.
+   * Requests to push, partyinfo and resend endpoints each have their own setting.
+   *
+   * @param path the path of the request
+   * @param defaultTimeout the timeout to use if the path has no setting of its own
+   * @return the timeout for the request, 0 for none
+   */
+  long requestTimeout(final String path, final long defaultTimeout) {
+    final String setting = timeoutSetting(path);
+    if (setting == null) {
+      return defaultTimeout;
+    }
+    return positive(setting, defaultTimeout);
+  }
+
+  private static String timeoutSetting(final String path) {
+    if (path == null) {
+      return null;
+    }
+    for (final String segment : path.split("/")) {
+      if (segment.startsWith("push")) {
+        return "pushTimeout";
+      }
+      if (segment.startsWith("partyinfo")) {
+        return "partyInfoTimeout";
+      }
+      if (segment.startsWith("resend")) {
+        return "resendTimeout";
+      }
+    }
+    return null;
+  }
+
+  private long positive(final String setting, final long defaultValue) {
+    final String value = properties.get(PREFIX + setting);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      final long parsed = Long.parseLong(value.trim());
+      if (parsed > 0 && parsed <= Integer.MAX_VALUE) {
+        return parsed;
+      }
+    } catch (NumberFormatException ex) {
+      LOGGER.debug(null, ex);
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead", setting);
+    return defaultValue;
+  }
+}
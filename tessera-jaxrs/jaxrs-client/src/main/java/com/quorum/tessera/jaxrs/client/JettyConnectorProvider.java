@@ -0,0 +1,29 @@
+package com.quorum.tessera.jaxrs.client;
+
+import java.util.Objects;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Configuration;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+class JettyConnectorProvider implements ConnectorProvider {
+
+  private final JettyConnectorConfig config;
+
+  JettyConnectorProvider(final JettyConnectorConfig config) {
+    this.config = Objects.requireNonNull(config);
+  }
+
+  @Override
+  public Connector getConnector(final Client client, final Configuration runtimeConfig) {
+    final long connectTimeout =
+        ClientProperties.getValue(
+            runtimeConfig.getProperties(), ClientProperties.CONNECT_TIMEOUT, 0, Integer.class);
+    final long readTimeout =
+        ClientProperties.getValue(
+            runtimeConfig.getProperties(), ClientProperties.READ_TIMEOUT, 0, Integer.class);
+
+    return new JettyConnector(config, client.getSslContext(), connectTimeout, readTimeout);
+  }
+}
@@ -1,5 +1,13 @@
 module tessera.jaxrs.client {
   requires java.ws.rs;
+  requires jersey.client;
+  requires jersey.common;
+  requires org.eclipse.jetty.client;
+  requires org.eclipse.jetty.http;
+  requires org.eclipse.jetty.http2.client;
+  requires org.eclipse.jetty.http2.client.http;
+  requires org.eclipse.jetty.util;
+  requires org.slf4j;
   requires tessera.config;
   requires tessera.security;
   requires tessera.shared;
@@ -93,6 +93,22 @@ public class ClientFactoryTest {
         .isEqualTo("com.quorum.tessera.jaxrs.unixsocket.JerseyUnixSocketConnectorProvider");
   }
 
+  @Test
+  public void createPooledClient() {
+
+    ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.isSsl()).thenReturn(false);
+    when(serverConfig.getProperties()).thenReturn(Map.of("jettyClient.enabled", "true"));
+
+    org.glassfish.jersey.client.JerseyClient result =
+        (org.glassfish.jersey.client.JerseyClient) factory.buildFrom(serverConfig);
+
+    assertThat(result.getConfiguration().getConnectorProvider())
+        .isInstanceOf(JettyConnectorProvider.class);
+    assertThat(result.getConfiguration().getProperty(ClientProperties.READ_TIMEOUT))
+        .isEqualTo(3750);
+  }
+
   @Test
   public void createDefaultInstance() {
     ClientFactory clientFactory = new ClientFactory();
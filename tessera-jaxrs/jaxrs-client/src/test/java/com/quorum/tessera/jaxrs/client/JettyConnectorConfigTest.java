@@ -0,0 +1,88 @@
+package com.quorum.tessera.jaxrs.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class JettyConnectorConfigTest {
+
+  @Test
+  public void defaults() {
+    final JettyConnectorConfig config = new JettyConnectorConfig(Map.of());
+
+    assertThat(config.isEnabled()).isFalse();
+    assertThat(config.isHttp2()).isFalse();
+    assertThat(config.http1Fallback()).isEqualTo(600000L);
+    assertThat(config.isKeepAlive()).isTrue();
+    assertThat(config.maxConnectionsPerDestination()).isEqualTo(64);
+    assertThat(config.maxRequestsQueuedPerDestination()).isEqualTo(1024);
+    assertThat(config.idleTimeout()).isEqualTo(30000L);
+    assertThat(config.maxResponseSize()).isEqualTo(256 * 1024 * 1024);
+    assertThat(config.requestTimeout("/push", 15000L)).isEqualTo(15000L);
+  }
+
+  @Test
+  public void configuredValues() {
+    final JettyConnectorConfig config =
+        new JettyConnectorConfig(
+            Map.of(
+                "jettyClient.enabled", "true",
+                "jettyClient.keepAlive", "false",
+                "jettyClient.maxConnectionsPerDestination", "8",
+                "jettyClient.maxRequestsQueuedPerDestination", "16",
+                "jettyClient.idleTimeout", "1000",
+                "jettyClient.maxResponseSize", "2048"));
+
+    assertThat(config.isEnabled()).isTrue();
+    assertThat(config.isKeepAlive()).isFalse();
+    assertThat(config.maxConnectionsPerDestination()).isEqualTo(8);
+    assertThat(config.maxRequestsQueuedPerDestination()).isEqualTo(16);
+    assertThat(config.idleTimeout()).isEqualTo(1000L);
+    assertThat(config.maxResponseSize()).isEqualTo(2048);
+  }
+
+  @Test
+  public void http2EnablesConnector() {
+    final JettyConnectorConfig config =
+        new JettyConnectorConfig(
+            Map.of("http2.enabled", "true", "jettyClient.http1Fallback", "5000"));
+
+    assertThat(config.isHttp2()).isTrue();
+    assertThat(config.isEnabled()).isTrue();
+    assertThat(config.http1Fallback()).isEqualTo(5000L);
+  }
+
+  @Test
+  public void invalidValuesUseDefaults() {
+    final JettyConnectorConfig config =
+        new JettyConnectorConfig(
+            Map.of(
+                "jettyClient.maxConnectionsPerDestination", "lots",
+                "jettyClient.idleTimeout", "-1",
+                "jettyClient.maxResponseSize", "9999999999"));
+
+    assertThat(config.maxConnectionsPerDestination()).isEqualTo(64);
+    assertThat(config.idleTimeout()).isEqualTo(30000L);
+    assertThat(config.maxResponseSize()).isEqualTo(256 * 1024 * 1024);
+  }
+
+  @Test
+  public void requestTimeoutsArePerEndpoint() {
+    final JettyConnectorConfig config =
+        new JettyConnectorConfig(
+            Map.of(
+                "jettyClient.pushTimeout", "1000",
+                "jettyClient.partyInfoTimeout", "2000",
+                "jettyClient.resendTimeout", "3000"));
+
+    assertThat(config.requestTimeout("/push", 500L)).isEqualTo(1000L);
+    assertThat(config.requestTimeout("/pushBatch", 500L)).isEqualTo(1000L);
+    assertThat(config.requestTimeout("/partyinfo", 500L)).isEqualTo(2000L);
+    assertThat(config.requestTimeout("/partyinfo/validate", 500L)).isEqualTo(2000L);
+    assertThat(config.requestTimeout("/resend", 500L)).isEqualTo(3000L);
+    assertThat(config.requestTimeout("/resendBatch", 500L)).isEqualTo(3000L);
+    assertThat(config.requestTimeout("/upcheck", 500L)).isEqualTo(500L);
+    assertThat(config.requestTimeout(null, 500L)).isEqualTo(500L);
+  }
+}
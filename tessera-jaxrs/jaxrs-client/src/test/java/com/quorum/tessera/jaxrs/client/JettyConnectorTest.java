@@ -0,0 +1,280 @@
+package com.quorum.tessera.jaxrs.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.glassfish.jersey.client.ClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JettyConnectorTest {
+
+  private ServerSocket server;
+
+  private URI serverUri;
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+  private final List<String> requestLines = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void onSetUp() throws IOException {
+    server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    serverUri = URI.create("http://localhost:" + server.getLocalPort());
+
+    final Thread acceptor =
+        new Thread(
+            () -> {
+              while (!server.isClosed()) {
+                try {
+                  final Socket socket = server.accept();
+                  clientPorts.add(socket.getPort());
+                  final Thread connection = new Thread(() -> serve(socket));
+                  connection.setDaemon(true);
+                  connection.start();
+                } catch (IOException ex) {
+                  return;
+                }
+              }
+            });
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  @After
+  public void onTearDown() throws IOException {
+    server.close();
+  }
+
+  /** Answers each request on the connection with its own body, until the client closes it */
+  private void serve(final Socket socket) {
+    try (socket;
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream()) {
+      while (true) {
+        final String requestLine = readLine(in);
+        if (requestLine == null || requestLine.isEmpty()) {
+          return;
+        }
+        requestLines.add(requestLine);
+        int contentLength = 0;
+        boolean close = false;
+        for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+          final String header = line.toLowerCase(Locale.ROOT);
+          if (header.startsWith("content-length:")) {
+            contentLength = Integer.parseInt(header.substring(15).trim());
+          } else if (header.startsWith("connection:") && header.contains("close")) {
+            close = true;
+          }
+        }
+        final byte[] body = in.readNBytes(contentLength);
+
+        final String[] parts = requestLine.split(" ");
+        if (parts[1].startsWith("/slow")) {
+          sleep(1000);
+        }
+        // lets an HTTP/2 client send its request before finding out this isn't an HTTP/2 server
+        if (parts[0].equals("PRI")) {
+          sleep(200);
+        }
+
+        final String headers =
+            "HTTP/1.1 201 Created\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "X-Method: "
+                + parts[0]
+                + "\r\n"
+                + "Date-Like: Tue, 01 Jun 2021 10:00:00 GMT\r\n"
+                + "Content-Length: "
+                + body.length
+                + "\r\n"
+                + (close ? "Connection: close\r\n" : "")
+                + "\r\n";
+        out.write(headers.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+        if (close) {
+          return;
+        }
+      }
+    } catch (IOException ex) {
+      // the client went away
+    }
+  }
+
+  private static String readLine(final InputStream in) throws IOException {
+    final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    for (int b = in.read(); b != '\n'; b = in.read()) {
+      if (b == -1) {
+        return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+      }
+      if (b != '\r') {
+        line.write(b);
+      }
+    }
+    return line.toString(StandardCharsets.US_ASCII);
+  }
+
+  private Client client(Map<String, String> properties) {
+    return ClientBuilder.newBuilder()
+        .withConfig(
+            new ClientConfig()
+                .connectorProvider(
+                    new JettyConnectorProvider(new JettyConnectorConfig(properties))))
+        .build();
+  }
+
+  @Test
+  public void sendsRequestAndReadsResponse() {
+    final Client client = client(Map.of());
+
+    final Response response =
+        client
+            .target(serverUri)
+            .path("push")
+            .request()
+            .post(Entity.entity("HELLO", MediaType.TEXT_PLAIN));
+
+    assertThat(response.getStatus()).isEqualTo(201);
+    assertThat(response.getHeaderString("X-Method")).isEqualTo("POST");
+    assertThat(response.getHeaderString("Date-Like")).isEqualTo("Tue, 01 Jun 2021 10:00:00 GMT");
+    assertThat(response.readEntity(String.class)).isEqualTo("HELLO");
+
+    client.close();
+  }
+
+  @Test
+  public void reusesConnectionsEvenIfResponsesAreNotClosed() {
+    final Client client = client(Map.of("jettyClient.maxConnectionsPerDestination", "1"));
+
+    for (int i = 0; i < 5; i++) {
+      final Response response = client.target(serverUri).path("partyinfo").request().get();
+      assertThat(response.getStatus()).isEqualTo(201);
+    }
+
+    assertThat(clientPorts).hasSize(1);
+
+    client.close();
+  }
+
+  @Test
+  public void closesConnectionsWithoutKeepAlive() {
+    final Client client = client(Map.of("jettyClient.keepAlive", "false"));
+
+    List.of("a", "b", "c")
+        .forEach(
+            path -> {
+              try (Response response = client.target(serverUri).path(path).request().get()) {
+                assertThat(response.getStatus()).isEqualTo(201);
+              }
+            });
+
+    assertThat(clientPorts).hasSize(3);
+
+    client.close();
+  }
+
+  @Test
+  public void fallsBackToHttp1ForPeerWithoutHttp2() {
+    final Client client =
+        client(Map.of("http2.enabled", "true", "jettyClient.maxConnectionsPerDestination", "1"));
+
+    for (int i = 0; i < 3; i++) {
+      final Response response = client.target(serverUri).path("partyinfo").request().get();
+      assertThat(response.getStatus()).isEqualTo(201);
+      assertThat(response.getHeaderString("X-Method")).isEqualTo("GET");
+    }
+
+    // one connection for the failed HTTP/2 attempt, then one reused for every HTTP/1.1 request
+    assertThat(clientPorts).hasSize(2);
+    assertThat(requestLines).filteredOn(line -> line.startsWith("GET ")).hasSize(3);
+
+    client.close();
+  }
+
+  @Test
+  public void postSentOverHttp2IsNotResentOverHttp1() {
+    final Client client = client(Map.of("http2.enabled", "true"));
+
+    final Throwable ex =
+        catchThrowable(
+            () ->
+                client
+                    .target(serverUri)
+                    .path("push")
+                    .request()
+                    .post(Entity.entity("HELLO", MediaType.TEXT_PLAIN)));
+
+    assertThat(ex).isInstanceOf(ProcessingException.class);
+    assertThat(requestLines).noneMatch(line -> line.startsWith("POST "));
+
+    // the peer is known not to speak HTTP/2 from then on
+    final Response response =
+        client
+            .target(serverUri)
+            .path("push")
+            .request()
+            .post(Entity.entity("HELLO", MediaType.TEXT_PLAIN));
+
+    assertThat(response.getStatus()).isEqualTo(201);
+    assertThat(response.readEntity(String.class)).isEqualTo("HELLO");
+    assertThat(requestLines).filteredOn(line -> line.startsWith("POST ")).hasSize(1);
+
+    client.close();
+  }
+
+  @Test
+  public void requestTakingLongerThanItsTimeoutFails() {
+    final Client client = client(Map.of("jettyClient.resendTimeout", "100"));
+
+    final Throwable ex =
+        catchThrowable(() -> client.target(serverUri).path("slow/resend").request().get());
+
+    assertThat(ex).isInstanceOf(ProcessingException.class);
+
+    client.close();
+  }
+
+  @Test
+  public void unreachablePeerFails() throws IOException {
+    final Client client = client(Map.of());
+    server.close();
+
+    final Throwable ex = catchThrowable(() -> client.target(serverUri).request().get());
+
+    assertThat(ex).isInstanceOf(ProcessingException.class);
+
+    client.close();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
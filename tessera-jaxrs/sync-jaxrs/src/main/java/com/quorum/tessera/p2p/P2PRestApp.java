@@ -7,6 +7,9 @@ import com.quorum.tessera.api.filter.GlobalFilter;
 import com.quorum.tessera.api.filter.IPWhitelistFilter;
 import com.quorum.tessera.app.TesseraRestApplication;
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.context.RuntimeContext;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.discovery.NodeUri;
@@ -14,13 +17,16 @@ import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.PeerPartyInfoStore;
 import com.quorum.tessera.privacygroup.PrivacyGroupManager;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 import javax.ws.rs.ApplicationPath;
@@ -38,6 +44,8 @@ public class P2PRestApp extends TesseraRestApplication
 
   private static final Logger LOGGER = LoggerFactory.getLogger(P2PRestApp.class);
 
+  static final String MAX_VALIDATION_BATCH_SIZE = "maxValidationBatchSize";
+
   private final Discovery discovery;
 
   private final PartyInfoParser partyInfoParser = PartyInfoParser.create();
@@ -56,6 +64,8 @@ public class P2PRestApp extends TesseraRestApplication
 
   private final PrivacyGroupManager privacyGroupManager;
 
+  private final int maxValidationBatchSize;
+
   public P2PRestApp() {
     this(
         Discovery.create(),
@@ -65,7 +75,8 @@ public class P2PRestApp extends TesseraRestApplication
         BatchResendManager.create(),
         PayloadEncoder.create(),
         LegacyResendManager.create(),
-        PrivacyGroupManager.create());
+        PrivacyGroupManager.create(),
+        maxValidationBatchSize(ConfigFactory.create().getConfig()));
   }
 
   public P2PRestApp(
@@ -77,6 +88,28 @@ public class P2PRestApp extends TesseraRestApplication
       PayloadEncoder payloadEncoder,
       LegacyResendManager legacyResendManager,
       PrivacyGroupManager privacyGroupManager) {
+    this(
+        discovery,
+        enclave,
+        partyStore,
+        transactionManager,
+        batchResendManager,
+        payloadEncoder,
+        legacyResendManager,
+        privacyGroupManager,
+        PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE);
+  }
+
+  public P2PRestApp(
+      Discovery discovery,
+      Enclave enclave,
+      PartyStore partyStore,
+      TransactionManager transactionManager,
+      BatchResendManager batchResendManager,
+      PayloadEncoder payloadEncoder,
+      LegacyResendManager legacyResendManager,
+      PrivacyGroupManager privacyGroupManager,
+      int maxValidationBatchSize) {
     this.discovery = Objects.requireNonNull(discovery);
     this.enclave = Objects.requireNonNull(enclave);
     this.partyStore = Objects.requireNonNull(partyStore);
@@ -85,6 +118,7 @@ public class P2PRestApp extends TesseraRestApplication
     this.payloadEncoder = Objects.requireNonNull(payloadEncoder);
     this.legacyResendManager = Objects.requireNonNull(legacyResendManager);
     this.privacyGroupManager = Objects.requireNonNull(privacyGroupManager);
+    this.maxValidationBatchSize = maxValidationBatchSize;
   }
 
   @Override
@@ -106,7 +140,11 @@ public class P2PRestApp extends TesseraRestApplication
             partyInfoParser,
             runtimeContext.getP2pClient(),
             enclave,
-            runtimeContext.isRemoteKeyValidation());
+            payloadEncoder,
+            runtimeContext.isRemoteKeyValidation(),
+            partyStore,
+            PeerPartyInfoStore.getInstance(),
+            maxValidationBatchSize);
 
     final IPWhitelistFilter iPWhitelistFilter = new IPWhitelistFilter();
 
@@ -131,6 +169,29 @@ public class P2PRestApp extends TesseraRestApplication
         upCheckResource);
   }
 
+  static int maxValidationBatchSize(final Config config) {
+    final Map<String, String> properties =
+        Optional.ofNullable(config.getP2PServerConfig())
+            .map(ServerConfig::getProperties)
+            .orElse(Map.of());
+    final String value = properties.get(MAX_VALIDATION_BATCH_SIZE);
+    if (value == null) {
+      return PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE;
+    }
+    try {
+      final int size = Integer.parseInt(value);
+      if (size > 0) {
+        return size;
+      }
+    } catch (NumberFormatException ex) {
+      LOGGER.debug("Unable to parse {}", MAX_VALIDATION_BATCH_SIZE, ex);
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead",
+        MAX_VALIDATION_BATCH_SIZE);
+    return PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE;
+  }
+
   @Override
   public Set<Class<?>> getClasses() {
     return Stream.concat(super.getClasses().stream(), Stream.of(P2PApiResource.class))
@@ -8,15 +8,22 @@ import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.discovery.NodeUri;
 import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.Counter;
+import com.quorum.tessera.metrics.Histogram;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.metrics.Timer;
 import com.quorum.tessera.p2p.model.GetPartyInfoResponse;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigest;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.PeerPartyInfoStore;
 import com.quorum.tessera.partyinfo.model.NodeInfoUtil;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.Recipient;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.shared.Constants;
+import com.quorum.tessera.version.BatchKeyValidationVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -25,11 +32,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.json.Json;
+import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonValue;
 import javax.ws.rs.*;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
@@ -43,8 +54,23 @@ import org.slf4j.LoggerFactory;
 @Path("/partyinfo")
 public class PartyInfoResource {
 
+  /** The most keys validated in one batch request, unless configured otherwise */
+  public static final int DEFAULT_MAX_VALIDATION_BATCH_SIZE = 500;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(PartyInfoResource.class);
 
+  private static final Timer ACCEPT =
+      MetricsRegistry.node()
+          .timer("tessera_partyinfo_seconds", "Time taken to validate and accept partyinfo");
+
+  private static final Histogram SINGLE_VALIDATION = validationHistogram("single");
+
+  private static final Histogram BATCH_VALIDATION = validationHistogram("batch");
+
+  private static final Counter VALID_KEYS = validatedKeys("valid");
+
+  private static final Counter INVALID_KEYS = validatedKeys("invalid");
+
   private final PartyInfoParser partyInfoParser;
 
   private final Discovery discovery;
@@ -59,6 +85,10 @@ public class PartyInfoResource {
 
   private final PartyStore partyStore;
 
+  private final PeerPartyInfoStore peerPartyInfoStore;
+
+  private final int maxValidationBatchSize;
+
   public PartyInfoResource(
       final Discovery discovery,
       final PartyInfoParser partyInfoParser,
@@ -66,7 +96,9 @@ public class PartyInfoResource {
       final Enclave enclave,
       final PayloadEncoder payloadEncoder,
       final boolean enableKeyValidation,
-      final PartyStore partyStore) {
+      final PartyStore partyStore,
+      final PeerPartyInfoStore peerPartyInfoStore,
+      final int maxValidationBatchSize) {
     this.discovery = requireNonNull(discovery, "discovery must not be null");
     this.partyInfoParser = requireNonNull(partyInfoParser, "partyInfoParser must not be null");
     this.restClient = requireNonNull(restClient);
@@ -74,6 +106,51 @@ public class PartyInfoResource {
     this.payloadEncoder = requireNonNull(payloadEncoder);
     this.enableKeyValidation = enableKeyValidation;
     this.partyStore = requireNonNull(partyStore);
+    this.peerPartyInfoStore = requireNonNull(peerPartyInfoStore);
+    if (maxValidationBatchSize < 1) {
+      throw new IllegalArgumentException("maxValidationBatchSize must be positive");
+    }
+    this.maxValidationBatchSize = maxValidationBatchSize;
+  }
+
+  public PartyInfoResource(
+      final Discovery discovery,
+      final PartyInfoParser partyInfoParser,
+      final Client restClient,
+      final Enclave enclave,
+      final PayloadEncoder payloadEncoder,
+      final boolean enableKeyValidation,
+      final PartyStore partyStore,
+      final PeerPartyInfoStore peerPartyInfoStore) {
+    this(
+        discovery,
+        partyInfoParser,
+        restClient,
+        enclave,
+        payloadEncoder,
+        enableKeyValidation,
+        partyStore,
+        peerPartyInfoStore,
+        DEFAULT_MAX_VALIDATION_BATCH_SIZE);
+  }
+
+  public PartyInfoResource(
+      final Discovery discovery,
+      final PartyInfoParser partyInfoParser,
+      final Client restClient,
+      final Enclave enclave,
+      final PayloadEncoder payloadEncoder,
+      final boolean enableKeyValidation,
+      final PartyStore partyStore) {
+    this(
+        discovery,
+        partyInfoParser,
+        restClient,
+        enclave,
+        payloadEncoder,
+        enableKeyValidation,
+        partyStore,
+        PeerPartyInfoStore.getInstance());
   }
 
   public PartyInfoResource(
@@ -95,7 +172,10 @@ public class PartyInfoResource {
   /**
    * Update the local partyinfo store with the encoded partyinfo included in the request.
    *
-   * @param payload The encoded partyinfo information pushed by the caller
+   * @param payload The encoded partyinfo information pushed by the caller, which is decoded as it
+   *     is read rather than being buffered first
+   * @param digest the digest of the partyinfo, which lets the caller send only the changes to it
+   *     from then on
    * @return an empty 200 OK Response if the local node is using remote key validation; a 200 OK
    *     Response wrapping an encoded partyinfo that contains only the local node's URL if not using
    *     remote key validation; a 500 Internal Server Error if remote key validation fails
@@ -124,7 +204,10 @@ public class PartyInfoResource {
   @Consumes(MediaType.APPLICATION_OCTET_STREAM)
   @Produces(MediaType.APPLICATION_OCTET_STREAM)
   public Response partyInfo(
-      @RequestBody(required = true, description = "partyinfo object") final byte[] payload,
+      @RequestBody(required = true, description = "partyinfo object") final InputStream payload,
+      @HeaderParam(Constants.PARTY_INFO_DIGEST_HEADER)
+          @Parameter(description = "digest of the partyinfo, sent by clients that support deltas")
+          final String digest,
       @HeaderParam(Constants.API_VERSION_HEADER)
           @Parameter(
               description = "client's supported API versions",
@@ -132,20 +215,147 @@ public class PartyInfoResource {
           final List<String> headers) {
 
     final PartyInfo partyInfo = partyInfoParser.from(payload);
-    final Set<String> versions =
-        Optional.ofNullable(headers).orElse(emptyList()).stream()
-            .filter(Objects::nonNull)
-            .flatMap(v -> Arrays.stream(v.split(",")))
-            .collect(Collectors.toSet());
-
-    final NodeInfo nodeInfo = NodeInfoUtil.from(partyInfo, versions);
 
     LOGGER.debug("Received PartyInfo from {}", partyInfo.getUrl());
 
+    final Response response = accept(partyInfo, split(headers));
+
+    if (Objects.nonNull(digest)) {
+      peerPartyInfoStore.storeAdvertised(partyInfo.getUrl(), digest, partyInfo.getRecipients());
+    }
+
+    return response;
+  }
+
+  /**
+   * Update the local partyinfo store with the changes to a partyinfo this node has accepted before.
+   * Only the recipients that were added or changed are validated, the outcome for the others is
+   * taken from the previous validation as long as it has not expired.
+   *
+   * @param payload the encoded partyinfo holding the recipients added or changed since the base
+   *     digest, which is empty if nothing has changed
+   * @param baseDigest the digest of the partyinfo the changes apply to
+   * @param digest the digest of the partyinfo once the changes are applied
+   * @param removedKeys the base64 encoded keys that are no longer advertised
+   * @return the same responses as for the full partyinfo; a 409 Conflict if this node does not hold
+   *     the partyinfo the changes apply to, or applying them does not give the expected digest
+   */
+  @Operation(
+      summary = "/partyinfo/delta",
+      operationId = "broadcastPartyInfoDelta",
+      description = "broadcast the changes to partyinfo information previously sent to server")
+  @ApiResponse(
+      responseCode = "200",
+      description = "server successfully updated its party info",
+      content =
+          @Content(
+              array =
+                  @ArraySchema(
+                      schema =
+                          @Schema(
+                              description =
+                                  "empty if server is using remote key validation, else is encoded partyinfo object containing only the server's URL",
+                              type = "string",
+                              format = "byte"))))
+  @ApiResponse(
+      responseCode = "409",
+      description = "server does not hold the partyinfo the changes apply to, send it in full")
+  @ApiResponse(
+      responseCode = "500",
+      description = "Validation failed (if server is using remote key validation)")
+  @POST
+  @Path("delta")
+  @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response partyInfoDelta(
+      @RequestBody(required = true, description = "partyinfo object with the changed recipients")
+          final InputStream payload,
+      @HeaderParam(Constants.PARTY_INFO_BASE_DIGEST_HEADER)
+          @Parameter(description = "digest of the partyinfo the changes apply to")
+          final String baseDigest,
+      @HeaderParam(Constants.PARTY_INFO_DIGEST_HEADER)
+          @Parameter(description = "digest of the partyinfo with the changes applied")
+          final String digest,
+      @HeaderParam(Constants.PARTY_INFO_REMOVED_KEYS_HEADER)
+          @Parameter(
+              description = "keys that are no longer advertised",
+              array = @ArraySchema(schema = @Schema(type = "string")))
+          final List<String> removedKeys,
+      @HeaderParam(Constants.API_VERSION_HEADER)
+          @Parameter(
+              description = "client's supported API versions",
+              array = @ArraySchema(schema = @Schema(type = "string")))
+          final List<String> headers) {
+
+    final PartyInfo changes = partyInfoParser.from(payload);
+    final String sender = changes.getUrl();
+
+    LOGGER.debug("Received PartyInfo changes from {} since {}", sender, baseDigest);
+
+    final Optional<Set<Recipient>> base =
+        Optional.ofNullable(baseDigest).flatMap(d -> peerPartyInfoStore.getAdvertised(sender, d));
+    if (base.isEmpty() || Objects.isNull(digest)) {
+      LOGGER.debug("No PartyInfo with digest {} held for peer {}", baseDigest, sender);
+      return Response.status(Response.Status.CONFLICT).build();
+    }
+
+    // a recipient that changed its URL is sent again with the new one, replacing the old
+    final Set<PublicKey> replacedKeys =
+        split(removedKeys).stream()
+            .map(Base64.getDecoder()::decode)
+            .map(PublicKey::from)
+            .collect(Collectors.toCollection(HashSet::new));
+    changes.getRecipients().stream().map(Recipient::getKey).forEach(replacedKeys::add);
+
+    final Set<Recipient> recipients =
+        base.get().stream()
+            .filter(r -> !replacedKeys.contains(r.getKey()))
+            .collect(Collectors.toCollection(HashSet::new));
+    recipients.addAll(changes.getRecipients());
+
+    if (!PartyInfoDigest.of(sender, recipients).equals(digest)) {
+      LOGGER.debug("PartyInfo changes from {} do not give digest {}", sender, digest);
+      return Response.status(Response.Status.CONFLICT).build();
+    }
+
+    final Set<Party> parties = new HashSet<>(changes.getParties());
+    recipients.stream().map(Recipient::getUrl).map(Party::new).forEach(parties::add);
+
+    final Response response = accept(new PartyInfo(sender, recipients, parties), split(headers));
+
+    peerPartyInfoStore.storeAdvertised(sender, digest, recipients);
+
+    return response;
+  }
+
+  private static Histogram validationHistogram(final String mode) {
+    return MetricsRegistry.node()
+        .histogram(
+            "tessera_partyinfo_validation_seconds",
+            "Time taken to have a peer prove it holds the private keys it advertises",
+            "mode",
+            mode);
+  }
+
+  private static Counter validatedKeys(final String outcome) {
+    return MetricsRegistry.node()
+        .counter(
+            "tessera_partyinfo_validated_keys_total",
+            "Keys advertised by peers that have been validated",
+            "outcome",
+            outcome);
+  }
+
+  private Response accept(final PartyInfo partyInfo, final Set<String> versions) {
+    return ACCEPT.time(() -> doAccept(partyInfo, versions));
+  }
+
+  private Response doAccept(final PartyInfo partyInfo, final Set<String> versions) {
+
     if (!enableKeyValidation) {
       LOGGER.debug("Key validation not enabled, passing PartyInfo through");
 
-      discovery.onUpdate(nodeInfo);
+      discovery.onUpdate(NodeInfoUtil.from(partyInfo, versions));
       partyInfo.getParties().stream()
           .map(Party::getUrl)
           .map(NodeUri::create)
@@ -212,10 +422,53 @@ public class PartyInfoResource {
     final Predicate<Recipient> isSender =
         r -> NodeUri.create(r.getUrl()).equals(NodeUri.create(partyInfoSender));
 
+    // a peer that can take them is sent the challenges for all its unvalidated keys at once
+    final Map<Recipient, Boolean> batchOutcomes = new HashMap<>();
+    if (versions.contains(BatchKeyValidationVersion.API_VERSION_3_4)) {
+      final List<Recipient> unvalidated =
+          partyInfo.getRecipients().stream()
+              .filter(isSender)
+              .filter(r -> !peerPartyInfoStore.isValidated(r))
+              .collect(Collectors.toList());
+      if (unvalidated.size() > 1) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < unvalidated.size(); i += maxValidationBatchSize) {
+          final List<Recipient> batch =
+              unvalidated.subList(i, Math.min(i + maxValidationBatchSize, unvalidated.size()));
+          batchOutcomes.putAll(validateAll(partyInfoSender, batch, localPublicKey));
+        }
+        BATCH_VALIDATION.recordSince(start);
+      }
+    }
+
+    // pairs validated before are only validated again once the validation expires
+    final Predicate<Recipient> isValidatedRecipient =
+        r -> {
+          if (peerPartyInfoStore.isValidated(r)) {
+            return true;
+          }
+          final boolean isValid =
+              Optional.ofNullable(batchOutcomes.get(r))
+                  .orElseGet(
+                      () -> {
+                        final long start = System.nanoTime();
+                        final boolean outcome = isValidRecipient.test(r);
+                        SINGLE_VALIDATION.recordSince(start);
+                        return outcome;
+                      });
+          if (isValid) {
+            peerPartyInfoStore.storeValidated(r);
+            VALID_KEYS.increment();
+          } else {
+            INVALID_KEYS.increment();
+          }
+          return isValid;
+        };
+
     // Validate caller and treat no valid certs as security issue.
     final Set<com.quorum.tessera.partyinfo.node.Recipient> validatedSendersKeys =
         partyInfo.getRecipients().stream()
-            .filter(isSender.and(isValidRecipient))
+            .filter(isSender.and(isValidatedRecipient))
             .map(r -> com.quorum.tessera.partyinfo.node.Recipient.of(r.getKey(), r.getUrl()))
             .collect(Collectors.toSet());
 
@@ -243,6 +496,86 @@ public class PartyInfoResource {
     return Response.ok().build();
   }
 
+  /**
+   * Sends a challenge for each of the given keys of a peer in a single request, rather than a
+   * request for each key
+   *
+   * @return whether each of the keys the peer answered for was validated. Keys without an answer,
+   *     all of them if the request fails, are left out so that they can be validated one by one.
+   */
+  private Map<Recipient, Boolean> validateAll(
+      final String url, final List<Recipient> recipients, final PublicKey localPublicKey) {
+    final Map<Recipient, Boolean> outcomes = new HashMap<>();
+
+    try {
+      LOGGER.debug("Validating {} keys for peer {}", recipients.size(), url);
+
+      final List<String> challenges = new ArrayList<>(recipients.size());
+      final List<EncodedPayload> payloads = new ArrayList<>(recipients.size());
+      for (final Recipient r : recipients) {
+        final String dataToEncrypt = UUID.randomUUID().toString();
+        challenges.add(dataToEncrypt);
+        payloads.add(
+            enclave.encryptPayload(
+                dataToEncrypt.getBytes(),
+                localPublicKey,
+                List.of(r.getKey()),
+                PrivacyMetadata.Builder.forStandardPrivate().build()));
+      }
+
+      final byte[] encodedPayloads = payloadEncoder.encodeList(payloads);
+
+      try (Response response =
+          restClient
+              .target(url)
+              .path("partyinfo")
+              .path("validate")
+              .path("batch")
+              .request()
+              .post(Entity.entity(encodedPayloads, MediaType.APPLICATION_OCTET_STREAM))) {
+
+        LOGGER.debug("Response code {} from peer {}", response.getStatus(), url);
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+          LOGGER.info(
+              "Unable to validate keys of peer {} in a batch, status {}. Will validate each key",
+              url,
+              response.getStatus());
+          return outcomes;
+        }
+
+        final String responseData = response.readEntity(String.class);
+        final JsonArray results = Json.createReader(new StringReader(responseData)).readArray();
+
+        for (int i = 0; i < recipients.size() && i < results.size(); i++) {
+          if (results.get(i).getValueType() != JsonValue.ValueType.STRING) {
+            continue;
+          }
+          final Recipient r = recipients.get(i);
+          final boolean isValid = Objects.equals(results.getString(i), challenges.get(i));
+          if (!isValid) {
+            LOGGER.warn(
+                "Validation of key {} for peer {} failed.  Key and peer will not be added to local partyinfo.",
+                r.getKey(),
+                r.getUrl());
+          }
+          outcomes.put(r, isValid);
+        }
+      }
+    } catch (Exception ex) {
+      LOGGER.info("Unable to validate keys of peer {} in a batch. Will validate each key", url);
+      LOGGER.debug(null, ex);
+    }
+
+    return outcomes;
+  }
+
+  private static Set<String> split(final List<String> headers) {
+    return Optional.ofNullable(headers).orElse(emptyList()).stream()
+        .filter(Objects::nonNull)
+        .flatMap(v -> Arrays.stream(v.split(",")))
+        .collect(Collectors.toSet());
+  }
+
   @Operation(summary = "/partyinfo", description = "fetch network/peer information")
   @ApiResponse(
       responseCode = "200",
@@ -310,6 +643,56 @@ public class PartyInfoResource {
     return Response.ok(new String(result)).build();
   }
 
+  @Operation(
+      summary = "/partyinfo/validate/batch",
+      operationId = "validateKeys",
+      description = "decrypt a UUID payload for each of several keys, to validate them at once")
+  @ApiResponse(
+      responseCode = "200",
+      description = "decrypted UUIDs in the order of the payloads, empty where decryption failed",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              array =
+                  @ArraySchema(schema = @Schema(description = "decrypted UUID", type = "string"))))
+  @ApiResponse(responseCode = "400", description = "more payloads than the maximum batch size")
+  @POST
+  @Path("validate/batch")
+  @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response validateBatch(@Schema(description = "encrypted UUIDs") byte[] payloadData) {
+    // the size is checked before anything is decoded or decrypted for the unauthenticated caller
+    final long count = payloadEncoder.countList(payloadData);
+    if (count < 0 || count > maxValidationBatchSize) {
+      LOGGER.info(
+          "Rejecting request to validate {} keys, more than the maximum of {}",
+          count,
+          maxValidationBatchSize);
+      return Response.status(Response.Status.BAD_REQUEST).build();
+    }
+
+    final List<EncodedPayload> payloads = payloadEncoder.decodeList(payloadData);
+
+    final JsonArrayBuilder results = Json.createArrayBuilder();
+    for (final EncodedPayload payload : payloads) {
+      results.add(decryptChallenge(payload));
+    }
+
+    return Response.ok(results.build().toString()).build();
+  }
+
+  // a payload that can't be decrypted must not stop the others in the batch from being answered
+  private String decryptChallenge(final EncodedPayload payload) {
+    try {
+      final PublicKey mykey = payload.getRecipientKeys().iterator().next();
+      final String result = new String(enclave.unencryptTransaction(payload, mykey));
+      return isUUID(result) ? result : "";
+    } catch (RuntimeException ex) {
+      LOGGER.debug(null, ex);
+      return "";
+    }
+  }
+
   private boolean isUUID(String s) {
     try {
       UUID.fromString(s);
@@ -8,12 +8,15 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
 import com.quorum.tessera.p2p.recovery.PushBatchRequest;
+import com.quorum.tessera.p2p.recovery.PushBatchStream;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -68,6 +71,25 @@ public class RecoveryResource {
     return Response.status(Response.Status.OK).build();
   }
 
+  // path /pushBatch is overloaded by content type, the JSON form above documents both; the binary
+  // form carries the same payloads without base64 encoding them, see PushBatchStream
+  @Hidden
+  @POST
+  @Path("pushBatch")
+  @Consumes(APPLICATION_OCTET_STREAM)
+  public Response pushBatchStream(final InputStream pushBatchStream) {
+
+    LOGGER.debug("Received binary push batch request");
+
+    final List<byte[]> encodedPayloads = PushBatchStream.read(pushBatchStream);
+
+    batchResendManager.storeResendBatch(
+        com.quorum.tessera.recovery.resend.PushBatchRequest.from(encodedPayloads));
+
+    LOGGER.debug("Binary push batch of {} payloads processed successfully", encodedPayloads.size());
+    return Response.status(Response.Status.OK).build();
+  }
+
   // path /push with application/octet-stream is overloaded (RecoveryResource &
   // TransactionResource); swagger annotations cannot handle situations like this so hide this
   // operation and use TransactionResource::push to document both
@@ -4,6 +4,7 @@ import static javax.ws.rs.core.MediaType.*;
 
 import com.quorum.tessera.base64.Base64Codec;
 import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.recovery.ResendBatchRequest;
@@ -19,8 +20,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.json.Json;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
@@ -124,7 +128,7 @@ public class TransactionResource {
   @Operation(
       summary = "/resendBatch",
       operationId = "requestPayloadBatchResend",
-      description = "initiate resend of all transactions for a given public key in batches")
+      description = "initiate resend of all transactions for the given public keys in batches")
   @ApiResponse(
       responseCode = "200",
       description = "count of total transactions being resent",
@@ -144,6 +148,7 @@ public class TransactionResource {
     com.quorum.tessera.recovery.resend.ResendBatchRequest request =
         com.quorum.tessera.recovery.resend.ResendBatchRequest.Builder.create()
             .withPublicKey(resendBatchRequest.getPublicKey())
+            .withPublicKeys(resendBatchRequest.getPublicKeys())
             .withBatchSize(resendBatchRequest.getBatchSize())
             .build();
 
@@ -191,4 +196,45 @@ public class TransactionResource {
     // TODO: Return the query url not the string of the messageHash
     return Response.status(Response.Status.CREATED).entity(Objects.toString(messageHash)).build();
   }
+
+  @Operation(
+      summary = "/pushMultiple",
+      operationId = "pushMultiplePayloads",
+      description =
+          "store several encoded payloads, each intended for a different recipient hosted on this server, to the server's database")
+  @ApiResponse(
+      responseCode = "201",
+      description = "hashes of encoded payloads",
+      content =
+          @Content(
+              mediaType = APPLICATION_JSON,
+              array =
+                  @ArraySchema(
+                      schema =
+                          @Schema(
+                              description = "hash of encrypted payload",
+                              type = "string",
+                              format = "base64"))))
+  @POST
+  @Path("pushMultiple")
+  @Consumes(APPLICATION_OCTET_STREAM)
+  @Produces(APPLICATION_JSON)
+  public Response pushMultiple(
+      @Schema(description = "encoded list of encoded payloads") final byte[] payloads) {
+
+    final List<EncodedPayload> encodedPayloads = payloadEncoder.decodeList(payloads);
+    LOGGER.debug("Received push request containing {} payloads", encodedPayloads.size());
+
+    final List<String> messageHashes =
+        encodedPayloads.stream()
+            .map(transactionManager::storePayload)
+            .map(Objects::toString)
+            .distinct()
+            .collect(Collectors.toList());
+    LOGGER.debug("Push request generated hashes {}", messageHashes);
+
+    return Response.status(Response.Status.CREATED)
+        .entity(Json.createArrayBuilder(messageHashes).build().toString())
+        .build();
+  }
 }
@@ -3,15 +3,20 @@ package com.quorum.tessera.p2p.partyinfo;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.discovery.NodeUri;
 import com.quorum.tessera.partyinfo.P2pClient;
-import com.quorum.tessera.partyinfo.model.PartyInfo;
-import com.quorum.tessera.partyinfo.model.PartyInfoBuilder;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
+import com.quorum.tessera.version.PartyInfoDeltaVersion;
 import java.net.URI;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 import javax.ws.rs.ProcessingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,14 +24,24 @@ import org.slf4j.LoggerFactory;
 /**
  * Polls every so often to all known nodes for any new discoverable nodes. This keeps all nodes
  * up-to date and discoverable by other nodes
+ *
+ * <p>Once a peer that supports it has accepted this node's partyinfo, it is only sent the changes
+ * since then, which is nothing more than a digest for as long as the partyinfo stays the same. The
+ * full partyinfo is sent again whenever the peer does not accept the changes.
  */
 public class PartyInfoBroadcaster implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PartyInfoBroadcaster.class);
 
+  static final String EXECUTOR_NAME = "partyinfo-broadcaster";
+
+  static final int THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+  static final int QUEUE_CAPACITY = 1000;
+
   private final Discovery discovery;
 
-  private final PartyInfoParser partyInfoParser;
+  private final PartyInfoEncoder partyInfoEncoder;
 
   private final P2pClient p2pClient;
 
@@ -34,12 +49,19 @@ public class PartyInfoBroadcaster implements Runnable {
 
   private final PartyStore partyStore;
 
+  private final PeerPartyInfoStore peerPartyInfoStore;
+
+  // the partyinfo each peer last accepted from this node
+  private final ConcurrentMap<String, PartyInfoEncoder.Snapshot> acknowledged =
+      new ConcurrentHashMap<>();
+
   public PartyInfoBroadcaster(final P2pClient p2pClient) {
     this(
         Discovery.create(),
         PartyInfoParser.create(),
         p2pClient,
-        Executors.newCachedThreadPool(),
+        new ExecutorFactory()
+            .create(EXECUTOR_NAME, THREADS, QUEUE_CAPACITY, BoundedExecutor.RejectionPolicy.ABORT),
         PartyStore.getInstance());
   }
 
@@ -49,11 +71,28 @@ public class PartyInfoBroadcaster implements Runnable {
       final P2pClient p2pClient,
       final Executor executor,
       final PartyStore partyStore) {
+    this(
+        discovery,
+        partyInfoParser,
+        p2pClient,
+        executor,
+        partyStore,
+        PeerPartyInfoStore.getInstance());
+  }
+
+  public PartyInfoBroadcaster(
+      final Discovery discovery,
+      final PartyInfoParser partyInfoParser,
+      final P2pClient p2pClient,
+      final Executor executor,
+      final PartyStore partyStore,
+      final PeerPartyInfoStore peerPartyInfoStore) {
     this.discovery = Objects.requireNonNull(discovery);
-    this.partyInfoParser = Objects.requireNonNull(partyInfoParser);
+    this.partyInfoEncoder = new PartyInfoEncoder(partyInfoParser);
     this.p2pClient = Objects.requireNonNull(p2pClient);
     this.executor = Objects.requireNonNull(executor);
     this.partyStore = Objects.requireNonNull(partyStore);
+    this.peerPartyInfoStore = Objects.requireNonNull(peerPartyInfoStore);
   }
 
   /**
@@ -80,21 +119,16 @@ public class PartyInfoBroadcaster implements Runnable {
 
     final NodeUri ourUrl = NodeUri.create(nodeInfo.getUrl());
 
-    final PartyInfo partyInfo =
-        PartyInfoBuilder.create()
-            .withUri(nodeInfo.getUrl())
-            .withRecipients(nodeInfo.getRecipientsAsMap())
-            .build();
-
-    final byte[] encodedPartyInfo = partyInfoParser.to(partyInfo);
+    final PartyInfoEncoder.Snapshot snapshot = partyInfoEncoder.snapshot(nodeInfo);
 
-    LOGGER.debug("Contacting following peers with PartyInfo: {}", partyInfo.getParties());
+    // only peers that have accepted a partyinfo before can be sent changes to it
+    final Set<NodeUri> deltaPeers = acknowledged.isEmpty() ? Set.of() : peersAcceptingDeltas();
 
     LOGGER.debug("Sending party info {}", nodeInfo);
     partyStore.getParties().stream()
         .map(NodeUri::create)
         .filter(url -> !ourUrl.equals(url))
-        .forEach(url -> pollSingleParty(url.asString(), encodedPartyInfo));
+        .forEach(url -> pollSingleParty(url.asString(), snapshot, deltaPeers.contains(url)));
 
     LOGGER.info("Finished PartyInfo polling round");
   }
@@ -106,25 +140,75 @@ public class PartyInfoBroadcaster implements Runnable {
    * @param encodedPartyInfo the encoded current party information
    */
   protected void pollSingleParty(final String url, final byte[] encodedPartyInfo) {
+    send(url, () -> p2pClient.sendPartyInfo(url, encodedPartyInfo));
+  }
+
+  private void pollSingleParty(
+      final String url, final PartyInfoEncoder.Snapshot snapshot, final boolean acceptsDelta) {
+    send(url, () -> sendPartyInfo(url, snapshot, acceptsDelta));
+  }
+
+  private void sendPartyInfo(
+      final String url, final PartyInfoEncoder.Snapshot snapshot, final boolean acceptsDelta) {
+    final PartyInfoEncoder.Snapshot base = acceptsDelta ? acknowledged.get(url) : null;
+
+    if (base != null) {
+      final boolean accepted =
+          p2pClient.sendPartyInfoDelta(
+              url,
+              partyInfoEncoder.encodeChanges(base, snapshot),
+              base.getDigest(),
+              snapshot.getDigest(),
+              PartyInfoEncoder.removedKeys(base, snapshot));
+      if (accepted) {
+        acknowledged.put(url, snapshot);
+        return;
+      }
+      LOGGER.debug("Party info changes not accepted by {}, sending it in full", url);
+    }
+
+    acknowledged.remove(url);
+    if (p2pClient.sendPartyInfo(url, snapshot.getData(), snapshot.getDigest())) {
+      acknowledged.put(url, snapshot);
+    }
+  }
+
+  private Set<NodeUri> peersAcceptingDeltas() {
+    return discovery.getRemoteNodeInfos().stream()
+        .filter(n -> n.supportedApiVersions().contains(PartyInfoDeltaVersion.API_VERSION_3_3))
+        .map(NodeInfo::getUrl)
+        .map(NodeUri::create)
+        .collect(Collectors.toSet());
+  }
+
+  private void send(final String url, final Runnable request) {
     final NodeUri nodeUri = NodeUri.create(url);
-    CompletableFuture.runAsync(
-            () -> {
-              LOGGER.debug("Sending party info to {}", nodeUri.asString());
-              p2pClient.sendPartyInfo(url, encodedPartyInfo);
-              LOGGER.debug("Sent party info to {}", nodeUri.asString());
-            },
-            executor)
-        .exceptionally(
-            ex -> {
-              Throwable cause = Optional.of(ex).map(Throwable::getCause).orElse(ex);
-
-              LOGGER.warn("Failed to connect to node {}, due to {}", url, cause.getMessage());
-              LOGGER.debug("Send failure exception", cause);
-              if (ProcessingException.class.isInstance(cause)) {
-                discovery.onDisconnect(URI.create(url));
-                partyStore.remove(URI.create(url));
-              }
-              return null;
-            });
+    try {
+      CompletableFuture.runAsync(
+              () -> {
+                LOGGER.debug("Sending party info to {}", nodeUri.asString());
+                request.run();
+                LOGGER.debug("Sent party info to {}", nodeUri.asString());
+              },
+              executor)
+          .exceptionally(
+              ex -> {
+                Throwable cause = Optional.of(ex).map(Throwable::getCause).orElse(ex);
+
+                LOGGER.warn("Failed to connect to node {}, due to {}", url, cause.getMessage());
+                LOGGER.debug("Send failure exception", cause);
+                acknowledged.remove(url);
+                if (ProcessingException.class.isInstance(cause)) {
+                  discovery.onDisconnect(URI.create(url));
+                  partyStore.remove(URI.create(url));
+                  // so that the node's keys are validated again if it comes back
+                  peerPartyInfoStore.remove(URI.create(url));
+                }
+                return null;
+              });
+    } catch (final RejectedExecutionException ex) {
+      // the node is sent its party info again next round
+      LOGGER.warn("Too many party info requests pending, skipping {} this round", url);
+    }
   }
 }
@@ -0,0 +1,61 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Computes a digest of the URL and recipients that a node advertises in its partyinfo, which
+ * stands in for the partyinfo itself when a node tells a peer that nothing has changed. The digest
+ * does not depend on the order of the recipients, so both sides arrive at the same value for the
+ * same set however it was sent.
+ */
+public final class PartyInfoDigest {
+
+  private static final Comparator<Recipient> ORDER =
+      Comparator.comparing((Recipient r) -> r.getKey().encodeToBase64())
+          .thenComparing(Recipient::getUrl);
+
+  private PartyInfoDigest() {}
+
+  public static String of(final PartyInfo partyInfo) {
+    return of(partyInfo.getUrl(), partyInfo.getRecipients());
+  }
+
+  public static String of(final String url, final Collection<Recipient> recipients) {
+    Objects.requireNonNull(url);
+
+    final MessageDigest digest = sha256();
+    update(digest, url.getBytes(StandardCharsets.UTF_8));
+    recipients.stream()
+        .sorted(ORDER)
+        .forEach(
+            r -> {
+              update(digest, r.getKey().getKeyBytes());
+              update(digest, r.getUrl().getBytes(StandardCharsets.UTF_8));
+            });
+
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  // each field is prefixed with its length so that different fields can't run into each other
+  private static void update(final MessageDigest digest, final byte[] field) {
+    digest.update(ByteBuffer.allocate(Long.BYTES).putLong(field.length).array());
+    digest.update(field);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
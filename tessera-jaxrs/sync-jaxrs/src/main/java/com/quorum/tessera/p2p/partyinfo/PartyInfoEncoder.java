@@ -0,0 +1,144 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.Party;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.model.PartyInfoBuilder;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.partyinfo.node.Recipient;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes the partyinfo that this node sends to its peers. The last encoding is kept and given out
+ * again for as long as the URL and recipients of the node stay the same, so it is only redone when
+ * the node's information changes rather than for every peer on every round.
+ */
+public class PartyInfoEncoder {
+
+  private final PartyInfoParser partyInfoParser;
+
+  private final AtomicReference<Snapshot> lastSnapshot = new AtomicReference<>();
+
+  public PartyInfoEncoder(final PartyInfoParser partyInfoParser) {
+    this.partyInfoParser = Objects.requireNonNull(partyInfoParser);
+  }
+
+  /**
+   * Encodes the URL and recipients of the given node, as {@link PartyInfoParser#to(PartyInfo)}
+   * would
+   *
+   * @param nodeInfo the node information to encode
+   * @return the encoded partyinfo, which must not be modified as it may be given out again
+   */
+  public byte[] encode(final NodeInfo nodeInfo) {
+    return snapshot(nodeInfo).getData();
+  }
+
+  /**
+   * Takes the partyinfo of the given node along with its encoding, so that it can be compared with
+   * the partyinfo the node has later on
+   *
+   * @param nodeInfo the node information to encode
+   * @return the partyinfo of the node as it is now
+   */
+  public Snapshot snapshot(final NodeInfo nodeInfo) {
+    final String url = nodeInfo.getUrl();
+    final Set<Recipient> recipients = Set.copyOf(nodeInfo.getRecipients());
+
+    final Snapshot last = lastSnapshot.get();
+    if (last != null && last.url.equals(url) && last.recipients.equals(recipients)) {
+      return last;
+    }
+
+    final PartyInfo partyInfo =
+        PartyInfoBuilder.create()
+            .withUri(url)
+            .withRecipients(nodeInfo.getRecipientsAsMap())
+            .build();
+
+    final Snapshot snapshot =
+        new Snapshot(url, recipients, partyInfo, partyInfoParser.to(partyInfo));
+    lastSnapshot.set(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Encodes the recipients of the current partyinfo that are not in the base partyinfo, either
+   * because they were added or because their URL changed
+   *
+   * @param base the partyinfo a peer holds already
+   * @param current the partyinfo the peer should hold
+   * @return the encoded partyinfo holding only the added and changed recipients
+   */
+  public byte[] encodeChanges(final Snapshot base, final Snapshot current) {
+    final Set<com.quorum.tessera.partyinfo.model.Recipient> changed =
+        current.partyInfo.getRecipients().stream()
+            .filter(r -> !base.partyInfo.getRecipients().contains(r))
+            .collect(Collectors.toSet());
+    final Set<Party> parties =
+        changed.stream()
+            .map(com.quorum.tessera.partyinfo.model.Recipient::getUrl)
+            .map(Party::new)
+            .collect(Collectors.toSet());
+
+    return partyInfoParser.to(new PartyInfo(current.url, changed, parties));
+  }
+
+  /**
+   * @param base the partyinfo a peer holds already
+   * @param current the partyinfo the peer should hold
+   * @return the keys in the base partyinfo that are not in the current one under any URL
+   */
+  public static Set<PublicKey> removedKeys(final Snapshot base, final Snapshot current) {
+    final Set<PublicKey> currentKeys = keys(current);
+    return keys(base).stream().filter(k -> !currentKeys.contains(k)).collect(Collectors.toSet());
+  }
+
+  private static Set<PublicKey> keys(final Snapshot snapshot) {
+    return snapshot.partyInfo.getRecipients().stream()
+        .map(com.quorum.tessera.partyinfo.model.Recipient::getKey)
+        .collect(Collectors.toSet());
+  }
+
+  /** The partyinfo of this node at some point, along with its encoding and digest */
+  public static final class Snapshot {
+
+    private final String url;
+
+    private final Set<Recipient> recipients;
+
+    private final PartyInfo partyInfo;
+
+    private final byte[] data;
+
+    private volatile String digest;
+
+    private Snapshot(
+        final String url,
+        final Set<Recipient> recipients,
+        final PartyInfo partyInfo,
+        final byte[] data) {
+      this.url = url;
+      this.recipients = recipients;
+      this.partyInfo = partyInfo;
+      this.data = data;
+    }
+
+    public byte[] getData() {
+      return data;
+    }
+
+    /** The digest is only worked out when first asked for, as not every sender needs it */
+    public String getDigest() {
+      String value = digest;
+      if (value == null) {
+        value = PartyInfoDigest.of(partyInfo);
+        digest = value;
+      }
+      return value;
+    }
+  }
+}
@@ -8,13 +8,13 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.Recipient;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import org.apache.commons.lang3.ArrayUtils;
+import java.util.*;
 
 /** A parser for PartyInfo node discovery information */
 public interface PartyInfoParser extends BinaryEncoder {
@@ -75,6 +75,43 @@ public interface PartyInfoParser extends BinaryEncoder {
     return new PartyInfo(url, recipients, parties);
   }
 
+  /**
+   * Decodes a set of PartyInfo as it is read from the stream, without holding the whole encoded
+   * form in memory first. The stream is read up to the end of the encoded PartyInfo and is not
+   * closed.
+   *
+   * @param encoded the stream of encoded information that needs to be read
+   * @return the decoded {@link PartyInfo} which contains the other nodes information
+   */
+  default PartyInfo from(final InputStream encoded) {
+    final DataInputStream input = new DataInputStream(encoded);
+    try {
+      final String url = new String(readField(input), UTF_8);
+
+      final int numberOfRecipients = toIntExact(input.readLong());
+      checkLength(numberOfRecipients);
+
+      final Set<Recipient> recipients = new HashSet<>();
+      for (int i = 0; i < numberOfRecipients; i++) {
+        final byte[] recipientKeyBytes = readField(input);
+        final String recipientUrl = new String(readField(input), UTF_8);
+        recipients.add(Recipient.of(PublicKey.from(recipientKeyBytes), recipientUrl));
+      }
+
+      final int partyCount = toIntExact(input.readLong());
+      checkLength(partyCount);
+
+      final Set<Party> parties = new HashSet<>();
+      for (int i = 0; i < partyCount; i++) {
+        parties.add(new Party(new String(readField(input), UTF_8)));
+      }
+
+      return new PartyInfo(url, recipients, parties);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   /**
    * Encodes a {@link PartyInfo} object to the defined structure that is shared between nodes
    *
@@ -86,34 +123,36 @@ public interface PartyInfoParser extends BinaryEncoder {
    */
   default byte[] to(final PartyInfo partyInfo) {
 
-    // prefix and url bytes
-    final byte[] url = encodeField(partyInfo.getUrl().getBytes(UTF_8));
-
-    // each element in the list is one encoded element from the map
-    // so the prefix is always 2 (2 elements) and
-    final byte[] recipients =
-        partyInfo.getRecipients().stream()
-            .map(
-                r -> {
-                  final byte[] encodedKey = encodeField(r.getKey().getKeyBytes());
-                  final byte[] encodedUrl = encodeField(r.getUrl().getBytes(UTF_8));
-                  return ArrayUtils.addAll(encodedKey, encodedUrl);
-                })
-            .reduce(new byte[0], ArrayUtils::addAll);
-
-    final List<byte[]> parties =
-        partyInfo.getParties().stream()
-            .map(p -> p.getUrl().getBytes(UTF_8))
-            .collect(Collectors.toList());
-
-    final byte[] partiesBytes = encodeArray(parties);
-
-    return ByteBuffer.allocate(url.length + Long.BYTES + recipients.length + partiesBytes.length)
-        .put(url)
-        .putLong(partyInfo.getRecipients().size())
-        .put(recipients)
-        .put(partiesBytes)
-        .array();
+    final byte[] url = partyInfo.getUrl().getBytes(UTF_8);
+
+    // each recipient is its key followed by its url, with no count of the elements in between
+    final List<byte[]> recipients = new ArrayList<>(2 * partyInfo.getRecipients().size());
+    for (final Recipient recipient : partyInfo.getRecipients()) {
+      recipients.add(recipient.getKey().getKeyBytes());
+      recipients.add(recipient.getUrl().getBytes(UTF_8));
+    }
+
+    final List<byte[]> parties = new ArrayList<>(partyInfo.getParties().size());
+    for (final Party party : partyInfo.getParties()) {
+      parties.add(party.getUrl().getBytes(UTF_8));
+    }
+
+    final int size =
+        Long.BYTES
+            + url.length
+            + Long.BYTES
+            + recipients.stream().mapToInt(r -> Long.BYTES + r.length).sum()
+            + Long.BYTES
+            + parties.stream().mapToInt(p -> Long.BYTES + p.length).sum();
+
+    final ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putLong(url.length).put(url);
+    buffer.putLong(partyInfo.getRecipients().size());
+    recipients.forEach(r -> buffer.putLong(r.length).put(r));
+    buffer.putLong(parties.size());
+    parties.forEach(p -> buffer.putLong(p.length).put(p));
+
+    return buffer.array();
   }
 
   /**
@@ -138,4 +177,16 @@ public interface PartyInfoParser extends BinaryEncoder {
         .filter(v -> v < Integer.MAX_VALUE - 1)
         .orElseThrow(() -> new PartyInfoParserException("Invalid length " + value));
   }
+
+  private static byte[] readField(final DataInputStream input) throws IOException {
+    final int length = toIntExact(input.readLong());
+    checkLength(length);
+
+    // read in chunks rather than allocating the claimed length up front
+    final byte[] data = input.readNBytes(length);
+    if (data.length != length) {
+      throw new EOFException("Expected " + length + " bytes but only " + data.length + " remain");
+    }
+    return data;
+  }
 }
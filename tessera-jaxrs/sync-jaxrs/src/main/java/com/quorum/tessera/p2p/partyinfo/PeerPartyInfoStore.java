@@ -0,0 +1,171 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import com.quorum.tessera.discovery.NodeUri;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the partyinfo that each peer last sent to this node, and which of the (key, url) pairs
+ * in it have been validated. A peer whose partyinfo is known here can send only a digest of it, or
+ * the recipients that changed since, rather than the whole of it every round.
+ *
+ * <p>A validated pair is remembered until the peer no longer advertises it, the peer is
+ * disconnected or the validation expires, after which the pair is validated again the next time it
+ * is seen. At most {@code maxValidated} pairs are remembered, the least recently used being
+ * forgotten first. Pairs that failed validation are not remembered, so they are tried again each
+ * time they are seen.
+ */
+public class PeerPartyInfoStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PeerPartyInfoStore.class);
+
+  public static final Duration DEFAULT_VALIDATION_EXPIRY = Duration.ofHours(1);
+
+  public static final int DEFAULT_MAX_VALIDATED = 10_000;
+
+  private static final PeerPartyInfoStore INSTANCE = new PeerPartyInfoStore();
+
+  private final ConcurrentMap<NodeUri, Advertised> advertised = new ConcurrentHashMap<>();
+
+  private final Map<Recipient, Long> validated;
+
+  private final long expiryMillis;
+
+  private final LongSupplier clock;
+
+  public PeerPartyInfoStore() {
+    this(DEFAULT_MAX_VALIDATED, DEFAULT_VALIDATION_EXPIRY, System::currentTimeMillis);
+  }
+
+  public PeerPartyInfoStore(final Duration validationExpiry, final LongSupplier clock) {
+    this(DEFAULT_MAX_VALIDATED, validationExpiry, clock);
+  }
+
+  public PeerPartyInfoStore(
+      final int maxValidated, final Duration validationExpiry, final LongSupplier clock) {
+    if (maxValidated <= 0) {
+      throw new IllegalArgumentException("maxValidated must be positive");
+    }
+    this.expiryMillis = validationExpiry.toMillis();
+    this.clock = Objects.requireNonNull(clock);
+    this.validated =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Recipient, Long> eldest) {
+            return size() > maxValidated;
+          }
+        };
+  }
+
+  /** The store shared by the partyinfo endpoints and the broadcaster of this node */
+  public static PeerPartyInfoStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Fetches the recipients last advertised by a peer, as long as they are the ones the given digest
+   * was computed over
+   *
+   * @param url the URL of the peer
+   * @param digest the digest the peer expects this node to hold for it
+   * @return the recipients last advertised by the peer, or empty if this node holds a different
+   *     partyinfo for the peer or none at all
+   */
+  public Optional<Set<Recipient>> getAdvertised(final String url, final String digest) {
+    return Optional.ofNullable(advertised.get(NodeUri.create(url)))
+        .filter(a -> a.digest.equals(digest))
+        .map(a -> a.recipients);
+  }
+
+  /**
+   * Records the recipients a peer has advertised, forgetting the validation of any pair it no
+   * longer advertises
+   *
+   * @param url the URL of the peer
+   * @param digest the digest of the peer's partyinfo
+   * @param recipients all the recipients in the peer's partyinfo
+   */
+  public void storeAdvertised(
+      final String url, final String digest, final Set<Recipient> recipients) {
+    final Set<Recipient> current = Set.copyOf(recipients);
+    final Advertised previous =
+        advertised.put(NodeUri.create(url), new Advertised(digest, current));
+
+    if (previous != null) {
+      synchronized (validated) {
+        previous.recipients.stream().filter(r -> !current.contains(r)).forEach(validated::remove);
+      }
+    }
+    LOGGER.debug("Stored partyinfo with digest {} for peer {}", digest, url);
+  }
+
+  /**
+   * @param recipient the (key, url) pair to look up
+   * @return whether the pair has been validated and the validation has not expired
+   */
+  public boolean isValidated(final Recipient recipient) {
+    final long now = clock.getAsLong();
+    synchronized (validated) {
+      final Long validatedAt = validated.get(recipient);
+      if (validatedAt == null) {
+        return false;
+      }
+      if (now - validatedAt >= expiryMillis) {
+        validated.remove(recipient);
+        return false;
+      }
+      return true;
+    }
+  }
+
+  public void storeValidated(final Recipient recipient) {
+    final long now = clock.getAsLong();
+    synchronized (validated) {
+      validated.put(recipient, now);
+    }
+  }
+
+  /**
+   * Forgets everything held for a peer, e.g. because it has been disconnected, so that its keys
+   * are validated again if it comes back
+   *
+   * @param url the URL of the peer
+   */
+  public void remove(final URI url) {
+    final NodeUri nodeUri = NodeUri.create(url);
+    advertised.remove(nodeUri);
+    synchronized (validated) {
+      validated.keySet().removeIf(r -> NodeUri.create(r.getUrl()).equals(nodeUri));
+    }
+    LOGGER.debug("Removed partyinfo and validated keys for peer {}", nodeUri);
+  }
+
+  public int validatedSize() {
+    synchronized (validated) {
+      return validated.size();
+    }
+  }
+
+  private static final class Advertised {
+
+    private final String digest;
+
+    private final Set<Recipient> recipients;
+
+    private Advertised(final String digest, final Set<Recipient> recipients) {
+      this.digest = Objects.requireNonNull(digest);
+      this.recipients = recipients;
+    }
+  }
+}
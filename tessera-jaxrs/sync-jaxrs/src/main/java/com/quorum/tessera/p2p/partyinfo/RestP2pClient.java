@@ -1,9 +1,14 @@
 package com.quorum.tessera.p2p.partyinfo;
 
+import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.partyinfo.P2pClient;
+import com.quorum.tessera.shared.Constants;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -24,12 +29,53 @@ class RestP2pClient implements P2pClient {
   public boolean sendPartyInfo(final String targetUrl, final byte[] data) {
     LOGGER.debug("Sending PartyInfo to peer {}", targetUrl);
 
-    try (Response response =
+    return post(targetUrl, client.target(targetUrl).path("/partyinfo").request(), data);
+  }
+
+  @Override
+  public boolean sendPartyInfo(final String targetUrl, final byte[] data, final String digest) {
+    LOGGER.debug("Sending PartyInfo with digest {} to peer {}", digest, targetUrl);
+
+    final Invocation.Builder request =
         client
             .target(targetUrl)
             .path("/partyinfo")
             .request()
-            .post(Entity.entity(data, MediaType.APPLICATION_OCTET_STREAM_TYPE))) {
+            .header(Constants.PARTY_INFO_DIGEST_HEADER, digest);
+
+    return post(targetUrl, request, data);
+  }
+
+  @Override
+  public boolean sendPartyInfoDelta(
+      final String targetUrl,
+      final byte[] data,
+      final String baseDigest,
+      final String digest,
+      final Collection<PublicKey> removedKeys) {
+    LOGGER.debug("Sending PartyInfo changes since {} to peer {}", baseDigest, targetUrl);
+
+    final Invocation.Builder request =
+        client
+            .target(targetUrl)
+            .path("/partyinfo/delta")
+            .request()
+            .header(Constants.PARTY_INFO_BASE_DIGEST_HEADER, baseDigest)
+            .header(Constants.PARTY_INFO_DIGEST_HEADER, digest);
+
+    if (!removedKeys.isEmpty()) {
+      final String keys =
+          removedKeys.stream().map(PublicKey::encodeToBase64).collect(Collectors.joining(","));
+      request.header(Constants.PARTY_INFO_REMOVED_KEYS_HEADER, keys);
+    }
+
+    return post(targetUrl, request, data);
+  }
+
+  private static boolean post(
+      final String targetUrl, final Invocation.Builder request, final byte[] data) {
+    try (Response response =
+        request.post(Entity.entity(data, MediaType.APPLICATION_OCTET_STREAM_TYPE))) {
 
       final int returnStatusCode = response.getStatus();
       if (Status.OK.getStatusCode() != returnStatusCode
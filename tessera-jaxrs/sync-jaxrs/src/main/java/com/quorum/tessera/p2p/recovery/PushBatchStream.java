@@ -0,0 +1,78 @@
+package com.quorum.tessera.p2p.recovery;
+
+import com.quorum.tessera.base64.DecodingException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The binary form of a batch of encoded payloads pushed to a node in recovery mode. It is laid out
+ * the same way as {@link com.quorum.tessera.enclave.BinaryEncoder#encodeArray(List)}: 8 bytes for
+ * the number of payloads and then, for each payload, 8 bytes for its length followed by its bytes.
+ *
+ * <p>Unlike the JSON form the payloads are not base64 encoded, and they are written to and read
+ * from the stream one at a time rather than being built into a single document first.
+ */
+public final class PushBatchStream {
+
+  private PushBatchStream() {}
+
+  /**
+   * Writes the payloads to the stream, leaving the stream open
+   *
+   * @param encodedPayloads the encoded payloads to write
+   * @param outputStream the stream to write to
+   * @throws IOException if the stream cannot be written to
+   */
+  public static void write(final List<byte[]> encodedPayloads, final OutputStream outputStream)
+      throws IOException {
+    Objects.requireNonNull(encodedPayloads);
+    final DataOutputStream output = new DataOutputStream(outputStream);
+    output.writeLong(encodedPayloads.size());
+    for (final byte[] encodedPayload : encodedPayloads) {
+      output.writeLong(encodedPayload.length);
+      output.write(encodedPayload);
+    }
+    output.flush();
+  }
+
+  /**
+   * Reads payloads written by {@link #write(List, OutputStream)}
+   *
+   * @param inputStream the stream to read from
+   * @return the encoded payloads, in the order they were written
+   * @throws DecodingException if the stream ends early or the lengths it gives are not valid
+   */
+  public static List<byte[]> read(final InputStream inputStream) {
+    final DataInputStream input = new DataInputStream(inputStream);
+    try {
+      final long count = input.readLong();
+      if (count < 0) {
+        throw new DecodingException(new IOException("Invalid payload count " + count));
+      }
+
+      // the count is not trusted to size the list, the stream has to actually hold the payloads
+      final List<byte[]> encodedPayloads = new ArrayList<>();
+      for (long i = 0; i < count; i++) {
+        final long length = input.readLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+          throw new DecodingException(new IOException("Invalid payload length " + length));
+        }
+        final byte[] encodedPayload = input.readNBytes((int) length);
+        if (encodedPayload.length != length) {
+          throw new DecodingException(new EOFException("Payload batch ended early"));
+        }
+        encodedPayloads.add(encodedPayload);
+      }
+      return encodedPayloads;
+    } catch (final IOException ex) {
+      throw new DecodingException(ex);
+    }
+  }
+}
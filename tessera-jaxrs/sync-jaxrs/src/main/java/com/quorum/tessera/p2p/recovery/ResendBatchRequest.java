@@ -1,6 +1,7 @@
 package com.quorum.tessera.p2p.recovery;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
 
 /**
  * Model representation of a JSON body on incoming HTTP requests. Used when a request is received to
@@ -8,6 +9,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
  *
  * <ul>
  *   <li>the public key who is a recipient
+ *   <li>optionally, further public keys on the same node, so that transactions for all of them are
+ *       resent in a single pass
  *   <li>the batch size
  * </ul>
  */
@@ -19,6 +22,12 @@ public class ResendBatchRequest {
       required = true)
   private String publicKey;
 
+  @Schema(
+      description = "also resend transactions involving these public keys",
+      type = "array",
+      format = "base64")
+  private List<String> publicKeys;
+
   @Schema(description = "default value is used if not provided")
   private Integer batchSize;
 
@@ -30,6 +39,14 @@ public class ResendBatchRequest {
     this.publicKey = publicKey;
   }
 
+  public List<String> getPublicKeys() {
+    return publicKeys;
+  }
+
+  public void setPublicKeys(final List<String> publicKeys) {
+    this.publicKeys = publicKeys;
+  }
+
   public Integer getBatchSize() {
     return batchSize;
   }
@@ -5,7 +5,9 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.resend.ResendRequest;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +38,28 @@ public class RestBatchTransactionRequester implements BatchTransactionRequester
         .allMatch(req -> this.makeRequest(uri, req) >= 0);
   }
 
+  @Override
+  public boolean requestAllTransactionsForAllKeysFromNode(final String uri) {
+
+    LOGGER.info("Requesting transactions get resent for all keys from {}", uri);
+
+    final List<String> keys =
+        this.enclave.getPublicKeys().stream()
+            .map(PublicKey::encodeToBase64)
+            .collect(Collectors.toList());
+
+    if (keys.isEmpty()) {
+      return true;
+    }
+
+    final ResendBatchRequest request = new ResendBatchRequest();
+    request.setPublicKey(keys.get(0));
+    request.setPublicKeys(keys);
+    request.setBatchSize(batchSize);
+
+    return this.makeRequest(uri, request) >= 0;
+  }
+
   @Override
   public boolean requestAllTransactionsFromLegacyNode(String uri) {
 
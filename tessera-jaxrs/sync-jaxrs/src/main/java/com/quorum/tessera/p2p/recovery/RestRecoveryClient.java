@@ -2,13 +2,25 @@ package com.quorum.tessera.p2p.recovery;
 
 import com.quorum.tessera.p2p.resend.ResendRequest;
 import java.util.Objects;
+import java.util.Set;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RestRecoveryClient implements RecoveryClient {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(RestRecoveryClient.class);
+
+  private static final Set<Integer> BINARY_NOT_ACCEPTED =
+      Set.of(
+          Response.Status.UNSUPPORTED_MEDIA_TYPE.getStatusCode(),
+          Response.Status.NOT_FOUND.getStatusCode(),
+          Response.Status.BAD_REQUEST.getStatusCode());
+
   private final Client client;
 
   public RestRecoveryClient(final Client client) {
@@ -25,17 +37,39 @@ public class RestRecoveryClient implements RecoveryClient {
     }
   }
 
+  /**
+   * Pushes the batch in its binary form, see {@link PushBatchStream}. Nodes that only accept the
+   * JSON form answer with 415 Unsupported Media Type, or with 404 Not Found or 400 Bad Request
+   * depending on how they match the request to a resource, in which case the batch is sent again
+   * as JSON.
+   */
   @Override
   public boolean pushBatch(String targetUrl, PushBatchRequest pushBatchRequest) {
 
-    final Response response =
+    final StreamingOutput pushBatchStream =
+        output -> PushBatchStream.write(pushBatchRequest.getEncodedPayloads(), output);
+
+    try (Response response =
         client
             .target(targetUrl)
             .path("/pushBatch")
             .request()
-            .post(Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON));
+            .post(Entity.entity(pushBatchStream, MediaType.APPLICATION_OCTET_STREAM))) {
+      if (!BINARY_NOT_ACCEPTED.contains(response.getStatus())) {
+        return Response.Status.OK.getStatusCode() == response.getStatus();
+      }
+    }
+
+    LOGGER.debug("{} does not accept binary push batches, sending as JSON", targetUrl);
 
-    return Response.Status.OK.getStatusCode() == response.getStatus();
+    try (Response response =
+        client
+            .target(targetUrl)
+            .path("/pushBatch")
+            .request()
+            .post(Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON))) {
+      return Response.Status.OK.getStatusCode() == response.getStatus();
+    }
   }
 
   @Override
@@ -1,17 +1,20 @@
 package com.quorum.tessera.p2p.resend;
 
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoEncoder;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.PartyInfoBuilder;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +27,12 @@ public class SyncPoller implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SyncPoller.class);
 
+  static final String EXECUTOR_NAME = "sync-poller";
+
+  static final int THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+  static final int QUEUE_CAPACITY = 1000;
+
   private final ExecutorService executorService;
 
   private final ResendPartyStore resendPartyStore;
@@ -34,7 +43,7 @@ public class SyncPoller implements Runnable {
 
   private final P2pClient p2pClient;
 
-  private final PartyInfoParser partyInfoParser;
+  private final PartyInfoEncoder partyInfoEncoder;
 
   public SyncPoller(
       ResendPartyStore resendPartyStore,
@@ -42,7 +51,8 @@ public class SyncPoller implements Runnable {
       P2pClient p2pClient) {
 
     this(
-        Executors.newCachedThreadPool(),
+        new ExecutorFactory()
+            .create(EXECUTOR_NAME, THREADS, QUEUE_CAPACITY, BoundedExecutor.RejectionPolicy.ABORT),
         resendPartyStore,
         transactionRequester,
         Discovery.create(),
@@ -61,7 +71,7 @@ public class SyncPoller implements Runnable {
     this.resendPartyStore = Objects.requireNonNull(resendPartyStore);
     this.transactionRequester = Objects.requireNonNull(transactionRequester);
     this.discovery = Objects.requireNonNull(discovery);
-    this.partyInfoParser = Objects.requireNonNull(partyInfoParser);
+    this.partyInfoEncoder = new PartyInfoEncoder(partyInfoParser);
     this.p2pClient = Objects.requireNonNull(p2pClient);
   }
 
@@ -112,7 +122,14 @@ public class SyncPoller implements Runnable {
             }
           };
 
-      this.executorService.submit(action);
+      try {
+        this.executorService.submit(action);
+      } catch (final RejectedExecutionException ex) {
+        // the pool is full, so leave this party and the rest of them for the next round
+        LOGGER.warn("Too many resend requests pending, {} will be retried later", url);
+        this.resendPartyStore.incrementFailedAttempt(requestDetails);
+        return;
+      }
 
       nextPartyToSend = this.resendPartyStore.getNextParty();
     }
@@ -122,15 +139,9 @@ public class SyncPoller implements Runnable {
     try {
       final NodeInfo nodeInfo = discovery.getCurrent();
 
-      final PartyInfo partyInfo =
-          PartyInfoBuilder.create()
-              .withUri(nodeInfo.getUrl())
-              .withRecipients(nodeInfo.getRecipientsAsMap())
-              .build();
-
       LOGGER.debug("Sending node info {} to {}", nodeInfo, url);
 
-      final byte[] encodedPartyInfo = partyInfoParser.to(partyInfo);
+      final byte[] encodedPartyInfo = partyInfoEncoder.encode(nodeInfo);
 
       // we deliberately discard the response as we do not want to fully duplicate the
       // PartyInfoPoller
@@ -7,6 +7,9 @@ import static org.mockito.Mockito.mockStatic;
 import com.quorum.tessera.api.common.UpCheckResource;
 import com.quorum.tessera.api.filter.IPWhitelistFilter;
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.context.RuntimeContext;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
@@ -18,6 +21,7 @@ import com.quorum.tessera.recovery.workflow.LegacyResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.ws.rs.client.Client;
 import org.junit.After;
@@ -172,7 +176,12 @@ public class P2PRestAppTest {
         var payloadEncoderMockedStatic = mockStatic(PayloadEncoder.class);
         var batchResendManagerMockedStatic = mockStatic(BatchResendManager.class);
         var legacyResendManagerMockedStatic = mockStatic(LegacyResendManager.class);
-        var privacyGroupManagerMockedStatic = mockStatic(PrivacyGroupManager.class)) {
+        var privacyGroupManagerMockedStatic = mockStatic(PrivacyGroupManager.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+
+      final ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(config(Map.of()));
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
 
       privacyGroupManagerMockedStatic
           .when(PrivacyGroupManager::create)
@@ -219,6 +228,41 @@ public class P2PRestAppTest {
 
       privacyGroupManagerMockedStatic.verify(PrivacyGroupManager::create);
       partyStoreMockedStatic.verifyNoMoreInteractions();
+
+      configFactoryMockedStatic.verify(ConfigFactory::create);
+      configFactoryMockedStatic.verifyNoMoreInteractions();
     }
   }
+
+  @Test
+  public void maxValidationBatchSizeIsReadFromP2PServerProperties() {
+    assertThat(
+            P2PRestApp.maxValidationBatchSize(
+                config(Map.of(P2PRestApp.MAX_VALIDATION_BATCH_SIZE, "20"))))
+        .isEqualTo(20);
+  }
+
+  @Test
+  public void maxValidationBatchSizeDefaultsWhenNotConfiguredOrInvalid() {
+    assertThat(P2PRestApp.maxValidationBatchSize(config(Map.of())))
+        .isEqualTo(PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE);
+    assertThat(P2PRestApp.maxValidationBatchSize(mock(Config.class)))
+        .isEqualTo(PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE);
+
+    for (String value : new String[] {"lots", "0", "-1", ""}) {
+      assertThat(
+              P2PRestApp.maxValidationBatchSize(
+                  config(Map.of(P2PRestApp.MAX_VALIDATION_BATCH_SIZE, value))))
+          .describedAs(value)
+          .isEqualTo(PartyInfoResource.DEFAULT_MAX_VALIDATION_BATCH_SIZE);
+    }
+  }
+
+  private static Config config(Map<String, String> properties) {
+    final ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.getProperties()).thenReturn(properties);
+    final Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(serverConfig);
+    return config;
+  }
 }
@@ -10,21 +10,30 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMetadata;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigest;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.PeerPartyInfoStore;
 import com.quorum.tessera.partyinfo.model.NodeInfoUtil;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.Recipient;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
+import javax.json.JsonString;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
@@ -63,7 +72,14 @@ public class PartyInfoResourceTest {
     this.partyStore = mock(PartyStore.class);
     this.partyInfoResource =
         new PartyInfoResource(
-            discovery, partyInfoParser, restClient, enclave, payloadEncoder, true, partyStore);
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            true,
+            partyStore,
+            new PeerPartyInfoStore());
   }
 
   @After
@@ -133,6 +149,7 @@ public class PartyInfoResourceTest {
     String message = "I love sparrows";
 
     byte[] payload = message.getBytes();
+    final InputStream body = new ByteArrayInputStream(payload);
 
     Recipient recipient = Recipient.of(recipientKey, url);
 
@@ -140,7 +157,7 @@ public class PartyInfoResourceTest {
 
     PartyInfo partyInfo = new PartyInfo(url, recipientList, Collections.emptySet());
 
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
 
     when(enclave.defaultPublicKey()).thenReturn(myKey);
 
@@ -174,11 +191,11 @@ public class PartyInfoResourceTest {
 
     when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
 
-    Response result = partyInfoResource.partyInfo(payload, List.of("v1,v2"));
+    Response result = partyInfoResource.partyInfo(body, null, List.of("v1,v2"));
 
     assertThat(result.getStatus()).isEqualTo(200);
 
-    verify(partyInfoParser).from(payload);
+    verify(partyInfoParser).from(body);
     verify(enclave).defaultPublicKey();
     verify(enclave)
         .encryptPayload(
@@ -267,6 +284,7 @@ public class PartyInfoResourceTest {
     String message = "I love sparrows";
 
     byte[] payload = message.getBytes();
+    final InputStream body = new ByteArrayInputStream(payload);
 
     Recipient recipient = Recipient.of(recipientKey, url);
 
@@ -274,7 +292,7 @@ public class PartyInfoResourceTest {
 
     PartyInfo partyInfo = new PartyInfo(url, recipientList, Collections.emptySet());
 
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
 
     when(enclave.defaultPublicKey()).thenReturn(myKey);
 
@@ -302,10 +320,10 @@ public class PartyInfoResourceTest {
     when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
 
     try {
-      partyInfoResource.partyInfo(payload, Collections.emptyList());
+      partyInfoResource.partyInfo(body, null, Collections.emptyList());
       failBecauseExceptionWasNotThrown(SecurityException.class);
     } catch (SecurityException ex) {
-      verify(partyInfoParser).from(payload);
+      verify(partyInfoParser).from(body);
       verify(enclave).defaultPublicKey();
       verify(enclave)
           .encryptPayload(
@@ -330,6 +348,7 @@ public class PartyInfoResourceTest {
     String message = "I love sparrows";
 
     byte[] payload = message.getBytes();
+    final InputStream body = new ByteArrayInputStream(payload);
 
     Recipient recipient = Recipient.of(recipientKey, url);
 
@@ -337,7 +356,7 @@ public class PartyInfoResourceTest {
 
     PartyInfo partyInfo = new PartyInfo(url, recipientList, Collections.emptySet());
 
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
 
     when(enclave.defaultPublicKey()).thenReturn(myKey);
 
@@ -365,10 +384,10 @@ public class PartyInfoResourceTest {
     when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
 
     try {
-      partyInfoResource.partyInfo(payload, List.of("v1", "v2"));
+      partyInfoResource.partyInfo(body, null, List.of("v1", "v2"));
       failBecauseExceptionWasNotThrown(SecurityException.class);
     } catch (SecurityException ex) {
-      verify(partyInfoParser).from(payload);
+      verify(partyInfoParser).from(body);
       verify(enclave).defaultPublicKey();
       verify(enclave)
           .encryptPayload(
@@ -390,6 +409,7 @@ public class PartyInfoResourceTest {
     String message = "I love sparrows";
 
     byte[] payload = message.getBytes();
+    final InputStream body = new ByteArrayInputStream(payload);
 
     Recipient recipient = Recipient.of(recipientKey, url);
 
@@ -397,7 +417,7 @@ public class PartyInfoResourceTest {
 
     PartyInfo partyInfo = new PartyInfo(url, recipientList, Collections.emptySet());
 
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
 
     when(enclave.defaultPublicKey()).thenReturn(myKey);
 
@@ -421,10 +441,10 @@ public class PartyInfoResourceTest {
         .thenThrow(new UncheckedIOException(new IOException("GURU meditation")));
 
     try {
-      partyInfoResource.partyInfo(payload, null);
+      partyInfoResource.partyInfo(body, null, null);
       failBecauseExceptionWasNotThrown(SecurityException.class);
     } catch (SecurityException ex) {
-      verify(partyInfoParser).from(payload);
+      verify(partyInfoParser).from(body);
       verify(enclave).defaultPublicKey();
       verify(enclave)
           .encryptPayload(
@@ -438,9 +458,17 @@ public class PartyInfoResourceTest {
   public void validationDisabledPassesAllKeysToStore() {
     this.partyInfoResource =
         new PartyInfoResource(
-            discovery, partyInfoParser, restClient, enclave, payloadEncoder, false, partyStore);
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            false,
+            partyStore,
+            new PeerPartyInfoStore());
 
     final byte[] payload = "Test message".getBytes();
+    final InputStream body = new ByteArrayInputStream(payload);
 
     final String url = "http://www.bogus.com";
     final String otherurl = "http://www.randomaddress.com";
@@ -453,18 +481,18 @@ public class PartyInfoResourceTest {
     final ArgumentCaptor<PartyInfo> captor = ArgumentCaptor.forClass(PartyInfo.class);
     final byte[] serialisedData = "SERIALISED".getBytes();
 
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
     when(discovery.getCurrent()).thenReturn(nodeInfo);
     when(partyInfoParser.to(captor.capture())).thenReturn(serialisedData);
 
-    final Response callResponse = partyInfoResource.partyInfo(payload, null);
+    final Response callResponse = partyInfoResource.partyInfo(body, null, null);
     final byte[] data = (byte[]) callResponse.getEntity();
 
     assertThat(captor.getValue().getUrl()).isEqualTo(url);
     assertThat(captor.getValue().getRecipients()).isEmpty();
     assertThat(captor.getValue().getParties()).isEmpty();
     assertThat(new String(data)).isEqualTo("SERIALISED");
-    verify(partyInfoParser).from(payload);
+    verify(partyInfoParser).from(body);
     verify(partyInfoParser).to(any(PartyInfo.class));
 
     final ArgumentCaptor<NodeInfo> modifiedPartyInfoCaptor =
@@ -495,7 +523,8 @@ public class PartyInfoResourceTest {
     PartyInfo partyInfo = new PartyInfo(url, recipients, parties);
 
     byte[] payload = new byte[] {};
-    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    final InputStream body = new ByteArrayInputStream(payload);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
 
     when(enclave.defaultPublicKey()).thenReturn(PublicKey.from("defaultKey".getBytes()));
     EncodedPayload encodedPayload = mock(EncodedPayload.class);
@@ -537,7 +566,7 @@ public class PartyInfoResourceTest {
         .readEntity(String.class);
 
     // the test
-    partyInfoResource.partyInfo(payload, null);
+    partyInfoResource.partyInfo(body, null, null);
 
     ArgumentCaptor<byte[]> uuidCaptor = ArgumentCaptor.forClass(byte[].class);
     verify(enclave, times(2))
@@ -549,9 +578,543 @@ public class PartyInfoResourceTest {
 
     // other verifications
     verify(discovery).onUpdate(any(NodeInfo.class));
-    verify(partyInfoParser).from(payload);
+    verify(partyInfoParser).from(body);
     verify(enclave).defaultPublicKey();
     verify(payloadEncoder, times(2)).encode(encodedPayload);
     verify(restClient, times(2)).target(url);
   }
+
+  @Test
+  public void unchangedPartyInfoIsNotValidatedAgain() {
+    final String url = "http://www.bogus.com";
+    final PublicKey key = PublicKey.from("recipientKey".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(url, Set.of(Recipient.of(key, url)), Collections.emptySet());
+    final String digest = PartyInfoDigest.of(partyInfo);
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    final InputStream deltaBody = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(partyInfoParser.from(deltaBody))
+        .thenReturn(new PartyInfo(url, Collections.emptySet(), Collections.emptySet()));
+    final EncodedPayload encodedPayload = stubValidation(url);
+
+    final Response first = partyInfoResource.partyInfo(body, digest, List.of("3.3"));
+    final Response second =
+        partyInfoResource.partyInfoDelta(deltaBody, digest, digest, null, List.of("3.3"));
+
+    assertThat(first.getStatus()).isEqualTo(200);
+    assertThat(second.getStatus()).isEqualTo(200);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery, times(2)).onUpdate(captor.capture());
+    assertThat(captor.getAllValues())
+        .allSatisfy(
+            n ->
+                assertThat(n.getRecipients())
+                    .containsExactly(com.quorum.tessera.partyinfo.node.Recipient.of(key, url)));
+
+    verify(partyInfoParser).from(body);
+    verify(partyInfoParser).from(deltaBody);
+    verify(enclave, times(2)).defaultPublicKey();
+    verify(enclave)
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    verify(payloadEncoder).encode(encodedPayload);
+    verify(restClient).target(url);
+  }
+
+  @Test
+  public void validationIsRepeatedOnceExpired() {
+    final AtomicLong clock = new AtomicLong();
+    this.partyInfoResource =
+        new PartyInfoResource(
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            true,
+            partyStore,
+            new PeerPartyInfoStore(Duration.ofMinutes(1), clock::get));
+
+    final String url = "http://www.bogus.com";
+    final PublicKey key = PublicKey.from("recipientKey".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(url, Set.of(Recipient.of(key, url)), Collections.emptySet());
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    final EncodedPayload encodedPayload = stubValidation(url);
+
+    partyInfoResource.partyInfo(body, null, null);
+    clock.set(Duration.ofSeconds(59).toMillis());
+    partyInfoResource.partyInfo(body, null, null);
+    clock.set(Duration.ofMinutes(1).toMillis());
+    partyInfoResource.partyInfo(body, null, null);
+
+    verify(partyInfoParser, times(3)).from(body);
+    verify(discovery, times(3)).onUpdate(any(NodeInfo.class));
+    verify(enclave, times(3)).defaultPublicKey();
+    verify(enclave, times(2))
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    verify(payloadEncoder, times(2)).encode(encodedPayload);
+    verify(restClient, times(2)).target(url);
+  }
+
+  @Test
+  public void partyInfoDeltaAppliesChanges() {
+    this.partyInfoResource =
+        new PartyInfoResource(
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            false,
+            partyStore,
+            new PeerPartyInfoStore());
+
+    final String url = "http://www.bogus.com/";
+    final String otherUrl = "http://www.randomaddress.com/";
+    final PublicKey kept = PublicKey.from("kept".getBytes());
+    final PublicKey removed = PublicKey.from("removed".getBytes());
+    final PublicKey moved = PublicKey.from("moved".getBytes());
+    final PublicKey added = PublicKey.from("added".getBytes());
+
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            url,
+            Set.of(Recipient.of(kept, url), Recipient.of(removed, url), Recipient.of(moved, url)),
+            Collections.emptySet());
+    final Set<Recipient> changes = Set.of(Recipient.of(moved, otherUrl), Recipient.of(added, url));
+    final Set<Recipient> expected =
+        Set.of(Recipient.of(kept, url), Recipient.of(moved, otherUrl), Recipient.of(added, url));
+    final String baseDigest = PartyInfoDigest.of(partyInfo);
+    final String digest = PartyInfoDigest.of(url, expected);
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    final InputStream deltaBody = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(partyInfoParser.from(deltaBody))
+        .thenReturn(new PartyInfo(url, changes, Collections.emptySet()));
+    when(discovery.getCurrent()).thenReturn(NodeInfo.Builder.create().withUrl(otherUrl).build());
+    when(partyInfoParser.to(any(PartyInfo.class))).thenReturn("SERIALISED".getBytes());
+
+    partyInfoResource.partyInfo(body, baseDigest, null);
+    final Response response =
+        partyInfoResource.partyInfoDelta(
+            deltaBody, baseDigest, digest, List.of(removed.encodeToBase64()), null);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery, times(2)).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactlyInAnyOrder(
+            com.quorum.tessera.partyinfo.node.Recipient.of(kept, url),
+            com.quorum.tessera.partyinfo.node.Recipient.of(moved, otherUrl),
+            com.quorum.tessera.partyinfo.node.Recipient.of(added, url));
+    verify(partyStore).store(URI.create(otherUrl));
+
+    verify(partyInfoParser).from(body);
+    verify(partyInfoParser).from(deltaBody);
+    verify(partyInfoParser, times(2)).to(any(PartyInfo.class));
+    verify(discovery, times(2)).getCurrent();
+
+    // the same changes can't be applied again, as the base digest is no longer current
+    final InputStream repeatedBody = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(repeatedBody))
+        .thenReturn(new PartyInfo(url, changes, Collections.emptySet()));
+
+    final Response repeated =
+        partyInfoResource.partyInfoDelta(
+            repeatedBody, baseDigest, digest, List.of(removed.encodeToBase64()), null);
+
+    assertThat(repeated.getStatus()).isEqualTo(409);
+    verify(partyInfoParser).from(repeatedBody);
+  }
+
+  @Test
+  public void partyInfoDeltaForUnknownPartyInfoIsConflict() {
+    final String url = "http://www.bogus.com";
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body))
+        .thenReturn(new PartyInfo(url, Collections.emptySet(), Collections.emptySet()));
+
+    final Response response = partyInfoResource.partyInfoDelta(body, "BASE", "DIGEST", null, null);
+
+    assertThat(response.getStatus()).isEqualTo(409);
+    verify(partyInfoParser).from(body);
+  }
+
+  @Test
+  public void partyInfoDeltaNotGivingDigestIsConflict() {
+    this.partyInfoResource =
+        new PartyInfoResource(
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            false,
+            partyStore,
+            new PeerPartyInfoStore());
+
+    final String url = "http://www.bogus.com";
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            url,
+            Set.of(Recipient.of(PublicKey.from("key".getBytes()), url)),
+            Collections.emptySet());
+    final String digest = PartyInfoDigest.of(partyInfo);
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    final InputStream deltaBody = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(partyInfoParser.from(deltaBody))
+        .thenReturn(new PartyInfo(url, Collections.emptySet(), Collections.emptySet()));
+    when(discovery.getCurrent()).thenReturn(NodeInfo.Builder.create().withUrl(url).build());
+
+    partyInfoResource.partyInfo(body, digest, null);
+    final Response response =
+        partyInfoResource.partyInfoDelta(deltaBody, digest, "OTHER", null, null);
+
+    assertThat(response.getStatus()).isEqualTo(409);
+
+    verify(partyInfoParser).from(body);
+    verify(partyInfoParser).from(deltaBody);
+    verify(partyInfoParser).to(any(PartyInfo.class));
+    verify(discovery).onUpdate(any(NodeInfo.class));
+    verify(discovery).getCurrent();
+  }
+
+  @Test
+  public void keysOfPeerSupportingBatchesAreValidatedInOneRequest() {
+    final String url = "http://www.bogus.com";
+    final PublicKey valid = PublicKey.from("valid".getBytes());
+    final PublicKey invalid = PublicKey.from("invalid".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            url,
+            Set.of(Recipient.of(valid, url), Recipient.of(invalid, url)),
+            Collections.emptySet());
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(enclave.defaultPublicKey()).thenReturn(PublicKey.from("myKey".getBytes()));
+
+    final Map<PublicKey, String> challenges = new HashMap<>();
+    doAnswer(
+            (invocation) -> {
+              final List<PublicKey> keys = invocation.getArgument(2);
+              challenges.put(keys.get(0), new String((byte[]) invocation.getArgument(0)));
+              final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+              when(encodedPayload.getRecipientKeys()).thenReturn(keys);
+              return encodedPayload;
+            })
+        .when(enclave)
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+
+    final ArgumentCaptor<List<EncodedPayload>> payloadsCaptor = ArgumentCaptor.forClass(List.class);
+    when(payloadEncoder.encodeList(payloadsCaptor.capture())).thenReturn("somedata".getBytes());
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(restClient.target(url)).thenReturn(webTarget);
+    when(webTarget.path(anyString())).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(200);
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+    // the peer answers the challenge for one key correctly and not the other
+    doAnswer(
+            (invocation) -> {
+              final JsonArrayBuilder answers = Json.createArrayBuilder();
+              for (final EncodedPayload p : payloadsCaptor.getValue()) {
+                final PublicKey key = p.getRecipientKeys().get(0);
+                answers.add(key.equals(valid) ? challenges.get(key) : "");
+              }
+              return answers.build().toString();
+            })
+        .when(response)
+        .readEntity(String.class);
+
+    final Response result = partyInfoResource.partyInfo(body, null, List.of("3.3,3.4"));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactly(com.quorum.tessera.partyinfo.node.Recipient.of(valid, url));
+
+    verify(webTarget).path("batch");
+    verify(partyInfoParser).from(body);
+    verify(enclave).defaultPublicKey();
+    verify(enclave, times(2))
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    verify(payloadEncoder).encodeList(anyList());
+    verify(restClient).target(url);
+  }
+
+  @Test
+  public void keysAreValidatedOneByOneIfTheBatchRequestFails() {
+    final String url = "http://www.bogus.com";
+    final PublicKey first = PublicKey.from("first".getBytes());
+    final PublicKey second = PublicKey.from("second".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            url,
+            Set.of(Recipient.of(first, url), Recipient.of(second, url)),
+            Collections.emptySet());
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(payloadEncoder.encodeList(anyList())).thenReturn("somedata".getBytes());
+
+    stubValidation(url);
+    final WebTarget webTarget = restClient.target(url);
+    final WebTarget batchTarget = mock(WebTarget.class);
+    when(webTarget.path("batch")).thenReturn(batchTarget);
+    final Invocation.Builder batchInvocationBuilder = mock(Invocation.Builder.class);
+    when(batchTarget.request()).thenReturn(batchInvocationBuilder);
+    final Response batchResponse = mock(Response.class);
+    when(batchResponse.getStatus()).thenReturn(500);
+    when(batchInvocationBuilder.post(any(Entity.class))).thenReturn(batchResponse);
+
+    final Response result = partyInfoResource.partyInfo(body, null, List.of("3.3,3.4"));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactlyInAnyOrder(
+            com.quorum.tessera.partyinfo.node.Recipient.of(first, url),
+            com.quorum.tessera.partyinfo.node.Recipient.of(second, url));
+
+    verify(batchInvocationBuilder).post(any(Entity.class));
+    verify(batchResponse, never()).readEntity(String.class);
+    verify(partyInfoParser).from(body);
+    verify(payloadEncoder).encodeList(anyList());
+    verify(payloadEncoder, times(2)).encode(any(EncodedPayload.class));
+    verify(enclave).defaultPublicKey();
+    verify(enclave, times(4))
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    // once for the batch, once for each key and once above to stub the batch request
+    verify(restClient, times(4)).target(url);
+  }
+
+  @Test
+  public void validateBatch() {
+    final byte[] payload = "payloads".getBytes();
+    final String message = UUID.randomUUID().toString();
+    final PublicKey myKey = PublicKey.from("myKey".getBytes());
+    final PublicKey otherKey = PublicKey.from("otherKey".getBytes());
+
+    final EncodedPayload first = mock(EncodedPayload.class);
+    when(first.getRecipientKeys()).thenReturn(List.of(myKey));
+    final EncodedPayload second = mock(EncodedPayload.class);
+    when(second.getRecipientKeys()).thenReturn(List.of(otherKey));
+    final EncodedPayload third = mock(EncodedPayload.class);
+    when(third.getRecipientKeys()).thenReturn(List.of(myKey));
+
+    when(payloadEncoder.countList(payload)).thenReturn(3L);
+    when(payloadEncoder.decodeList(payload)).thenReturn(List.of(first, second, third));
+    when(enclave.unencryptTransaction(first, myKey)).thenReturn(message.getBytes());
+    when(enclave.unencryptTransaction(second, otherKey)).thenThrow(RuntimeException.class);
+    when(enclave.unencryptTransaction(third, myKey)).thenReturn("I love sparrows".getBytes());
+
+    final Response result = partyInfoResource.validateBatch(payload);
+
+    assertThat(result.getStatus()).isEqualTo(200);
+    final JsonArray answers =
+        Json.createReader(new StringReader((String) result.getEntity())).readArray();
+    assertThat(answers.getValuesAs(JsonString::getString)).containsExactly(message, "", "");
+
+    verify(payloadEncoder).countList(payload);
+    verify(payloadEncoder).decodeList(payload);
+    verify(enclave).unencryptTransaction(first, myKey);
+    verify(enclave).unencryptTransaction(second, otherKey);
+    verify(enclave).unencryptTransaction(third, myKey);
+  }
+
+  @Test
+  public void validateBatchOverMaximumSizeIsRejectedBeforeDecoding() {
+    this.partyInfoResource =
+        new PartyInfoResource(
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            true,
+            partyStore,
+            new PeerPartyInfoStore(),
+            2);
+
+    final byte[] payload = "payloads".getBytes();
+    when(payloadEncoder.countList(payload)).thenReturn(3L);
+
+    final Response result = partyInfoResource.validateBatch(payload);
+
+    assertThat(result.getStatus()).isEqualTo(400);
+    verify(payloadEncoder).countList(payload);
+  }
+
+  @Test
+  public void validateBatchWithNegativeSizeIsRejectedBeforeDecoding() {
+    final byte[] payload = "payloads".getBytes();
+    when(payloadEncoder.countList(payload)).thenReturn(-1L);
+
+    final Response result = partyInfoResource.validateBatch(payload);
+
+    assertThat(result.getStatus()).isEqualTo(400);
+    verify(payloadEncoder).countList(payload);
+  }
+
+  @Test
+  public void maxValidationBatchSizeMustBePositive() {
+    try {
+      new PartyInfoResource(
+          discovery,
+          partyInfoParser,
+          restClient,
+          enclave,
+          payloadEncoder,
+          true,
+          partyStore,
+          new PeerPartyInfoStore(),
+          0);
+      failBecauseExceptionWasNotThrown(IllegalArgumentException.class);
+    } catch (IllegalArgumentException ex) {
+      assertThat(ex).hasMessage("maxValidationBatchSize must be positive");
+    }
+  }
+
+  @Test
+  public void keysOverMaximumBatchSizeAreValidatedInSeveralBatches() {
+    this.partyInfoResource =
+        new PartyInfoResource(
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            true,
+            partyStore,
+            new PeerPartyInfoStore(),
+            2);
+
+    final String url = "http://www.bogus.com";
+    final PublicKey first = PublicKey.from("first".getBytes());
+    final PublicKey second = PublicKey.from("second".getBytes());
+    final PublicKey third = PublicKey.from("third".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            url,
+            Set.of(Recipient.of(first, url), Recipient.of(second, url), Recipient.of(third, url)),
+            Collections.emptySet());
+
+    final InputStream body = new ByteArrayInputStream(new byte[0]);
+    when(partyInfoParser.from(body)).thenReturn(partyInfo);
+    when(enclave.defaultPublicKey()).thenReturn(PublicKey.from("myKey".getBytes()));
+
+    final Map<PublicKey, String> challenges = new HashMap<>();
+    doAnswer(
+            (invocation) -> {
+              final List<PublicKey> keys = invocation.getArgument(2);
+              challenges.put(keys.get(0), new String((byte[]) invocation.getArgument(0)));
+              final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+              when(encodedPayload.getRecipientKeys()).thenReturn(keys);
+              return encodedPayload;
+            })
+        .when(enclave)
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+
+    final ArgumentCaptor<List<EncodedPayload>> payloadsCaptor = ArgumentCaptor.forClass(List.class);
+    when(payloadEncoder.encodeList(payloadsCaptor.capture())).thenReturn("somedata".getBytes());
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(restClient.target(url)).thenReturn(webTarget);
+    when(webTarget.path(anyString())).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(200);
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+    // the peer answers the challenges of whichever batch was sent last
+    doAnswer(
+            (invocation) -> {
+              final JsonArrayBuilder answers = Json.createArrayBuilder();
+              for (final EncodedPayload p : payloadsCaptor.getValue()) {
+                answers.add(challenges.get(p.getRecipientKeys().get(0)));
+              }
+              return answers.build().toString();
+            })
+        .when(response)
+        .readEntity(String.class);
+
+    final Response result = partyInfoResource.partyInfo(body, null, List.of("3.3,3.4"));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+    assertThat(payloadsCaptor.getAllValues()).extracting(List::size).containsExactly(2, 1);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactlyInAnyOrder(
+            com.quorum.tessera.partyinfo.node.Recipient.of(first, url),
+            com.quorum.tessera.partyinfo.node.Recipient.of(second, url),
+            com.quorum.tessera.partyinfo.node.Recipient.of(third, url));
+
+    verify(partyInfoParser).from(body);
+    verify(enclave).defaultPublicKey();
+    verify(enclave, times(3))
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    verify(payloadEncoder, times(2)).encodeList(anyList());
+    verify(restClient, times(2)).target(url);
+  }
+
+  // answers validation requests to the given url as the owner of the keys would
+  private EncodedPayload stubValidation(final String url) {
+    when(enclave.defaultPublicKey()).thenReturn(PublicKey.from("myKey".getBytes()));
+
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    final List<String> uuidList = new ArrayList<>();
+    doAnswer(
+            (invocation) -> {
+              byte[] d = invocation.getArgument(0);
+              uuidList.add(new String(d));
+              return encodedPayload;
+            })
+        .when(enclave)
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("somedata".getBytes());
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(restClient.target(url)).thenReturn(webTarget);
+    when(webTarget.path(anyString())).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(200);
+    doAnswer((invocation) -> uuidList.get(uuidList.size() - 1))
+        .when(response)
+        .readEntity(String.class);
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+    return encodedPayload;
+  }
 }
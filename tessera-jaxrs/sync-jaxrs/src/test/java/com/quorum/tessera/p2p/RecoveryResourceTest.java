@@ -1,15 +1,21 @@
 package com.quorum.tessera.p2p;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.base64.DecodingException;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
 import com.quorum.tessera.p2p.recovery.PushBatchRequest;
+import com.quorum.tessera.p2p.recovery.PushBatchStream;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
+import java.util.List;
 import javax.ws.rs.core.Response;
 import org.junit.After;
 import org.junit.Before;
@@ -55,6 +61,31 @@ public class RecoveryResourceTest {
     assertThat(capturedRequest.getEncodedPayloads()).containsExactly("SomeData".getBytes());
   }
 
+  @Test
+  public void pushBatchStream() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PushBatchStream.write(List.of("SomeData".getBytes(), "OtherData".getBytes()), output);
+
+    Response result =
+        recoveryResource.pushBatchStream(new ByteArrayInputStream(output.toByteArray()));
+    assertThat(result.getStatus()).isEqualTo(200);
+    ArgumentCaptor<com.quorum.tessera.recovery.resend.PushBatchRequest> argCaptor =
+        ArgumentCaptor.forClass(com.quorum.tessera.recovery.resend.PushBatchRequest.class);
+    verify(resendManager).storeResendBatch(argCaptor.capture());
+
+    assertThat(argCaptor.getValue().getEncodedPayloads())
+        .containsExactly("SomeData".getBytes(), "OtherData".getBytes());
+  }
+
+  @Test
+  public void pushBatchStreamThatCannotBeReadIsNotStored() {
+    final Throwable throwable =
+        catchThrowable(
+            () -> recoveryResource.pushBatchStream(new ByteArrayInputStream(new byte[] {1, 2})));
+
+    assertThat(throwable).isInstanceOf(DecodingException.class);
+  }
+
   @Test
   public void pushAllowedForStandardPrivate() {
     final byte[] someData = "SomeData".getBytes();
@@ -3,6 +3,7 @@ package com.quorum.tessera.p2p;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.data.MessageHash;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.p2p.recovery.ResendBatchRequest;
@@ -12,6 +13,7 @@ import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
 import java.util.Base64;
+import java.util.List;
 import javax.ws.rs.core.Response;
 import org.junit.After;
 import org.junit.Before;
@@ -62,6 +64,25 @@ public class TransactionResourceTest {
     verify(payloadEncoder).decode(someData);
   }
 
+  @Test
+  public void pushMultiple() {
+    final byte[] someData = "SomeData".getBytes();
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
+    when(payloadEncoder.decodeList(someData)).thenReturn(List.of(payload, otherPayload));
+
+    final MessageHash messageHash = new MessageHash("HASH".getBytes());
+    when(transactionManager.storePayload(any(EncodedPayload.class))).thenReturn(messageHash);
+
+    final Response result = transactionResource.pushMultiple(someData);
+
+    assertThat(result.getStatus()).isEqualTo(201);
+    assertThat(result.getEntity()).isEqualTo("[\"" + messageHash + "\"]");
+    verify(transactionManager).storePayload(payload);
+    verify(transactionManager).storePayload(otherPayload);
+    verify(payloadEncoder).decodeList(someData);
+  }
+
   @Test
   public void resend() {
     ResendRequest resendRequest = new ResendRequest();
@@ -92,6 +113,7 @@ public class TransactionResourceTest {
 
     ResendBatchRequest incoming = new ResendBatchRequest();
     incoming.setPublicKey("someKey");
+    incoming.setPublicKeys(List.of("someKey", "otherKey"));
     incoming.setBatchSize(1);
 
     ResendBatchResponse resendResponse = ResendBatchResponse.from(1);
@@ -112,6 +134,7 @@ public class TransactionResourceTest {
     com.quorum.tessera.recovery.resend.ResendBatchRequest convertedRequest = captor.getValue();
 
     assertThat(convertedRequest.getPublicKey()).isEqualTo("someKey");
+    assertThat(convertedRequest.getPublicKeys()).containsExactly("someKey", "otherKey");
     assertThat(convertedRequest.getBatchSize()).isEqualTo(1);
   }
 }
@@ -8,7 +8,9 @@ import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.version.PartyInfoDeltaVersion;
 import java.net.URI;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
@@ -40,6 +42,8 @@ public class PartyInfoBroadcasterTest {
 
   private PartyStore partyStore;
 
+  private PeerPartyInfoStore peerPartyInfoStore;
+
   @Before
   public void setUp() {
     this.discovery = mock(Discovery.class);
@@ -47,6 +51,7 @@ public class PartyInfoBroadcasterTest {
     this.p2pClient = mock(P2pClient.class);
     this.executor = mock(Executor.class);
     this.partyStore = mock(PartyStore.class);
+    this.peerPartyInfoStore = mock(PeerPartyInfoStore.class);
 
     doAnswer(
             (InvocationOnMock invocation) -> {
@@ -59,12 +64,13 @@ public class PartyInfoBroadcasterTest {
     when(partyInfoParser.to(any(PartyInfo.class))).thenReturn(DATA);
 
     this.partyInfoBroadcaster =
-        new PartyInfoBroadcaster(discovery, partyInfoParser, p2pClient, executor, partyStore);
+        new PartyInfoBroadcaster(
+            discovery, partyInfoParser, p2pClient, executor, partyStore, peerPartyInfoStore);
   }
 
   @After
   public void tearDown() {
-    verifyNoMoreInteractions(discovery, partyInfoParser, p2pClient, partyStore);
+    verifyNoMoreInteractions(discovery, partyInfoParser, p2pClient, partyStore, peerPartyInfoStore);
   }
 
   @Test
@@ -73,14 +79,14 @@ public class PartyInfoBroadcasterTest {
 
     when(partyStore.getParties()).thenReturn(Set.of(URI.create(OWN_URL), URI.create(TARGET_URL)));
     when(discovery.getCurrent()).thenReturn(partyInfo);
-    when(p2pClient.sendPartyInfo(TARGET_URL, DATA)).thenReturn(true);
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString())).thenReturn(true);
 
     partyInfoBroadcaster.run();
     verify(partyStore).loadFromConfigIfEmpty();
     verify(partyStore).getParties();
     verify(discovery).getCurrent();
     verify(partyInfoParser).to(any(PartyInfo.class));
-    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA);
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString());
   }
 
   @Test
@@ -110,7 +116,9 @@ public class PartyInfoBroadcasterTest {
         .thenReturn(Set.of(URI.create(TARGET_URL), URI.create(TARGET_URL_2)));
 
     doReturn(partyInfo).when(discovery).getCurrent();
-    doThrow(UnsupportedOperationException.class).when(p2pClient).sendPartyInfo(TARGET_URL, DATA);
+    doThrow(UnsupportedOperationException.class)
+        .when(p2pClient)
+        .sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString());
 
     final Throwable throwable = catchThrowable(partyInfoBroadcaster::run);
 
@@ -118,8 +126,8 @@ public class PartyInfoBroadcasterTest {
 
     verify(partyStore).loadFromConfigIfEmpty();
     verify(partyStore).getParties();
-    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA);
-    verify(p2pClient).sendPartyInfo(TARGET_URL_2, DATA);
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString());
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL_2), eq(DATA), anyString());
     verify(discovery).getCurrent();
     verify(partyInfoParser).to(any(PartyInfo.class));
   }
@@ -158,6 +166,89 @@ public class PartyInfoBroadcasterTest {
 
     verify(discovery).onDisconnect(URI.create(uriData));
     verify(partyStore).remove(URI.create(uriData));
+    verify(peerPartyInfoStore).remove(URI.create(uriData));
     verify(p2pClient).sendPartyInfo(anyString(), any(byte[].class));
   }
+
+  @Test
+  public void unchangedPartyInfoIsSentAsDigestOnceAccepted() {
+    final NodeInfo partyInfo = NodeInfo.Builder.create().withUrl(OWN_URL).build();
+    final NodeInfo target =
+        NodeInfo.Builder.create()
+            .withUrl(TARGET_URL)
+            .withSupportedApiVersions(List.of(PartyInfoDeltaVersion.API_VERSION_3_3))
+            .build();
+
+    when(partyStore.getParties()).thenReturn(Set.of(URI.create(TARGET_URL)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+    when(discovery.getRemoteNodeInfos()).thenReturn(Set.of(target));
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString())).thenReturn(true);
+    when(p2pClient.sendPartyInfoDelta(
+            eq(TARGET_URL), eq(DATA), anyString(), anyString(), anyCollection()))
+        .thenReturn(true);
+
+    partyInfoBroadcaster.run();
+    partyInfoBroadcaster.run();
+
+    final String digest = PartyInfoDigest.of(OWN_URL, Set.of());
+    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA, digest);
+    verify(p2pClient).sendPartyInfoDelta(TARGET_URL, DATA, digest, digest, Set.of());
+
+    verify(partyStore, times(2)).loadFromConfigIfEmpty();
+    verify(partyStore, times(2)).getParties();
+    verify(discovery, times(2)).getCurrent();
+    verify(discovery).getRemoteNodeInfos();
+    // once for the partyinfo and once for the (empty) changes to it
+    verify(partyInfoParser, times(2)).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void rejectedChangesAreFollowedByFullPartyInfo() {
+    final NodeInfo partyInfo = NodeInfo.Builder.create().withUrl(OWN_URL).build();
+    final NodeInfo target =
+        NodeInfo.Builder.create()
+            .withUrl(TARGET_URL)
+            .withSupportedApiVersions(List.of(PartyInfoDeltaVersion.API_VERSION_3_3))
+            .build();
+
+    when(partyStore.getParties()).thenReturn(Set.of(URI.create(TARGET_URL)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+    when(discovery.getRemoteNodeInfos()).thenReturn(Set.of(target));
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString())).thenReturn(true);
+
+    partyInfoBroadcaster.run();
+    partyInfoBroadcaster.run();
+
+    verify(p2pClient, times(2)).sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString());
+    verify(p2pClient)
+        .sendPartyInfoDelta(eq(TARGET_URL), eq(DATA), anyString(), anyString(), anyCollection());
+
+    verify(partyStore, times(2)).loadFromConfigIfEmpty();
+    verify(partyStore, times(2)).getParties();
+    verify(discovery, times(2)).getCurrent();
+    verify(discovery).getRemoteNodeInfos();
+    verify(partyInfoParser, times(2)).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void peerWithoutDeltaSupportIsSentFullPartyInfo() {
+    final NodeInfo partyInfo = NodeInfo.Builder.create().withUrl(OWN_URL).build();
+    final NodeInfo target = NodeInfo.Builder.create().withUrl(TARGET_URL).build();
+
+    when(partyStore.getParties()).thenReturn(Set.of(URI.create(TARGET_URL)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+    when(discovery.getRemoteNodeInfos()).thenReturn(Set.of(target));
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString())).thenReturn(true);
+
+    partyInfoBroadcaster.run();
+    partyInfoBroadcaster.run();
+
+    verify(p2pClient, times(2)).sendPartyInfo(eq(TARGET_URL), eq(DATA), anyString());
+
+    verify(partyStore, times(2)).loadFromConfigIfEmpty();
+    verify(partyStore, times(2)).getParties();
+    verify(discovery, times(2)).getCurrent();
+    verify(discovery).getRemoteNodeInfos();
+    verify(partyInfoParser).to(any(PartyInfo.class));
+  }
 }
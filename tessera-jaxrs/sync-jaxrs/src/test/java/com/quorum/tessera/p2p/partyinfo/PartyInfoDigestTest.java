@@ -0,0 +1,44 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class PartyInfoDigestTest {
+
+  private static final String URL = "http://own.com/";
+
+  private static final Recipient FIRST = Recipient.of(PublicKey.from("FIRST".getBytes()), URL);
+
+  private static final Recipient SECOND = Recipient.of(PublicKey.from("SECOND".getBytes()), URL);
+
+  @Test
+  public void digestDoesNotDependOnOrder() {
+    assertThat(PartyInfoDigest.of(URL, List.of(FIRST, SECOND)))
+        .isEqualTo(PartyInfoDigest.of(URL, List.of(SECOND, FIRST)));
+  }
+
+  @Test
+  public void digestOfPartyInfoIsOverUrlAndRecipients() {
+    final PartyInfo partyInfo = new PartyInfo(URL, Set.of(FIRST, SECOND), Set.of());
+
+    assertThat(PartyInfoDigest.of(partyInfo))
+        .isEqualTo(PartyInfoDigest.of(URL, Set.of(FIRST, SECOND)));
+  }
+
+  @Test
+  public void differentPartyInfoHasDifferentDigest() {
+    final String digest = PartyInfoDigest.of(URL, List.of(FIRST));
+
+    assertThat(PartyInfoDigest.of(URL, List.of(FIRST, SECOND))).isNotEqualTo(digest);
+    assertThat(PartyInfoDigest.of("http://other.com/", List.of(FIRST))).isNotEqualTo(digest);
+    assertThat(PartyInfoDigest.of(URL, List.of(Recipient.of(FIRST.getKey(), "http://other.com/"))))
+        .isNotEqualTo(digest);
+    assertThat(PartyInfoDigest.of(URL, List.of())).isNotEqualTo(digest);
+  }
+}
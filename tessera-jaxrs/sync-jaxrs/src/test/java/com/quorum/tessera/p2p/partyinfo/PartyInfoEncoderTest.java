@@ -0,0 +1,142 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.Party;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.partyinfo.node.Recipient;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class PartyInfoEncoderTest {
+
+  private static final Recipient RECIPIENT =
+      Recipient.of(PublicKey.from("KEY".getBytes()), "http://other.com");
+
+  private PartyInfoParser partyInfoParser;
+
+  private PartyInfoEncoder partyInfoEncoder;
+
+  @Before
+  public void beforeTest() {
+    partyInfoParser = mock(PartyInfoParser.class);
+    when(partyInfoParser.to(any(PartyInfo.class)))
+        .thenReturn("FIRST".getBytes(), "SECOND".getBytes());
+
+    partyInfoEncoder = new PartyInfoEncoder(partyInfoParser);
+  }
+
+  @After
+  public void afterTest() {
+    verifyNoMoreInteractions(partyInfoParser);
+  }
+
+  @Test
+  public void encodesUrlAndRecipients() {
+    final NodeInfo nodeInfo = nodeInfo("http://own.com", RECIPIENT);
+
+    final byte[] result = partyInfoEncoder.encode(nodeInfo);
+
+    assertThat(result).isEqualTo("FIRST".getBytes());
+
+    final ArgumentCaptor<PartyInfo> captor = ArgumentCaptor.forClass(PartyInfo.class);
+    verify(partyInfoParser).to(captor.capture());
+    assertThat(captor.getValue().getUrl()).isEqualTo("http://own.com");
+    assertThat(captor.getValue().getRecipients())
+        .containsExactly(
+            com.quorum.tessera.partyinfo.model.Recipient.of(
+                RECIPIENT.getKey(), RECIPIENT.getUrl()));
+  }
+
+  @Test
+  public void unchangedNodeInfoIsNotEncodedAgain() {
+    final NodeInfo nodeInfo = nodeInfo("http://own.com", RECIPIENT);
+    final NodeInfo sameNodeInfo = nodeInfo("http://own.com", RECIPIENT);
+
+    final byte[] first = partyInfoEncoder.encode(nodeInfo);
+    final byte[] second = partyInfoEncoder.encode(sameNodeInfo);
+
+    assertThat(second).isSameAs(first);
+    verify(partyInfoParser).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void changedRecipientsAreEncodedAgain() {
+    final NodeInfo nodeInfo = nodeInfo("http://own.com");
+    final NodeInfo withRecipient = nodeInfo("http://own.com", RECIPIENT);
+
+    assertThat(partyInfoEncoder.encode(nodeInfo)).isEqualTo("FIRST".getBytes());
+    assertThat(partyInfoEncoder.encode(withRecipient)).isEqualTo("SECOND".getBytes());
+
+    verify(partyInfoParser, times(2)).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void changedUrlIsEncodedAgain() {
+    final NodeInfo nodeInfo = nodeInfo("http://own.com");
+    final NodeInfo otherUrl = nodeInfo("http://moved.com");
+
+    assertThat(partyInfoEncoder.encode(nodeInfo)).isEqualTo("FIRST".getBytes());
+    assertThat(partyInfoEncoder.encode(otherUrl)).isEqualTo("SECOND".getBytes());
+
+    verify(partyInfoParser, times(2)).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void snapshotHasDigestOfEncodedPartyInfo() {
+    final Recipient own = Recipient.of(PublicKey.from("OWN".getBytes()), "http://own.com/");
+    final NodeInfo nodeInfo = nodeInfo("http://own.com/", own, RECIPIENT);
+
+    final PartyInfoEncoder.Snapshot snapshot = partyInfoEncoder.snapshot(nodeInfo);
+
+    assertThat(snapshot.getData()).isEqualTo("FIRST".getBytes());
+    assertThat(snapshot.getDigest())
+        .isEqualTo(
+            PartyInfoDigest.of(
+                "http://own.com/",
+                Set.of(
+                    com.quorum.tessera.partyinfo.model.Recipient.of(
+                        own.getKey(), own.getUrl()))));
+    assertThat(partyInfoEncoder.snapshot(nodeInfo)).isSameAs(snapshot);
+
+    verify(partyInfoParser).to(any(PartyInfo.class));
+  }
+
+  @Test
+  public void changesHoldAddedAndMovedRecipients() {
+    final String url = "http://own.com/";
+    final PublicKey kept = PublicKey.from("KEPT".getBytes());
+    final PublicKey removed = PublicKey.from("REMOVED".getBytes());
+    final PublicKey added = PublicKey.from("ADDED".getBytes());
+
+    final PartyInfoEncoder.Snapshot base =
+        partyInfoEncoder.snapshot(
+            nodeInfo(url, Recipient.of(kept, url), Recipient.of(removed, url), RECIPIENT));
+    final PartyInfoEncoder.Snapshot current =
+        partyInfoEncoder.snapshot(nodeInfo(url, Recipient.of(kept, url), Recipient.of(added, url)));
+
+    assertThat(partyInfoEncoder.encodeChanges(base, current)).isEqualTo("SECOND".getBytes());
+    assertThat(PartyInfoEncoder.removedKeys(base, current)).containsExactly(removed);
+
+    final ArgumentCaptor<PartyInfo> captor = ArgumentCaptor.forClass(PartyInfo.class);
+    verify(partyInfoParser, times(3)).to(captor.capture());
+
+    final PartyInfo changes = captor.getValue();
+    assertThat(changes.getUrl()).isEqualTo(url);
+    assertThat(changes.getRecipients())
+        .containsExactly(com.quorum.tessera.partyinfo.model.Recipient.of(added, url));
+    assertThat(changes.getParties()).containsExactly(new Party(url));
+  }
+
+  private static NodeInfo nodeInfo(final String url, final Recipient... recipients) {
+    return NodeInfo.Builder.create().withUrl(url).withRecipients(List.of(recipients)).build();
+  }
+}
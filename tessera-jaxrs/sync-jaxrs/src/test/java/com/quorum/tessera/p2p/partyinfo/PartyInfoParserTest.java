@@ -1,13 +1,19 @@
 package com.quorum.tessera.p2p.partyinfo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.Recipient;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -205,6 +211,61 @@ public class PartyInfoParserTest {
     assertThat(partyUrl).isEqualTo(partyInfo.getParties().iterator().next().getUrl());
   }
 
+  @Test
+  public void fromStreamMatchesFromArray() {
+    final ByteArrayInputStream stream = new ByteArrayInputStream(dataTwo);
+
+    final PartyInfo result = partyInfoParser.from(stream);
+    final PartyInfo expected = partyInfoParser.from(dataTwo);
+
+    assertThat(result.getUrl()).isEqualTo(expected.getUrl());
+    assertThat(result.getRecipients()).isEqualTo(expected.getRecipients());
+    assertThat(result.getParties()).isEqualTo(expected.getParties());
+
+    // the trailing bytes after the party info are left in the stream
+    assertThat(stream.available()).isEqualTo(dataTwo.length - partyInfoParser.to(result).length);
+  }
+
+  @Test
+  public void toThenFromStream() {
+    final PartyInfo partyInfo =
+        new PartyInfo(
+            "http://localhost:8000",
+            Set.of(
+                Recipient.of(toKey("ROAZBWtSacxXQrOe3FGAqJDyJjFePR5ce4TSIzmJ0Bc="), "http://a"),
+                Recipient.of(toKey("BULeR8JyUWhiuuCMU/HLA0Q5pzkYT+cHII3ZKBey3Bo="), "http://b")),
+            Set.of(new Party("http://a"), new Party("http://b")));
+
+    final byte[] encoded = partyInfoParser.to(partyInfo);
+    final PartyInfo result = partyInfoParser.from(new ByteArrayInputStream(encoded));
+
+    assertThat(result.getUrl()).isEqualTo(partyInfo.getUrl());
+    assertThat(result.getRecipients()).isEqualTo(partyInfo.getRecipients());
+    assertThat(result.getParties()).isEqualTo(partyInfo.getParties());
+  }
+
+  @Test
+  public void fromTruncatedStream() {
+    final byte[] truncated = Arrays.copyOf(dataOne, 40);
+
+    final Throwable throwable =
+        catchThrowable(() -> partyInfoParser.from(new ByteArrayInputStream(truncated)));
+
+    assertThat(throwable)
+        .isInstanceOf(UncheckedIOException.class)
+        .hasCauseInstanceOf(EOFException.class);
+  }
+
+  @Test
+  public void fromStreamWithInvalidLength() {
+    final byte[] invalid = ByteBuffer.allocate(Long.BYTES).putLong(-1).array();
+
+    final Throwable throwable =
+        catchThrowable(() -> partyInfoParser.from(new ByteArrayInputStream(invalid)));
+
+    assertThat(throwable).isInstanceOf(PartyInfoParserException.class);
+  }
+
   @Test
   public void checkLengthZero() {
     PartyInfoParser.checkLength(0);
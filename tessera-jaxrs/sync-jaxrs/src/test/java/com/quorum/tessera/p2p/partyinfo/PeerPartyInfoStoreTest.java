@@ -0,0 +1,112 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PeerPartyInfoStoreTest {
+
+  private static final String URL = "http://peer.com/";
+
+  private static final Recipient FIRST = Recipient.of(PublicKey.from("FIRST".getBytes()), URL);
+
+  private static final Recipient SECOND = Recipient.of(PublicKey.from("SECOND".getBytes()), URL);
+
+  private AtomicLong clock;
+
+  private PeerPartyInfoStore peerPartyInfoStore;
+
+  @Before
+  public void beforeTest() {
+    clock = new AtomicLong();
+    peerPartyInfoStore = new PeerPartyInfoStore(Duration.ofMinutes(1), clock::get);
+  }
+
+  @Test
+  public void advertisedRecipientsAreOnlyGivenForTheirDigest() {
+    peerPartyInfoStore.storeAdvertised(URL, "DIGEST", Set.of(FIRST));
+
+    assertThat(peerPartyInfoStore.getAdvertised(URL, "DIGEST")).contains(Set.of(FIRST));
+    assertThat(peerPartyInfoStore.getAdvertised("http://peer.com", "DIGEST"))
+        .contains(Set.of(FIRST));
+    assertThat(peerPartyInfoStore.getAdvertised(URL, "OTHER")).isEmpty();
+    assertThat(peerPartyInfoStore.getAdvertised("http://other.com/", "DIGEST")).isEmpty();
+  }
+
+  @Test
+  public void validationExpires() {
+    peerPartyInfoStore.storeValidated(FIRST);
+
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isTrue();
+    assertThat(peerPartyInfoStore.isValidated(SECOND)).isFalse();
+
+    clock.set(Duration.ofMinutes(1).toMillis());
+
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isFalse();
+    assertThat(peerPartyInfoStore.validatedSize()).isZero();
+  }
+
+  @Test
+  public void validationIsForgottenOnceNoLongerAdvertised() {
+    peerPartyInfoStore.storeAdvertised(URL, "FIRST", Set.of(FIRST, SECOND));
+    peerPartyInfoStore.storeValidated(FIRST);
+    peerPartyInfoStore.storeValidated(SECOND);
+
+    peerPartyInfoStore.storeAdvertised(URL, "SECOND", Set.of(SECOND));
+
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isFalse();
+    assertThat(peerPartyInfoStore.isValidated(SECOND)).isTrue();
+    assertThat(peerPartyInfoStore.getAdvertised(URL, "FIRST")).isEmpty();
+  }
+
+  @Test
+  public void leastRecentlyUsedValidationIsForgottenWhenFull() {
+    peerPartyInfoStore = new PeerPartyInfoStore(2, Duration.ofMinutes(1), clock::get);
+    final Recipient third = Recipient.of(PublicKey.from("THIRD".getBytes()), URL);
+
+    peerPartyInfoStore.storeValidated(FIRST);
+    peerPartyInfoStore.storeValidated(SECOND);
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isTrue();
+    peerPartyInfoStore.storeValidated(third);
+
+    assertThat(peerPartyInfoStore.validatedSize()).isEqualTo(2);
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isTrue();
+    assertThat(peerPartyInfoStore.isValidated(SECOND)).isFalse();
+    assertThat(peerPartyInfoStore.isValidated(third)).isTrue();
+  }
+
+  @Test
+  public void removingPeerForgetsItsPartyInfoAndValidations() {
+    final Recipient other = Recipient.of(PublicKey.from("OTHER".getBytes()), "http://other.com/");
+    peerPartyInfoStore.storeAdvertised(URL, "DIGEST", Set.of(FIRST));
+    peerPartyInfoStore.storeValidated(FIRST);
+    peerPartyInfoStore.storeValidated(other);
+
+    peerPartyInfoStore.remove(URI.create("http://peer.com"));
+
+    assertThat(peerPartyInfoStore.getAdvertised(URL, "DIGEST")).isEmpty();
+    assertThat(peerPartyInfoStore.isValidated(FIRST)).isFalse();
+    assertThat(peerPartyInfoStore.isValidated(other)).isTrue();
+  }
+
+  @Test
+  public void maxValidatedMustBePositive() {
+    final Throwable ex =
+        catchThrowable(() -> new PeerPartyInfoStore(0, Duration.ofMinutes(1), clock::get));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void instanceIsShared() {
+    assertThat(PeerPartyInfoStore.getInstance()).isSameAs(PeerPartyInfoStore.getInstance());
+  }
+}
@@ -3,9 +3,12 @@ package com.quorum.tessera.p2p.partyinfo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import com.quorum.tessera.shared.Constants;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
@@ -74,6 +77,81 @@ public class RestP2pClientTest {
     }
   }
 
+  @Test
+  public void sendPartyInfoWithDigest() {
+    final byte[] partyinfoData = "SomeEncodedPartyInfoData".getBytes();
+    final String targetUrl = "targetUrl";
+
+    final Client client = mock(Client.class);
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/partyinfo")).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    when(invocationBuilder.header(anyString(), any())).thenReturn(invocationBuilder);
+
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(expectedResponseStatus.getStatusCode());
+    when(response.readEntity(byte[].class)).thenReturn("Success".getBytes());
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+    final boolean outcome =
+        new RestP2pClient(client).sendPartyInfo(targetUrl, partyinfoData, "DIGEST");
+
+    assertThat(outcome).isEqualTo(isSuccess());
+
+    verify(client).target(targetUrl);
+    verify(webTarget).path("/partyinfo");
+    verify(webTarget).request();
+    verify(invocationBuilder).header(Constants.PARTY_INFO_DIGEST_HEADER, "DIGEST");
+    verify(invocationBuilder).post(any(Entity.class));
+
+    verifyNoMoreInteractions(client, webTarget, invocationBuilder);
+  }
+
+  @Test
+  public void sendPartyInfoDelta() {
+    final byte[] partyinfoData = "SomeEncodedPartyInfoData".getBytes();
+    final String targetUrl = "targetUrl";
+    final PublicKey removed = PublicKey.from("REMOVED".getBytes());
+
+    final Client client = mock(Client.class);
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/partyinfo/delta")).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    when(invocationBuilder.header(anyString(), any())).thenReturn(invocationBuilder);
+
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(expectedResponseStatus.getStatusCode());
+    when(response.readEntity(byte[].class)).thenReturn("Success".getBytes());
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+    final boolean outcome =
+        new RestP2pClient(client)
+            .sendPartyInfoDelta(targetUrl, partyinfoData, "BASE", "DIGEST", List.of(removed));
+
+    assertThat(outcome).isEqualTo(isSuccess());
+
+    verify(client).target(targetUrl);
+    verify(webTarget).path("/partyinfo/delta");
+    verify(webTarget).request();
+    verify(invocationBuilder).header(Constants.PARTY_INFO_BASE_DIGEST_HEADER, "BASE");
+    verify(invocationBuilder).header(Constants.PARTY_INFO_DIGEST_HEADER, "DIGEST");
+    verify(invocationBuilder)
+        .header(Constants.PARTY_INFO_REMOVED_KEYS_HEADER, removed.encodeToBase64());
+    verify(invocationBuilder).post(any(Entity.class));
+
+    verifyNoMoreInteractions(client, webTarget, invocationBuilder);
+  }
+
+  private boolean isSuccess() {
+    return Set.of(Response.Status.OK, Response.Status.CREATED).contains(expectedResponseStatus);
+  }
+
   @Parameterized.Parameters(name = "ResponseStatus {0}")
   public static Collection<Response.Status> statuses() {
     return Arrays.asList(Response.Status.values());
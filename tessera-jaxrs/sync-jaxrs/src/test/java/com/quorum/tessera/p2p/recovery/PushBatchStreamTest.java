@@ -0,0 +1,78 @@
+package com.quorum.tessera.p2p.recovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.base64.DecodingException;
+import com.quorum.tessera.enclave.BinaryEncoder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PushBatchStreamTest {
+
+  private final List<byte[]> encodedPayloads =
+      List.of("ONE".getBytes(), new byte[0], "THREE".getBytes());
+
+  @Test
+  public void payloadsAreReadAsTheyWereWritten() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PushBatchStream.write(encodedPayloads, output);
+
+    final List<byte[]> result =
+        PushBatchStream.read(new ByteArrayInputStream(output.toByteArray()));
+
+    assertThat(result).containsExactlyElementsOf(encodedPayloads);
+  }
+
+  @Test
+  public void layoutIsTheSameAsBinaryEncoderArrays() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PushBatchStream.write(encodedPayloads, output);
+
+    assertThat(output.toByteArray()).isEqualTo(new BinaryEncoder() {}.encodeArray(encodedPayloads));
+  }
+
+  @Test
+  public void emptyBatch() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PushBatchStream.write(List.of(), output);
+
+    assertThat(PushBatchStream.read(new ByteArrayInputStream(output.toByteArray()))).isEmpty();
+  }
+
+  @Test
+  public void streamEndingEarlyCannotBeRead() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PushBatchStream.write(encodedPayloads, output);
+    final byte[] truncated = Arrays.copyOf(output.toByteArray(), output.size() - 1);
+
+    final Throwable throwable =
+        catchThrowable(() -> PushBatchStream.read(new ByteArrayInputStream(truncated)));
+
+    assertThat(throwable).isExactlyInstanceOf(DecodingException.class);
+  }
+
+  @Test
+  public void countLargerThanTheStreamCannotBeRead() {
+    final byte[] data = ByteBuffer.allocate(Long.BYTES).putLong(Long.MAX_VALUE).array();
+
+    final Throwable throwable =
+        catchThrowable(() -> PushBatchStream.read(new ByteArrayInputStream(data)));
+
+    assertThat(throwable).isExactlyInstanceOf(DecodingException.class);
+  }
+
+  @Test
+  public void negativeLengthCannotBeRead() {
+    final byte[] data = ByteBuffer.allocate(Long.BYTES * 2).putLong(1).putLong(-1).array();
+
+    final Throwable throwable =
+        catchThrowable(() -> PushBatchStream.read(new ByteArrayInputStream(data)));
+
+    assertThat(throwable).isExactlyInstanceOf(DecodingException.class);
+  }
+}
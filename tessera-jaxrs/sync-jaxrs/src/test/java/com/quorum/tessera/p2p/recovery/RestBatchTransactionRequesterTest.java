@@ -10,6 +10,8 @@ import com.quorum.tessera.p2p.resend.ResendRequest;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -61,6 +63,37 @@ public class RestBatchTransactionRequesterTest {
     verify(enclave).getPublicKeys();
   }
 
+  @Test
+  public void allKeysAreSentInOneRequest() {
+    when(enclave.getPublicKeys()).thenReturn(new LinkedHashSet<>(List.of(KEY_ONE, KEY_TWO)));
+
+    final boolean success =
+        this.transactionRequester.requestAllTransactionsForAllKeysFromNode("fakeurl1.com");
+
+    assertThat(success).isTrue();
+
+    final ArgumentCaptor<ResendBatchRequest> captor =
+        ArgumentCaptor.forClass(ResendBatchRequest.class);
+    verify(recoveryClient).makeBatchResendRequest(eq("fakeurl1.com"), captor.capture());
+    verify(enclave).getPublicKeys();
+
+    final ResendBatchRequest request = captor.getValue();
+    assertThat(request.getPublicKey()).isEqualTo(KEY_ONE.encodeToBase64());
+    assertThat(request.getPublicKeys())
+        .containsExactly(KEY_ONE.encodeToBase64(), KEY_TWO.encodeToBase64());
+    assertThat(request.getBatchSize()).isEqualTo(100);
+  }
+
+  @Test
+  public void noPublicKeysMakesNoRequestForAllKeys() {
+    when(enclave.getPublicKeys()).thenReturn(Collections.emptySet());
+
+    assertThat(this.transactionRequester.requestAllTransactionsForAllKeysFromNode("fakeurl.com"))
+        .isTrue();
+
+    verify(enclave).getPublicKeys();
+  }
+
   @Test
   public void multipleKeysMakesCorrectCalls() {
 
@@ -4,17 +4,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.ArgumentCaptor;
 
 @RunWith(Parameterized.class)
 public class RestRecoveryClientTest {
@@ -77,12 +82,18 @@ public class RestRecoveryClientTest {
 
     try (var entityMockedStatic = mockStatic(Entity.class)) {
 
-      Entity<PushBatchRequest> outboundEntity = mock(Entity.class);
+      Entity<StreamingOutput> binaryEntity = mock(Entity.class);
+      Entity<PushBatchRequest> jsonEntity = mock(Entity.class);
       PushBatchRequest pushBatchRequest = mock(PushBatchRequest.class);
 
+      entityMockedStatic
+          .when(
+              () ->
+                  Entity.entity(any(StreamingOutput.class), eq(MediaType.APPLICATION_OCTET_STREAM)))
+          .thenReturn(binaryEntity);
       entityMockedStatic
           .when(() -> Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON))
-          .thenReturn(outboundEntity);
+          .thenReturn(jsonEntity);
 
       String targetUrl = "targetUrl";
       Client client = mock(Client.class);
@@ -93,30 +104,83 @@ public class RestRecoveryClientTest {
       Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
       when(webTarget.request()).thenReturn(invocationBuilder);
 
-      Response response = mock(Response.class);
-      when(response.getStatus()).thenReturn(expectedResponseStatus.getStatusCode());
+      Response binaryResponse = mock(Response.class);
+      when(binaryResponse.getStatus()).thenReturn(expectedResponseStatus.getStatusCode());
+      when(invocationBuilder.post(binaryEntity)).thenReturn(binaryResponse);
 
-      when(invocationBuilder.post(outboundEntity)).thenReturn(response);
+      // nodes that don't accept the binary form are sent the batch again as JSON
+      Response jsonResponse = mock(Response.class);
+      when(jsonResponse.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+      when(invocationBuilder.post(jsonEntity)).thenReturn(jsonResponse);
+
+      final boolean fallsBack =
+          expectedResponseStatus == Response.Status.UNSUPPORTED_MEDIA_TYPE
+              || expectedResponseStatus == Response.Status.NOT_FOUND
+              || expectedResponseStatus == Response.Status.BAD_REQUEST;
+      final int requests = fallsBack ? 2 : 1;
 
       RestRecoveryClient restRecoveryClient = new RestRecoveryClient(client);
 
       boolean outcome = restRecoveryClient.pushBatch(targetUrl, pushBatchRequest);
-      if (expectedResponseStatus == Response.Status.OK) {
+      if (expectedResponseStatus == Response.Status.OK || fallsBack) {
         assertThat(outcome).isTrue();
       } else {
         assertThat(outcome).isFalse();
       }
 
-      entityMockedStatic.verify(() -> Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON));
+      entityMockedStatic.verify(
+          () -> Entity.entity(any(StreamingOutput.class), eq(MediaType.APPLICATION_OCTET_STREAM)));
+      if (fallsBack) {
+        entityMockedStatic.verify(
+            () -> Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON));
+        verify(invocationBuilder).post(jsonEntity);
+      }
       entityMockedStatic.verifyNoMoreInteractions();
 
-      verify(client).target(targetUrl);
-      verify(webTarget).path("/pushBatch");
-      verify(webTarget).request();
-      verify(invocationBuilder).post(outboundEntity);
+      verify(client, times(requests)).target(targetUrl);
+      verify(webTarget, times(requests)).path("/pushBatch");
+      verify(webTarget, times(requests)).request();
+      verify(invocationBuilder).post(binaryEntity);
 
       verifyNoMoreInteractions(
-          outboundEntity, pushBatchRequest, client, webTarget, invocationBuilder);
+          binaryEntity, jsonEntity, pushBatchRequest, client, webTarget, invocationBuilder);
+    }
+  }
+
+  @Test
+  public void pushBatchIsStreamedInItsBinaryForm() throws Exception {
+
+    try (var entityMockedStatic = mockStatic(Entity.class)) {
+
+      List<byte[]> encodedPayloads = List.of("ONE".getBytes(), "TWO".getBytes());
+      PushBatchRequest pushBatchRequest = new PushBatchRequest(encodedPayloads);
+
+      ArgumentCaptor<StreamingOutput> streamingOutputCaptor =
+          ArgumentCaptor.forClass(StreamingOutput.class);
+      entityMockedStatic
+          .when(
+              () ->
+                  Entity.entity(
+                      streamingOutputCaptor.capture(), eq(MediaType.APPLICATION_OCTET_STREAM)))
+          .thenReturn(mock(Entity.class));
+
+      Client client = mock(Client.class);
+      WebTarget webTarget = mock(WebTarget.class);
+      when(client.target(anyString())).thenReturn(webTarget);
+      when(webTarget.path(anyString())).thenReturn(webTarget);
+      Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+      when(webTarget.request()).thenReturn(invocationBuilder);
+      Response response = mock(Response.class);
+      when(response.getStatus()).thenReturn(expectedResponseStatus.getStatusCode());
+      when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+
+      new RestRecoveryClient(client).pushBatch("targetUrl", pushBatchRequest);
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      streamingOutputCaptor.getValue().write(output);
+
+      assertThat(PushBatchStream.read(new ByteArrayInputStream(output.toByteArray())))
+          .containsExactlyElementsOf(encodedPayloads);
     }
   }
 
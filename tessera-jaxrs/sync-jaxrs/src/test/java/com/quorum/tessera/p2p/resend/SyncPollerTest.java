@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -105,6 +106,23 @@ public class SyncPollerTest {
     verify(partyInfoService, times(2)).getCurrent();
   }
 
+  @Test
+  public void fullPoolLeavesRemainingPartiesForNextRound() {
+
+    final SyncableParty syncableParty = new SyncableParty(new Party("fakeurl.com"), 0);
+
+    doReturn(Optional.of(syncableParty)).when(resendPartyStore).getNextParty();
+    doThrow(RejectedExecutionException.class).when(executorService).submit(any(Runnable.class));
+
+    syncPoller.run();
+
+    verify(executorService).submit(any(Runnable.class));
+    verify(resendPartyStore).getNextParty();
+    verify(resendPartyStore).incrementFailedAttempt(syncableParty);
+    verify(resendPartyStore).addUnseenParties(emptySet());
+    verify(partyInfoService).getCurrent();
+  }
+
   @Test
   public void localUrlIsExcludedFromPoll() {
 
@@ -1,16 +1,25 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.MetricsRegistry;
+import com.quorum.tessera.metrics.Timer;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
+import com.quorum.tessera.threading.PeerExecutor;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
 import com.quorum.tessera.transaction.publish.BatchPublishPayloadException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.Executor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,7 +27,20 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AsyncBatchPayloadPublisher.class);
 
-  private final Executor executor;
+  static final String EXECUTOR_NAME = "payload-publisher";
+
+  // pushes mostly wait on the network, so there are more threads than processors
+  static final int THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+  static final int QUEUE_CAPACITY = 1000;
+
+  static final int MAX_CONCURRENT_PER_PEER = 4;
+
+  private static final Timer PUBLISH =
+      MetricsRegistry.node()
+          .timer("tessera_publish_seconds", "Time taken to push a payload to all its recipients");
+
+  private final PeerExecutor executor;
 
   private final CancellableCountDownLatchFactory countDownLatchFactory;
 
@@ -26,21 +48,32 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
 
   private final PayloadEncoder encoder;
 
+  private final Discovery discovery;
+
+  private final ConcurrentMap<String, Timer> pushTimers = new ConcurrentHashMap<>();
+
   public AsyncBatchPayloadPublisher(
       ExecutorFactory executorFactory,
       CancellableCountDownLatchFactory countDownLatchFactory,
       PayloadPublisher publisher,
-      PayloadEncoder encoder) {
-    this.executor = executorFactory.createCachedThreadPool();
+      PayloadEncoder encoder,
+      Discovery discovery) {
+    this.executor =
+        executorFactory.createPeerExecutor(
+            EXECUTOR_NAME, THREADS, QUEUE_CAPACITY, MAX_CONCURRENT_PER_PEER);
     this.countDownLatchFactory = countDownLatchFactory;
     this.publisher = publisher;
     this.encoder = encoder;
+    this.discovery = discovery;
   }
 
   /**
    * Asynchronously strips (leaving data intended only for that particular recipient) and publishes
    * the payload to each recipient identified by the provided keys.
    *
+   * <p>Recipients hosted by the same node are published to together, so each node receives a
+   * single push regardless of how many of its keys are recipients.
+   *
    * <p>This method blocks until all pushes return successfully; if a push fails with an exception,
    * the method exits immediately and does not wait for the remaining responses.
    *
@@ -52,22 +85,49 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
     if (recipientKeys.size() == 0) {
       return;
     }
+    PUBLISH.run(() -> publishToNodes(payload, recipientKeys));
+  }
+
+  private void publishToNodes(EncodedPayload payload, List<PublicKey> recipientKeys) {
 
-    final CancellableCountDownLatch latch = countDownLatchFactory.create(recipientKeys.size());
-
-    recipientKeys.forEach(
-        recipient ->
-            executor.execute(
-                () -> {
-                  try {
-                    final EncodedPayload outgoing = encoder.forRecipient(payload, recipient);
-                    publisher.publishPayload(outgoing, recipient);
-                    latch.countDown();
-                  } catch (RuntimeException e) {
-                    LOGGER.info("unable to publish payload in batch: {}", e.getMessage());
-                    latch.cancelWithException(e);
-                  }
-                }));
+    final Map<String, List<PublicKey>> recipientKeysByNode =
+        recipientKeys.stream()
+            .collect(
+                Collectors.groupingBy(
+                    key -> discovery.getRemoteNodeInfo(key).getUrl(),
+                    LinkedHashMap::new,
+                    Collectors.toList()));
+
+    final CancellableCountDownLatch latch =
+        countDownLatchFactory.create(recipientKeysByNode.size());
+
+    for (final Map.Entry<String, List<PublicKey>> node : recipientKeysByNode.entrySet()) {
+      try {
+        executor.execute(
+            node.getKey(),
+            () -> {
+              try {
+                pushTimer(node.getKey()).run(() -> publish(payload, node.getValue()));
+                latch.countDown();
+              } catch (RuntimeException e) {
+                LOGGER.info("unable to publish payload in batch: {}", e.getMessage());
+                latch.cancelWithException(e);
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        // too many pushes already waiting for this node, fail now rather than queue up behind them
+        LOGGER.warn("unable to publish payload in batch: {}", e.getMessage());
+        MetricsRegistry.node()
+            .counter(
+                "tessera_push_rejected_total",
+                "Pushes not made because too many to the node were already waiting",
+                "peer",
+                node.getKey())
+            .increment();
+        latch.cancelWithException(e);
+        break;
+      }
+    }
 
     try {
       latch.await();
@@ -75,4 +135,30 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
       throw new BatchPublishPayloadException(e);
     }
   }
+
+  private Timer pushTimer(String url) {
+    return pushTimers.computeIfAbsent(
+        url,
+        peer ->
+            MetricsRegistry.node()
+                .timer(
+                    "tessera_push_seconds",
+                    "Time taken to push a payload to a node",
+                    "peer",
+                    peer));
+  }
+
+  private void publish(EncodedPayload payload, List<PublicKey> nodeRecipients) {
+    if (nodeRecipients.size() == 1) {
+      final PublicKey recipient = nodeRecipients.get(0);
+      final EncodedPayload outgoing = encoder.forRecipient(payload, recipient);
+      publisher.publishPayload(outgoing, recipient);
+      return;
+    }
+
+    final Map<PublicKey, EncodedPayload> outgoing = new LinkedHashMap<>();
+    nodeRecipients.forEach(
+        recipient -> outgoing.put(recipient, encoder.forRecipient(payload, recipient)));
+    publisher.publishPayloads(outgoing);
+  }
 }
@@ -4,6 +4,7 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.privacygroup.exception.PrivacyGroupPublishException;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
 import com.quorum.tessera.privacygroup.publish.PrivacyGroupPublisher;
+import com.quorum.tessera.threading.BoundedExecutor;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
@@ -17,6 +18,12 @@ public class AsyncBatchPrivacyGroupPublisher implements BatchPrivacyGroupPublish
   private static final Logger LOGGER =
       LoggerFactory.getLogger(AsyncBatchPrivacyGroupPublisher.class);
 
+  static final String EXECUTOR_NAME = "privacy-group-publisher";
+
+  static final int THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+  static final int QUEUE_CAPACITY = 1000;
+
   private final Executor executor;
 
   private final CancellableCountDownLatchFactory countDownLatchFactory;
@@ -27,7 +34,10 @@ public class AsyncBatchPrivacyGroupPublisher implements BatchPrivacyGroupPublish
       ExecutorFactory executorFactory,
       CancellableCountDownLatchFactory countDownLatchFactory,
       PrivacyGroupPublisher publisher) {
-    this.executor = executorFactory.createCachedThreadPool();
+    // when the pool is full the caller publishes itself, slowing requests down instead of failing
+    this.executor =
+        executorFactory.create(
+            EXECUTOR_NAME, THREADS, QUEUE_CAPACITY, BoundedExecutor.RejectionPolicy.CALLER_RUNS);
     this.countDownLatchFactory = countDownLatchFactory;
     this.publisher = publisher;
   }
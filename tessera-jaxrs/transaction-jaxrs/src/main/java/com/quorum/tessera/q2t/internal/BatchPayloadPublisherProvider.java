@@ -1,5 +1,6 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
@@ -13,7 +14,8 @@ public class BatchPayloadPublisherProvider {
     CancellableCountDownLatchFactory countDownLatchFactory = new CancellableCountDownLatchFactory();
     PayloadEncoder encoder = PayloadEncoder.create();
     PayloadPublisher payloadPublisher = PayloadPublisher.create();
+    Discovery discovery = Discovery.create();
     return new AsyncBatchPayloadPublisher(
-        executorFactory, countDownLatchFactory, payloadPublisher, encoder);
+        executorFactory, countDownLatchFactory, payloadPublisher, encoder, discovery);
   }
 }
@@ -11,7 +11,10 @@ import com.quorum.tessera.transaction.publish.NodeOfflineException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
+import com.quorum.tessera.version.MultiplePushVersion;
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
@@ -72,4 +75,57 @@ public class RestPayloadPublisher implements PayloadPublisher {
       throw new NodeOfflineException(URI.create(targetUrl));
     }
   }
+
+  /**
+   * Publishes all the payloads to their recipients' node in a single request. If the node predates
+   * the multiple payload push endpoint, the payloads are published one at a time instead.
+   *
+   * @param payloads the stripped payloads to be pushed, keyed by the public key of their recipient
+   */
+  @Override
+  public void publishPayloads(Map<PublicKey, EncodedPayload> payloads) {
+    if (payloads.size() < 2) {
+      payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+      return;
+    }
+
+    final PublicKey firstRecipientKey = payloads.keySet().iterator().next();
+    final NodeInfo remoteNodeInfo = discovery.getRemoteNodeInfo(firstRecipientKey);
+
+    if (!remoteNodeInfo.supportedApiVersions().contains(MultiplePushVersion.API_VERSION_3_1)) {
+      LOGGER.debug("{} does not accept multiple payloads per push", remoteNodeInfo.getUrl());
+      payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+      return;
+    }
+
+    final String targetUrl = remoteNodeInfo.getUrl();
+    LOGGER.info("Publishing {} messages to {}", payloads.size(), targetUrl);
+
+    final byte[] encoded = payloadEncoder.encodeList(List.copyOf(payloads.values()));
+
+    try (Response response =
+        restclient
+            .target(targetUrl)
+            .path("/pushMultiple")
+            .request()
+            .post(Entity.entity(encoded, MediaType.APPLICATION_OCTET_STREAM_TYPE))) {
+
+      if (Response.Status.NOT_FOUND.getStatusCode() == response.getStatus()) {
+        // e.g. the node is running in recovery mode, which only serves single payload pushes
+        LOGGER.debug("{} did not accept multiple payloads, pushing individually", targetUrl);
+        payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+        return;
+      }
+
+      if (Response.Status.OK.getStatusCode() != response.getStatus()
+          && Response.Status.CREATED.getStatusCode() != response.getStatus()) {
+        throw new PublishPayloadException("Unable to push payloads to recipient url " + targetUrl);
+      }
+
+      LOGGER.info("Published {} messages to {}", payloads.size(), targetUrl);
+    } catch (ProcessingException ex) {
+      LOGGER.debug("", ex);
+      throw new NodeOfflineException(URI.create(targetUrl));
+    }
+  }
 }
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.q2t.internal.BatchPayloadPublisherProvider;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
@@ -16,18 +17,21 @@ public class BatchPayloadPublisherProviderTest {
   public void provider() {
 
     try (var payloadEncoderMockedStatic = mockStatic(PayloadEncoder.class);
-        var payloadPublisherMockedStatic = mockStatic(PayloadPublisher.class)) {
+        var payloadPublisherMockedStatic = mockStatic(PayloadPublisher.class);
+        var discoveryMockedStatic = mockStatic(Discovery.class)) {
       payloadEncoderMockedStatic
           .when(PayloadEncoder::create)
           .thenReturn(mock(PayloadEncoder.class));
       payloadPublisherMockedStatic
           .when(PayloadPublisher::create)
           .thenReturn(mock(PayloadPublisher.class));
+      discoveryMockedStatic.when(Discovery::create).thenReturn(mock(Discovery.class));
 
       BatchPayloadPublisher result = BatchPayloadPublisherProvider.provider();
       assertThat(result).isNotNull();
       payloadEncoderMockedStatic.verify(PayloadEncoder::create);
       payloadPublisherMockedStatic.verify(PayloadPublisher::create);
+      discoveryMockedStatic.verify(Discovery::create);
     }
   }
 
@@ -4,19 +4,23 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.BoundedExecutor;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
+import com.quorum.tessera.threading.PeerExecutor;
 import com.quorum.tessera.transaction.publish.BatchPublishPayloadException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,7 +34,7 @@ public class AsyncBatchPayloadPublisherTest {
 
   private AsyncBatchPayloadPublisher asyncPublisher;
 
-  private Executor executor;
+  private PeerExecutor executor;
 
   private ExecutorFactory executorFactory;
 
@@ -42,11 +46,14 @@ public class AsyncBatchPayloadPublisherTest {
 
   private PayloadEncoder encoder;
 
+  private Discovery discovery;
+
   @Before
   public void onSetup() {
     this.executorFactory = mock(ExecutorFactory.class);
-    this.executor = mock(Executor.class);
-    when(executorFactory.createCachedThreadPool()).thenReturn(executor);
+    this.executor = mock(PeerExecutor.class);
+    when(executorFactory.createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt()))
+        .thenReturn(executor);
 
     this.countDownLatchFactory = mock(CancellableCountDownLatchFactory.class);
     this.countDownLatch = mock(CancellableCountDownLatch.class);
@@ -54,14 +61,31 @@ public class AsyncBatchPayloadPublisherTest {
 
     this.publisher = mock(PayloadPublisher.class);
     this.encoder = mock(PayloadEncoder.class);
+
+    // by default each recipient is hosted by a node of its own
+    this.discovery = mock(Discovery.class);
+    when(discovery.getRemoteNodeInfo(any(PublicKey.class)))
+        .thenAnswer(
+            invocation -> {
+              final PublicKey key = invocation.getArgument(0);
+              return NodeInfo.Builder.create().withUrl(key.encodeToBase64()).build();
+            });
+
     this.asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher, encoder);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, encoder, discovery);
   }
 
   @After
   public void onTeardown() {
     verifyNoMoreInteractions(
-        executor, executorFactory, countDownLatch, countDownLatchFactory, publisher, encoder);
+        executor,
+        executorFactory,
+        countDownLatch,
+        countDownLatchFactory,
+        publisher,
+        encoder,
+        discovery);
   }
 
   @Test
@@ -76,18 +100,22 @@ public class AsyncBatchPayloadPublisherTest {
     asyncPublisher.publishPayload(payload, recipients);
 
     verify(countDownLatchFactory).create(2);
-    verify(executorFactory).createCachedThreadPool();
-    verify(executor, times(2)).execute(any(Runnable.class));
+    verify(executorFactory).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
+    verify(executor, times(2)).execute(anyString(), any(Runnable.class));
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
   }
 
   @Test
   public void publishPayloadStripsAndPublishes() throws InterruptedException {
-    final Executor realExecutor = Executors.newSingleThreadExecutor();
-    when(executorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    final PeerExecutor realExecutor = peerExecutor(1);
+    when(executorFactory.createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt()))
+        .thenReturn(realExecutor);
 
     asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher, encoder);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, encoder, discovery);
 
     final EncodedPayload payload = mock(EncodedPayload.class);
     final EncodedPayload strippedPayload = mock(EncodedPayload.class);
@@ -111,7 +139,7 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory, times(2)).createCachedThreadPool();
+    verify(executorFactory, times(2)).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
     verify(countDownLatchFactory).create(2);
     verify(encoder).forRecipient(payload, recipient);
     verify(encoder).forRecipient(payload, otherRecipient);
@@ -119,6 +147,56 @@ public class AsyncBatchPayloadPublisherTest {
     verify(publisher).publishPayload(strippedPayload, otherRecipient);
     verify(countDownLatch, times(2)).countDown();
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
+  }
+
+  @Test
+  public void publishPayloadUsesSinglePushForRecipientsOnSameNode() throws InterruptedException {
+    final PeerExecutor realExecutor = peerExecutor(1);
+    when(executorFactory.createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt()))
+        .thenReturn(realExecutor);
+
+    asyncPublisher =
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, encoder, discovery);
+
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload strippedPayload = mock(EncodedPayload.class);
+    final EncodedPayload otherStrippedPayload = mock(EncodedPayload.class);
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
+
+    final NodeInfo nodeInfo = NodeInfo.Builder.create().withUrl("http://sharednode").build();
+    when(discovery.getRemoteNodeInfo(recipient)).thenReturn(nodeInfo);
+    when(discovery.getRemoteNodeInfo(otherRecipient)).thenReturn(nodeInfo);
+
+    when(encoder.forRecipient(payload, recipient)).thenReturn(strippedPayload);
+    when(encoder.forRecipient(payload, otherRecipient)).thenReturn(otherStrippedPayload);
+
+    doAnswer(
+            invocation -> {
+              // sleep main thread so publish threads can work
+              Thread.sleep(200);
+              return null;
+            })
+        .when(countDownLatch)
+        .await();
+
+    asyncPublisher.publishPayload(payload, List.of(recipient, otherRecipient));
+
+    verify(executorFactory, times(2)).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
+    verify(countDownLatchFactory).create(1);
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
+    verify(encoder).forRecipient(payload, recipient);
+    verify(encoder).forRecipient(payload, otherRecipient);
+    verify(publisher)
+        .publishPayloads(
+            Map.of(recipient, strippedPayload, otherRecipient, otherStrippedPayload));
+    verify(countDownLatch).countDown();
+    verify(countDownLatch).await();
   }
 
   @Test
@@ -128,7 +206,29 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory).createCachedThreadPool();
+    verify(executorFactory).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void publishPayloadCancelsCountDownLatchIfNodeHasTooManyPushesWaiting()
+      throws InterruptedException {
+    final EncodedPayload payload = mock(EncodedPayload.class);
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
+
+    final RejectedExecutionException cause = new RejectedExecutionException("too busy");
+    doThrow(cause).when(executor).execute(anyString(), any(Runnable.class));
+
+    asyncPublisher.publishPayload(payload, List.of(recipient, otherRecipient));
+
+    verify(executorFactory).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
+    verify(executor).execute(anyString(), any(Runnable.class));
+    verify(countDownLatchFactory).create(2);
+    verify(countDownLatch).cancelWithException(cause);
+    verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
   }
 
   @Test
@@ -148,19 +248,23 @@ public class AsyncBatchPayloadPublisherTest {
     assertThat(ex).isExactlyInstanceOf(BatchPublishPayloadException.class);
     assertThat(ex).hasCause(cause);
 
-    verify(executorFactory).createCachedThreadPool();
-    verify(executor, times(2)).execute(any(Runnable.class));
+    verify(executorFactory).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
+    verify(executor, times(2)).execute(anyString(), any(Runnable.class));
     verify(countDownLatchFactory).create(2);
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
   }
 
   @Test
   public void publishPayloadCancelsCountDownLatchIfOneTaskFails() throws InterruptedException {
-    final Executor realExecutor = Executors.newCachedThreadPool();
-    when(executorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    final PeerExecutor realExecutor = peerExecutor(4);
+    when(executorFactory.createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt()))
+        .thenReturn(realExecutor);
 
     asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher, encoder);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, encoder, discovery);
 
     final EncodedPayload payload = mock(EncodedPayload.class);
     final EncodedPayload strippedPayload = mock(EncodedPayload.class);
@@ -191,7 +295,7 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory, times(2)).createCachedThreadPool();
+    verify(executorFactory, times(2)).createPeerExecutor(anyString(), anyInt(), anyInt(), anyInt());
     verify(countDownLatchFactory).create(2);
     verify(encoder).forRecipient(payload, recipient);
     verify(encoder).forRecipient(payload, otherRecipient);
@@ -200,5 +304,12 @@ public class AsyncBatchPayloadPublisherTest {
     verify(countDownLatch).countDown();
     verify(countDownLatch).cancelWithException(cause);
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
+  }
+
+  private static PeerExecutor peerExecutor(int threads) {
+    return new PeerExecutor(
+        new BoundedExecutor("test", threads, 100, BoundedExecutor.RejectionPolicy.ABORT), 4, 100);
   }
 }
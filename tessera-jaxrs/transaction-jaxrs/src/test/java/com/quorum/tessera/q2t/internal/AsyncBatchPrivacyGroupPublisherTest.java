@@ -8,13 +8,12 @@ import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.privacygroup.exception.PrivacyGroupPublishException;
+import com.quorum.tessera.threading.BoundedExecutor;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -22,7 +21,7 @@ public class AsyncBatchPrivacyGroupPublisherTest {
 
   private ExecutorFactory mockExecutorFactory;
 
-  private Executor mockExecutor;
+  private BoundedExecutor mockExecutor;
 
   private CancellableCountDownLatchFactory mockCountDownLatchFactory;
 
@@ -38,11 +37,12 @@ public class AsyncBatchPrivacyGroupPublisherTest {
   @Before
   public void onSetup() {
 
-    mockExecutor = mock(Executor.class);
+    mockExecutor = mock(BoundedExecutor.class);
     mockCountDownLatch = mock(CancellableCountDownLatch.class);
 
     mockExecutorFactory = mock(ExecutorFactory.class);
-    when(mockExecutorFactory.createCachedThreadPool()).thenReturn(mockExecutor);
+    when(mockExecutorFactory.create(anyString(), anyInt(), anyInt(), any()))
+        .thenReturn(mockExecutor);
 
     mockCountDownLatchFactory = mock(CancellableCountDownLatchFactory.class);
     when(mockCountDownLatchFactory.create(anyInt())).thenReturn(mockCountDownLatch);
@@ -62,7 +62,7 @@ public class AsyncBatchPrivacyGroupPublisherTest {
 
     publisher.publishPrivacyGroup(data, recipients);
 
-    verify(mockExecutorFactory).createCachedThreadPool();
+    verify(mockExecutorFactory).create(anyString(), anyInt(), anyInt(), any());
   }
 
   @Test
@@ -73,7 +73,7 @@ public class AsyncBatchPrivacyGroupPublisherTest {
     publisher.publishPrivacyGroup(data, List.of(recipient, otherRecipient));
 
     verify(mockCountDownLatchFactory).create(2);
-    verify(mockExecutorFactory).createCachedThreadPool();
+    verify(mockExecutorFactory).create(anyString(), anyInt(), anyInt(), any());
     verify(mockExecutor, times(2)).execute(any(Runnable.class));
     verify(mockCountDownLatch).await();
   }
@@ -91,7 +91,7 @@ public class AsyncBatchPrivacyGroupPublisherTest {
     assertThat(ex).isExactlyInstanceOf(PrivacyGroupPublishException.class);
     assertThat(ex).hasMessage("some exception");
 
-    verify(mockExecutorFactory).createCachedThreadPool();
+    verify(mockExecutorFactory).create(anyString(), anyInt(), anyInt(), any());
     verify(mockExecutor, times(2)).execute(any(Runnable.class));
     verify(mockCountDownLatchFactory).create(2);
     verify(mockCountDownLatch).await();
@@ -100,8 +100,10 @@ public class AsyncBatchPrivacyGroupPublisherTest {
   @Test
   public void publishSuccess() throws InterruptedException {
 
-    final Executor realExecutor = Executors.newSingleThreadExecutor();
-    when(mockExecutorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 1, 100, BoundedExecutor.RejectionPolicy.ABORT);
+    when(mockExecutorFactory.create(anyString(), anyInt(), anyInt(), any()))
+        .thenReturn(realExecutor);
 
     final AsyncBatchPrivacyGroupPublisher publisher =
         new AsyncBatchPrivacyGroupPublisher(
@@ -123,7 +125,7 @@ public class AsyncBatchPrivacyGroupPublisherTest {
     verify(mockPublisher).publishPrivacyGroup(eq(data), eq(recipient));
     verify(mockPublisher).publishPrivacyGroup(eq(data), eq(otherRecipient));
 
-    verify(mockExecutorFactory, times(2)).createCachedThreadPool();
+    verify(mockExecutorFactory, times(2)).create(anyString(), anyInt(), anyInt(), any());
     verify(mockCountDownLatchFactory).create(2);
 
     verify(mockCountDownLatch, times(2)).countDown();
@@ -133,8 +135,10 @@ public class AsyncBatchPrivacyGroupPublisherTest {
   @Test
   public void publishReturnsError() throws InterruptedException {
 
-    final Executor realExecutor = Executors.newSingleThreadExecutor();
-    when(mockExecutorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 1, 100, BoundedExecutor.RejectionPolicy.ABORT);
+    when(mockExecutorFactory.create(anyString(), anyInt(), anyInt(), any()))
+        .thenReturn(realExecutor);
 
     final AsyncBatchPrivacyGroupPublisher publisher =
         new AsyncBatchPrivacyGroupPublisher(
@@ -16,7 +16,10 @@ import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedExcep
 import com.quorum.tessera.transaction.publish.NodeOfflineException;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
+import com.quorum.tessera.version.MultiplePushVersion;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.ws.rs.ProcessingException;
@@ -178,4 +181,173 @@ public class RestPayloadPublisherTest {
       verify(discovery).getRemoteNodeInfo(eq(recipientKey));
     }
   }
+
+  @Test
+  public void publishMultiple() {
+    final String targetUrl = "nodeUrl";
+    final PublicKey publicKey = PublicKey.from("KEY".getBytes());
+    final PublicKey otherPublicKey = PublicKey.from("OTHERKEY".getBytes());
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    final EncodedPayload otherEncodedPayload = mock(EncodedPayload.class);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(publicKey, encodedPayload);
+    payloads.put(otherPublicKey, otherEncodedPayload);
+
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions())
+        .thenReturn(
+            Set.of(EnhancedPrivacyVersion.API_VERSION_2, MultiplePushVersion.API_VERSION_3_1));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(publicKey)).thenReturn(nodeInfo);
+
+    final byte[] payloadData = "Payloads".getBytes();
+    when(payloadEncoder.encodeList(List.of(encodedPayload, otherEncodedPayload)))
+        .thenReturn(payloadData);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/pushMultiple")).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(invocationBuilder.post(
+            Entity.entity(payloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE)))
+        .thenReturn(Response.status(Response.Status.CREATED).build());
+    when(webTarget.request()).thenReturn(invocationBuilder);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    verify(discovery).getRemoteNodeInfo(publicKey);
+    verify(payloadEncoder).encodeList(List.of(encodedPayload, otherEncodedPayload));
+    verify(client).target(targetUrl);
+    verify(webTarget).path("/pushMultiple");
+    verify(invocationBuilder)
+        .post(Entity.entity(payloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+  }
+
+  @Test
+  public void publishMultipleFailsIfNotAccepted() {
+    final String targetUrl = "nodeUrl";
+    final PublicKey publicKey = PublicKey.from("KEY".getBytes());
+    final PublicKey otherPublicKey = PublicKey.from("OTHERKEY".getBytes());
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(publicKey, encodedPayload);
+    payloads.put(otherPublicKey, encodedPayload);
+
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions()).thenReturn(Set.of(MultiplePushVersion.API_VERSION_3_1));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(publicKey)).thenReturn(nodeInfo);
+
+    final byte[] payloadData = "Payloads".getBytes();
+    when(payloadEncoder.encodeList(anyList())).thenReturn(payloadData);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/pushMultiple")).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(invocationBuilder.post(any(Entity.class)))
+        .thenReturn(Response.status(Response.Status.INTERNAL_SERVER_ERROR).build());
+    when(webTarget.request()).thenReturn(invocationBuilder);
+
+    final PublishPayloadException exception =
+        catchThrowableOfType(
+            () -> payloadPublisher.publishPayloads(payloads), PublishPayloadException.class);
+
+    assertThat(exception).hasMessage("Unable to push payloads to recipient url nodeUrl");
+    verify(discovery).getRemoteNodeInfo(publicKey);
+    verify(payloadEncoder).encodeList(List.of(encodedPayload, encodedPayload));
+    verify(client).target(targetUrl);
+  }
+
+  @Test
+  public void publishMultipleToOlderNodePublishesIndividually() {
+    final String targetUrl = "nodeUrl";
+    final PublicKey publicKey = PublicKey.from("KEY".getBytes());
+    final PublicKey otherPublicKey = PublicKey.from("OTHERKEY".getBytes());
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(publicKey, encodedPayload);
+    payloads.put(otherPublicKey, encodedPayload);
+
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions()).thenReturn(Set.of(EnhancedPrivacyVersion.API_VERSION_2));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(any(PublicKey.class))).thenReturn(nodeInfo);
+
+    final byte[] payloadData = "Payload".getBytes();
+    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/push")).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(invocationBuilder.post(
+            Entity.entity(payloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE)))
+        .thenReturn(Response.status(Response.Status.CREATED).build());
+    when(webTarget.request()).thenReturn(invocationBuilder);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    // once to check the node's versions, then once per individual push
+    verify(discovery, times(2)).getRemoteNodeInfo(publicKey);
+    verify(discovery).getRemoteNodeInfo(otherPublicKey);
+    verify(payloadEncoder, times(2)).encode(encodedPayload);
+    verify(client, times(2)).target(targetUrl);
+    verify(webTarget, times(2)).path("/push");
+  }
+
+  @Test
+  public void publishMultipleFallsBackToIndividualPushesIfEndpointNotFound() {
+    final String targetUrl = "nodeUrl";
+    final PublicKey publicKey = PublicKey.from("KEY".getBytes());
+    final PublicKey otherPublicKey = PublicKey.from("OTHERKEY".getBytes());
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(publicKey, encodedPayload);
+    payloads.put(otherPublicKey, encodedPayload);
+
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions())
+        .thenReturn(
+            Set.of(EnhancedPrivacyVersion.API_VERSION_2, MultiplePushVersion.API_VERSION_3_1));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(any(PublicKey.class))).thenReturn(nodeInfo);
+
+    final byte[] payloadData = "Payload".getBytes();
+    final byte[] multiplePayloadData = "Payloads".getBytes();
+    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
+    when(payloadEncoder.encodeList(anyList())).thenReturn(multiplePayloadData);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path(anyString())).thenReturn(webTarget);
+
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(invocationBuilder.post(
+            Entity.entity(multiplePayloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE)))
+        .thenReturn(Response.status(Response.Status.NOT_FOUND).build());
+    when(invocationBuilder.post(
+            Entity.entity(payloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE)))
+        .thenReturn(Response.status(Response.Status.CREATED).build());
+    when(webTarget.request()).thenReturn(invocationBuilder);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    verify(discovery, times(2)).getRemoteNodeInfo(publicKey);
+    verify(discovery).getRemoteNodeInfo(otherPublicKey);
+    verify(payloadEncoder).encodeList(List.of(encodedPayload, encodedPayload));
+    verify(payloadEncoder, times(2)).encode(encodedPayload);
+    verify(client, times(3)).target(targetUrl);
+    verify(webTarget).path("/pushMultiple");
+    verify(webTarget, times(2)).path("/push");
+  }
 }
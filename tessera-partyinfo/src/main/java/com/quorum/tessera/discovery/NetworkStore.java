@@ -1,5 +1,7 @@
 package com.quorum.tessera.discovery;
 
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.stream.Stream;
 
@@ -11,6 +13,14 @@ public interface NetworkStore {
 
   Stream<ActiveNode> getActiveNodes();
 
+  /**
+   * Find the active node that hosts the given key
+   *
+   * @param publicKey the key to look for
+   * @return the node that hosts the key, or empty if no active node has the key
+   */
+  Optional<ActiveNode> getActiveNodeForKey(PublicKey publicKey);
+
   static NetworkStore getInstance() {
     return ServiceLoader.load(NetworkStore.class).findFirst().get();
   }
@@ -3,39 +3,92 @@ package com.quorum.tessera.discovery.internal;
 import com.quorum.tessera.discovery.ActiveNode;
 import com.quorum.tessera.discovery.NetworkStore;
 import com.quorum.tessera.discovery.NodeUri;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.*;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Holds the active nodes indexed by their uri and by each of their keys.
+ *
+ * <p>The indexes are immutable snapshots that are replaced as a whole whenever a node is stored or
+ * removed, so reads never lock or copy. Writes are serialised and skipped when nothing changes,
+ * which is the usual case when a node that is already known is stored again.
+ */
 public enum DefaultNetworkStore implements NetworkStore {
   INSTANCE;
 
-  private final Set<ActiveNode> activeNodes = ConcurrentHashMap.newKeySet();
-
   private static final Logger LOGGER = LoggerFactory.getLogger(DefaultNetworkStore.class);
 
+  private volatile Snapshot snapshot = new Snapshot(Map.of());
+
   @Override
   public NetworkStore store(ActiveNode activeNode) {
+    synchronized (this) {
+      final ActiveNode existing = snapshot.nodesByUri.get(activeNode.getUri());
+      if (!isSameNode(existing, activeNode)) {
+        final Map<NodeUri, ActiveNode> nodes = new LinkedHashMap<>(snapshot.nodesByUri);
+        nodes.put(activeNode.getUri(), activeNode);
+        snapshot = new Snapshot(nodes);
+      }
+    }
 
-    activeNodes.removeIf(a -> a.getUri().equals(activeNode.getUri()));
-    activeNodes.add(activeNode);
-
-    LOGGER.debug("Stored node {}. Active node count {}", activeNode.getUri(), activeNodes.size());
+    LOGGER.debug(
+        "Stored node {}. Active node count {}", activeNode.getUri(), snapshot.nodesByUri.size());
     return this;
   }
 
   @Override
   public NetworkStore remove(NodeUri nodeUri) {
-    activeNodes.removeIf(a -> a.getUri().equals(nodeUri));
-    LOGGER.debug("Removed node {}. Active node count {}", nodeUri, activeNodes.size());
+    synchronized (this) {
+      if (snapshot.nodesByUri.containsKey(nodeUri)) {
+        final Map<NodeUri, ActiveNode> nodes = new LinkedHashMap<>(snapshot.nodesByUri);
+        nodes.remove(nodeUri);
+        snapshot = new Snapshot(nodes);
+      }
+    }
+
+    LOGGER.debug("Removed node {}. Active node count {}", nodeUri, snapshot.nodesByUri.size());
     return this;
   }
 
   @Override
   public Stream<ActiveNode> getActiveNodes() {
-    LOGGER.debug("Fetching active nodes {}", activeNodes);
-    return activeNodes.stream();
+    final Snapshot current = snapshot;
+    LOGGER.debug("Fetching active nodes {}", current.nodes);
+    return current.nodes.stream();
+  }
+
+  @Override
+  public Optional<ActiveNode> getActiveNodeForKey(PublicKey publicKey) {
+    return Optional.ofNullable(snapshot.nodesByKey.get(publicKey));
+  }
+
+  // ActiveNode equality only considers the uri, an updated node must replace the stored one
+  private static boolean isSameNode(ActiveNode existing, ActiveNode activeNode) {
+    return existing != null
+        && existing.getKeys().equals(activeNode.getKeys())
+        && existing.getSupportedVersions().equals(activeNode.getSupportedVersions());
+  }
+
+  private static final class Snapshot {
+
+    private final Map<NodeUri, ActiveNode> nodesByUri;
+
+    private final Map<PublicKey, ActiveNode> nodesByKey;
+
+    private final List<ActiveNode> nodes;
+
+    private Snapshot(Map<NodeUri, ActiveNode> nodesByUri) {
+      final Map<PublicKey, ActiveNode> keys = new HashMap<>();
+      for (ActiveNode node : nodesByUri.values()) {
+        node.getKeys().forEach(key -> keys.putIfAbsent(key, node));
+      }
+
+      this.nodesByUri = Collections.unmodifiableMap(nodesByUri);
+      this.nodesByKey = Map.copyOf(keys);
+      this.nodes = List.copyOf(nodesByUri.values());
+    }
   }
 }
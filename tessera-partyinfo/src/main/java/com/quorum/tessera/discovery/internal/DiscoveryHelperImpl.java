@@ -12,7 +12,6 @@ import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.partyinfo.node.Recipient;
 import com.quorum.tessera.version.ApiVersion;
 import java.net.URI;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -54,10 +53,9 @@ public class DiscoveryHelperImpl implements DiscoveryHelper {
 
     final URI uri = RuntimeContext.getInstance().getP2pServerUri();
     final NodeUri nodeUri = NodeUri.create(uri);
-    final List<ActiveNode> activeNodes = networkStore.getActiveNodes().collect(Collectors.toList());
-
     Set<Recipient> recipients =
-        activeNodes.stream()
+        networkStore
+            .getActiveNodes()
             .filter(a -> !a.getKeys().isEmpty())
             .flatMap(a -> a.getKeys().stream().map(k -> Recipient.of(k, a.getUri().asString())))
             .collect(Collectors.toSet());
@@ -78,9 +76,7 @@ public class DiscoveryHelperImpl implements DiscoveryHelper {
 
     final ActiveNode activeNode =
         networkStore
-            .getActiveNodes()
-            .filter(node -> node.getKeys().contains(recipientKey))
-            .findAny()
+            .getActiveNodeForKey(recipientKey)
             .orElseThrow(
                 () ->
                     new KeyNotFoundException(
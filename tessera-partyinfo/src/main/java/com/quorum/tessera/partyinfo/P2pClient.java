@@ -1,12 +1,47 @@
 package com.quorum.tessera.partyinfo;
 
+import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.Collection;
 import java.util.ServiceLoader;
 
 public interface P2pClient {
 
   boolean sendPartyInfo(String targetUrl, byte[] data);
 
+  /**
+   * Sends the full partyinfo along with its digest, so that the target can be sent only the
+   * changes to it afterwards
+   *
+   * @param targetUrl the URL of the target
+   * @param data the encoded partyinfo
+   * @param digest the digest of the partyinfo
+   * @return whether the target accepted the partyinfo
+   */
+  default boolean sendPartyInfo(String targetUrl, byte[] data, String digest) {
+    return sendPartyInfo(targetUrl, data);
+  }
+
+  /**
+   * Sends the changes to a partyinfo the target has accepted before
+   *
+   * @param targetUrl the URL of the target
+   * @param data the encoded partyinfo holding only the recipients added or changed since the
+   *     partyinfo with the base digest
+   * @param baseDigest the digest of the partyinfo the changes apply to
+   * @param digest the digest of the partyinfo with the changes applied
+   * @param removedKeys the keys that are no longer in the partyinfo
+   * @return whether the target accepted the changes; if not, the full partyinfo needs to be sent
+   */
+  default boolean sendPartyInfoDelta(
+      String targetUrl,
+      byte[] data,
+      String baseDigest,
+      String digest,
+      Collection<PublicKey> removedKeys) {
+    return false;
+  }
+
   static P2pClient create() {
     return ServiceLoaderUtil.loadSingle(ServiceLoader.load(P2pClient.class));
   }
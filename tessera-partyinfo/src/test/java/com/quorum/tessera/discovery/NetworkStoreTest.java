@@ -3,6 +3,8 @@ package com.quorum.tessera.discovery;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.quorum.tessera.discovery.internal.DefaultNetworkStore;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,4 +51,55 @@ public class NetworkStoreTest {
 
     assertThat(networkStore.getActiveNodes().count()).isEqualTo(2L);
   }
+
+  @Test
+  public void findNodeForKey() {
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PublicKey otherKey = PublicKey.from("otherKey".getBytes());
+    final NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+
+    final ActiveNode activeNode =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key, otherKey)).build();
+    networkStore.store(activeNode);
+
+    assertThat(networkStore.getActiveNodeForKey(key)).containsSame(activeNode);
+    assertThat(networkStore.getActiveNodeForKey(otherKey)).containsSame(activeNode);
+    assertThat(networkStore.getActiveNodeForKey(PublicKey.from("unknown".getBytes()))).isEmpty();
+
+    networkStore.remove(nodeUri);
+
+    assertThat(networkStore.getActiveNodeForKey(key)).isEmpty();
+  }
+
+  @Test
+  public void storingNodeAgainReplacesItsKeys() {
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PublicKey newKey = PublicKey.from("newKey".getBytes());
+    final NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+
+    networkStore.store(ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build());
+
+    final ActiveNode updated =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(newKey)).build();
+    networkStore.store(updated);
+
+    assertThat(networkStore.getActiveNodes()).containsExactly(updated);
+    assertThat(networkStore.getActiveNodes().findFirst().get().getKeys()).containsExactly(newKey);
+    assertThat(networkStore.getActiveNodeForKey(key)).isEmpty();
+    assertThat(networkStore.getActiveNodeForKey(newKey)).containsSame(updated);
+  }
+
+  @Test
+  public void storingUnchangedNodeKeepsStoredNode() {
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+
+    final ActiveNode activeNode =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build();
+    networkStore.store(activeNode);
+    networkStore.store(ActiveNode.Builder.from(activeNode).build());
+
+    assertThat(networkStore.getActiveNodes()).hasSize(1);
+    assertThat(networkStore.getActiveNodeForKey(key)).containsSame(activeNode);
+  }
 }
@@ -15,9 +15,9 @@ import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import com.quorum.tessera.transaction.TransactionManager;
 import com.quorum.tessera.transaction.exception.PrivacyViolationException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
+import com.quorum.tessera.version.MultiKeyResendVersion;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -59,9 +59,15 @@ class RecoveryImpl implements Recovery {
 
     final Set<NodeInfo> remoteNodeInfos = discovery.getRemoteNodeInfos();
 
+    final Predicate<NodeInfo> sendRequestToMultiKeyNode =
+        nodeInfo ->
+            nodeInfo.supportedApiVersions().contains(MultiKeyResendVersion.API_VERSION_3_2)
+                && transactionRequester.requestAllTransactionsForAllKeysFromNode(nodeInfo.getUrl());
+
     final Predicate<NodeInfo> sendRequestsToNode =
         nodeInfo ->
-            nodeInfo.supportedApiVersions().contains(EnhancedPrivacyVersion.API_VERSION_2)
+            !nodeInfo.supportedApiVersions().contains(MultiKeyResendVersion.API_VERSION_3_2)
+                && nodeInfo.supportedApiVersions().contains(EnhancedPrivacyVersion.API_VERSION_2)
                 && transactionRequester.requestAllTransactionsFromNode(nodeInfo.getUrl());
 
     final Predicate<NodeInfo> sendRequestsToLegacyNode =
@@ -71,7 +77,11 @@ class RecoveryImpl implements Recovery {
 
     final long failures =
         remoteNodeInfos.stream()
-            .filter(sendRequestsToNode.or(sendRequestsToLegacyNode).negate())
+            .filter(
+                sendRequestToMultiKeyNode
+                    .or(sendRequestsToNode)
+                    .or(sendRequestsToLegacyNode)
+                    .negate())
             .peek(p -> LOGGER.warn("Fail resend request to {}", p.getUrl()))
             .count();
 
@@ -87,9 +97,7 @@ class RecoveryImpl implements Recovery {
   @Override
   public RecoveryResult stage() {
 
-    final AtomicLong stage = new AtomicLong(0);
-
-    while (stagingEntityDAO.updateStageForBatch(BATCH_SIZE, stage.incrementAndGet()) != 0) {}
+    new TransactionStager(stagingEntityDAO).stage();
 
     final long totalCount = stagingEntityDAO.countAll();
     final long validatedCount = stagingEntityDAO.countStaged();
@@ -0,0 +1,112 @@
+package com.quorum.tessera.recovery.internal;
+
+import com.quorum.tessera.data.staging.StagingEntityDAO;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Orders the staged transactions so that each one is synced after the transactions it affects.
+ *
+ * <p>The dependencies between the unstaged transactions are loaded once and a transaction's stage
+ * is worked out in memory: it is one more than the highest stage of the transactions it affects.
+ * Transactions affecting nothing, or only transactions staged earlier, are at stage 1. The stages
+ * are written back with one bulk update per stage.
+ *
+ * <p>A transaction is left unstaged if it affects a transaction that was never received, or one
+ * that is itself left unstaged, or if it is part of a cycle.
+ */
+class TransactionStager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TransactionStager.class);
+
+  private final StagingEntityDAO stagingEntityDAO;
+
+  TransactionStager(final StagingEntityDAO stagingEntityDAO) {
+    this.stagingEntityDAO = Objects.requireNonNull(stagingEntityDAO);
+  }
+
+  /**
+   * Stages every transaction whose dependencies can be met
+   *
+   * @return the number of transactions (not versions) staged
+   */
+  long stage() {
+    final Map<String, Set<String>> dependencies = stagingEntityDAO.retrieveUnstagedDependencies();
+    final int total = dependencies.size();
+    LOGGER.info("Staging {} transactions", total);
+
+    final Set<String> outside =
+        dependencies.values().stream()
+            .flatMap(Set::stream)
+            .filter(hash -> !dependencies.containsKey(hash))
+            .collect(Collectors.toSet());
+    final Set<String> stagedEarlier =
+        outside.isEmpty() ? Set.of() : stagingEntityDAO.retrieveStagedHashes(outside);
+
+    // how many unstaged transactions each one still waits for, and who waits for each one
+    final Map<String, Integer> waitingFor = new HashMap<>();
+    final Map<String, List<String>> dependents = new HashMap<>();
+    List<String> ready = new ArrayList<>();
+    final Set<String> missing = new HashSet<>();
+
+    dependencies.forEach(
+        (hash, affected) -> {
+          int count = 0;
+          for (final String affectedHash : affected) {
+            if (dependencies.containsKey(affectedHash)) {
+              dependents.computeIfAbsent(affectedHash, h -> new ArrayList<>()).add(hash);
+              count++;
+            } else if (!stagedEarlier.contains(affectedHash)) {
+              missing.add(hash);
+            }
+          }
+          waitingFor.put(hash, count);
+          if (count == 0 && !missing.contains(hash)) {
+            ready.add(hash);
+          }
+        });
+
+    if (!missing.isEmpty()) {
+      LOGGER.warn("{} transactions affect transactions that were not received", missing.size());
+    }
+
+    long stage = 0;
+    long staged = 0;
+    long nextReport = total / 10;
+    while (!ready.isEmpty()) {
+      stage++;
+      stagingEntityDAO.updateStageForHashes(ready, stage);
+      staged += ready.size();
+      LOGGER.debug("Staged {} transactions at stage {}", ready.size(), stage);
+      if (staged >= nextReport) {
+        LOGGER.info("Staged {} of {} transactions ({} stages)", staged, total, stage);
+        nextReport = staged + total / 10;
+      }
+
+      final List<String> next = new ArrayList<>();
+      for (final String hash : ready) {
+        for (final String dependent : dependents.getOrDefault(hash, List.of())) {
+          final int remaining = waitingFor.merge(dependent, -1, Integer::sum);
+          if (remaining == 0 && !missing.contains(dependent)) {
+            next.add(dependent);
+          }
+        }
+      }
+      ready = next;
+    }
+
+    LOGGER.info("Staged {} of {} transactions in {} stages", staged, total, stage);
+    if (staged < total) {
+      LOGGER.warn("{} transactions could not be staged", total - staged);
+    }
+    return staged;
+  }
+}
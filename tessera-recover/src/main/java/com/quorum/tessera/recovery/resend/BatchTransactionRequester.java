@@ -20,6 +20,15 @@ public interface BatchTransactionRequester {
    */
   boolean requestAllTransactionsFromNode(String url);
 
+  /**
+   * Makes a single request to the given node to resend transactions for all of this node's keys,
+   * so that the node only needs to read its transactions once
+   *
+   * @param url the URL to contact for resending
+   * @return whether the resend request was successful or not
+   */
+  boolean requestAllTransactionsForAllKeysFromNode(String url);
+
   /**
    * Makes a request to the given node that run on a legacy version to resend transactions
    *
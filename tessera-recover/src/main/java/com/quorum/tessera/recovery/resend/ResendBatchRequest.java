@@ -1,17 +1,30 @@
 package com.quorum.tessera.recovery.resend;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public interface ResendBatchRequest {
 
+  /**
+   * @return the first of the keys that transactions should be resent for
+   */
   String getPublicKey();
 
+  /**
+   * @return all the keys that transactions should be resent for, without duplicates
+   */
+  List<String> getPublicKeys();
+
   int getBatchSize();
 
   class Builder {
 
     private String publicKey;
 
+    private List<String> publicKeys = List.of();
+
     private int batchSize;
 
     public static Builder create() {
@@ -23,6 +36,11 @@ public interface ResendBatchRequest {
       return this;
     }
 
+    public Builder withPublicKeys(List<String> publicKeys) {
+      this.publicKeys = publicKeys == null ? List.of() : publicKeys;
+      return this;
+    }
+
     public Builder withBatchSize(int batchSize) {
       this.batchSize = batchSize;
       return this;
@@ -30,13 +48,27 @@ public interface ResendBatchRequest {
 
     public ResendBatchRequest build() {
 
-      Objects.requireNonNull(publicKey, "publicKey is required");
+      final Set<String> keys = new LinkedHashSet<>();
+      if (publicKey != null) {
+        keys.add(publicKey);
+      }
+      publicKeys.stream().filter(Objects::nonNull).forEach(keys::add);
+
+      if (keys.isEmpty()) {
+        throw new NullPointerException("publicKey is required");
+      }
+      final List<String> allKeys = List.copyOf(keys);
 
       return new ResendBatchRequest() {
 
         @Override
         public String getPublicKey() {
-          return publicKey;
+          return allKeys.get(0);
+        }
+
+        @Override
+        public List<String> getPublicKeys() {
+          return allKeys;
         }
 
         @Override
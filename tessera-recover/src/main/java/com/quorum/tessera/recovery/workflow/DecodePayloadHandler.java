@@ -15,6 +15,11 @@ public class DecodePayloadHandler implements BatchWorkflowAction {
   @Override
   public boolean execute(BatchWorkflowContext event) {
 
+    // already decoded when the same transaction is resent for more than one key
+    if (event.getEncodedPayload() != null) {
+      return true;
+    }
+
     EncryptedTransaction encryptedTransaction = event.getEncryptedTransaction();
 
     EncodedPayload encodedPayload = encoder.decode(encryptedTransaction.getEncodedPayload());
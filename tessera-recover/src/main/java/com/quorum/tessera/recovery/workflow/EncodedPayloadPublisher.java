@@ -4,6 +4,7 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -27,7 +28,12 @@ public class EncodedPayloadPublisher implements BatchWorkflowAction {
     final int batchSize = event.getBatchSize();
     final long total = event.getExpectedTotal();
 
-    targetUrl = event.getRecipient().getUrl();
+    final String url = event.getRecipient().getUrl();
+    if (!payloads.isEmpty() && !Objects.equals(url, targetUrl)) {
+      // the keys of a multi-key resend may be on different nodes, never mix them in one batch
+      publish(batchSize);
+    }
+    targetUrl = url;
     payloads.add(event.getPayloadsToPublish());
 
     if (payloads.size() == batchSize || messageCounter + payloads.size() >= total) {
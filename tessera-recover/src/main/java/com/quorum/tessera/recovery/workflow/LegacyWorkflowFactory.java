@@ -1,5 +1,6 @@
 package com.quorum.tessera.recovery.workflow;
 
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.PayloadEncoder;
@@ -18,15 +19,19 @@ public class LegacyWorkflowFactory {
 
   private final PayloadPublisher payloadPublisher;
 
+  private final EncryptedTransactionDAO encryptedTransactionDAO;
+
   public LegacyWorkflowFactory(
       final Enclave enclave,
       final PayloadEncoder payloadEncoder,
       final Discovery discovery,
-      final PayloadPublisher payloadPublisher) {
+      final PayloadPublisher payloadPublisher,
+      final EncryptedTransactionDAO encryptedTransactionDAO) {
     this.enclave = Objects.requireNonNull(enclave);
     this.payloadEncoder = Objects.requireNonNull(payloadEncoder);
     this.discovery = Objects.requireNonNull(discovery);
     this.payloadPublisher = Objects.requireNonNull(payloadPublisher);
+    this.encryptedTransactionDAO = Objects.requireNonNull(encryptedTransactionDAO);
   }
 
   public BatchWorkflow create() {
@@ -37,7 +42,7 @@ public class LegacyWorkflowFactory {
     final PreparePayloadForRecipient preparePayloadForRecipient =
         new PreparePayloadForRecipient(payloadEncoder);
     final SearchRecipientKeyForPayload searchRecipientKeyForPayload =
-        new SearchRecipientKeyForPayload(enclave);
+        new SearchRecipientKeyForPayload(enclave, encryptedTransactionDAO);
     final FindRecipientFromPartyInfo findRecipientFromPartyInfo =
         new FindRecipientFromPartyInfo(discovery);
     final SenderIsNotRecipient senderIsNotRecipient = new SenderIsNotRecipient(enclave);
@@ -1,8 +1,10 @@
 package com.quorum.tessera.recovery.workflow;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.MessageHash;
 import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.EnclaveClient;
 import com.quorum.tessera.enclave.EnclaveNotAvailableException;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.EncryptorException;
@@ -13,6 +15,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,8 +25,12 @@ public class SearchRecipientKeyForPayload implements BatchWorkflowAction {
 
   private final Enclave enclave;
 
-  public SearchRecipientKeyForPayload(final Enclave enclave) {
+  private final EncryptedTransactionDAO encryptedTransactionDAO;
+
+  public SearchRecipientKeyForPayload(
+      final Enclave enclave, final EncryptedTransactionDAO encryptedTransactionDAO) {
     this.enclave = Objects.requireNonNull(enclave);
+    this.encryptedTransactionDAO = Objects.requireNonNull(encryptedTransactionDAO);
   }
 
   @Override
@@ -38,13 +45,15 @@ public class SearchRecipientKeyForPayload implements BatchWorkflowAction {
     }
 
     // the keys are not present, so we need to search for the relevant recipient
+    // a single box is one we received, so it is the box the key recorded on receipt opens
+    final boolean useRecordedKey = encodedPayloads.size() == 1;
     final Set<EncodedPayload> adjustedPayloads =
         encodedPayloads.stream()
             .map(
                 payload -> {
                   // this is a pre-PE tx, so find the recipient key
                   final PublicKey recipientKey =
-                      searchForRecipientKey(payload)
+                      findRecipientKey(event, payload, useRecordedKey)
                           .orElseThrow(
                               () -> {
                                 final EncryptedTransaction encryptedTransaction =
@@ -66,8 +75,43 @@ public class SearchRecipientKeyForPayload implements BatchWorkflowAction {
     return true;
   }
 
-  private Optional<PublicKey> searchForRecipientKey(final EncodedPayload payload) {
-    for (final PublicKey potentialMatchingKey : enclave.getPublicKeys()) {
+  private Optional<PublicKey> findRecipientKey(
+      final BatchWorkflowContext event,
+      final EncodedPayload payload,
+      final boolean useRecordedKey) {
+    final Set<PublicKey> managedKeys = enclave.getPublicKeys();
+    if (!useRecordedKey) {
+      return searchForRecipientKey(payload, managedKeys);
+    }
+
+    final MessageHash hash = event.getEncryptedTransaction().getHash();
+    final Optional<PublicKey> recordedKey =
+        encryptedTransactionDAO
+            .findRecipientKey(hash)
+            .map(PublicKey::from)
+            .filter(managedKeys::contains);
+    if (recordedKey.isPresent()) {
+      return recordedKey;
+    }
+
+    final Optional<PublicKey> foundKey = searchForRecipientKey(payload, managedKeys);
+    foundKey.ifPresent(key -> encryptedTransactionDAO.saveRecipientKey(hash, key.getKeyBytes()));
+    return foundKey;
+  }
+
+  private Optional<PublicKey> searchForRecipientKey(
+      final EncodedPayload payload, final Set<PublicKey> potentialMatchingKeys) {
+    // a remote enclave is sent all the keys in one request, rather than a request for each key
+    if (enclave instanceof EnclaveClient) {
+      final List<PublicKey> keys = List.copyOf(potentialMatchingKeys);
+      final List<Optional<byte[]>> results = enclave.unencryptTransactions(payload, keys);
+      return IntStream.range(0, keys.size())
+          .filter(i -> results.get(i).isPresent())
+          .mapToObj(keys::get)
+          .findFirst();
+    }
+
+    for (final PublicKey potentialMatchingKey : potentialMatchingKeys) {
       try {
         enclave.unencryptTransaction(payload, potentialMatchingKey);
         return Optional.of(potentialMatchingKey);
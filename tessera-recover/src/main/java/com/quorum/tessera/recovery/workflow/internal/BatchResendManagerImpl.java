@@ -2,7 +2,9 @@ package com.quorum.tessera.recovery.workflow.internal;
 
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
+import com.quorum.tessera.data.staging.StagingTransaction;
 import com.quorum.tessera.data.staging.StagingTransactionUtils;
+import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.recovery.resend.PushBatchRequest;
 import com.quorum.tessera.recovery.resend.ResendBatchRequest;
@@ -14,7 +16,7 @@ import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.IntStream;
+import java.util.stream.Collectors;
 
 public class BatchResendManagerImpl implements BatchResendManager {
 
@@ -39,43 +41,54 @@ public class BatchResendManagerImpl implements BatchResendManager {
     this.batchWorkflowFactory = batchWorkflowFactory;
   }
 
-  static int calculateBatchCount(long maxResults, long total) {
-    return (int) Math.ceil((double) total / maxResults);
-  }
-
+  /**
+   * Resends the transactions for all the requested keys in a single pass over the store, decoding
+   * each payload once and sharing the published batches between the keys.
+   */
   @Override
   public ResendBatchResponse resendBatch(ResendBatchRequest request) {
 
     final int batchSize = validateRequestBatchSize(request.getBatchSize());
-    final byte[] publicKeyData = Base64.getDecoder().decode(request.getPublicKey());
-    final PublicKey recipientPublicKey = PublicKey.from(publicKeyData);
+    final List<PublicKey> recipientPublicKeys =
+        request.getPublicKeys().stream()
+            .map(Base64.getDecoder()::decode)
+            .map(PublicKey::from)
+            .collect(Collectors.toUnmodifiableList());
 
     final long transactionCount = encryptedTransactionDAO.transactionCount();
-    final long batchCount = calculateBatchCount(maxResults, transactionCount);
 
-    final BatchWorkflow batchWorkflow = batchWorkflowFactory.create(transactionCount);
+    final BatchWorkflow batchWorkflow =
+        batchWorkflowFactory.create(transactionCount * recipientPublicKeys.size());
 
-    IntStream.range(0, (int) batchCount)
-        .map(i -> i * maxResults)
-        .mapToObj(offset -> encryptedTransactionDAO.retrieveTransactions(offset, maxResults))
-        .flatMap(List::stream)
+    encryptedTransactionDAO
+        .streamTransactions(maxResults)
         .forEach(
             encryptedTransaction -> {
-              final BatchWorkflowContext context = new BatchWorkflowContext();
-              context.setEncryptedTransaction(encryptedTransaction);
-              context.setRecipientKey(recipientPublicKey);
-              context.setBatchSize(batchSize);
-              batchWorkflow.execute(context);
+              EncodedPayload encodedPayload = null;
+              for (PublicKey recipientPublicKey : recipientPublicKeys) {
+                final BatchWorkflowContext context = new BatchWorkflowContext();
+                context.setEncryptedTransaction(encryptedTransaction);
+                context.setEncodedPayload(encodedPayload);
+                context.setRecipientKey(recipientPublicKey);
+                context.setBatchSize(batchSize);
+                batchWorkflow.execute(context);
+                // decoded by the first key's pass, reused by the others
+                encodedPayload = context.getEncodedPayload();
+              }
             });
 
     return ResendBatchResponse.from(batchWorkflow.getPublishedMessageCount());
   }
 
+  /**
+   * Stores the whole batch in one database transaction. Batches pushed by different nodes are
+   * stored at the same time, which is safe as staging only ever inserts new rows here.
+   */
   @Override
-  public synchronized void storeResendBatch(PushBatchRequest resendPushBatchRequest) {
-    resendPushBatchRequest.getEncodedPayloads().stream()
-        .map(StagingTransactionUtils::fromRawPayload)
-        .forEach(stagingEntityDAO::save);
+  public void storeResendBatch(PushBatchRequest resendPushBatchRequest) {
+    final List<StagingTransaction> stagingTransactions =
+        StagingTransactionUtils.fromRawPayloads(resendPushBatchRequest.getEncodedPayloads());
+    stagingEntityDAO.saveAll(stagingTransactions);
   }
 
   private int validateRequestBatchSize(int s) {
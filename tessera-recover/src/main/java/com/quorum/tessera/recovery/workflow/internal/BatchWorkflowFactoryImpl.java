@@ -1,5 +1,6 @@
 package com.quorum.tessera.recovery.workflow.internal;
 
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.PayloadEncoder;
@@ -20,15 +21,19 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
 
   private final ResendBatchPublisher resendBatchPublisher;
 
+  private final EncryptedTransactionDAO encryptedTransactionDAO;
+
   BatchWorkflowFactoryImpl(
       Enclave enclave,
       PayloadEncoder payloadEncoder,
       Discovery discovery,
-      ResendBatchPublisher resendBatchPublisher) {
+      ResendBatchPublisher resendBatchPublisher,
+      EncryptedTransactionDAO encryptedTransactionDAO) {
     this.enclave = Objects.requireNonNull(enclave);
     this.payloadEncoder = Objects.requireNonNull(payloadEncoder);
     this.discovery = Objects.requireNonNull(discovery);
     this.resendBatchPublisher = Objects.requireNonNull(resendBatchPublisher);
+    this.encryptedTransactionDAO = Objects.requireNonNull(encryptedTransactionDAO);
   }
 
   @Override
@@ -42,7 +47,7 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
         new FindRecipientFromPartyInfo(discovery);
     FilterPayload filterPayload = new FilterPayload(enclave);
     SearchRecipientKeyForPayload searchRecipientKeyForPayload =
-        new SearchRecipientKeyForPayload(enclave);
+        new SearchRecipientKeyForPayload(enclave, encryptedTransactionDAO);
     SenderIsNotRecipient senderIsNotRecipient = new SenderIsNotRecipient(enclave);
     EncodedPayloadPublisher encodedPayloadPublisher =
         new EncodedPayloadPublisher(resendBatchPublisher);
@@ -1,5 +1,6 @@
 package com.quorum.tessera.recovery.workflow.internal;
 
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.PayloadEncoder;
@@ -14,7 +15,9 @@ public class BatchWorkflowFactoryProvider {
     PayloadEncoder payloadEncoder = PayloadEncoder.create();
     Discovery discovery = Discovery.create();
     ResendBatchPublisher resendBatchPublisher = ResendBatchPublisher.create();
+    EncryptedTransactionDAO encryptedTransactionDAO = EncryptedTransactionDAO.create();
 
-    return new BatchWorkflowFactoryImpl(enclave, payloadEncoder, discovery, resendBatchPublisher);
+    return new BatchWorkflowFactoryImpl(
+        enclave, payloadEncoder, discovery, resendBatchPublisher, encryptedTransactionDAO);
   }
 }
@@ -17,7 +17,6 @@ import com.quorum.tessera.transaction.exception.TransactionNotFoundException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class LegacyResendManagerImpl implements LegacyResendManager {
 
@@ -55,17 +54,13 @@ public class LegacyResendManagerImpl implements LegacyResendManager {
     }
 
     final LegacyWorkflowFactory batchWorkflowFactory =
-        new LegacyWorkflowFactory(enclave, payloadEncoder, discovery, payloadPublisher);
+        new LegacyWorkflowFactory(
+            enclave, payloadEncoder, discovery, payloadPublisher, encryptedTransactionDAO);
 
     final BatchWorkflow batchWorkflow = batchWorkflowFactory.create();
 
-    final long transactionCount = encryptedTransactionDAO.transactionCount();
-    final long batchCount = calculateBatchCount(resendFetchSize, transactionCount);
-
-    IntStream.range(0, (int) batchCount)
-        .map(i -> i * resendFetchSize)
-        .mapToObj(offset -> encryptedTransactionDAO.retrieveTransactions(offset, resendFetchSize))
-        .flatMap(List::stream)
+    encryptedTransactionDAO
+        .streamTransactions(resendFetchSize)
         .forEach(
             encryptedTransaction -> {
               final BatchWorkflowContext context = new BatchWorkflowContext();
@@ -115,7 +110,7 @@ public class LegacyResendManagerImpl implements LegacyResendManager {
     context.setPayloadsToPublish(allTxns);
     context.setEncryptedTransaction(encryptedTransaction);
 
-    new SearchRecipientKeyForPayload(enclave).execute(context);
+    new SearchRecipientKeyForPayload(enclave, encryptedTransactionDAO).execute(context);
 
     final EncodedPayload.Builder builder =
         EncodedPayload.Builder.create()
@@ -132,8 +127,4 @@ public class LegacyResendManagerImpl implements LegacyResendManager {
 
     return ResendResponse.Builder.create().withPayload(builder.build()).build();
   }
-
-  static int calculateBatchCount(long maxResults, long total) {
-    return (int) Math.ceil((double) total / maxResults);
-  }
 }
@@ -10,13 +10,20 @@ import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.partyinfo.node.Recipient;
 import com.quorum.tessera.recovery.Recovery;
 import com.quorum.tessera.recovery.RecoveryResult;
 import com.quorum.tessera.recovery.RecoveryTestCase;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import com.quorum.tessera.transaction.TransactionManager;
 import com.quorum.tessera.transaction.exception.PrivacyViolationException;
+import com.quorum.tessera.version.BaseVersion;
+import com.quorum.tessera.version.EnhancedPrivacyVersion;
+import com.quorum.tessera.version.MultiKeyResendVersion;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -82,6 +89,31 @@ public class RecoveryImplTest extends RecoveryTestCase {
     verify(discovery).getRemoteNodeInfos();
   }
 
+  @Test
+  public void testRequestSendsOneRequestForAllKeysToMultiKeyNode() {
+
+    final NodeInfo multiKeyNode =
+        NodeInfo.Builder.create()
+            .withUrl("http://party5/")
+            .withRecipients(Set.of(mock(Recipient.class)))
+            .withSupportedApiVersions(
+                Set.of(
+                    BaseVersion.API_VERSION_1,
+                    EnhancedPrivacyVersion.API_VERSION_2,
+                    MultiKeyResendVersion.API_VERSION_3_2))
+            .build();
+    when(discovery.getRemoteNodeInfos()).thenReturn(Set.of(multiKeyNode));
+    when(transactionRequester.requestAllTransactionsForAllKeysFromNode(anyString()))
+        .thenReturn(true);
+
+    final RecoveryResult result = recovery.request();
+
+    assertThat(result).isEqualTo(RecoveryResult.SUCCESS);
+
+    verify(transactionRequester).requestAllTransactionsForAllKeysFromNode("http://party5/");
+    verify(discovery).getRemoteNodeInfos();
+  }
+
   @Test
   public void testRequestPartialSuccess() {
 
@@ -115,10 +147,9 @@ public class RecoveryImplTest extends RecoveryTestCase {
   @Test
   public void testStagingSuccess() {
 
-    // Staging loop run 3 times until there is no record left
-    when(stagingEntityDAO.updateStageForBatch(anyInt(), eq(1L))).thenReturn(1);
-    when(stagingEntityDAO.updateStageForBatch(anyInt(), eq(2L))).thenReturn(1);
-    when(stagingEntityDAO.updateStageForBatch(anyInt(), eq(3L))).thenReturn(0);
+    // tx2 affects tx1, so is staged after it
+    when(stagingEntityDAO.retrieveUnstagedDependencies())
+        .thenReturn(Map.of("tx1", Set.of(), "tx2", Set.of("tx1")));
 
     when(stagingEntityDAO.countAll()).thenReturn(2L);
     when(stagingEntityDAO.countStaged()).thenReturn(2L);
@@ -127,7 +158,9 @@ public class RecoveryImplTest extends RecoveryTestCase {
 
     assertThat(result).isEqualTo(RecoveryResult.SUCCESS);
 
-    verify(stagingEntityDAO, times(3)).updateStageForBatch(anyInt(), anyLong());
+    verify(stagingEntityDAO).retrieveUnstagedDependencies();
+    verify(stagingEntityDAO).updateStageForHashes(List.of("tx1"), 1L);
+    verify(stagingEntityDAO).updateStageForHashes(List.of("tx2"), 2L);
     verify(stagingEntityDAO).countAll();
     verify(stagingEntityDAO).countStaged();
   }
@@ -138,12 +171,12 @@ public class RecoveryImplTest extends RecoveryTestCase {
     when(stagingEntityDAO.countAll()).thenReturn(2L);
     when(stagingEntityDAO.countStaged()).thenReturn(1L);
 
-    when(stagingEntityDAO.updateStageForBatch(anyInt(), anyLong())).thenReturn(0);
+    when(stagingEntityDAO.retrieveUnstagedDependencies()).thenReturn(Map.of());
     RecoveryResult result = recovery.stage();
 
     assertThat(result).isEqualTo(RecoveryResult.PARTIAL_SUCCESS);
 
-    verify(stagingEntityDAO).updateStageForBatch(anyInt(), anyLong());
+    verify(stagingEntityDAO).retrieveUnstagedDependencies();
     verify(stagingEntityDAO).countAll();
     verify(stagingEntityDAO).countStaged();
   }
@@ -151,7 +184,7 @@ public class RecoveryImplTest extends RecoveryTestCase {
   @Test
   public void testStagingFailed() {
 
-    when(stagingEntityDAO.updateStageForBatch(anyInt(), anyLong())).thenReturn(0);
+    when(stagingEntityDAO.retrieveUnstagedDependencies()).thenReturn(Map.of());
 
     when(stagingEntityDAO.countAll()).thenReturn(2L);
     when(stagingEntityDAO.countStaged()).thenReturn(0L);
@@ -160,7 +193,7 @@ public class RecoveryImplTest extends RecoveryTestCase {
 
     assertThat(result).isEqualTo(RecoveryResult.FAILURE);
 
-    verify(stagingEntityDAO).updateStageForBatch(anyInt(), anyLong());
+    verify(stagingEntityDAO).retrieveUnstagedDependencies();
     verify(stagingEntityDAO).countAll();
     verify(stagingEntityDAO).countStaged();
   }
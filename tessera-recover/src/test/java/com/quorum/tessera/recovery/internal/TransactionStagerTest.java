@@ -0,0 +1,131 @@
+package com.quorum.tessera.recovery.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.data.staging.StagingEntityDAO;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionStagerTest {
+
+  private StagingEntityDAO stagingEntityDAO;
+
+  private Map<String, Long> stages;
+
+  private TransactionStager transactionStager;
+
+  @Before
+  public void onSetUp() {
+    stagingEntityDAO = mock(StagingEntityDAO.class);
+    stages = new HashMap<>();
+    when(stagingEntityDAO.updateStageForHashes(anyCollection(), anyLong()))
+        .then(
+            invocation -> {
+              final Collection<String> hashes = invocation.getArgument(0);
+              final long stage = invocation.getArgument(1);
+              hashes.forEach(hash -> assertThat(stages.put(hash, stage)).isNull());
+              return hashes.size();
+            });
+
+    transactionStager = new TransactionStager(stagingEntityDAO);
+  }
+
+  @After
+  public void onTearDown() {
+    verify(stagingEntityDAO).retrieveUnstagedDependencies();
+    verify(stagingEntityDAO, atLeast(0)).retrieveStagedHashes(anyCollection());
+    verify(stagingEntityDAO, atLeast(0)).updateStageForHashes(anyCollection(), anyLong());
+    verifyNoMoreInteractions(stagingEntityDAO);
+  }
+
+  @Test
+  public void transactionsAreStagedAfterTheTransactionsTheyAffect() {
+    // tx5 affects tx6, which was never received, so neither tx5 nor tx8 can be staged
+    when(stagingEntityDAO.retrieveUnstagedDependencies())
+        .thenReturn(
+            Map.of(
+                "tx1", Set.of(),
+                "tx2", Set.of("tx1"),
+                "tx3", Set.of(),
+                "tx4", Set.of("tx3"),
+                "tx5", Set.of("tx6"),
+                "tx7", Set.of("tx1", "tx4"),
+                "tx8", Set.of("tx5")));
+
+    final long staged = transactionStager.stage();
+
+    assertThat(staged).isEqualTo(5);
+    assertThat(stages)
+        .containsOnly(
+            Map.entry("tx1", 1L),
+            Map.entry("tx3", 1L),
+            Map.entry("tx2", 2L),
+            Map.entry("tx4", 2L),
+            Map.entry("tx7", 3L));
+    verify(stagingEntityDAO).retrieveStagedHashes(Set.of("tx6"));
+  }
+
+  @Test
+  public void transactionsAffectingEarlierStagedTransactionsAreStaged() {
+    when(stagingEntityDAO.retrieveUnstagedDependencies())
+        .thenReturn(Map.of("tx2", Set.of("tx1"), "tx3", Set.of("tx2", "tx1")));
+    when(stagingEntityDAO.retrieveStagedHashes(Set.of("tx1"))).thenReturn(Set.of("tx1"));
+
+    final long staged = transactionStager.stage();
+
+    assertThat(staged).isEqualTo(2);
+    assertThat(stages).containsOnly(Map.entry("tx2", 1L), Map.entry("tx3", 2L));
+    verify(stagingEntityDAO).retrieveStagedHashes(Set.of("tx1"));
+  }
+
+  @Test
+  public void cyclesAndSelfReferencesAreNotStaged() {
+    when(stagingEntityDAO.retrieveUnstagedDependencies())
+        .thenReturn(
+            Map.of(
+                "tx1", Set.of("tx2"),
+                "tx2", Set.of("tx1"),
+                "tx3", Set.of("tx3"),
+                "tx4", Set.of("tx1"),
+                "tx5", Set.of()));
+
+    final long staged = transactionStager.stage();
+
+    assertThat(staged).isEqualTo(1);
+    assertThat(stages).containsOnly(Map.entry("tx5", 1L));
+  }
+
+  @Test
+  public void longChainIsStagedOneStagePerLink() {
+    final int length = 1000;
+    when(stagingEntityDAO.retrieveUnstagedDependencies())
+        .thenReturn(
+            IntStream.range(0, length)
+                .boxed()
+                .collect(
+                    Collectors.toMap(
+                        i -> "tx" + i, i -> i == 0 ? Set.<String>of() : Set.of("tx" + (i - 1)))));
+
+    final long staged = transactionStager.stage();
+
+    assertThat(staged).isEqualTo(length);
+    IntStream.range(0, length).forEach(i -> assertThat(stages).containsEntry("tx" + i, i + 1L));
+    verify(stagingEntityDAO, times(length)).updateStageForHashes(anyCollection(), anyLong());
+  }
+
+  @Test
+  public void nothingToStage() {
+    when(stagingEntityDAO.retrieveUnstagedDependencies()).thenReturn(Map.of());
+
+    assertThat(transactionStager.stage()).isZero();
+    assertThat(stages).isEmpty();
+  }
+}
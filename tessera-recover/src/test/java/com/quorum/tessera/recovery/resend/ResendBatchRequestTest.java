@@ -3,6 +3,7 @@ package com.quorum.tessera.recovery.resend;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.List;
 import org.junit.Test;
 
 public class ResendBatchRequestTest {
@@ -14,13 +15,29 @@ public class ResendBatchRequestTest {
 
     assertThat(request).isNotNull();
     assertThat(request.getPublicKey()).isEqualTo("publicKey");
+    assertThat(request.getPublicKeys()).containsExactly("publicKey");
     assertThat(request.getBatchSize()).isEqualTo(100);
   }
 
+  @Test
+  public void buildWithSeveralKeys() {
+    ResendBatchRequest request =
+        ResendBatchRequest.Builder.create()
+            .withPublicKey("first")
+            .withPublicKeys(List.of("second", "first", "third"))
+            .build();
+
+    assertThat(request.getPublicKey()).isEqualTo("first");
+    assertThat(request.getPublicKeys()).containsExactly("first", "second", "third");
+  }
+
   @Test
   public void validate() {
 
     assertThatExceptionOfType(NullPointerException.class)
         .isThrownBy(() -> ResendBatchRequest.Builder.create().build());
+
+    assertThatExceptionOfType(NullPointerException.class)
+        .isThrownBy(() -> ResendBatchRequest.Builder.create().withPublicKeys(List.of()).build());
   }
 }
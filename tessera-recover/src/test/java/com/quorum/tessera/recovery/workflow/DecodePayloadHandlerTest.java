@@ -45,6 +45,7 @@ public class DecodePayloadHandlerTest {
 
     assertThat(result).isTrue();
 
+    verify(context).getEncodedPayload();
     verify(context).getEncryptedTransaction();
     verify(context).setEncodedPayload(encodedPayload);
     verify(payloadEncoder).decode(payloadData);
@@ -52,4 +53,17 @@ public class DecodePayloadHandlerTest {
 
     verifyNoMoreInteractions(context, encryptedTransaction, encodedPayload);
   }
+
+  @Test
+  public void alreadyDecodedPayloadIsNotDecodedAgain() {
+
+    final BatchWorkflowContext context = new BatchWorkflowContext();
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    context.setEncodedPayload(encodedPayload);
+
+    boolean result = handler.execute(context);
+
+    assertThat(result).isTrue();
+    assertThat(context.getEncodedPayload()).isSameAs(encodedPayload);
+  }
 }
@@ -209,4 +209,30 @@ public class EncodedPayloadPublisherTest {
     verify(resendBatchPublisher, times(3)).publishBatch(batchTwo, "http://junit.com");
     verify(resendBatchPublisher).publishBatch(leftovers, "http://junit.com");
   }
+
+  @Test
+  public void payloadsForDifferentNodesArePublishedSeparately() {
+    EncodedPayload first = mock(EncodedPayload.class);
+    EncodedPayload second = mock(EncodedPayload.class);
+
+    BatchWorkflowContext firstContext = new BatchWorkflowContext();
+    firstContext.setBatchSize(10);
+    firstContext.setExpectedTotal(2L);
+    firstContext.setPayloadsToPublish(Set.of(first));
+    firstContext.setRecipient(Recipient.of(mock(PublicKey.class), "http://first.com"));
+
+    BatchWorkflowContext secondContext = new BatchWorkflowContext();
+    secondContext.setBatchSize(10);
+    secondContext.setExpectedTotal(2L);
+    secondContext.setPayloadsToPublish(Set.of(second));
+    secondContext.setRecipient(Recipient.of(mock(PublicKey.class), "http://second.com"));
+
+    encodedPayloadPublisher.execute(firstContext);
+    encodedPayloadPublisher.execute(secondContext);
+
+    assertThat(encodedPayloadPublisher.getPublishedCount()).isEqualTo(2);
+
+    verify(resendBatchPublisher).publishBatch(List.of(first), "http://first.com");
+    verify(resendBatchPublisher).publishBatch(List.of(second), "http://second.com");
+  }
 }
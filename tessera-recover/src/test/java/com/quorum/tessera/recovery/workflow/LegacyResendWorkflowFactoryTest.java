@@ -6,6 +6,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.EncodedPayload;
@@ -30,6 +32,8 @@ public class LegacyResendWorkflowFactoryTest {
 
   private PayloadPublisher payloadPublisher;
 
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
   private LegacyWorkflowFactory wfFactory;
 
   @Before
@@ -38,14 +42,17 @@ public class LegacyResendWorkflowFactoryTest {
     this.discovery = mock(Discovery.class);
     this.payloadEncoder = mock(PayloadEncoder.class);
     this.payloadPublisher = mock(PayloadPublisher.class);
+    this.encryptedTransactionDAO = mock(EncryptedTransactionDAO.class);
 
     this.wfFactory =
-        new LegacyWorkflowFactory(enclave, payloadEncoder, discovery, payloadPublisher);
+        new LegacyWorkflowFactory(
+            enclave, payloadEncoder, discovery, payloadPublisher, encryptedTransactionDAO);
   }
 
   @After
   public void tearDown() {
-    verifyNoMoreInteractions(enclave, discovery, payloadEncoder, payloadPublisher);
+    verifyNoMoreInteractions(
+        enclave, discovery, payloadEncoder, payloadPublisher, encryptedTransactionDAO);
   }
 
   @Test
@@ -70,7 +77,9 @@ public class LegacyResendWorkflowFactoryTest {
     when(nodeInfo.getRecipients()).thenReturn(Set.of(Recipient.of(targetResendKey, "url")));
     when(discovery.getCurrent()).thenReturn(nodeInfo);
 
+    final MessageHash hash = new MessageHash("hash".getBytes());
     final EncryptedTransaction encryptedTx = new EncryptedTransaction();
+    encryptedTx.setHash(hash);
     encryptedTx.setEncodedPayload(encodedPayloadAsBytes);
 
     when(enclave.getPublicKeys()).thenReturn(Set.of(localRecipient));
@@ -92,6 +101,8 @@ public class LegacyResendWorkflowFactoryTest {
     verify(enclave).status();
     verify(enclave, times(2)).getPublicKeys();
     verify(enclave).unencryptTransaction(any(EncodedPayload.class), eq(localRecipient));
+    verify(encryptedTransactionDAO).findRecipientKey(hash);
+    verify(encryptedTransactionDAO).saveRecipientKey(hash, localRecipient.getKeyBytes());
   }
 
   @Test
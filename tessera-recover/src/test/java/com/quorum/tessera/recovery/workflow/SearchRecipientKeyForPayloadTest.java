@@ -5,8 +5,10 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.MessageHash;
 import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.EnclaveClient;
 import com.quorum.tessera.enclave.EnclaveNotAvailableException;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.EncryptorException;
@@ -14,7 +16,9 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.transaction.exception.RecipientKeyNotFoundException;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,16 +29,20 @@ public class SearchRecipientKeyForPayloadTest {
 
   private Enclave enclave;
 
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
   @Before
   public void onSetUp() {
     enclave = mock(Enclave.class);
+    encryptedTransactionDAO = mock(EncryptedTransactionDAO.class);
 
-    searchRecipientKeyForPayload = new SearchRecipientKeyForPayload(enclave);
+    searchRecipientKeyForPayload =
+        new SearchRecipientKeyForPayload(enclave, encryptedTransactionDAO);
   }
 
   @After
   public void onTearDown() {
-    verifyNoMoreInteractions(enclave);
+    verifyNoMoreInteractions(enclave, encryptedTransactionDAO);
   }
 
   @Test
@@ -140,9 +148,108 @@ public class SearchRecipientKeyForPayloadTest {
 
           verify(enclave).unencryptTransaction(encodedPayload, publicKey);
           verify(enclave).getPublicKeys();
+          verify(encryptedTransactionDAO).findRecipientKey(encryptedTransaction.getHash());
 
-          verifyNoMoreInteractions(enclave);
-          reset(enclave);
+          verifyNoMoreInteractions(enclave, encryptedTransactionDAO);
+          reset(enclave, encryptedTransactionDAO);
         });
   }
+
+  @Test
+  public void singlePayloadUsesRecordedKey() {
+    final MessageHash hash = new MessageHash("sampleHash".getBytes());
+    final EncryptedTransaction encryptedTransaction = new EncryptedTransaction();
+    encryptedTransaction.setHash(hash);
+
+    final BatchWorkflowContext workflowEvent = new BatchWorkflowContext();
+    workflowEvent.setEncryptedTransaction(encryptedTransaction);
+
+    final EncodedPayload encodedPayload =
+        EncodedPayload.Builder.create().withRecipientBox("sample-box".getBytes()).build();
+    workflowEvent.setPayloadsToPublish(Set.of(encodedPayload));
+
+    final PublicKey otherKey = PublicKey.from("other-public-key".getBytes());
+    final PublicKey recipient = PublicKey.from("sample-public-key".getBytes());
+    when(enclave.getPublicKeys()).thenReturn(Set.of(otherKey, recipient));
+    when(encryptedTransactionDAO.findRecipientKey(hash))
+        .thenReturn(Optional.of(recipient.getKeyBytes()));
+
+    searchRecipientKeyForPayload.execute(workflowEvent);
+
+    assertThat(workflowEvent.getPayloadsToPublish())
+        .containsExactly(
+            EncodedPayload.Builder.from(encodedPayload).withRecipientKey(recipient).build());
+
+    verify(enclave).getPublicKeys();
+    verify(encryptedTransactionDAO).findRecipientKey(hash);
+  }
+
+  @Test
+  public void singlePayloadRecordsKeyFoundBySearching() {
+    final MessageHash hash = new MessageHash("sampleHash".getBytes());
+    final EncryptedTransaction encryptedTransaction = new EncryptedTransaction();
+    encryptedTransaction.setHash(hash);
+
+    final BatchWorkflowContext workflowEvent = new BatchWorkflowContext();
+    workflowEvent.setEncryptedTransaction(encryptedTransaction);
+
+    final EncodedPayload encodedPayload =
+        EncodedPayload.Builder.create().withRecipientBox("sample-box".getBytes()).build();
+    workflowEvent.setPayloadsToPublish(Set.of(encodedPayload));
+
+    final PublicKey recipient = PublicKey.from("sample-public-key".getBytes());
+    when(enclave.getPublicKeys()).thenReturn(Set.of(recipient));
+    when(enclave.unencryptTransaction(encodedPayload, recipient)).thenReturn(new byte[0]);
+    when(encryptedTransactionDAO.findRecipientKey(hash)).thenReturn(Optional.empty());
+
+    searchRecipientKeyForPayload.execute(workflowEvent);
+
+    assertThat(workflowEvent.getPayloadsToPublish())
+        .containsExactly(
+            EncodedPayload.Builder.from(encodedPayload).withRecipientKey(recipient).build());
+
+    verify(enclave).getPublicKeys();
+    verify(enclave).unencryptTransaction(encodedPayload, recipient);
+    verify(encryptedTransactionDAO).findRecipientKey(hash);
+    verify(encryptedTransactionDAO).saveRecipientKey(hash, recipient.getKeyBytes());
+  }
+
+  @Test
+  public void remoteEnclaveIsSentAllKeysInOneRequest() {
+    final EnclaveClient enclaveClient = mock(EnclaveClient.class);
+    final SearchRecipientKeyForPayload search =
+        new SearchRecipientKeyForPayload(enclaveClient, encryptedTransactionDAO);
+
+    final EncodedPayload encodedPayload =
+        EncodedPayload.Builder.create().withRecipientBox("sample-box".getBytes()).build();
+    final EncodedPayload otherPayload =
+        EncodedPayload.Builder.create().withRecipientBox("other-box".getBytes()).build();
+
+    final BatchWorkflowContext workflowEvent = new BatchWorkflowContext();
+    workflowEvent.setPayloadsToPublish(Set.of(encodedPayload, otherPayload));
+
+    final PublicKey otherKey = PublicKey.from("other-public-key".getBytes());
+    final PublicKey recipient = PublicKey.from("sample-public-key".getBytes());
+    when(enclaveClient.getPublicKeys()).thenReturn(Set.of(otherKey, recipient));
+    when(enclaveClient.unencryptTransactions(any(EncodedPayload.class), anyList()))
+        .thenAnswer(
+            invocation -> {
+              final List<PublicKey> keys = invocation.getArgument(1);
+              return keys.stream()
+                  .map(k -> Optional.of(new byte[0]).filter(data -> k.equals(recipient)))
+                  .collect(Collectors.toList());
+            });
+
+    search.execute(workflowEvent);
+
+    assertThat(workflowEvent.getPayloadsToPublish())
+        .containsExactlyInAnyOrder(
+            EncodedPayload.Builder.from(encodedPayload).withRecipientKey(recipient).build(),
+            EncodedPayload.Builder.from(otherPayload).withRecipientKey(recipient).build());
+
+    verify(enclaveClient, times(2)).getPublicKeys();
+    verify(enclaveClient).unencryptTransactions(eq(encodedPayload), anyList());
+    verify(enclaveClient).unencryptTransactions(eq(otherPayload), anyList());
+    verifyNoMoreInteractions(enclaveClient);
+  }
 }
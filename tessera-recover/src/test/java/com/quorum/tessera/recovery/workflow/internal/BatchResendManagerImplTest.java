@@ -3,8 +3,6 @@ package com.quorum.tessera.recovery.workflow.internal;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.AdditionalMatchers.gt;
-import static org.mockito.AdditionalMatchers.lt;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.base64.Base64Codec;
@@ -22,6 +20,7 @@ import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.BatchWorkflow;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowContext;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
@@ -30,6 +29,7 @@ import java.util.stream.IntStream;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class BatchResendManagerImplTest {
 
@@ -74,15 +74,13 @@ public class BatchResendManagerImplTest {
         ResendBatchRequest.Builder.create().withBatchSize(3).withPublicKey(KEY_STRING).build();
 
     List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
+        IntStream.range(0, 101)
             .mapToObj(i -> mock(EncryptedTransaction.class))
             .collect(Collectors.toUnmodifiableList());
 
     when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(singletonList(mock(EncryptedTransaction.class)));
+    when(encryptedTransactionDAO.streamTransactions(5)).thenReturn(transactions.stream());
 
     BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
     when(batchWorkflow.getPublishedMessageCount()).thenReturn(999L);
@@ -96,13 +94,72 @@ public class BatchResendManagerImplTest {
 
     verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
 
     verify(encryptedTransactionDAO).transactionCount();
 
     verify(batchWorkflowFactory).create(101L);
   }
 
+  @Test
+  public void resendBatchForSeveralKeysScansAndDecodesOnce() {
+
+    final String otherKeyString = "8SjRHlUBe4hAmTk3KDeJ96RhN+s10xRrHDrxEi1O5W0=";
+    final PublicKey otherKey = PublicKey.from(Base64Codec.create().decode(otherKeyString));
+
+    final ResendBatchRequest request =
+        ResendBatchRequest.Builder.create()
+            .withBatchSize(3)
+            .withPublicKeys(List.of(KEY_STRING, otherKeyString))
+            .build();
+
+    final List<EncryptedTransaction> transactions =
+        IntStream.range(0, 3)
+            .mapToObj(i -> mock(EncryptedTransaction.class))
+            .collect(Collectors.toUnmodifiableList());
+
+    when(encryptedTransactionDAO.transactionCount()).thenReturn(3L);
+    when(encryptedTransactionDAO.streamTransactions(5)).thenReturn(transactions.stream());
+
+    final List<BatchWorkflowContext> contexts = new ArrayList<>();
+    final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
+    when(batchWorkflow.execute(any(BatchWorkflowContext.class)))
+        .then(
+            invocation -> {
+              final BatchWorkflowContext context = invocation.getArgument(0);
+              assertThat(context.getBatchSize()).isEqualTo(3);
+              contexts.add(context);
+              if (context.getEncodedPayload() == null) {
+                context.setEncodedPayload(mock(EncodedPayload.class));
+              }
+              return true;
+            });
+    when(batchWorkflow.getPublishedMessageCount()).thenReturn(6L);
+    when(batchWorkflowFactory.create(6L)).thenReturn(batchWorkflow);
+
+    final ResendBatchResponse result = manager.resendBatch(request);
+
+    assertThat(result.getTotal()).isEqualTo(6L);
+    assertThat(contexts).hasSize(6);
+    for (int i = 0; i < transactions.size(); i++) {
+      final BatchWorkflowContext first = contexts.get(2 * i);
+      final BatchWorkflowContext second = contexts.get(2 * i + 1);
+
+      assertThat(first.getEncryptedTransaction()).isSameAs(transactions.get(i));
+      assertThat(first.getRecipientKey()).isEqualTo(publicKey);
+      assertThat(second.getEncryptedTransaction()).isSameAs(transactions.get(i));
+      assertThat(second.getRecipientKey()).isEqualTo(otherKey);
+      // the payload decoded for the first key is reused for the second
+      assertThat(second.getEncodedPayload()).isSameAs(first.getEncodedPayload());
+    }
+
+    verify(batchWorkflow, times(6)).execute(any(BatchWorkflowContext.class));
+    verify(batchWorkflow).getPublishedMessageCount();
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO).transactionCount();
+    verify(batchWorkflowFactory).create(6L);
+  }
+
   @Test
   public void useMaxResultsWhenBatchSizeNotProvided() {
 
@@ -110,7 +167,7 @@ public class BatchResendManagerImplTest {
         ResendBatchRequest.Builder.create().withPublicKey(KEY_STRING).build();
 
     List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
+        IntStream.range(0, 101)
             .mapToObj(i -> mock(EncryptedTransaction.class))
             .collect(Collectors.toUnmodifiableList());
 
@@ -123,9 +180,7 @@ public class BatchResendManagerImplTest {
 
     when(batchWorkflowFactory.create(101L)).thenReturn(batchWorkflow);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(List.of(mock(EncryptedTransaction.class)));
+    when(encryptedTransactionDAO.streamTransactions(5)).thenReturn(transactions.stream());
 
     final ResendBatchResponse result = manager.resendBatch(request);
 
@@ -133,7 +188,7 @@ public class BatchResendManagerImplTest {
 
     verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
     verify(encryptedTransactionDAO).transactionCount();
 
     verify(batchWorkflowFactory).create(101L);
@@ -149,15 +204,13 @@ public class BatchResendManagerImplTest {
             .build();
 
     List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
+        IntStream.range(0, 101)
             .mapToObj(i -> mock(EncryptedTransaction.class))
             .collect(Collectors.toUnmodifiableList());
 
     when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(singletonList(mock(EncryptedTransaction.class)));
+    when(encryptedTransactionDAO.streamTransactions(5)).thenReturn(transactions.stream());
 
     final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
     when(batchWorkflow.getPublishedMessageCount()).thenReturn(999L);
@@ -168,7 +221,7 @@ public class BatchResendManagerImplTest {
 
     verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
 
     verify(encryptedTransactionDAO).transactionCount();
 
@@ -183,26 +236,6 @@ public class BatchResendManagerImplTest {
         .isNotNull();
   }
 
-  @Test
-  public void calculateBatchCount() {
-    long numberOfRecords = 10;
-    long maxResults = 3;
-
-    int batchCount = BatchResendManagerImpl.calculateBatchCount(maxResults, numberOfRecords);
-
-    assertThat(batchCount).isEqualTo(4);
-  }
-
-  @Test
-  public void calculateBatchCountTotalLowerThanBatchSizeIsSingleBatch() {
-    long numberOfRecords = 100;
-    long maxResults = 10;
-
-    int batchCount = BatchResendManagerImpl.calculateBatchCount(maxResults, numberOfRecords);
-
-    assertThat(batchCount).isEqualTo(10);
-  }
-
   @Test
   public void createBatchResendManager() {
     BatchResendManager expected = mock(BatchResendManager.class);
@@ -256,8 +289,49 @@ public class BatchResendManagerImplTest {
 
       manager.storeResendBatch(request);
 
-      verify(stagingEntityDAO).save(any(StagingTransaction.class));
+      verify(stagingEntityDAO).saveAll(anyList());
+
+      payloadDigestMockedStatic.verify(PayloadDigest::create);
+      payloadDigestMockedStatic.verifyNoMoreInteractions();
+    }
+  }
+
+  @Test
+  public void storeResendBatchSavesAllPayloadsTogether() {
+
+    try (var payloadDigestMockedStatic = mockStatic(PayloadDigest.class)) {
+
+      payloadDigestMockedStatic
+          .when(PayloadDigest::create)
+          .thenReturn((PayloadDigest) cipherText -> cipherText);
 
+      final PublicKey receiverKey = PublicKey.from("receiverKey".getBytes());
+      final List<byte[]> raw =
+          IntStream.range(0, 3)
+              .mapToObj(
+                  i ->
+                      EncodedPayload.Builder.create()
+                          .withSenderKey(publicKey)
+                          .withCipherText(("cipherText" + i).getBytes())
+                          .withCipherTextNonce(new Nonce("nonce".getBytes()))
+                          .withRecipientBoxes(singletonList("box".getBytes()))
+                          .withRecipientNonce(new Nonce("recipientNonce".getBytes()))
+                          .withRecipientKeys(singletonList(receiverKey))
+                          .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+                          .build())
+              .map(new PayloadEncoderImpl()::encode)
+              .collect(Collectors.toList());
+
+      final ArgumentCaptor<List<StagingTransaction>> captor = ArgumentCaptor.forClass(List.class);
+
+      manager.storeResendBatch(PushBatchRequest.from(raw));
+
+      verify(stagingEntityDAO).saveAll(captor.capture());
+      assertThat(captor.getValue())
+          .extracting(StagingTransaction::getPayload)
+          .containsExactlyElementsOf(raw);
+
+      // looked up once for the batch, not once per payload
       payloadDigestMockedStatic.verify(PayloadDigest::create);
       payloadDigestMockedStatic.verifyNoMoreInteractions();
     }
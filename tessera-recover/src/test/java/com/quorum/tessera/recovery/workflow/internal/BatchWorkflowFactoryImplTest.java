@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.EncodedPayload;
@@ -28,17 +29,20 @@ public class BatchWorkflowFactoryImplTest {
   private PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
   private Discovery discovery = mock(Discovery.class);
   private ResendBatchPublisher resendBatchPublisher = mock(ResendBatchPublisher.class);
+  private EncryptedTransactionDAO encryptedTransactionDAO = mock(EncryptedTransactionDAO.class);
 
   @After
   public void onTearDown() {
-    verifyNoMoreInteractions(enclave, payloadEncoder, discovery, resendBatchPublisher);
+    verifyNoMoreInteractions(
+        enclave, payloadEncoder, discovery, resendBatchPublisher, encryptedTransactionDAO);
   }
 
   @Test
   public void loadMockBatchWorkflowFactory() {
 
     BatchWorkflowFactory batchWorkflowFactory =
-        new BatchWorkflowFactoryImpl(enclave, payloadEncoder, discovery, resendBatchPublisher);
+        new BatchWorkflowFactoryImpl(
+            enclave, payloadEncoder, discovery, resendBatchPublisher, encryptedTransactionDAO);
 
     assertThat(batchWorkflowFactory).isExactlyInstanceOf(BatchWorkflowFactoryImpl.class);
   }
@@ -49,7 +53,8 @@ public class BatchWorkflowFactoryImplTest {
   public void createBatchWorkflowFactoryImplAndExecuteWorkflow() {
 
     BatchWorkflowFactoryImpl batchWorkflowFactory =
-        new BatchWorkflowFactoryImpl(enclave, payloadEncoder, discovery, resendBatchPublisher);
+        new BatchWorkflowFactoryImpl(
+            enclave, payloadEncoder, discovery, resendBatchPublisher, encryptedTransactionDAO);
 
     BatchWorkflow batchWorkflow = batchWorkflowFactory.create(1L);
 
@@ -96,7 +101,8 @@ public class BatchWorkflowFactoryImplTest {
   public void workflowExecutedReturnFalse() {
 
     BatchWorkflowFactoryImpl batchWorkflowFactory =
-        new BatchWorkflowFactoryImpl(enclave, payloadEncoder, discovery, resendBatchPublisher);
+        new BatchWorkflowFactoryImpl(
+            enclave, payloadEncoder, discovery, resendBatchPublisher, encryptedTransactionDAO);
 
     BatchWorkflow batchWorkflow = batchWorkflowFactory.create(999L);
 
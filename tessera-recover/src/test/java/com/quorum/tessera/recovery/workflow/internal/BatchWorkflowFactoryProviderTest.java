@@ -3,6 +3,7 @@ package com.quorum.tessera.recovery.workflow.internal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.PayloadEncoder;
@@ -23,13 +24,17 @@ public class BatchWorkflowFactoryProviderTest {
     try (var staticEnclave = mockStatic(Enclave.class);
         var staticDiscovery = mockStatic(Discovery.class);
         var staticResendBatchPublisher = mockStatic(ResendBatchPublisher.class);
-        var staticPayloadEncoder = mockStatic(PayloadEncoder.class)) {
+        var staticPayloadEncoder = mockStatic(PayloadEncoder.class);
+        var staticEncryptedTransactionDAO = mockStatic(EncryptedTransactionDAO.class)) {
       staticEnclave.when(Enclave::create).thenReturn(mock(Enclave.class));
       staticDiscovery.when(Discovery::create).thenReturn(mock(Discovery.class));
       staticResendBatchPublisher
           .when(ResendBatchPublisher::create)
           .thenReturn(mock(ResendBatchPublisher.class));
       staticPayloadEncoder.when(PayloadEncoder::create).thenReturn(mock(PayloadEncoder.class));
+      staticEncryptedTransactionDAO
+          .when(EncryptedTransactionDAO::create)
+          .thenReturn(mock(EncryptedTransactionDAO.class));
 
       BatchWorkflowFactory batchWorkflowFactory = BatchWorkflowFactoryProvider.provider();
       assertThat(batchWorkflowFactory)
@@ -40,11 +45,13 @@ public class BatchWorkflowFactoryProviderTest {
       staticDiscovery.verify(Discovery::create);
       staticResendBatchPublisher.verify(ResendBatchPublisher::create);
       staticPayloadEncoder.verify(PayloadEncoder::create);
+      staticEncryptedTransactionDAO.verify(EncryptedTransactionDAO::create);
 
       staticEnclave.verifyNoMoreInteractions();
       staticDiscovery.verifyNoMoreInteractions();
       staticResendBatchPublisher.verifyNoMoreInteractions();
       staticPayloadEncoder.verifyNoMoreInteractions();
+      staticEncryptedTransactionDAO.verifyNoMoreInteractions();
     }
   }
 }
@@ -20,9 +20,9 @@ import com.quorum.tessera.recovery.workflow.LegacyResendManager;
 import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedException;
 import com.quorum.tessera.transaction.exception.TransactionNotFoundException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -153,6 +153,7 @@ public class LegacyResendManagerImplTest {
             .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
             .build();
     final EncryptedTransaction databaseTx = new EncryptedTransaction();
+    databaseTx.setHash(txHash);
     databaseTx.setEncodedPayload(new byte[0]);
 
     final ResendRequest request =
@@ -178,6 +179,8 @@ public class LegacyResendManagerImplTest {
     verify(encoder).decode(any(byte[].class));
     verify(enclave).getPublicKeys();
     verify(enclave).unencryptTransaction(any(), eq(localRecipientKey));
+    verify(dao).findRecipientKey(txHash);
+    verify(dao).saveRecipientKey(txHash, localRecipientKey.getKeyBytes());
   }
 
   @Test
@@ -194,9 +197,8 @@ public class LegacyResendManagerImplTest {
     // We are not testing the workflow itself, only that the workflow gets the right amount of
     // transactions
 
-    when(dao.transactionCount()).thenReturn(2L);
-    when(dao.retrieveTransactions(0, 1)).thenReturn(List.of(new EncryptedTransaction()));
-    when(dao.retrieveTransactions(1, 1)).thenReturn(List.of(new EncryptedTransaction()));
+    when(dao.streamTransactions(1))
+        .thenReturn(Stream.of(new EncryptedTransaction(), new EncryptedTransaction()));
 
     final ResendResponse response = resendManager.resend(request);
     assertThat(response).isNotNull();
@@ -204,8 +206,6 @@ public class LegacyResendManagerImplTest {
 
     verify(enclave, times(2)).status();
     verify(encoder, times(2)).decode(any());
-    verify(dao).transactionCount();
-    verify(dao).retrieveTransactions(0, 1);
-    verify(dao).retrieveTransactions(1, 1);
+    verify(dao).streamTransactions(1);
   }
 }
@@ -0,0 +1,101 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures encrypting a transaction for its recipients and decrypting a transaction received from
+ * another node, for each of the encryptors.
+ *
+ * <p>The enclave is set up as a node would be by default, with a shared key cache, so after the
+ * first invocation the key agreement with each party is not part of the score. The received
+ * transaction is addressed to the last of the node's keys, among {@code recipientCount - 1} keys of
+ * other nodes. The CUSTOM (Kalium) encryptor needs libsodium to be installed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnclaveBenchmark {
+
+  @Param({"NACL", "CUSTOM", "EC"})
+  public String encryptorType;
+
+  @Param({"64", "1024", "65536"})
+  public int payloadSize;
+
+  @Param({"1", "10", "100"})
+  public int recipientCount;
+
+  @Param({"1", "10"})
+  public int localKeyCount;
+
+  private Enclave enclave;
+
+  private PublicKey senderKey;
+
+  private List<PublicKey> recipients;
+
+  private PrivacyMetadata privacyMetadata;
+
+  private byte[] message;
+
+  private EncodedPayload received;
+
+  private PublicKey receivingKey;
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = Encryptors.create(encryptorType);
+
+    final List<KeyPair> localKeys =
+        IntStream.range(0, localKeyCount)
+            .mapToObj(i -> encryptor.generateNewKeys())
+            .collect(Collectors.toList());
+    senderKey = localKeys.get(0).getPublicKey();
+    receivingKey = localKeys.get(localKeyCount - 1).getPublicKey();
+
+    recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> encryptor.generateNewKeys().getPublicKey())
+            .collect(Collectors.toList());
+
+    enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(localKeys, List.of()),
+            new SharedKeyCache(1024, TimeUnit.HOURS.toMillis(1)),
+            RecipientBoxSealer.sequential());
+
+    privacyMetadata =
+        PrivacyMetadata.Builder.create().withPrivacyMode(PrivacyMode.STANDARD_PRIVATE).build();
+
+    message = new byte[payloadSize];
+    new Random(payloadSize).nextBytes(message);
+
+    final KeyPair remoteSender = encryptor.generateNewKeys();
+    final Enclave remoteEnclave =
+        new EnclaveImpl(encryptor, new KeyManagerImpl(List.of(remoteSender), List.of()));
+    final List<PublicKey> remoteRecipients = new ArrayList<>(recipients.subList(1, recipientCount));
+    remoteRecipients.add(receivingKey);
+    received =
+        remoteEnclave.encryptPayload(
+            message, remoteSender.getPublicKey(), remoteRecipients, privacyMetadata);
+  }
+
+  @Benchmark
+  public EncodedPayload encryptPayload() {
+    return enclave.encryptPayload(message, senderKey, recipients, privacyMetadata);
+  }
+
+  @Benchmark
+  public byte[] unencryptTransaction() {
+    return enclave.unencryptTransaction(received, receivingKey);
+  }
+}
@@ -0,0 +1,25 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.encryption.Encryptor;
+import com.quorum.tessera.encryption.EncryptorFactory;
+import com.quorum.tessera.encryption.ec.EllipticalCurveEncryptorFactory;
+import com.quorum.tessera.encryption.nacl.jnacl.JnaclFactory;
+import com.quorum.tessera.encryption.nacl.kalium.KaliumFactory;
+import java.util.stream.Stream;
+
+/**
+ * Creates the encryptors to benchmark. The benchmarks run on the class path, where the factories
+ * are not registered as services, so they are looked up here by their type instead.
+ */
+final class Encryptors {
+
+  private Encryptors() {}
+
+  static Encryptor create(String type) {
+    return Stream.of(new JnaclFactory(), new KaliumFactory(), new EllipticalCurveEncryptorFactory())
+        .filter(factory -> factory.getType().equals(type))
+        .findFirst()
+        .map(EncryptorFactory::create)
+        .orElseThrow(() -> new IllegalArgumentException("Unknown encryptor type " + type));
+  }
+}
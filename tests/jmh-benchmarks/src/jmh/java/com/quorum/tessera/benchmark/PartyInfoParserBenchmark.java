@@ -0,0 +1,74 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
+import com.quorum.tessera.partyinfo.model.Party;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures encoding and decoding the party info that nodes exchange with each other, for networks
+ * of {@code nodeCount} nodes holding {@code keyCount} keys between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PartyInfoParserBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int keyCount;
+
+  @Param({"10", "100"})
+  public int nodeCount;
+
+  private final PartyInfoParser partyInfoParser = PartyInfoParser.create();
+
+  private PartyInfo partyInfo;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    final Set<Recipient> recipients =
+        IntStream.range(0, keyCount)
+            .mapToObj(
+                i ->
+                    Recipient.of(
+                        PublicKey.from(ByteBuffer.allocate(32).putInt(i).array()),
+                        nodeUrl(i % nodeCount)))
+            .collect(Collectors.toSet());
+    final Set<Party> parties =
+        IntStream.range(0, nodeCount)
+            .mapToObj(i -> new Party(nodeUrl(i)))
+            .collect(Collectors.toSet());
+
+    partyInfo = new PartyInfo(nodeUrl(0), recipients, parties);
+    encoded = partyInfoParser.to(partyInfo);
+  }
+
+  @Benchmark
+  public byte[] to() {
+    return partyInfoParser.to(partyInfo);
+  }
+
+  @Benchmark
+  public PartyInfo from() {
+    return partyInfoParser.from(encoded);
+  }
+
+  @Benchmark
+  public PartyInfo fromStream() {
+    return partyInfoParser.from(new ByteArrayInputStream(encoded));
+  }
+
+  private static String nodeUrl(int node) {
+    return "http://node" + node + ".example.com:9001/";
+  }
+}
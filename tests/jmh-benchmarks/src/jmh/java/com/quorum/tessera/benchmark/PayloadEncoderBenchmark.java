@@ -0,0 +1,89 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.enclave.PayloadEncoderImpl;
+import com.quorum.tessera.enclave.PrivacyMode;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures encoding and decoding a payload in the format that is stored and shared between nodes,
+ * and stripping a payload down to the parts for a single recipient before it is pushed.
+ *
+ * <p>The payload holds random data, as none of these operations look inside the cipher text or the
+ * recipient boxes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadEncoderBenchmark {
+
+  @Param({"64", "1024", "16384", "131072"})
+  public int payloadSize;
+
+  @Param({"1", "10", "100"})
+  public int recipientCount;
+
+  private final PayloadEncoder payloadEncoder = new PayloadEncoderImpl();
+
+  private EncodedPayload payload;
+
+  private byte[] encoded;
+
+  private PublicKey lastRecipient;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(payloadSize * 31L + recipientCount);
+
+    final List<PublicKey> recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> PublicKey.from(randomBytes(random, 32)))
+            .collect(Collectors.toList());
+    final List<byte[]> boxes =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> randomBytes(random, 48))
+            .collect(Collectors.toList());
+
+    payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from(randomBytes(random, 32)))
+            .withCipherText(randomBytes(random, payloadSize + 16))
+            .withCipherTextNonce(randomBytes(random, 24))
+            .withRecipientNonce(randomBytes(random, 24))
+            .withRecipientBoxes(boxes)
+            .withRecipientKeys(recipients)
+            .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+            .build();
+
+    encoded = payloadEncoder.encode(payload);
+    lastRecipient = recipients.get(recipientCount - 1);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return payloadEncoder.encode(payload);
+  }
+
+  @Benchmark
+  public EncodedPayload decode() {
+    return payloadEncoder.decode(encoded);
+  }
+
+  @Benchmark
+  public EncodedPayload forRecipient() {
+    return payloadEncoder.forRecipient(payload, lastRecipient);
+  }
+
+  private static byte[] randomBytes(Random random, int length) {
+    final byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,76 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures sending a transaction to a growing number of recipients, sealing the recipient boxes
+ * either sequentially ({@code parallelism} of 1) or with a {@link RecipientBoxSealer} of the given
+ * parallelism. Comparing the scores for each encryptor shows the recipient count at which parallel
+ * sealing starts to pay off, which is the value to use for {@code parallelSealingThreshold}.
+ *
+ * <p>Run with {@code ./gradlew :tests:jmh-benchmarks:jmh -PjmhIncludes=RecipientBoxSealing}. The
+ * CUSTOM (Kalium) encryptor needs libsodium to be installed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipientBoxSealingBenchmark {
+
+  @Param({"NACL", "CUSTOM", "EC"})
+  public String encryptorType;
+
+  @Param({"1", "2", "5", "10", "20", "50", "100", "200"})
+  public int recipientCount;
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  private Enclave enclave;
+
+  private PublicKey senderKey;
+
+  private List<PublicKey> recipients;
+
+  private PrivacyMetadata privacyMetadata;
+
+  private final byte[] message = new byte[256];
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = Encryptors.create(encryptorType);
+
+    final KeyPair sender = encryptor.generateNewKeys();
+    senderKey = sender.getPublicKey();
+    recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> encryptor.generateNewKeys().getPublicKey())
+            .collect(Collectors.toList());
+
+    final RecipientBoxSealer recipientBoxSealer =
+        parallelism == 1
+            ? RecipientBoxSealer.sequential()
+            : RecipientBoxSealer.parallel(parallelism, 2);
+
+    // no shared key cache, so that every box includes the key agreement as for a first send
+    enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(List.of(sender), List.of()),
+            SharedKeyCache.disabled(),
+            recipientBoxSealer);
+
+    privacyMetadata =
+        PrivacyMetadata.Builder.create().withPrivacyMode(PrivacyMode.STANDARD_PRIVATE).build();
+  }
+
+  @Benchmark
+  public EncodedPayload encryptPayload() {
+    return enclave.encryptPayload(message, senderKey, recipients, privacyMetadata);
+  }
+}
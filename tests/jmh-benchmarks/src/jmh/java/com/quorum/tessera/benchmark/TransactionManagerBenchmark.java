@@ -0,0 +1,179 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.internal.EncryptedRawTransactionDAOImpl;
+import com.quorum.tessera.data.internal.EncryptedTransactionDAOImpl;
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.*;
+import com.quorum.tessera.transaction.*;
+import com.quorum.tessera.transaction.internal.PrivacyHelperImpl;
+import com.quorum.tessera.transaction.internal.TransactionManagerImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures sending, receiving and storing transactions through the transaction manager, backed by
+ * an in-memory H2 database and the NaCl encryptor. Pushing to other nodes is left out.
+ *
+ * <p>Every invocation of {@code send} and {@code storePayload} stores a new transaction, so the
+ * table grows during a run as it does on a busy node. The transactions stored by {@code
+ * storePayload} are encrypted by another node outside of the measured time. {@code receive} looks
+ * up a single stored transaction without being told the recipient, so it includes finding which of
+ * the {@code localKeyCount} keys the transaction is for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionManagerBenchmark {
+
+  @Param({"64", "1024", "65536"})
+  public int payloadSize;
+
+  @Param({"1", "10", "50"})
+  public int recipientCount;
+
+  @Param({"1", "10"})
+  public int localKeyCount;
+
+  private EntityManagerFactory entityManagerFactory;
+
+  private TransactionManager transactionManager;
+
+  private PayloadEncoder payloadEncoder;
+
+  private SendRequest sendRequest;
+
+  private ReceiveRequest receiveRequest;
+
+  private Enclave remoteEnclave;
+
+  private PublicKey remoteSenderKey;
+
+  private List<PublicKey> remoteRecipients;
+
+  private PublicKey receivingKey;
+
+  private byte[] message;
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = Encryptors.create("NACL");
+
+    final List<KeyPair> localKeys =
+        IntStream.range(0, localKeyCount)
+            .mapToObj(i -> encryptor.generateNewKeys())
+            .collect(Collectors.toList());
+    final PublicKey senderKey = localKeys.get(0).getPublicKey();
+    receivingKey = localKeys.get(localKeyCount - 1).getPublicKey();
+
+    final Enclave enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(localKeys, List.of()),
+            new SharedKeyCache(1024, TimeUnit.HOURS.toMillis(1)),
+            RecipientBoxSealer.sequential());
+
+    entityManagerFactory =
+        Persistence.createEntityManagerFactory(
+            "tessera",
+            Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:" + UUID.randomUUID(),
+                "javax.persistence.jdbc.user", "jmh",
+                "javax.persistence.jdbc.password", "",
+                "javax.persistence.schema-generation.database.action", "create"));
+    final EncryptedTransactionDAO encryptedTransactionDAO =
+        new EncryptedTransactionDAOImpl(entityManagerFactory);
+
+    payloadEncoder = new PayloadEncoderImpl();
+
+    transactionManager =
+        new TransactionManagerImpl(
+            payloadEncoder,
+            encryptedTransactionDAO,
+            (payload, recipientKeys) -> {},
+            enclave,
+            new EncryptedRawTransactionDAOImpl(entityManagerFactory),
+            payload -> {},
+            new PrivacyHelperImpl(encryptedTransactionDAO, false, payloadEncoder),
+            new DefaultPayloadDigest());
+
+    message = new byte[payloadSize];
+    new Random(payloadSize).nextBytes(message);
+
+    final List<PublicKey> recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> encryptor.generateNewKeys().getPublicKey())
+            .collect(Collectors.toList());
+
+    sendRequest =
+        SendRequest.Builder.create()
+            .withSender(senderKey)
+            .withRecipients(recipients)
+            .withPayload(message)
+            .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+            .withAffectedContractTransactions(Set.of())
+            .withExecHash(new byte[0])
+            .build();
+
+    final MessageHash sentHash = transactionManager.send(sendRequest).getTransactionHash();
+    receiveRequest = ReceiveRequest.Builder.create().withTransactionHash(sentHash).build();
+
+    final KeyPair remoteSender = encryptor.generateNewKeys();
+    remoteSenderKey = remoteSender.getPublicKey();
+    remoteEnclave =
+        new EnclaveImpl(encryptor, new KeyManagerImpl(List.of(remoteSender), List.of()));
+    remoteRecipients = new ArrayList<>(recipients.subList(1, recipientCount));
+    remoteRecipients.add(receivingKey);
+  }
+
+  @TearDown
+  public void tearDown() {
+    entityManagerFactory.close();
+  }
+
+  @Benchmark
+  public SendResponse send() {
+    return transactionManager.send(sendRequest);
+  }
+
+  @Benchmark
+  public ReceiveResponse receive() {
+    return transactionManager.receive(receiveRequest);
+  }
+
+  @Benchmark
+  public MessageHash storePayload(PushedPayload pushed) {
+    return transactionManager.storePayload(pushed.payload);
+  }
+
+  /** A new transaction from another node for each invocation of {@code storePayload} */
+  @State(Scope.Thread)
+  public static class PushedPayload {
+
+    private EncodedPayload payload;
+
+    @Setup(Level.Invocation)
+    public void encrypt(TransactionManagerBenchmark benchmark) {
+      final EncodedPayload encrypted =
+          benchmark.remoteEnclave.encryptPayload(
+              benchmark.message,
+              benchmark.remoteSenderKey,
+              benchmark.remoteRecipients,
+              PrivacyMetadata.Builder.create()
+                  .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
+                  .build());
+      payload = benchmark.payloadEncoder.forRecipient(encrypted, benchmark.receivingKey);
+    }
+  }
+}